@@ -0,0 +1,60 @@
+package data;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de la construcción de los tipos de datos básicos, con su validación:
+ * GeographicPoint (rangos de latitud y longitud) y VehicleID (formato del identificador).
+ * Las variantes con varios hilos muestran cómo escala la asignación cuando se crean en paralelo.
+ * Ejecutar con -prof gc para obtener la tasa de asignación por operación.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataConstructionBenchmark {
+
+    private final String[] ids = new String[64];
+    private final float[] latitudes = new float[64];
+    private final float[] longitudes = new float[64];
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = "VH" + (10000 + i * 37);
+            latitudes[i] = 41.30f + i * 0.003f;
+            longitudes[i] = 2.10f + i * 0.002f;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public GeographicPoint geographicPoint() throws Exception {
+        int i = cursor++ & 63;
+        return new GeographicPoint(latitudes[i], longitudes[i]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public GeographicPoint geographicPointContended() throws Exception {
+        int i = cursor++ & 63;
+        return new GeographicPoint(latitudes[i], longitudes[i]);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public VehicleID vehicleId() throws Exception {
+        return new VehicleID(ids[cursor++ & 63]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public VehicleID vehicleIdContended() throws Exception {
+        return new VehicleID(ids[cursor++ & 63]);
+    }
+}
@@ -0,0 +1,75 @@
+package data;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de la construcción, el hash y la comparación de identificadores: VehicleID con la validación
+ * de PackedId frente a la validación con String.matches y el hash con Objects.hash que se usaban antes,
+ * y la comparación por claves frente a la de cadenas.
+ * Ejecutar con -prof gc para obtener la tasa de asignación por operación.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PackedIdBenchmark {
+
+    private final String[] ids = new String[64];
+    private final String[] copies = new String[64];
+    private final VehicleID[] vehicles = new VehicleID[64];
+    private final VehicleID[] vehicleCopies = new VehicleID[64];
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = "VEHICLE" + (10000 + i * 37);
+            copies[i] = new String(ids[i].toCharArray());
+            vehicles[i] = new VehicleID(ids[i]);
+            vehicleCopies[i] = new VehicleID(copies[i]);
+        }
+    }
+
+    @Benchmark
+    public VehicleID construct() throws Exception {
+        return new VehicleID(ids[cursor++ & 63]);
+    }
+
+    @Benchmark
+    public boolean validateRegex() {
+        return ids[cursor++ & 63].matches("[A-Za-z0-9]{5,15}");
+    }
+
+    @Benchmark
+    public boolean validatePacked() {
+        return PackedId.isValid(ids[cursor++ & 63], 5, 15, false);
+    }
+
+    @Benchmark
+    public int hashPacked() {
+        return vehicles[cursor++ & 63].hashCode();
+    }
+
+    @Benchmark
+    public int hashObjects() {
+        // Una cadena nueva no tiene el hash en caché, como la de un paquete de telemetría recién leído
+        return Objects.hash(new String(ids[cursor++ & 63].toCharArray()));
+    }
+
+    @Benchmark
+    public boolean equalsPacked() {
+        int i = cursor++ & 63;
+        return vehicles[i].equals(vehicleCopies[i]);
+    }
+
+    @Benchmark
+    public boolean equalsString() {
+        int i = cursor++ & 63;
+        return ids[i].equals(copies[i]);
+    }
+}
@@ -0,0 +1,77 @@
+package data;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de la representación empaquetada de puntos geográficos frente a los objetos GeographicPoint:
+ * hash e igualdad de un punto (sin asignación en ambos casos) y recorrido de una flota de puntos guardada
+ * como array de objetos o como PackedPointArray.
+ * Ejecutar con -prof gc para obtener la tasa de asignación por operación.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PackedPointBenchmark {
+
+    @Param({"100000"})
+    private int size;
+
+    private GeographicPoint[] objects;
+    private PackedPointArray packed;
+    private GeographicPoint a;
+    private GeographicPoint b;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        objects = new GeographicPoint[size];
+        packed = new PackedPointArray(size);
+        for (int i = 0; i < size; i++) {
+            float lat = 41.30f + (i % 1000) * 0.0001f;
+            float lon = 2.10f + (i / 1000) * 0.0001f;
+            objects[i] = new GeographicPoint(lat, lon);
+            packed.add(objects[i]);
+        }
+        a = new GeographicPoint(41.3851f, 2.1734f);
+        b = new GeographicPoint(41.3851f, 2.1734f);
+    }
+
+    @Benchmark
+    public int pointHashCode() {
+        return a.hashCode();
+    }
+
+    @Benchmark
+    public boolean pointEquals() {
+        return a.equals(b);
+    }
+
+    @Benchmark
+    public long packedHashAndEquals() {
+        long pa = a.pack();
+        return pa == b.pack() ? PackedPoint.hash(pa) : 0;
+    }
+
+    @Benchmark
+    public double sumLatitudesObjects() {
+        double sum = 0;
+        for (GeographicPoint point : objects) {
+            sum += point.getLatitude();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double sumLatitudesPacked() {
+        double sum = 0;
+        PackedPointArray.Cursor cursor = packed.cursor();
+        while (cursor.next()) {
+            sum += cursor.latitude();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,43 @@
+package micromobility;
+
+import data.GeographicPoint;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark del cálculo de distancia (haversine) que usa JourneyRealizeHandler al cerrar un trayecto,
+ * con un hilo y con varios hilos calculando a la vez.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DistanceBenchmark {
+
+    private final GeographicPoint[] points = new GeographicPoint[64];
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        for (int i = 0; i < points.length; i++) {
+            points[i] = new GeographicPoint(41.30f + i * 0.003f, 2.10f + (i * 7 % 64) * 0.002f);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public float calculateDistance() {
+        int i = cursor++;
+        return JourneyRealizeHandler.calculateDistance(points[i & 63], points[(i + 17) & 63]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public float calculateDistanceContended() {
+        int i = cursor++;
+        return JourneyRealizeHandler.calculateDistance(points[i & 63], points[(i + 17) & 63]);
+    }
+}
@@ -0,0 +1,123 @@
+package micromobility;
+
+import data.GeographicPoint;
+import data.StationID;
+import data.UserAccount;
+import data.VehicleID;
+import exceptions.PMVNotAvailException;
+import micromobility.payment.Wallet;
+import mocks.MockArduinoMicroController;
+import mocks.MockQRDecoder;
+import mocks.MockUnbondedBTSignal;
+import org.openjdk.jmh.annotations.*;
+import services.ConcurrentFleetServer;
+
+import java.awt.image.BufferedImage;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark del ciclo de vida completo de un desplazamiento sobre JourneyRealizeHandler:
+ * scanQR, broadcastStationID, startDriving, unPairVehicle y selectPaymentMethod con monedero.
+ * Cada hilo es un usuario con su propio controlador; todos comparten un ConcurrentFleetServer con
+ * una flota pequeña, de modo que en la variante con varios hilos compiten por los mismos vehículos.
+ * Ejecutar con -prof gc para obtener la tasa de asignación por operación.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JourneyLifecycleBenchmark {
+
+    private static final int FLEET_SIZE = 8; // Potencia de dos
+
+    @State(Scope.Benchmark)
+    public static class Fleet {
+        final PMVehicle[] vehicles = new PMVehicle[FLEET_SIZE];
+        ConcurrentFleetServer server;
+        GeographicPoint origin;
+        GeographicPoint destination;
+        StationID station;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            server = new ConcurrentFleetServer(FLEET_SIZE);
+            origin = new GeographicPoint(41.3851f, 2.1734f);
+            destination = new GeographicPoint(41.4020f, 2.1910f);
+            station = new StationID("ST123");
+            for (int i = 0; i < FLEET_SIZE; i++) {
+                VehicleID id = new VehicleID("VH" + (10000 + i));
+                vehicles[i] = new PMVehicle(id, PMVState.Available, origin);
+                server.addVehicle(id, vehicles[i]);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Rider {
+        private static int riders;
+
+        JourneyRealizeHandler handler;
+        MockQRDecoder decoder;
+        UserAccount user;
+        BufferedImage image;
+        int cursor;
+
+        @Setup(Level.Trial)
+        public void setUp(Fleet fleet) throws Exception {
+            int index;
+            synchronized (Rider.class) {
+                index = riders++;
+            }
+            decoder = new MockQRDecoder();
+            handler = new JourneyRealizeHandler(fleet.server, decoder, new MockArduinoMicroController(),
+                    new MockUnbondedBTSignal());
+            handler.setWallet(new Wallet(new BigDecimal("1000000000.00")));
+            user = new UserAccount("rider_" + index);
+            image = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+            cursor = index * 3;
+        }
+
+        BigDecimal journey(Fleet fleet) throws Exception {
+            PMVehicle vehicle = claim(fleet);
+            JourneyService journey = new JourneyService(fleet.origin, LocalDate.now().minusDays(1), LocalTime.now());
+            journey.setUser(user);
+            handler.setCurrentJourney(journey);
+            handler.broadcastStationID(fleet.station);
+            handler.startDriving();
+            vehicle.setLocation(fleet.destination);
+            handler.unPairVehicle();
+            handler.selectPaymentMethod('W');
+            return journey.getImportValue();
+        }
+
+        // Escanea vehículos de la flota hasta reclamar uno libre
+        private PMVehicle claim(Fleet fleet) throws Exception {
+            while (true) {
+                PMVehicle vehicle = fleet.vehicles[cursor++ & (FLEET_SIZE - 1)];
+                decoder.setSimulatedVehicleID(vehicle.getId());
+                try {
+                    handler.scanQR(image);
+                    return vehicle;
+                } catch (PMVNotAvailException e) {
+                    // Otro usuario lo reclamó antes: se prueba el siguiente
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public BigDecimal journeySingleThread(Fleet fleet, Rider rider) throws Exception {
+        return rider.journey(fleet);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public BigDecimal journeyContended(Fleet fleet, Rider rider) throws Exception {
+        return rider.journey(fleet);
+    }
+}
@@ -0,0 +1,67 @@
+package micromobility;
+
+import data.GeographicPoint;
+import data.VehicleID;
+import exceptions.PMVNotAvailException;
+import mocks.MockArduinoMicroController;
+import mocks.MockQRDecoder;
+import mocks.MockUnbondedBTSignal;
+import org.openjdk.jmh.annotations.*;
+import services.ConcurrentFleetServer;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark del escaneo rechazado de un vehículo que ya está en marcha, el caso habitual en una estación
+ * concurrida: tryScanQR, que devuelve un JourneyResult, frente a scanQR, que lanza la excepción sin traza,
+ * y frente a lanzar y capturar una excepción con traza, como hacía antes scanQR.
+ * Ejecutar con -prof gc para obtener la tasa de asignación por operación.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScanRejectionBenchmark {
+
+    private JourneyRealizeHandler handler;
+    private BufferedImage image;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        ConcurrentFleetServer server = new ConcurrentFleetServer(16);
+        VehicleID id = new VehicleID("VH10000");
+        server.addVehicle(id, new PMVehicle(id, PMVState.UnderWay, new GeographicPoint(41.3851f, 2.1734f)));
+        MockQRDecoder decoder = new MockQRDecoder();
+        decoder.setSimulatedVehicleID(id);
+        handler = new JourneyRealizeHandler(server, decoder, new MockArduinoMicroController(), new MockUnbondedBTSignal());
+        image = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+    }
+
+    @Benchmark
+    public JourneyResult tryScanQR() {
+        return handler.tryScanQR(image);
+    }
+
+    @Benchmark
+    public Object scanQRStackless() throws Exception {
+        try {
+            handler.scanQR(image);
+            return null;
+        } catch (PMVNotAvailException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object scanQRWithStackTrace() throws Exception {
+        try {
+            handler.scanQR(image);
+            return null;
+        } catch (PMVNotAvailException e) {
+            return new PMVNotAvailException(e.getMessage());
+        }
+    }
+}
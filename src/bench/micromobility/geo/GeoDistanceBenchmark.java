@@ -0,0 +1,80 @@
+package micromobility.geo;
+
+import data.GeographicPoint;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de GeoDistance por lotes frente al cálculo par a par sobre GeographicPoint que usaba
+ * JourneyRealizeHandler. Cada invocación calcula COUNT distancias; los resultados se expresan por distancia.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeoDistanceBenchmark {
+
+    private static final int COUNT = 4096;
+
+    private final float[] lat1 = new float[COUNT];
+    private final float[] lon1 = new float[COUNT];
+    private final float[] lat2 = new float[COUNT];
+    private final float[] lon2 = new float[COUNT];
+    private final float[] out = new float[COUNT];
+    private final GeographicPoint[] starts = new GeographicPoint[COUNT];
+    private final GeographicPoint[] ends = new GeographicPoint[COUNT];
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < COUNT; i++) {
+            lat1[i] = (float) random.nextDouble(41.3, 41.5);
+            lon1[i] = (float) random.nextDouble(2.0, 2.3);
+            lat2[i] = (float) random.nextDouble(41.3, 41.5);
+            lon2[i] = (float) random.nextDouble(2.0, 2.3);
+            starts[i] = new GeographicPoint(lat1[i], lon1[i]);
+            ends[i] = new GeographicPoint(lat2[i], lon2[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public float[] pointPairs() {
+        for (int i = 0; i < COUNT; i++) {
+            out[i] = (float) GeoDistance.haversineKm(starts[i], ends[i]);
+        }
+        return out;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public float[] haversineBatch() {
+        GeoDistance.haversineKm(lat1, lon1, lat2, lon2, out, COUNT);
+        return out;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public float[] haversineFromOrigin() {
+        GeoDistance.haversineFromKm(41.3870f, 2.1700f, lat2, lon2, out, COUNT);
+        return out;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public float[] equirectangularBatch() {
+        GeoDistance.equirectangularKm(lat1, lon1, lat2, lon2, out, COUNT);
+        return out;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public float[] equirectangularFromOrigin() {
+        GeoDistance.equirectangularFromKm(41.3870f, 2.1700f, lat2, lon2, out, COUNT);
+        return out;
+    }
+}
@@ -0,0 +1,91 @@
+package micromobility.geo;
+
+import data.GeographicPoint;
+import data.VehicleID;
+import micromobility.PMVState;
+import micromobility.PMVehicle;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de las geovallas sobre una ciudad de 10 x 10 km con miles de zonas de aparcamiento de
+ * unos 50 m y algunas zonas prohibidas grandes: consultas directas al índice y actualizaciones de
+ * ubicación de una flota a través de PMVehicle.setLocation con el monitor enganchado.
+ * Ejecutar con -prof gc para comprobar que las consultas no reservan memoria.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeofenceBenchmark {
+
+    private static final int POINTS = 4096;
+
+    @Param({"5000"})
+    private int zones;
+
+    private GeofenceIndex index;
+    private final float[] lats = new float[POINTS];
+    private final float[] lons = new float[POINTS];
+    private GeographicPoint[] locations;
+    private PMVehicle[] fleet;
+    private int[] out;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        SplittableRandom random = new SplittableRandom(16);
+        List<GeofenceZone> list = new ArrayList<>();
+        for (int z = 0; z < zones; z++) {
+            float lat = (float) random.nextDouble(41.33, 41.42);
+            float lon = (float) random.nextDouble(2.10, 2.22);
+            ZoneKind kind = z % 100 == 0 ? ZoneKind.NO_RIDE : ZoneKind.PARKING;
+            float size = kind == ZoneKind.NO_RIDE ? 0.005f : 0.0005f;
+            list.add(new GeofenceZone("Z" + z, kind,
+                    new float[]{lat, lat + size, lat + size, lat},
+                    new float[]{lon, lon, lon + size, lon + size}));
+        }
+        index = new GeofenceIndex(list);
+        out = new int[index.getMaxOverlap()];
+
+        locations = new GeographicPoint[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            lats[i] = (float) random.nextDouble(41.33, 41.42);
+            lons[i] = (float) random.nextDouble(2.10, 2.22);
+            locations[i] = new GeographicPoint(lats[i], lons[i]);
+        }
+
+        GeofenceMonitor monitor = new GeofenceMonitor(index);
+        fleet = new PMVehicle[256];
+        for (int v = 0; v < fleet.length; v++) {
+            fleet[v] = new PMVehicle(new VehicleID("V" + (10000 + v)), PMVState.UnderWay, locations[v]);
+            monitor.watch(fleet[v]);
+        }
+    }
+
+    @Benchmark
+    public int zonesAt() {
+        int i = cursor++ & (POINTS - 1);
+        return index.zonesAt(lats[i], lons[i], out);
+    }
+
+    @Benchmark
+    public boolean isParkingAllowed() {
+        int i = cursor++ & (POINTS - 1);
+        return index.isParkingAllowed(lats[i], lons[i]);
+    }
+
+    @Benchmark
+    public PMVehicle vehicleLocationUpdate() {
+        int i = cursor++;
+        PMVehicle vehicle = fleet[i & (fleet.length - 1)];
+        vehicle.setLocation(locations[i & (POINTS - 1)]);
+        return vehicle;
+    }
+}
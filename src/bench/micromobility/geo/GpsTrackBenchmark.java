@@ -0,0 +1,41 @@
+package micromobility.geo;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de la ingesta de posiciones en GpsTrack sobre un recorrido sinuoso que no termina,
+ * de modo que se ejercitan la simplificación y las compactaciones del trazado.
+ * Ejecutar con -prof gc para comprobar que añadir una posición no reserva memoria.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GpsTrackBenchmark {
+
+    private GpsTrack track;
+    private double lat;
+    private double lon;
+    private long step;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        track = new GpsTrack();
+        lat = 41.38;
+        lon = 2.17;
+    }
+
+    @Benchmark
+    public GpsTrack addFix() {
+        long i = step++;
+        double heading = Math.sin(i * 0.01) * 2;
+        lat += Math.cos(heading) * 0.00003;
+        lon += Math.sin(heading) * 0.00004;
+        track.add((float) lat, (float) lon, i * 1000);
+        return track;
+    }
+}
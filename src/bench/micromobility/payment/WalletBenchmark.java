@@ -0,0 +1,69 @@
+package micromobility.payment;
+
+import data.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de Wallet.deduct con un hilo y con varios hilos cobrando a la vez.
+ * Wallet no es seguro ante accesos concurrentes, por lo que cada hilo usa su propio monedero:
+ * la variante con varios hilos mide la escalabilidad de la aritmética y la asignación, no un bloqueo.
+ * Compara la API en BigDecimal con la de Money, y ambas con la aritmética de BigDecimal que usaba
+ * el monedero antes de guardar el saldo en céntimos (bigDecimalBaseline).
+ * Ejecutar con -prof gc para obtener la tasa de asignación por operación.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WalletBenchmark {
+
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000000000000.00");
+
+    private final BigDecimal amount = new BigDecimal("1.75");
+    private final Money money = Money.parse("1.75");
+    private Wallet wallet;
+    private BigDecimal baselineBalance;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        wallet = new Wallet(INITIAL_BALANCE);
+        baselineBalance = INITIAL_BALANCE;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public BigDecimal deduct() throws Exception {
+        wallet.deduct(amount);
+        return wallet.getBalance();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public BigDecimal deductContended() throws Exception {
+        wallet.deduct(amount);
+        return wallet.getBalance();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long deductMoney() {
+        wallet.deduct(money);
+        return wallet.getBalanceCents();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public BigDecimal bigDecimalBaseline() {
+        // Misma comprobación y resta que hacía Wallet.deduct con el saldo en BigDecimal
+        if (amount.compareTo(BigDecimal.ZERO) <= 0 || baselineBalance.compareTo(amount) < 0) {
+            throw new IllegalStateException();
+        }
+        baselineBalance = baselineBalance.subtract(amount);
+        return baselineBalance;
+    }
+}
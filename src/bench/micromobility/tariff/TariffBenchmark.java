@@ -0,0 +1,55 @@
+package micromobility.tariff;
+
+import micromobility.VehicleType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark del cálculo de importes con CompiledTariff: un trayecto suelto y un lote como el de una
+ * refacturación. Ejecutar con -prof gc para comprobar que el cálculo no reserva memoria.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TariffBenchmark {
+
+    private static final int BATCH_SIZE = 10_000;
+
+    private CompiledTariff tariff;
+    private TariffBatch batch;
+    private long[] fares;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tariff = new TariffTable()
+                .addRule(TariffTable.ANY_ZONE, null, null, Rate.of("0.20", "0.45", "0.09", "0.50"))
+                .addRule(TariffTable.ANY_ZONE, 7, 10, null, null, Rate.of("0.20", "0.55", "0.11", "0.50"))
+                .addRule(1, VehicleType.EBIKE, null, Rate.of("0.30", "0.60", "0.12", "1.00"))
+                .addRule(2, null, UserPlan.STUDENT, Rate.of("0", "0.30", "0.06", "0"))
+                .compile();
+        VehicleType[] types = VehicleType.values();
+        UserPlan[] plans = UserPlan.values();
+        batch = new TariffBatch(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(i % 3, i % 24, types[i % types.length], plans[i % plans.length], (i % 997) / 100f, 1 + i % 60);
+        }
+        fares = new long[BATCH_SIZE];
+    }
+
+    @Benchmark
+    public long singleFare() {
+        int i = cursor++;
+        return tariff.fareCents(i % 3, i & 15, VehicleType.SCOOTER, UserPlan.PAY_AS_YOU_GO, 2.35f, 1 + (i & 31));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public long batchFares() {
+        return tariff.priceAll(batch, fares);
+    }
+}
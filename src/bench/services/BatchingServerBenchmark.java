@@ -0,0 +1,67 @@
+package services;
+
+import data.GeographicPoint;
+import data.StationID;
+import data.UserAccount;
+import data.VehicleID;
+import mocks.MockServer;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de eventos de emparejamiento por segundo según el tamaño de lote de BatchingServer.
+ * El destino simula una ida y vuelta al servidor remoto de coste fijo por lote más un pequeño coste
+ * por evento, que es el perfil que hace rentable la confirmación agrupada.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchingServerBenchmark {
+
+    private static final int EVENTS_PER_INVOCATION = 1024;
+    private static final long ROUND_TRIP_NANOS = 50_000; // Coste simulado de cada confirmación remota
+    private static final long PER_EVENT_NANOS = 500;     // Coste simulado de serializar cada evento
+
+    @Param({"1", "8", "64", "256"})
+    public int batchSize;
+
+    private BatchingServer server;
+    private PairingEvent event;
+    private final CompletableFuture<?>[] futures = new CompletableFuture<?>[EVENTS_PER_INVOCATION];
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        PairingBatchSink sink = batch -> spin(ROUND_TRIP_NANOS + PER_EVENT_NANOS * batch.size());
+        server = new BatchingServer(new MockServer(), sink, batchSize, Duration.ofMillis(2));
+        event = PairingEvent.start(new UserAccount("bench_user"), new VehicleID("V12345"), new StationID("ST123"),
+                new GeographicPoint(41.3851f, 2.1734f), LocalDateTime.now());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS_PER_INVOCATION)
+    public void submitEvents() {
+        for (int i = 0; i < EVENTS_PER_INVOCATION; i++) {
+            futures[i] = server.submit(event);
+        }
+        CompletableFuture.allOf(futures).join();
+    }
+
+    private static void spin(long nanos) {
+        long end = System.nanoTime() + nanos;
+        while (System.nanoTime() < end) {
+            Thread.onSpinWait();
+        }
+    }
+}
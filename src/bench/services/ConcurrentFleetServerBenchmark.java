@@ -0,0 +1,73 @@
+package services;
+
+import data.GeographicPoint;
+import data.StationID;
+import data.VehicleID;
+import micromobility.PMVState;
+import micromobility.PMVehicle;
+import mocks.MockServer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de rendimiento del registro de flota: compara ConcurrentFleetServer con MockServer
+ * en búsquedas por ID y mide el flujo de desbloqueo (búsqueda, comprobación y registro de estación)
+ * con varios hilos concurrentes.
+ *
+ * Ejecución: java -jar target/benchmarks.jar ConcurrentFleetServerBenchmark -t 8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentFleetServerBenchmark {
+
+    @Param({"100000"})
+    public int fleetSize;
+
+    private VehicleID[] ids;
+    private StationID[] stations;
+    private ConcurrentFleetServer fleetServer;
+    private MockServer mockServer;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        ids = new VehicleID[fleetSize];
+        stations = new StationID[64];
+        fleetServer = new ConcurrentFleetServer(fleetSize);
+        mockServer = new MockServer();
+        for (int i = 0; i < stations.length; i++) {
+            stations[i] = new StationID("ST" + i + "X");
+        }
+        for (int i = 0; i < fleetSize; i++) {
+            ids[i] = new VehicleID("VH" + (100000 + i));
+            GeographicPoint location = new GeographicPoint(41.38f + (i % 1000) * 1e-4f, 2.17f + (i / 1000) * 1e-4f);
+            fleetServer.addVehicle(ids[i], new PMVehicle(ids[i], PMVState.Available, location));
+            mockServer.addVehicle(ids[i], new PMVehicle(ids[i], PMVState.Available, location));
+        }
+    }
+
+    @Benchmark
+    public PMVehicle mockGetVehicleByID() throws Exception {
+        return mockServer.getVehicleByID(ids[ThreadLocalRandom.current().nextInt(fleetSize)]);
+    }
+
+    @Benchmark
+    public PMVehicle fleetGetVehicleByID() throws Exception {
+        return fleetServer.getVehicleByID(ids[ThreadLocalRandom.current().nextInt(fleetSize)]);
+    }
+
+    @Benchmark
+    public PMVehicle fleetUnlockFlow() throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        VehicleID id = ids[random.nextInt(fleetSize)];
+        PMVehicle vehicle = fleetServer.getVehicleByID(id);
+        fleetServer.checkPMVAvail(id);
+        fleetServer.registerLocation(id, stations[random.nextInt(stations.length)]);
+        return vehicle;
+    }
+}
@@ -0,0 +1,117 @@
+package services.archive;
+
+import data.GeographicPoint;
+import data.Money;
+import data.StationID;
+import data.UserAccount;
+import micromobility.JourneyService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark de consultas de JourneyQueryEngine sobre un archivo de 8 millones de trayectos con 500
+ * estaciones: recaudación por estación en un mes, velocidad media por hora, y un recuento filtrado por
+ * estación, comparados con el recorrido fila a fila de JourneyArchiveReader.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JourneyQueryEngineBenchmark {
+
+    private static final int ROWS = 8_000_000;
+    private static final int STATIONS = 500;
+
+    private Path dir;
+    private JourneyArchiveReader reader;
+    private JourneyQueryEngine engine;
+    private JourneyFilter lastMonth;
+    private JourneyFilter oneStation;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("journey-archive");
+        JourneyService[] journeys = new JourneyService[24 * 60];
+        int[] journeyDays = new int[journeys.length];
+        LocalDate day = LocalDate.of(2024, 1, 1);
+        StationID[] stations = new StationID[STATIONS];
+        for (int i = 0; i < STATIONS; i++) {
+            stations[i] = new StationID("ST" + (1000 + i));
+        }
+        try (JourneyArchive archive = JourneyArchive.open(dir)) {
+            for (int i = 0; i < ROWS; i++) {
+                // Unos 22.000 trayectos al día durante un año, cada uno en un minuto del día
+                int slot = i % journeys.length;
+                int dayIndex = i / 22_000;
+                if (journeys[slot] == null || journeyDays[slot] != dayIndex) {
+                    journeys[slot] = new JourneyService(new GeographicPoint(41.38f, 2.17f),
+                            day.plusDays(dayIndex), LocalTime.MIDNIGHT.plusMinutes(slot));
+                    journeyDays[slot] = dayIndex;
+                    journeys[slot].setUser(new UserAccount("user" + (i % 997)));
+                }
+                JourneyService journey = journeys[slot];
+                journey.setDuration(5 + i % 25);
+                journey.setDistance(0.5f + (i % 40) * 0.1f);
+                journey.setAverageSpeed(8 + i % 12);
+                journey.setImportValue(Money.ofCents(100 + i % 500));
+                journey.setEndStation(stations[(i * 31) % STATIONS]);
+                journey.setInProgress(false);
+                archive.append(journey);
+            }
+        }
+        reader = JourneyArchiveReader.open(dir);
+        engine = new JourneyQueryEngine(reader);
+        lastMonth = JourneyFilter.all().startingBetween(LocalDateTime.of(2024, 11, 1, 0, 0),
+                LocalDateTime.of(2024, 12, 1, 0, 0));
+        oneStation = JourneyFilter.all().endingAt(stations[7]);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public Map<String, Money> revenueByStationLastMonth() throws IOException {
+        return engine.revenueByStation(lastMonth);
+    }
+
+    @Benchmark
+    public double[] averageSpeedByHour() throws IOException {
+        return engine.averageSpeedByHour(JourneyFilter.all());
+    }
+
+    @Benchmark
+    public long countOneStation() throws IOException {
+        return engine.count(oneStation);
+    }
+
+    @Benchmark
+    public long revenueLastMonthRowByRow() throws IOException {
+        long from = LocalDateTime.of(2024, 11, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+        long to = LocalDateTime.of(2024, 12, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+        long cents = 0;
+        for (long row = 0; row < reader.size(); row++) {
+            long start = reader.getLong(JourneyColumn.START, row);
+            if (start >= from && start < to) {
+                cents += reader.getLong(JourneyColumn.AMOUNT, row);
+            }
+        }
+        return cents;
+    }
+}
@@ -0,0 +1,127 @@
+package services.eventlog;
+
+import data.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark del diario de eventos de trayecto: anexado de eventos y tiempo de recuperación
+ * (apertura más reproducción completa) de un diario de 10 millones de eventos.
+ * El diario se genera una vez por ejecución con una flota de 100.000 vehículos que alternan
+ * registro de estación, inicio y fin de emparejamiento, y pago.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class JourneyEventLogBenchmark {
+
+    private static final int VEHICLES = 100_000;
+    private static final int APPENDS_PER_INVOCATION = 1024;
+
+    @Param({"10000000"})
+    public int events;
+
+    private Path recoveryDir;
+    private Path appendDir;
+    private JourneyEventLog appendLog;
+    private VehicleID[] vehicleIds;
+    private StationID[] stations;
+    private UserAccount user;
+    private GeographicPoint location;
+    private LocalDateTime date;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        user = new UserAccount("bench_user");
+        location = new GeographicPoint(41.3851f, 2.1734f);
+        date = LocalDateTime.of(2024, 5, 1, 10, 30);
+        vehicleIds = new VehicleID[VEHICLES];
+        for (int i = 0; i < VEHICLES; i++) {
+            vehicleIds[i] = new VehicleID("VH" + (100000 + i));
+        }
+        stations = new StationID[64];
+        for (int i = 0; i < stations.length; i++) {
+            stations[i] = new StationID("ST" + (100 + i));
+        }
+
+        recoveryDir = Files.createTempDirectory("journey-log-recovery");
+        ServiceID service = new ServiceID("SRV001", new BigDecimal("2.50"));
+        BigDecimal amount = new BigDecimal("2.50");
+        try (JourneyEventLog log = JourneyEventLog.open(recoveryDir, JourneyEventLog.DEFAULT_RECORDS_PER_SEGMENT, Duration.ZERO)) {
+            for (int i = 0; i < events; i++) {
+                VehicleID vehicle = vehicleIds[(i >>> 2) % VEHICLES];
+                StationID station = stations[i % stations.length];
+                switch (i & 3) {
+                    case 0:
+                        log.appendLocation(vehicle, station, date);
+                        break;
+                    case 1:
+                        log.appendPairingStart(user, vehicle, station, location, date);
+                        break;
+                    case 2:
+                        log.appendPairingStop(user, vehicle, station, location, date, 12.0f, 1.5f, 8, amount);
+                        break;
+                    default:
+                        log.appendPayment(service, user, amount, 'W', date);
+                        break;
+                }
+            }
+        }
+
+        appendDir = Files.createTempDirectory("journey-log-append");
+        appendLog = JourneyEventLog.open(appendDir, JourneyEventLog.DEFAULT_RECORDS_PER_SEGMENT, Duration.ofSeconds(1));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        appendLog.close();
+        delete(recoveryDir);
+        delete(appendDir);
+    }
+
+    /**
+     * Tiempo de recuperación tras un reinicio: abrir el diario y reproducirlo entero.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public EventLogRecovery recover() throws IOException {
+        try (JourneyEventLog log = JourneyEventLog.open(recoveryDir, JourneyEventLog.DEFAULT_RECORDS_PER_SEGMENT, Duration.ZERO)) {
+            return log.replay();
+        }
+    }
+
+    /**
+     * Eventos de inicio de emparejamiento anexados por segundo.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    @OperationsPerInvocation(APPENDS_PER_INVOCATION)
+    public long append() throws IOException {
+        long last = 0;
+        for (int i = 0; i < APPENDS_PER_INVOCATION; i++) {
+            last = appendLog.appendPairingStart(user, vehicleIds[cursor++ % VEHICLES], stations[i & 63], location, date);
+        }
+        return last;
+    }
+
+    private static void delete(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package services.fleet;
+
+import data.GeographicPoint;
+import data.StationID;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de latencia de la planificación completa del reequilibrado de una ciudad de 5.000 estaciones
+ * repartidas en unos 13 x 13 km, con uno y con varios camiones.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RebalancingPlannerBenchmark {
+
+    @Param({"5000"})
+    public int stations;
+
+    @Param({"1", "16"})
+    public int trucks;
+
+    private StationSite[] sites;
+    private int[] available;
+    private GeographicPoint depot;
+    private RebalancingPlanner planner;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        SplittableRandom random = new SplittableRandom(18);
+        sites = new StationSite[stations];
+        available = new int[stations];
+        for (int i = 0; i < stations; i++) {
+            GeographicPoint location = new GeographicPoint((float) random.nextDouble(41.33, 41.45),
+                    (float) random.nextDouble(2.08, 2.23));
+            sites[i] = new StationSite(new StationID("ST" + (10_000 + i)), location, random.nextInt(3, 9));
+            available[i] = random.nextInt(0, 13);
+        }
+        depot = new GeographicPoint(41.39f, 2.16f);
+        planner = new RebalancingPlanner(trucks, 20);
+    }
+
+    @Benchmark
+    public RebalancingPlan plan() {
+        return planner.plan(sites, available, depot);
+    }
+}
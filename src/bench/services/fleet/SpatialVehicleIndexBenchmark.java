@@ -0,0 +1,56 @@
+package services.fleet;
+
+import data.GeographicPoint;
+import data.VehicleID;
+import micromobility.PMVState;
+import micromobility.PMVehicle;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de latencia de las consultas de proximidad sobre una flota urbana de varios
+ * cientos de miles de vehículos repartidos en un área de unos 20 x 20 km.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpatialVehicleIndexBenchmark {
+
+    @Param({"300000"})
+    public int fleetSize;
+
+    private SpatialVehicleIndex index;
+    private GeographicPoint[] queries;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Random random = new Random(7);
+        index = new SpatialVehicleIndex();
+        for (int i = 0; i < fleetSize; i++) {
+            PMVState state = random.nextInt(4) == 0 ? PMVState.UnderWay : PMVState.Available;
+            GeographicPoint location = new GeographicPoint(41.30f + random.nextFloat() * 0.18f, 2.05f + random.nextFloat() * 0.24f);
+            index.track(new PMVehicle(new VehicleID("VH" + (1000000 + i)), state, location));
+        }
+        queries = new GeographicPoint[1024];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = new GeographicPoint(41.32f + random.nextFloat() * 0.14f, 2.07f + random.nextFloat() * 0.20f);
+        }
+    }
+
+    @Benchmark
+    public List<PMVehicle> nearestTen() {
+        return index.nearestAvailable(queries[ThreadLocalRandom.current().nextInt(queries.length)], 10);
+    }
+
+    @Benchmark
+    public List<PMVehicle> withinRadius300m() {
+        return index.availableWithin(queries[ThreadLocalRandom.current().nextInt(queries.length)], 0.3);
+    }
+}
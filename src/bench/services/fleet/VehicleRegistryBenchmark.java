@@ -0,0 +1,107 @@
+package services.fleet;
+
+import data.GeographicPoint;
+import data.VehicleID;
+import micromobility.PMVState;
+import micromobility.PMVehicle;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de latencia de la búsqueda de vehículos por identificador en una flota de 300.000 vehículos:
+ * VehicleRegistry frente a HashMap y ConcurrentHashMap indexados por VehicleID, con un hilo y con cuatro,
+ * y la consulta del estado sin acceder al PMVehicle, también en el registro compacto, que no guarda los
+ * vehículos. Los identificadores buscados son copias recién construidas, como los que llegan en una
+ * petición, para no aprovechar el hash en caché de la cadena.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VehicleRegistryBenchmark {
+
+    @Param({"300000"})
+    public int fleetSize;
+
+    private VehicleRegistry registry;
+    private VehicleRegistry compactRegistry;
+    private Map<VehicleID, PMVehicle> hashMap;
+    private Map<VehicleID, PMVehicle> concurrentMap;
+    private VehicleID[] queries;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Random random = new Random(7);
+        registry = new VehicleRegistry(fleetSize);
+        compactRegistry = VehicleRegistry.compact(fleetSize);
+        hashMap = new HashMap<>(fleetSize * 2);
+        concurrentMap = new ConcurrentHashMap<>(fleetSize * 2);
+        for (int i = 0; i < fleetSize; i++) {
+            VehicleID id = new VehicleID("VH" + (1000000 + i));
+            PMVehicle vehicle = new PMVehicle(id, PMVState.Available,
+                    new GeographicPoint(41.30f + random.nextFloat() * 0.18f, 2.05f + random.nextFloat() * 0.24f));
+            registry.put(vehicle);
+            compactRegistry.update(id, vehicle.getState(), vehicle.getLocation());
+            hashMap.put(id, vehicle);
+            concurrentMap.put(id, vehicle);
+        }
+        queries = new VehicleID[4096];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = new VehicleID("VH" + (1000000 + random.nextInt(fleetSize)));
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public PMVehicle registryGet(Cursor cursor) {
+        return registry.get(queries[cursor.next++ & 4095]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public PMVehicle registryGetContended(Cursor cursor) {
+        return registry.get(queries[cursor.next++ & 4095]);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public PMVState registryGetState(Cursor cursor) {
+        return registry.getState(queries[cursor.next++ & 4095]);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public PMVState compactRegistryGetState(Cursor cursor) {
+        return compactRegistry.getState(queries[cursor.next++ & 4095]);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public PMVehicle hashMapGet(Cursor cursor) {
+        return hashMap.get(queries[cursor.next++ & 4095]);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public PMVehicle concurrentMapGet(Cursor cursor) {
+        return concurrentMap.get(queries[cursor.next++ & 4095]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public PMVehicle concurrentMapGetContended(Cursor cursor) {
+        return concurrentMap.get(queries[cursor.next++ & 4095]);
+    }
+}
@@ -0,0 +1,88 @@
+package services.smartfeatures.qr;
+
+import data.VehicleID;
+import exceptions.CorruptedImgException;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de una ráfaga de 8 fotogramas en la que solo el sexto es legible, como cuando la cámara aún está
+ * enfocando: QRBurstScanner frente a decodificar los fotogramas uno a uno hasta el primer acierto, y la
+ * decodificación de un fotograma con un espacio de trabajo reutilizado frente a uno nuevo por fotograma.
+ * Ejecutar con -prof gc para ver la memoria que ahorra reutilizar los arrays.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QRBurstScannerBenchmark {
+
+    private final QRImageDecoder decoder = new QRImageDecoder();
+    private final QRImageDecoder.Workspace workspace = new QRImageDecoder.Workspace();
+    private QRBurstScanner scanner;
+    private List<BufferedImage> frames;
+    private BufferedImage readable;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        readable = QREncoder.render("VH246810", QRErrorCorrection.M, 8);
+        int side = readable.getWidth();
+        Random random = new Random(13);
+        frames = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            if (i == 5) {
+                frames.add(readable);
+                continue;
+            }
+            // Fotograma desenfocado: ruido sin estructura que recorre todas las etapas sin encontrar el QR
+            BufferedImage blurred = new BufferedImage(side, side, BufferedImage.TYPE_INT_RGB);
+            for (int y = 0; y < side; y++) {
+                for (int x = 0; x < side; x++) {
+                    int value = 96 + random.nextInt(64);
+                    blurred.setRGB(x, y, value << 16 | value << 8 | value);
+                }
+            }
+            frames.add(blurred);
+        }
+        scanner = new QRBurstScanner();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        scanner.close();
+    }
+
+    @Benchmark
+    public VehicleID burstScanner() {
+        return scanner.scan(frames).join();
+    }
+
+    @Benchmark
+    public VehicleID burstSequential() throws Exception {
+        for (BufferedImage frame : frames) {
+            try {
+                return decoder.getVehicleID(frame, workspace);
+            } catch (CorruptedImgException e) {
+                // Siguiente fotograma
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public VehicleID frameReusedWorkspace() throws Exception {
+        return decoder.getVehicleID(readable, workspace);
+    }
+
+    @Benchmark
+    public VehicleID frameFreshWorkspace() throws Exception {
+        return decoder.getVehicleID(readable, new QRImageDecoder.Workspace());
+    }
+}
@@ -0,0 +1,99 @@
+package services.smartfeatures.qr;
+
+import data.VehicleID;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de la decodificación de un corpus de 64 imágenes de QR generadas, con escalas de módulo no
+ * enteras y ruido como las de una cámara: un hilo que las decodifica una a una frente al lote en el
+ * QRDecodingPool, y la etapa de luminancia leyendo el array de la imagen frente a getRGB por píxel.
+ * Con un solo procesador el grupo no puede ganar tiempo; mide el coste de repartir el lote.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QRDecoderBenchmark {
+
+    private static final int CORPUS_SIZE = 64;
+
+    private final QRImageDecoder decoder = new QRImageDecoder();
+    private final QRImageDecoder.Workspace workspace = new QRImageDecoder.Workspace();
+    private QRDecodingPool pool;
+    private List<BufferedImage> corpus;
+    private byte[] perPixelLuminance;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Random random = new Random(11);
+        corpus = new ArrayList<>(CORPUS_SIZE);
+        for (int i = 0; i < CORPUS_SIZE; i++) {
+            BufferedImage base = QREncoder.render(new VehicleID("VH" + (300000 + random.nextInt(600000))));
+            double scale = 1.5 + random.nextDouble() * 1.5;
+            int side = (int) (base.getWidth() * scale);
+            BufferedImage image = new BufferedImage(side, side, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = image.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.scale(scale, scale);
+            graphics.drawImage(base, 0, 0, null);
+            graphics.dispose();
+            for (int n = 0; n < side * side / 50; n++) {
+                image.setRGB(random.nextInt(side), random.nextInt(side), random.nextInt(0x1000000));
+            }
+            corpus.add(image);
+        }
+        perPixelLuminance = new byte[corpus.get(0).getWidth() * corpus.get(0).getHeight()];
+        pool = new QRDecodingPool();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Benchmark
+    public int decodeCorpusSequential() throws Exception {
+        int decoded = 0;
+        for (BufferedImage image : corpus) {
+            if (decoder.getVehicleID(image) != null) {
+                decoded++;
+            }
+        }
+        return decoded;
+    }
+
+    @Benchmark
+    public List<VehicleID> decodeCorpusPool() {
+        return pool.decodeAll(corpus);
+    }
+
+    @Benchmark
+    public QRImageDecoder.Workspace luminanceRawArray() {
+        QRImageDecoder.loadLuminance(corpus.get(0), workspace);
+        return workspace;
+    }
+
+    @Benchmark
+    public byte[] luminancePerPixelGetRGB() {
+        BufferedImage image = corpus.get(0);
+        int width = image.getWidth();
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < width; x++) {
+                int rgb = image.getRGB(x, y);
+                perPixelLuminance[y * width + x] = (byte) ((((rgb >>> 16) & 0xFF) * 77
+                        + ((rgb >>> 8) & 0xFF) * 150 + (rgb & 0xFF) * 29) >>> 8);
+            }
+        }
+        return perPixelLuminance;
+    }
+}
@@ -0,0 +1,60 @@
+package services.stats;
+
+import data.StationID;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark del registro de trayectos en JourneyStats desde uno y varios hilos a la vez, y de la lectura de
+ * un resumen de la última hora con 200 estaciones.
+ * Ejecutar con -prof gc para comprobar que registrar un trayecto no reserva memoria.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JourneyStatsBenchmark {
+
+    private JourneyStats stats;
+    private StationID[] stations;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        stats = new JourneyStats();
+        stations = new StationID[256];
+        for (int i = 0; i < stations.length; i++) {
+            stations[i] = new StationID("ST" + (100 + i % 200));
+        }
+        for (int i = 0; i < 10_000; i++) {
+            stats.record(stations[i & 255], 1.5f, 8, 240L, 1_000_000);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void record(Cursor cursor) {
+        int i = cursor.next++;
+        stats.record(stations[i & 255], 1.5f, 8, 240L, 1_000_000 + i);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordContended(Cursor cursor) {
+        int i = cursor.next++;
+        stats.record(stations[i & 255], 1.5f, 8, 240L, 1_000_000 + i);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public StatsSnapshot snapshotLastHour() {
+        return stats.snapshot(JourneyStats.DEFAULT_WINDOW_MINUTES);
+    }
+}
@@ -47,6 +47,15 @@ public final class GeographicPoint {
         return longitude;
     }
 
+    /**
+     * Empaqueta el punto en un long con la latitud y la longitud en microgrados (ver PackedPoint).
+     *
+     * @return El punto empaquetado.
+     */
+    public long pack() {
+        return PackedPoint.pack(latitude, longitude);
+    }
+
     /**
      * Valida el valor de la latitud.
      *
@@ -82,7 +91,8 @@ public final class GeographicPoint {
 
     @Override
     public int hashCode() {
-        return java.util.Objects.hash(latitude, longitude);
+        // Mismo resultado que Objects.hash(latitude, longitude), sin crear el array ni los Float
+        return 31 * (31 + Float.hashCode(latitude)) + Float.hashCode(longitude);
     }
 
     @Override
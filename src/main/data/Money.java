@@ -0,0 +1,196 @@
+package data;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Importe monetario inmutable en euros, guardado como un número entero de céntimos.
+ * Las operaciones son exactas y fallan con ArithmeticException si desbordan. Al convertir desde
+ * un BigDecimal con más de dos decimales se redondea siempre al céntimo más cercano, con las mitades
+ * al par (RoundingMode.HALF_EVEN).
+ * Los importes entre 0 y 100,00 EUR se comparten desde una caché, de modo que obtenerlos con
+ * {@link #ofCents(long)} no reserva memoria.
+ */
+public final class Money implements Comparable<Money> {
+
+    public static final RoundingMode ROUNDING = RoundingMode.HALF_EVEN;
+
+    private static final int CACHE_MAX_CENTS = 10_000;
+    private static final Money[] CACHE = new Money[CACHE_MAX_CENTS + 1];
+
+    static {
+        for (int i = 0; i <= CACHE_MAX_CENTS; i++) {
+            CACHE[i] = new Money(i);
+        }
+    }
+
+    public static final Money ZERO = CACHE[0];
+
+    private final long cents;
+    private BigDecimal decimal; // Conversión a BigDecimal, calculada la primera vez que se pide
+
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    /**
+     * Obtiene el importe correspondiente a un número de céntimos.
+     *
+     * @param cents Los céntimos; pueden ser negativos.
+     * @return El importe.
+     */
+    public static Money ofCents(long cents) {
+        if (cents >= 0 && cents <= CACHE_MAX_CENTS) {
+            return CACHE[(int) cents];
+        }
+        return new Money(cents);
+    }
+
+    /**
+     * Convierte un importe en euros, redondeando al céntimo según {@link #ROUNDING}.
+     *
+     * @param euros El importe en euros.
+     * @return El importe.
+     * @throws IllegalArgumentException Si el importe es nulo o no cabe en un long de céntimos.
+     */
+    public static Money of(BigDecimal euros) {
+        return ofCents(toCents(euros));
+    }
+
+    /**
+     * Convierte un importe en euros expresado como texto (por ejemplo "12.50").
+     *
+     * @param euros El importe en euros.
+     * @return El importe.
+     * @throws IllegalArgumentException Si el texto no es un importe válido.
+     */
+    public static Money parse(String euros) {
+        try {
+            return of(new BigDecimal(euros));
+        } catch (NumberFormatException | NullPointerException e) {
+            throw new IllegalArgumentException("Importe no válido: " + euros + ".", e);
+        }
+    }
+
+    /**
+     * Convierte un importe en euros a céntimos, redondeando según {@link #ROUNDING}.
+     *
+     * @param euros El importe en euros.
+     * @return Los céntimos.
+     * @throws IllegalArgumentException Si el importe es nulo o no cabe en un long de céntimos.
+     */
+    public static long toCents(BigDecimal euros) {
+        if (euros == null) {
+            throw new IllegalArgumentException("El importe no puede ser nulo.");
+        }
+        try {
+            return euros.setScale(2, ROUNDING).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("El importe " + euros + " está fuera de rango.", e);
+        }
+    }
+
+    /**
+     * Obtiene el importe en céntimos.
+     *
+     * @return Los céntimos.
+     */
+    public long getCents() {
+        return cents;
+    }
+
+    /**
+     * Suma dos importes.
+     *
+     * @param other El importe a sumar.
+     * @return La suma.
+     */
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+
+    /**
+     * Resta dos importes.
+     *
+     * @param other El importe a restar.
+     * @return La diferencia.
+     */
+    public Money minus(Money other) {
+        return ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    /**
+     * Multiplica el importe por un número entero.
+     *
+     * @param factor El factor.
+     * @return El producto.
+     */
+    public Money times(long factor) {
+        return ofCents(Math.multiplyExact(cents, factor));
+    }
+
+    /**
+     * Indica si el importe es mayor que cero.
+     *
+     * @return true si el importe es positivo.
+     */
+    public boolean isPositive() {
+        return cents > 0;
+    }
+
+    /**
+     * Indica si el importe es menor que cero.
+     *
+     * @return true si el importe es negativo.
+     */
+    public boolean isNegative() {
+        return cents < 0;
+    }
+
+    /**
+     * Indica si el importe es menor que otro.
+     *
+     * @param other El importe con el que comparar.
+     * @return true si este importe es menor.
+     */
+    public boolean isLessThan(Money other) {
+        return cents < other.cents;
+    }
+
+    /**
+     * Convierte el importe a euros con dos decimales.
+     *
+     * @return El importe como BigDecimal.
+     */
+    public BigDecimal toBigDecimal() {
+        BigDecimal value = decimal;
+        if (value == null) {
+            // BigDecimal es inmutable: si dos hilos lo calculan a la vez, ambos obtienen el mismo valor
+            value = BigDecimal.valueOf(cents, 2);
+            decimal = value;
+        }
+        return value;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return cents == ((Money) o).cents;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
@@ -0,0 +1,198 @@
+package data;
+
+/**
+ * Codificación binaria canónica de los identificadores alfanuméricos (VehicleID, StationID, UserAccount).
+ *
+ * Cada carácter de [0-9A-Z_a-z] ocupa 6 bits, con códigos del 1 al 63 en el mismo orden que en ASCII, y el
+ * 0 marca el relleno tras el último carácter. Un long guarda hasta CHARS_PER_WORD caracteres alineados a
+ * la izquierda en sus 60 bits bajos, así que dos palabras cubren hasta MAX_LENGTH caracteres. La
+ * codificación es biyectiva: dos identificadores son iguales si y solo si sus palabras lo son, y comparar
+ * las palabras como long da el mismo orden que comparar los textos. Así los registros e índices pueden
+ * usar las palabras como clave sin guardar ni comparar cadenas.
+ *
+ * La validación recorre los caracteres una vez con una tabla, sin expresiones regulares.
+ */
+public final class PackedId {
+
+    public static final int CHARS_PER_WORD = 10;
+    public static final int MAX_LENGTH = 2 * CHARS_PER_WORD;
+
+    private static final int BITS_PER_CHAR = 6;
+    private static final int CHAR_MASK = (1 << BITS_PER_CHAR) - 1;
+    private static final int UNDERSCORE = 37;
+
+    // Código de cada carácter ASCII, o 0 si no está permitido
+    private static final byte[] CODES = new byte[128];
+    private static final char[] CHARS = new char[64];
+
+    static {
+        int code = 1;
+        for (char c = '0'; c <= '9'; c++) {
+            register(c, code++);
+        }
+        for (char c = 'A'; c <= 'Z'; c++) {
+            register(c, code++);
+        }
+        register('_', code++);
+        for (char c = 'a'; c <= 'z'; c++) {
+            register(c, code++);
+        }
+    }
+
+    private PackedId() {
+    }
+
+    /**
+     * Comprueba que un identificador tenga una longitud permitida y solo caracteres alfanuméricos y,
+     * opcionalmente, guiones bajos.
+     *
+     * @param id              El identificador.
+     * @param minLength       Longitud mínima.
+     * @param maxLength       Longitud máxima; no puede superar MAX_LENGTH.
+     * @param allowUnderscore Si se admite el guion bajo.
+     * @return true si es válido.
+     */
+    public static boolean isValid(CharSequence id, int minLength, int maxLength, boolean allowUnderscore) {
+        if (id == null || id.length() < minLength || id.length() > Math.min(maxLength, MAX_LENGTH)) {
+            return false;
+        }
+        for (int i = 0; i < id.length(); i++) {
+            int code = codeOf(id.charAt(i));
+            if (code == 0 || (code == UNDERSCORE && !allowUnderscore)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Empaqueta hasta CHARS_PER_WORD caracteres de un identificador a partir de una posición.
+     *
+     * @param id   El identificador.
+     * @param from Posición del primer carácter; si no hay caracteres a partir de ella, devuelve 0.
+     * @return La palabra.
+     * @throws IllegalArgumentException Si el identificador es nulo o contiene un carácter no permitido.
+     */
+    public static long pack(CharSequence id, int from) {
+        if (id == null) {
+            throw new IllegalArgumentException("El identificador no puede ser nulo.");
+        }
+        int to = Math.min(id.length(), from + CHARS_PER_WORD);
+        long word = 0;
+        for (int i = from; i < to; i++) {
+            int code = codeOf(id.charAt(i));
+            if (code == 0) {
+                throw new IllegalArgumentException("Carácter no permitido en el identificador: '" + id.charAt(i) + "'.");
+            }
+            word |= (long) code << shift(i - from);
+        }
+        return word;
+    }
+
+    /**
+     * Empaqueta los primeros CHARS_PER_WORD caracteres de un identificador.
+     *
+     * @return La palabra alta.
+     * @throws IllegalArgumentException Si el identificador es nulo o contiene un carácter no permitido.
+     */
+    public static long high(CharSequence id) {
+        return pack(id, 0);
+    }
+
+    /**
+     * Empaqueta los caracteres de un identificador que siguen a los de la palabra alta.
+     *
+     * @return La palabra baja, o 0 si el identificador no tiene más de CHARS_PER_WORD caracteres.
+     * @throws IllegalArgumentException Si el identificador es nulo o contiene un carácter no permitido.
+     */
+    public static long low(CharSequence id) {
+        return pack(id, CHARS_PER_WORD);
+    }
+
+    /**
+     * Reconstruye un identificador de una sola palabra.
+     *
+     * @param word La palabra.
+     * @return El identificador.
+     * @throws IllegalArgumentException Si la palabra no es una codificación válida.
+     */
+    public static String unpack(long word) {
+        return unpack(word, 0);
+    }
+
+    /**
+     * Reconstruye un identificador de dos palabras.
+     *
+     * @param high La palabra alta.
+     * @param low  La palabra baja.
+     * @return El identificador.
+     * @throws IllegalArgumentException Si las palabras no son una codificación válida.
+     */
+    public static String unpack(long high, long low) {
+        int highLength = length(high);
+        int lowLength = length(low);
+        if (highLength < 0 || lowLength < 0 || (lowLength > 0 && highLength < CHARS_PER_WORD)) {
+            throw new IllegalArgumentException("Codificación de identificador no válida.");
+        }
+        char[] chars = new char[highLength + lowLength];
+        decode(high, chars, 0, highLength);
+        decode(low, chars, highLength, lowLength);
+        return new String(chars);
+    }
+
+    /**
+     * Calcula el hash de un identificador de una palabra, mezclando todos sus bits.
+     *
+     * @return El hash.
+     */
+    public static int hash(long word) {
+        long h = word * 0x9E37_79B9_7F4A_7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Calcula el hash de un identificador de dos palabras, mezclando todos sus bits.
+     *
+     * @return El hash.
+     */
+    public static int hash(long high, long low) {
+        return hash(high * 31 + low);
+    }
+
+    // Métodos internos
+
+    private static void register(char c, int code) {
+        CODES[c] = (byte) code;
+        CHARS[code] = c;
+    }
+
+    private static int codeOf(char c) {
+        return c < 128 ? CODES[c] : 0;
+    }
+
+    private static int shift(int position) {
+        return (CHARS_PER_WORD - 1 - position) * BITS_PER_CHAR;
+    }
+
+    /**
+     * Obtiene el número de caracteres de una palabra, o -1 si los bits altos no están a cero o hay
+     * caracteres después del relleno.
+     */
+    private static int length(long word) {
+        if (word >>> (CHARS_PER_WORD * BITS_PER_CHAR) != 0) {
+            return -1;
+        }
+        int length = 0;
+        while (length < CHARS_PER_WORD && ((word >>> shift(length)) & CHAR_MASK) != 0) {
+            length++;
+        }
+        long rest = length == CHARS_PER_WORD ? 0 : word & ((1L << (shift(length) + BITS_PER_CHAR)) - 1);
+        return rest == 0 ? length : -1;
+    }
+
+    private static void decode(long word, char[] chars, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            chars[offset + i] = CHARS[(int) (word >>> shift(i)) & CHAR_MASK];
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package data;
+
+import exceptions.InvalidPairingArgsException;
+
+/**
+ * Representación compacta de un punto geográfico en un único long: la latitud en los 32 bits altos y la
+ * longitud en los 32 bits bajos, ambas como enteros con signo en microgrados (millonésimas de grado,
+ * unos 11 cm en el ecuador). Permite guardar millones de puntos en arrays de long sin crear un objeto
+ * por punto, y compararlos o usarlos como clave sin reservar memoria.
+ * Las conversiones desde grados redondean al microgrado más cercano.
+ */
+public final class PackedPoint {
+
+    public static final int MICROS_PER_DEGREE = 1_000_000;
+
+    // Multiplicar por el inverso evita una división por coordenada al recorrer millones de puntos
+    private static final double DEGREES_PER_MICRO = 1.0 / MICROS_PER_DEGREE;
+
+    private static final int MAX_LATITUDE_MICROS = 90 * MICROS_PER_DEGREE;
+    private static final int MAX_LONGITUDE_MICROS = 180 * MICROS_PER_DEGREE;
+
+    private PackedPoint() {
+    }
+
+    /**
+     * Empaqueta una latitud y una longitud en grados.
+     *
+     * @return El punto empaquetado.
+     * @throws IllegalArgumentException Si la latitud o la longitud están fuera de rango o no son números.
+     */
+    public static long pack(double lat, double lon) {
+        if (!(lat >= -90 && lat <= 90) || !(lon >= -180 && lon <= 180)) {
+            throw new IllegalArgumentException("Coordenadas fuera de rango: " + lat + ", " + lon + ".");
+        }
+        return packMicros((int) Math.round(lat * MICROS_PER_DEGREE), (int) Math.round(lon * MICROS_PER_DEGREE));
+    }
+
+    /**
+     * Empaqueta un punto geográfico.
+     *
+     * @param point El punto.
+     * @return El punto empaquetado.
+     * @throws IllegalArgumentException Si el punto es nulo.
+     */
+    public static long pack(GeographicPoint point) {
+        if (point == null) {
+            throw new IllegalArgumentException("El punto no puede ser nulo.");
+        }
+        return pack(point.getLatitude(), point.getLongitude());
+    }
+
+    /**
+     * Empaqueta una latitud y una longitud en microgrados, sin validarlas.
+     *
+     * @return El punto empaquetado.
+     */
+    public static long packMicros(int latMicros, int lonMicros) {
+        return ((long) latMicros << 32) | (lonMicros & 0xFFFF_FFFFL);
+    }
+
+    /**
+     * Obtiene la latitud en microgrados.
+     *
+     * @param packed El punto empaquetado.
+     * @return La latitud en microgrados.
+     */
+    public static int latitudeMicros(long packed) {
+        return (int) (packed >> 32);
+    }
+
+    /**
+     * Obtiene la longitud en microgrados.
+     *
+     * @param packed El punto empaquetado.
+     * @return La longitud en microgrados.
+     */
+    public static int longitudeMicros(long packed) {
+        return (int) packed;
+    }
+
+    /**
+     * Obtiene la latitud en grados.
+     *
+     * @param packed El punto empaquetado.
+     * @return La latitud en grados.
+     */
+    public static double latitude(long packed) {
+        return latitudeMicros(packed) * DEGREES_PER_MICRO;
+    }
+
+    /**
+     * Obtiene la longitud en grados.
+     *
+     * @param packed El punto empaquetado.
+     * @return La longitud en grados.
+     */
+    public static double longitude(long packed) {
+        return longitudeMicros(packed) * DEGREES_PER_MICRO;
+    }
+
+    /**
+     * Indica si un valor empaquetado tiene coordenadas dentro de rango.
+     *
+     * @param packed El punto empaquetado.
+     * @return true si la latitud y la longitud son válidas.
+     */
+    public static boolean isValid(long packed) {
+        int lat = latitudeMicros(packed);
+        int lon = longitudeMicros(packed);
+        return lat >= -MAX_LATITUDE_MICROS && lat <= MAX_LATITUDE_MICROS
+                && lon >= -MAX_LONGITUDE_MICROS && lon <= MAX_LONGITUDE_MICROS;
+    }
+
+    /**
+     * Crea un GeographicPoint a partir de un punto empaquetado.
+     *
+     * @param packed El punto empaquetado.
+     * @return El punto geográfico.
+     * @throws InvalidPairingArgsException Si las coordenadas están fuera de rango.
+     */
+    public static GeographicPoint toPoint(long packed) throws InvalidPairingArgsException {
+        return new GeographicPoint((float) latitude(packed), (float) longitude(packed));
+    }
+
+    /**
+     * Calcula un hash bien distribuido de un punto empaquetado, útil para tablas de dispersión primitivas.
+     *
+     * @param packed El punto empaquetado.
+     * @return El hash.
+     */
+    public static int hash(long packed) {
+        long h = packed * 0x9E37_79B9_7F4A_7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Representación legible de un punto empaquetado.
+     *
+     * @param packed El punto empaquetado.
+     * @return El texto "latitud, longitud" en grados.
+     */
+    public static String toString(long packed) {
+        return latitude(packed) + ", " + longitude(packed);
+    }
+}
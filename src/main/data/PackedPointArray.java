@@ -0,0 +1,257 @@
+package data;
+
+import exceptions.InvalidPairingArgsException;
+
+import java.util.Arrays;
+
+/**
+ * Lista creciente de puntos geográficos guardados como long empaquetados (ver PackedPoint), con 8 bytes por
+ * punto y sin un objeto por punto. Los accesos por índice devuelven primitivos; {@link #cursor()} ofrece una
+ * vista reutilizable para recorrerla sin crear objetos, y las coordenadas se pueden volcar a arrays de float
+ * para los cálculos por lotes de GeoDistance.
+ * No es segura para modificarse desde varios hilos.
+ */
+public final class PackedPointArray {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] points;
+    private int size;
+
+    /**
+     * Constructor con la capacidad por defecto.
+     */
+    public PackedPointArray() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor de PackedPointArray.
+     *
+     * @param initialCapacity Número de puntos previsto.
+     * @throws IllegalArgumentException Si la capacidad es negativa.
+     */
+    public PackedPointArray(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("La capacidad inicial no puede ser negativa.");
+        }
+        this.points = new long[Math.max(1, initialCapacity)];
+    }
+
+    /**
+     * Añade un punto en grados.
+     *
+     * @return El índice del punto añadido.
+     * @throws IllegalArgumentException Si las coordenadas están fuera de rango.
+     */
+    public int add(double lat, double lon) {
+        return addPacked(PackedPoint.pack(lat, lon));
+    }
+
+    /**
+     * Añade un punto geográfico.
+     *
+     * @return El índice del punto añadido.
+     * @throws IllegalArgumentException Si el punto es nulo.
+     */
+    public int add(GeographicPoint point) {
+        return addPacked(PackedPoint.pack(point));
+    }
+
+    /**
+     * Añade un punto ya empaquetado.
+     *
+     * @return El índice del punto añadido.
+     * @throws IllegalArgumentException Si el valor no es un punto válido.
+     */
+    public int addPacked(long packed) {
+        if (!PackedPoint.isValid(packed)) {
+            throw new IllegalArgumentException("Punto empaquetado fuera de rango: " + PackedPoint.toString(packed) + ".");
+        }
+        if (size == points.length) {
+            points = Arrays.copyOf(points, size * 2);
+        }
+        points[size] = packed;
+        return size++;
+    }
+
+    /**
+     * Sustituye el punto de un índice.
+     *
+     * @throws IndexOutOfBoundsException Si el índice no es válido.
+     * @throws IllegalArgumentException  Si las coordenadas están fuera de rango.
+     */
+    public void set(int index, double lat, double lon) {
+        points[checkIndex(index)] = PackedPoint.pack(lat, lon);
+    }
+
+    /**
+     * Obtiene el punto empaquetado de un índice.
+     *
+     * @throws IndexOutOfBoundsException Si el índice no es válido.
+     */
+    public long getPacked(int index) {
+        return points[checkIndex(index)];
+    }
+
+    /**
+     * Obtiene la latitud en grados del punto de un índice.
+     *
+     * @throws IndexOutOfBoundsException Si el índice no es válido.
+     */
+    public double getLatitude(int index) {
+        return PackedPoint.latitude(points[checkIndex(index)]);
+    }
+
+    /**
+     * Obtiene la longitud en grados del punto de un índice.
+     *
+     * @throws IndexOutOfBoundsException Si el índice no es válido.
+     */
+    public double getLongitude(int index) {
+        return PackedPoint.longitude(points[checkIndex(index)]);
+    }
+
+    /**
+     * Crea un GeographicPoint con el punto de un índice.
+     *
+     * @throws IndexOutOfBoundsException   Si el índice no es válido.
+     * @throws InvalidPairingArgsException Nunca para puntos añadidos por esta clase, que se validan al añadirse.
+     */
+    public GeographicPoint toPoint(int index) throws InvalidPairingArgsException {
+        return PackedPoint.toPoint(points[checkIndex(index)]);
+    }
+
+    /**
+     * Busca la primera aparición de un punto.
+     *
+     * @param packed El punto empaquetado.
+     * @return Su índice, o -1 si no está.
+     */
+    public int indexOf(long packed) {
+        for (int i = 0; i < size; i++) {
+            if (points[i] == packed) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Vuelca las coordenadas en grados a arrays de float, por ejemplo para GeoDistance.
+     *
+     * @param lats Array de salida para las latitudes, con al menos size() posiciones.
+     * @param lons Array de salida para las longitudes, con al menos size() posiciones.
+     * @throws IllegalArgumentException Si algún array es nulo o demasiado pequeño.
+     */
+    public void copyCoordinates(float[] lats, float[] lons) {
+        if (lats == null || lons == null || lats.length < size || lons.length < size) {
+            throw new IllegalArgumentException("Los arrays de salida deben tener al menos " + size + " posiciones.");
+        }
+        for (int i = 0; i < size; i++) {
+            long packed = points[i];
+            lats[i] = (float) PackedPoint.latitude(packed);
+            lons[i] = (float) PackedPoint.longitude(packed);
+        }
+    }
+
+    /**
+     * Obtiene el número de puntos.
+     *
+     * @return El número de puntos.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Vacía la lista conservando la memoria reservada.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Crea un cursor para recorrer los puntos sin crear un objeto por punto.
+     *
+     * @return El cursor, situado antes del primer punto.
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    // Métodos internos
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Índice " + index + " fuera de rango para " + size + " puntos.");
+        }
+        return index;
+    }
+
+    /**
+     * Vista reutilizable sobre los puntos de la lista: cada llamada a next() la desplaza al punto siguiente.
+     */
+    public final class Cursor {
+        private int index = -1;
+
+        private Cursor() {
+        }
+
+        /**
+         * Avanza al siguiente punto.
+         *
+         * @return false si no quedan puntos.
+         */
+        public boolean next() {
+            if (index + 1 >= size) {
+                return false;
+            }
+            index++;
+            return true;
+        }
+
+        /**
+         * Vuelve a situar el cursor antes del primer punto.
+         */
+        public void reset() {
+            index = -1;
+        }
+
+        /**
+         * Obtiene el índice del punto actual.
+         *
+         * @return El índice.
+         */
+        public int index() {
+            return index;
+        }
+
+        /**
+         * Obtiene el punto actual empaquetado.
+         *
+         * @return El punto empaquetado.
+         */
+        public long packed() {
+            return points[index];
+        }
+
+        /**
+         * Obtiene la latitud en grados del punto actual.
+         *
+         * @return La latitud.
+         */
+        public double latitude() {
+            return PackedPoint.latitude(points[index]);
+        }
+
+        /**
+         * Obtiene la longitud en grados del punto actual.
+         *
+         * @return La longitud.
+         */
+        public double longitude() {
+            return PackedPoint.longitude(points[index]);
+        }
+    }
+}
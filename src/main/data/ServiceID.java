@@ -9,7 +9,7 @@ import java.util.Objects;
 public final class ServiceID {
 
     private final String id;
-    private final BigDecimal amount;
+    private final Money amount;
 
     /**
      * Constructor que inicializa un identificador de servicio con un monto asociado.
@@ -20,11 +20,21 @@ public final class ServiceID {
      * @throws NullPointerException     Si el monto es nulo.
      */
     public ServiceID(String id, BigDecimal amount) {
+        this(id, Money.of(Objects.requireNonNull(amount, "El monto no puede ser nulo.")));
+    }
+
+    /**
+     * Igual que {@link #ServiceID(String, BigDecimal)}, con el monto en céntimos.
+     *
+     * @param id     Identificador del servicio. No puede ser nulo o vacío.
+     * @param amount Monto asociado al servicio. No puede ser nulo o negativo.
+     */
+    public ServiceID(String id, Money amount) {
         if (id == null || id.isEmpty()) {
             throw new IllegalArgumentException("El ID del servicio no puede ser nulo o vacío.");
         }
         Objects.requireNonNull(amount, "El monto no puede ser nulo.");
-        if (amount.compareTo(BigDecimal.ZERO) < 0) {
+        if (amount.isNegative()) {
             throw new IllegalArgumentException("El monto no puede ser negativo.");
         }
         this.id = id;
@@ -46,6 +56,15 @@ public final class ServiceID {
      * @return Monto del servicio.
      */
     public BigDecimal getAmount() {
+        return amount.toBigDecimal();
+    }
+
+    /**
+     * Obtiene el monto asociado al servicio en céntimos.
+     *
+     * @return Monto del servicio.
+     */
+    public Money getAmountMoney() {
         return amount;
     }
 
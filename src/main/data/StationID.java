@@ -4,10 +4,12 @@ import exceptions.InvalidPairingArgsException;
 
 /**
  * Represents an immutable identifier for a station.
+ * Its PackedId encoding fits in a single long, used by equals and hashCode and as a primitive key.
  */
 public final class StationID {
 
     private final String id;
+    private final long key;
 
     /**
      * Constructor for StationID with validation.
@@ -19,10 +21,26 @@ public final class StationID {
         if (id == null || id.isEmpty()) {
             throw new InvalidPairingArgsException("StationID no puede ser nulo o estar vacío.");
         }
-        if (!id.matches("[A-Za-z0-9]{3,10}")) {
+        if (!PackedId.isValid(id, 3, 10, false)) {
             throw new InvalidPairingArgsException("StationID debe contener entre 3 y 10 caracteres alfanuméricos.");
         }
         this.id = id;
+        this.key = PackedId.high(id);
+    }
+
+    /**
+     * Rebuilds a StationID from its encoding.
+     *
+     * @param key The encoded identifier.
+     * @return The station identifier.
+     * @throws InvalidPairingArgsException If the key does not encode a valid StationID.
+     */
+    public static StationID fromKey(long key) throws InvalidPairingArgsException {
+        try {
+            return new StationID(PackedId.unpack(key));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPairingArgsException("La codificación del StationID no es válida.");
+        }
     }
 
     /**
@@ -34,17 +52,26 @@ public final class StationID {
         return id;
     }
 
+    /**
+     * Getter for the encoded station identifier.
+     *
+     * @return The PackedId encoding of the identifier.
+     */
+    public long getKey() {
+        return key;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         StationID stationID = (StationID) o;
-        return id.equals(stationID.id);
+        return key == stationID.key;
     }
 
     @Override
     public int hashCode() {
-        return id.hashCode();
+        return PackedId.hash(key);
     }
 
     @Override
@@ -4,10 +4,14 @@ import exceptions.InvalidPairingArgsException;
 
 /**
  * Representa una cuenta de usuario inmutable.
+ * Guarda también la codificación con PackedId del nombre de usuario en dos long, que usan equals y
+ * hashCode y que los registros pueden usar como clave primitiva.
  */
 public final class UserAccount {
 
     private final String username;
+    private final long keyHigh;
+    private final long keyLow;
 
     /**
      * Constructor de UserAccount con validación.
@@ -18,6 +22,24 @@ public final class UserAccount {
     public UserAccount(String username) throws InvalidPairingArgsException {
         validarUsername(username);
         this.username = username;
+        this.keyHigh = PackedId.high(username);
+        this.keyLow = PackedId.low(username);
+    }
+
+    /**
+     * Reconstruye una UserAccount a partir de la codificación de su nombre de usuario.
+     *
+     * @param keyHigh La palabra alta de la codificación.
+     * @param keyLow  La palabra baja de la codificación.
+     * @return La cuenta de usuario.
+     * @throws InvalidPairingArgsException Si la codificación no corresponde a un nombre de usuario válido.
+     */
+    public static UserAccount fromKey(long keyHigh, long keyLow) throws InvalidPairingArgsException {
+        try {
+            return new UserAccount(PackedId.unpack(keyHigh, keyLow));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPairingArgsException("La codificación del nombre de usuario no es válida.");
+        }
     }
 
     /**
@@ -29,6 +51,24 @@ public final class UserAccount {
         return username;
     }
 
+    /**
+     * Obtiene la palabra alta de la codificación del nombre de usuario (sus 10 primeros caracteres).
+     *
+     * @return La palabra alta.
+     */
+    public long getKeyHigh() {
+        return keyHigh;
+    }
+
+    /**
+     * Obtiene la palabra baja de la codificación del nombre de usuario (el resto de caracteres, o 0).
+     *
+     * @return La palabra baja.
+     */
+    public long getKeyLow() {
+        return keyLow;
+    }
+
     /**
      * Valida el nombre de usuario.
      *
@@ -39,7 +79,7 @@ public final class UserAccount {
         if (username == null || username.isEmpty()) {
             throw new InvalidPairingArgsException("El nombre de usuario no puede ser nulo o vacío.");
         }
-        if (!username.matches("[A-Za-z0-9_]{3,20}")) {
+        if (!PackedId.isValid(username, 3, 20, true)) {
             throw new InvalidPairingArgsException("El nombre de usuario debe tener entre 3 y 20 caracteres alfanuméricos o guiones bajos.");
         }
     }
@@ -49,12 +89,12 @@ public final class UserAccount {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         UserAccount that = (UserAccount) o;
-        return username.equals(that.username);
+        return keyHigh == that.keyHigh && keyLow == that.keyLow;
     }
 
     @Override
     public int hashCode() {
-        return java.util.Objects.hash(username);
+        return PackedId.hash(keyHigh, keyLow);
     }
 
     @Override
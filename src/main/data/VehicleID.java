@@ -1,14 +1,17 @@
 package data;
 
 import exceptions.InvalidPairingArgsException;
-import java.util.Objects;
 
 /**
  * Representa un identificador inmutable para un vehículo.
+ * Guarda también su codificación con PackedId en dos long, que usan equals y hashCode y que los registros
+ * pueden usar como clave primitiva.
  */
 public final class VehicleID {
 
     private final String id;
+    private final long keyHigh;
+    private final long keyLow;
 
     /**
      * Constructor de VehicleID con validación.
@@ -19,6 +22,24 @@ public final class VehicleID {
     public VehicleID(String id) throws InvalidPairingArgsException {
         validarId(id);
         this.id = id;
+        this.keyHigh = PackedId.high(id);
+        this.keyLow = PackedId.low(id);
+    }
+
+    /**
+     * Reconstruye un VehicleID a partir de su codificación.
+     *
+     * @param keyHigh La palabra alta de la codificación.
+     * @param keyLow  La palabra baja de la codificación.
+     * @return El identificador.
+     * @throws InvalidPairingArgsException Si la codificación no corresponde a un VehicleID válido.
+     */
+    public static VehicleID fromKey(long keyHigh, long keyLow) throws InvalidPairingArgsException {
+        try {
+            return new VehicleID(PackedId.unpack(keyHigh, keyLow));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPairingArgsException("La codificación del VehicleID no es válida.");
+        }
     }
 
     /**
@@ -30,6 +51,24 @@ public final class VehicleID {
         return id;
     }
 
+    /**
+     * Obtiene la palabra alta de la codificación del identificador (sus 10 primeros caracteres).
+     *
+     * @return La palabra alta.
+     */
+    public long getKeyHigh() {
+        return keyHigh;
+    }
+
+    /**
+     * Obtiene la palabra baja de la codificación del identificador (el resto de caracteres, o 0).
+     *
+     * @return La palabra baja.
+     */
+    public long getKeyLow() {
+        return keyLow;
+    }
+
     /**
      * Valida el identificador del vehículo.
      *
@@ -40,7 +79,7 @@ public final class VehicleID {
         if (id == null || id.isEmpty()) {
             throw new InvalidPairingArgsException("El VehicleID no puede ser nulo o estar vacío.");
         }
-        if (!id.matches("[A-Za-z0-9]{5,15}")) {
+        if (!PackedId.isValid(id, 5, 15, false)) {
             throw new InvalidPairingArgsException("El VehicleID debe contener entre 5 y 15 caracteres alfanuméricos.");
         }
     }
@@ -50,12 +89,12 @@ public final class VehicleID {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         VehicleID vehicleID = (VehicleID) o;
-        return id.equals(vehicleID.id);
+        return keyHigh == vehicleID.keyHigh && keyLow == vehicleID.keyLow;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id);
+        return PackedId.hash(keyHigh, keyLow);
     }
 
     @Override
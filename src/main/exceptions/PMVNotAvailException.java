@@ -7,5 +7,15 @@ public class PMVNotAvailException extends Exception {
     public PMVNotAvailException(String message) {
         super(message);
     }
+
+    /**
+     * Constructor para rechazos habituales que no necesitan traza: sin traza no se recorre la pila al crearla.
+     *
+     * @param message            El mensaje.
+     * @param writableStackTrace false para crear la excepción sin traza.
+     */
+    public PMVNotAvailException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
 }
 
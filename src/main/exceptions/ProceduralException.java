@@ -12,4 +12,14 @@ public class ProceduralException extends Exception {
     public ProceduralException(String message, Throwable cause) {
         super(message, cause);
     }
+
+    /**
+     * Constructor para rechazos habituales que no necesitan traza: sin traza no se recorre la pila al crearla.
+     *
+     * @param message            El mensaje.
+     * @param writableStackTrace false para crear la excepción sin traza.
+     */
+    public ProceduralException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
 }
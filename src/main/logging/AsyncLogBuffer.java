@@ -0,0 +1,223 @@
+package logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Búfer circular acotado entre los hilos que registran mensajes y un único hilo consumidor que los
+ * formatea y los entrega al LogSink. Las ranuras se reservan al crear el búfer y se reutilizan, de modo
+ * que encolar un mensaje no reserva memoria: se guarda la plantilla y sus argumentos, y el texto final
+ * se compone en el hilo consumidor.
+ * Encolar nunca bloquea: si el búfer está lleno el mensaje se descarta y se contabiliza.
+ * Cada ranura lleva un número de secuencia que indica si está libre para el productor de la vuelta
+ * actual o lista para el consumidor.
+ */
+public final class AsyncLogBuffer implements AutoCloseable {
+
+    private static final int LITERAL = -1; // El mensaje ya está compuesto y no lleva argumentos
+    private static final long IDLE_PARK_NANOS = 1_000_000;
+    private static final int SPINS_BEFORE_PARK = 64;
+
+    private final LogSink sink;
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    private final Thread consumer;
+    private volatile long consumed;
+    private volatile boolean closed;
+
+    /**
+     * Constructor de AsyncLogBuffer. Arranca el hilo consumidor.
+     *
+     * @param sink     El destino de los mensajes.
+     * @param capacity Número de ranuras; se redondea a la siguiente potencia de dos.
+     * @throws IllegalArgumentException Si el destino es nulo o la capacidad no es positiva.
+     */
+    public AsyncLogBuffer(LogSink sink, int capacity) {
+        if (sink == null || capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("El destino no puede ser nulo y la capacidad debe ser positiva.");
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.sink = sink;
+        this.slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot(i);
+        }
+        this.mask = size - 1;
+        this.consumer = new Thread(this::consumeLoop, "async-log-consumer");
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    /**
+     * Encola un mensaje ya compuesto.
+     *
+     * @return false si el búfer estaba lleno o cerrado y el mensaje se ha descartado.
+     */
+    public boolean offer(Level level, String loggerName, String message) {
+        return offer(level, loggerName, message, LITERAL, null, null, null);
+    }
+
+    /**
+     * Encola una plantilla con hasta tres argumentos. Cada "{}" de la plantilla se sustituye,
+     * en orden, por el valor del argumento correspondiente al escribir el mensaje.
+     *
+     * @return false si el búfer estaba lleno o cerrado y el mensaje se ha descartado.
+     */
+    public boolean offer(Level level, String loggerName, String template, int argCount, Object a1, Object a2, Object a3) {
+        if (closed) {
+            dropped.increment();
+            return false;
+        }
+        long position = claimed.get();
+        Slot slot;
+        while (true) {
+            slot = slots[(int) position & mask];
+            long difference = slot.sequence - position;
+            if (difference == 0) {
+                if (claimed.compareAndSet(position, position + 1)) {
+                    break;
+                }
+                position = claimed.get();
+            } else if (difference < 0) {
+                // La ranura aún no se ha consumido en la vuelta anterior: el búfer está lleno
+                dropped.increment();
+                return false;
+            } else {
+                position = claimed.get();
+            }
+        }
+        slot.level = level;
+        slot.loggerName = loggerName;
+        slot.timestampMillis = System.currentTimeMillis();
+        slot.template = template;
+        slot.argCount = argCount;
+        slot.a1 = a1;
+        slot.a2 = a2;
+        slot.a3 = a3;
+        slot.sequence = position + 1; // Publica la ranura al consumidor
+        return true;
+    }
+
+    /**
+     * Espera a que se hayan escrito todos los mensajes encolados hasta ahora.
+     */
+    public void flush() {
+        long target = claimed.get();
+        while (consumed < target && consumer.isAlive()) {
+            LockSupport.unpark(consumer);
+            LockSupport.parkNanos(100_000);
+        }
+    }
+
+    /**
+     * Obtiene el número de mensajes descartados por encontrarse el búfer lleno o cerrado.
+     *
+     * @return El número de mensajes descartados.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Obtiene el número de ranuras del búfer.
+     *
+     * @return La capacidad del búfer.
+     */
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    /**
+     * Deja de aceptar mensajes, escribe los pendientes y detiene el hilo consumidor.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Métodos internos
+
+    private void consumeLoop() {
+        StringBuilder text = new StringBuilder(256);
+        long position = 0;
+        int idle = 0;
+        while (true) {
+            Slot slot = slots[(int) position & mask];
+            if (slot.sequence != position + 1) {
+                if (closed && claimed.get() == position) {
+                    return;
+                }
+                if (++idle < SPINS_BEFORE_PARK) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                continue;
+            }
+            idle = 0;
+            String message = slot.argCount == LITERAL ? slot.template : format(text, slot);
+            Level level = slot.level;
+            String loggerName = slot.loggerName;
+            long timestamp = slot.timestampMillis;
+            slot.clear();
+            slot.sequence = position + slots.length; // Libera la ranura para la siguiente vuelta
+            position++;
+            try {
+                sink.publish(level, loggerName, timestamp, message);
+            } catch (RuntimeException e) {
+                // Un destino defectuoso no debe detener el registro del resto de mensajes
+            }
+            consumed = position;
+        }
+    }
+
+    private static String format(StringBuilder text, Slot slot) {
+        String template = slot.template;
+        text.setLength(0);
+        int from = 0;
+        for (int arg = 0; arg < slot.argCount; arg++) {
+            int at = template.indexOf("{}", from);
+            if (at < 0) {
+                break;
+            }
+            text.append(template, from, at).append(arg == 0 ? slot.a1 : arg == 1 ? slot.a2 : slot.a3);
+            from = at + 2;
+        }
+        return text.append(template, from, template.length()).toString();
+    }
+
+    /**
+     * Ranura reutilizable del búfer.
+     */
+    private static final class Slot {
+        private volatile long sequence;
+        private Level level;
+        private String loggerName;
+        private long timestampMillis;
+        private String template;
+        private int argCount;
+        private Object a1;
+        private Object a2;
+        private Object a3;
+
+        private Slot(long sequence) {
+            this.sequence = sequence;
+        }
+
+        private void clear() {
+            template = null;
+            a1 = null;
+            a2 = null;
+            a3 = null;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package logging;
+
+import java.io.PrintStream;
+
+/**
+ * Destino que escribe los mensajes en la salida estándar, uno por línea.
+ * Los avisos y errores se escriben en la salida de errores con el nivel como prefijo.
+ */
+public class ConsoleLogSink implements LogSink {
+
+    private final PrintStream out;
+    private final PrintStream err;
+
+    /**
+     * Constructor que usa System.out y System.err.
+     */
+    public ConsoleLogSink() {
+        this(System.out, System.err);
+    }
+
+    /**
+     * Constructor de ConsoleLogSink.
+     *
+     * @param out Flujo para los mensajes de nivel INFO o inferior.
+     * @param err Flujo para los avisos y errores.
+     */
+    public ConsoleLogSink(PrintStream out, PrintStream err) {
+        if (out == null || err == null) {
+            throw new IllegalArgumentException("Los flujos de salida no pueden ser nulos.");
+        }
+        this.out = out;
+        this.err = err;
+    }
+
+    @Override
+    public void publish(Level level, String loggerName, long timestampMillis, String message) {
+        if (level.compareTo(Level.WARN) >= 0) {
+            err.println("[" + level + "] " + message);
+        } else {
+            out.println(message);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package logging;
+
+/**
+ * Niveles de registro, de menor a mayor gravedad. OFF desactiva el registro por completo.
+ */
+public enum Level {
+    TRACE,  // Detalle muy fino, solo para diagnóstico
+    DEBUG,  // Información de depuración
+    INFO,   // Eventos normales del sistema
+    WARN,   // Situaciones anómalas recuperables
+    ERROR,  // Errores
+    OFF     // Sin registro
+}
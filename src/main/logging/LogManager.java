@@ -0,0 +1,129 @@
+package logging;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Punto de acceso a los registradores y configuración global del registro.
+ * Todos los registradores comparten un AsyncLogBuffer que escribe en el LogSink configurado
+ * (por defecto, la consola). El nivel inicial se toma de la propiedad del sistema
+ * {@value #LEVEL_PROPERTY} y, si no está definida, es INFO.
+ */
+public final class LogManager {
+
+    public static final String LEVEL_PROPERTY = "micromobility.log.level";
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    private static final ConcurrentMap<String, Logger> loggers = new ConcurrentHashMap<>();
+    private static volatile Level defaultLevel = parseLevel(System.getProperty(LEVEL_PROPERTY), Level.INFO);
+    private static volatile AsyncLogBuffer buffer = new AsyncLogBuffer(new ConsoleLogSink(), DEFAULT_CAPACITY);
+
+    static {
+        // El consumidor es un hilo daemon: al terminar la JVM se escriben los mensajes pendientes
+        Runtime.getRuntime().addShutdownHook(new Thread(LogManager::flush, "async-log-shutdown"));
+    }
+
+    private LogManager() {
+    }
+
+    /**
+     * Obtiene el registrador de una clase.
+     *
+     * @param type La clase.
+     * @return El registrador con el nombre completo de la clase.
+     */
+    public static Logger getLogger(Class<?> type) {
+        return getLogger(type.getName());
+    }
+
+    /**
+     * Obtiene el registrador con el nombre indicado, creándolo con el nivel por defecto si no existe.
+     *
+     * @param name El nombre del registrador.
+     * @return El registrador.
+     */
+    public static Logger getLogger(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("El nombre del registrador no puede ser nulo.");
+        }
+        return loggers.computeIfAbsent(name, n -> new Logger(n, defaultLevel));
+    }
+
+    /**
+     * Cambia el nivel por defecto y el de todos los registradores existentes.
+     *
+     * @param level El nuevo nivel.
+     */
+    public static void setLevel(Level level) {
+        if (level == null) {
+            throw new IllegalArgumentException("El nivel no puede ser nulo.");
+        }
+        defaultLevel = level;
+        for (Logger logger : loggers.values()) {
+            logger.setLevel(level);
+        }
+    }
+
+    /**
+     * Obtiene el nivel por defecto de los registradores nuevos.
+     *
+     * @return El nivel por defecto.
+     */
+    public static Level getLevel() {
+        return defaultLevel;
+    }
+
+    /**
+     * Sustituye el destino de los mensajes usando la capacidad por defecto.
+     *
+     * @param sink El nuevo destino.
+     */
+    public static void setSink(LogSink sink) {
+        setSink(sink, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Sustituye el destino de los mensajes. Los mensajes pendientes del destino anterior se escriben
+     * antes de cerrarlo.
+     *
+     * @param sink     El nuevo destino.
+     * @param capacity Número de mensajes que admite el búfer antes de empezar a descartar.
+     */
+    public static synchronized void setSink(LogSink sink, int capacity) {
+        AsyncLogBuffer previous = buffer;
+        buffer = new AsyncLogBuffer(sink, capacity);
+        previous.close();
+    }
+
+    /**
+     * Espera a que se escriban todos los mensajes registrados hasta ahora.
+     */
+    public static void flush() {
+        buffer.flush();
+    }
+
+    /**
+     * Obtiene el número de mensajes descartados por el búfer activo al estar lleno.
+     *
+     * @return El número de mensajes descartados.
+     */
+    public static long getDroppedCount() {
+        return buffer.getDroppedCount();
+    }
+
+    static AsyncLogBuffer buffer() {
+        return buffer;
+    }
+
+    private static Level parseLevel(String value, Level fallback) {
+        if (value == null || value.isBlank()) {
+            return fallback;
+        }
+        try {
+            return Level.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return fallback;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package logging;
+
+/**
+ * Destino final de los mensajes de registro ya formateados.
+ * Las implementaciones se invocan desde un único hilo, el consumidor de AsyncLogBuffer,
+ * por lo que no necesitan ser seguras ante accesos concurrentes.
+ */
+@FunctionalInterface
+public interface LogSink {
+
+    /**
+     * Escribe un mensaje de registro.
+     *
+     * @param level           El nivel del mensaje.
+     * @param loggerName      El nombre del registrador que lo emitió.
+     * @param timestampMillis El instante de emisión, en milisegundos desde epoch.
+     * @param message         El mensaje ya formateado.
+     */
+    void publish(Level level, String loggerName, long timestampMillis, String message);
+}
@@ -0,0 +1,341 @@
+package logging;
+
+import java.util.function.Supplier;
+
+/**
+ * Registrador con nombre y nivel mínimo, obtenido de {@link LogManager}.
+ * Los mensajes por debajo del nivel se descartan con una sola comparación, sin componer texto ni
+ * reservar memoria. Los habilitados se encolan en el AsyncLogBuffer activo con su plantilla y sus
+ * argumentos, y se formatean en el hilo consumidor, de modo que el llamante nunca espera por la salida.
+ * Las plantillas usan "{}" para marcar la posición de cada argumento. Los argumentos se convierten
+ * a texto más tarde, en el hilo consumidor, así que deben ser valores inmutables.
+ * Cuando un argumento es un primitivo, conviene comprobar antes el nivel (por ejemplo con
+ * {@link #isDebugEnabled()}) para no crear el objeto envoltorio si el mensaje se va a descartar.
+ */
+public final class Logger {
+
+    private final String name;
+    private volatile Level level;
+
+    /**
+     * Constructor de Logger.
+     *
+     * @param name  El nombre del registrador.
+     * @param level El nivel mínimo de los mensajes que se registran.
+     */
+    Logger(String name, Level level) {
+        this.name = name;
+        this.level = level;
+    }
+
+    /**
+     * Obtiene el nombre del registrador.
+     *
+     * @return El nombre.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Obtiene el nivel mínimo de los mensajes que se registran.
+     *
+     * @return El nivel actual.
+     */
+    public Level getLevel() {
+        return level;
+    }
+
+    /**
+     * Cambia el nivel mínimo de los mensajes que se registran.
+     *
+     * @param level El nuevo nivel.
+     */
+    public void setLevel(Level level) {
+        if (level == null) {
+            throw new IllegalArgumentException("El nivel no puede ser nulo.");
+        }
+        this.level = level;
+    }
+
+    /**
+     * Indica si los mensajes del nivel indicado se registran.
+     *
+     * @param candidate El nivel a comprobar.
+     * @return true si el nivel está habilitado.
+     */
+    public boolean isEnabled(Level candidate) {
+        return candidate != Level.OFF && candidate.compareTo(level) >= 0;
+    }
+
+    /**
+     * Indica si los mensajes de depuración se registran.
+     *
+     * @return true si el nivel DEBUG está habilitado.
+     */
+    public boolean isDebugEnabled() {
+        return isEnabled(Level.DEBUG);
+    }
+
+    /**
+     * Indica si los mensajes informativos se registran.
+     *
+     * @return true si el nivel INFO está habilitado.
+     */
+    public boolean isInfoEnabled() {
+        return isEnabled(Level.INFO);
+    }
+
+    /**
+     * Registra un mensaje en el nivel indicado.
+     *
+     * @param at      El nivel del mensaje.
+     * @param message El mensaje.
+     */
+    public void log(Level at, String message) {
+        if (isEnabled(at)) {
+            LogManager.buffer().offer(at, name, message);
+        }
+    }
+
+    /**
+     * Registra un mensaje con un argumento en el nivel indicado.
+     */
+    public void log(Level at, String template, Object a1) {
+        if (isEnabled(at)) {
+            LogManager.buffer().offer(at, name, template, 1, a1, null, null);
+        }
+    }
+
+    /**
+     * Registra un mensaje con dos argumentos en el nivel indicado.
+     */
+    public void log(Level at, String template, Object a1, Object a2) {
+        if (isEnabled(at)) {
+            LogManager.buffer().offer(at, name, template, 2, a1, a2, null);
+        }
+    }
+
+    /**
+     * Registra un mensaje con tres argumentos en el nivel indicado.
+     */
+    public void log(Level at, String template, Object a1, Object a2, Object a3) {
+        if (isEnabled(at)) {
+            LogManager.buffer().offer(at, name, template, 3, a1, a2, a3);
+        }
+    }
+
+    /**
+     * Registra en el nivel indicado un mensaje que solo se compone si el nivel está habilitado.
+     * El proveedor se evalúa en el hilo llamante.
+     */
+    public void log(Level at, Supplier<String> message) {
+        if (isEnabled(at)) {
+            LogManager.buffer().offer(at, name, message.get());
+        }
+    }
+
+    /**
+     * Registra un mensaje de depuración.
+     *
+     * @param message El mensaje.
+     */
+    public void debug(String message) {
+        log(Level.DEBUG, message);
+    }
+
+    /**
+     * Registra un mensaje de depuración con un argumento.
+     *
+     * @param template La plantilla del mensaje, con "{}" en el lugar del argumento.
+     * @param a1       El argumento.
+     */
+    public void debug(String template, Object a1) {
+        log(Level.DEBUG, template, a1);
+    }
+
+    /**
+     * Registra un mensaje de depuración con dos argumentos.
+     *
+     * @param template La plantilla del mensaje, con "{}" en el lugar de cada argumento.
+     * @param a1       El primer argumento.
+     * @param a2       El segundo argumento.
+     */
+    public void debug(String template, Object a1, Object a2) {
+        log(Level.DEBUG, template, a1, a2);
+    }
+
+    /**
+     * Registra un mensaje de depuración con tres argumentos.
+     *
+     * @param template La plantilla del mensaje, con "{}" en el lugar de cada argumento.
+     * @param a1       El primer argumento.
+     * @param a2       El segundo argumento.
+     * @param a3       El tercer argumento.
+     */
+    public void debug(String template, Object a1, Object a2, Object a3) {
+        log(Level.DEBUG, template, a1, a2, a3);
+    }
+
+    /**
+     * Registra un mensaje de depuración que solo se compone si el nivel está habilitado.
+     *
+     * @param message El proveedor del mensaje.
+     */
+    public void debug(Supplier<String> message) {
+        log(Level.DEBUG, message);
+    }
+
+    /**
+     * Registra un mensaje de información.
+     *
+     * @param message El mensaje.
+     */
+    public void info(String message) {
+        log(Level.INFO, message);
+    }
+
+    /**
+     * Registra un mensaje de información con un argumento.
+     *
+     * @param template La plantilla del mensaje, con "{}" en el lugar del argumento.
+     * @param a1       El argumento.
+     */
+    public void info(String template, Object a1) {
+        log(Level.INFO, template, a1);
+    }
+
+    /**
+     * Registra un mensaje de información con dos argumentos.
+     *
+     * @param template La plantilla del mensaje, con "{}" en el lugar de cada argumento.
+     * @param a1       El primer argumento.
+     * @param a2       El segundo argumento.
+     */
+    public void info(String template, Object a1, Object a2) {
+        log(Level.INFO, template, a1, a2);
+    }
+
+    /**
+     * Registra un mensaje de información con tres argumentos.
+     *
+     * @param template La plantilla del mensaje, con "{}" en el lugar de cada argumento.
+     * @param a1       El primer argumento.
+     * @param a2       El segundo argumento.
+     * @param a3       El tercer argumento.
+     */
+    public void info(String template, Object a1, Object a2, Object a3) {
+        log(Level.INFO, template, a1, a2, a3);
+    }
+
+    /**
+     * Registra un mensaje de información que solo se compone si el nivel está habilitado.
+     *
+     * @param message El proveedor del mensaje.
+     */
+    public void info(Supplier<String> message) {
+        log(Level.INFO, message);
+    }
+
+    /**
+     * Registra un mensaje de aviso.
+     *
+     * @param message El mensaje.
+     */
+    public void warn(String message) {
+        log(Level.WARN, message);
+    }
+
+    /**
+     * Registra un mensaje de aviso con un argumento.
+     *
+     * @param template La plantilla del mensaje, con "{}" en el lugar del argumento.
+     * @param a1       El argumento.
+     */
+    public void warn(String template, Object a1) {
+        log(Level.WARN, template, a1);
+    }
+
+    /**
+     * Registra un mensaje de aviso con dos argumentos.
+     *
+     * @param template La plantilla del mensaje, con "{}" en el lugar de cada argumento.
+     * @param a1       El primer argumento.
+     * @param a2       El segundo argumento.
+     */
+    public void warn(String template, Object a1, Object a2) {
+        log(Level.WARN, template, a1, a2);
+    }
+
+    /**
+     * Registra un mensaje de aviso con tres argumentos.
+     *
+     * @param template La plantilla del mensaje, con "{}" en el lugar de cada argumento.
+     * @param a1       El primer argumento.
+     * @param a2       El segundo argumento.
+     * @param a3       El tercer argumento.
+     */
+    public void warn(String template, Object a1, Object a2, Object a3) {
+        log(Level.WARN, template, a1, a2, a3);
+    }
+
+    /**
+     * Registra un mensaje de aviso que solo se compone si el nivel está habilitado.
+     *
+     * @param message El proveedor del mensaje.
+     */
+    public void warn(Supplier<String> message) {
+        log(Level.WARN, message);
+    }
+
+    /**
+     * Registra un mensaje de error.
+     *
+     * @param message El mensaje.
+     */
+    public void error(String message) {
+        log(Level.ERROR, message);
+    }
+
+    /**
+     * Registra un mensaje de error con un argumento.
+     *
+     * @param template La plantilla del mensaje, con "{}" en el lugar del argumento.
+     * @param a1       El argumento.
+     */
+    public void error(String template, Object a1) {
+        log(Level.ERROR, template, a1);
+    }
+
+    /**
+     * Registra un mensaje de error con dos argumentos.
+     *
+     * @param template La plantilla del mensaje, con "{}" en el lugar de cada argumento.
+     * @param a1       El primer argumento.
+     * @param a2       El segundo argumento.
+     */
+    public void error(String template, Object a1, Object a2) {
+        log(Level.ERROR, template, a1, a2);
+    }
+
+    /**
+     * Registra un mensaje de error con tres argumentos.
+     *
+     * @param template La plantilla del mensaje, con "{}" en el lugar de cada argumento.
+     * @param a1       El primer argumento.
+     * @param a2       El segundo argumento.
+     * @param a3       El tercer argumento.
+     */
+    public void error(String template, Object a1, Object a2, Object a3) {
+        log(Level.ERROR, template, a1, a2, a3);
+    }
+
+    /**
+     * Registra un mensaje de error que solo se compone si el nivel está habilitado.
+     *
+     * @param message El proveedor del mensaje.
+     */
+    public void error(Supplier<String> message) {
+        log(Level.ERROR, message);
+    }
+}
@@ -3,17 +3,29 @@ package micromobility;
 import data.*;
 import micromobility.PMVehicle;
 import exceptions.*;
+import logging.LogManager;
+import logging.Logger;
+import micromobility.geo.GeoDistance;
+import micromobility.geo.GeofenceMonitor;
+import micromobility.geo.GpsTrack;
 import micromobility.payment.Wallet;
+import micromobility.tariff.CompiledTariff;
+import micromobility.tariff.UserPlan;
 import mocks.MockWallet;
 import services.Server;
+import services.archive.JourneyArchive;
 import services.smartfeatures.ArduinoMicroController;
 import services.smartfeatures.QRDecoder;
 import services.smartfeatures.UnbondedBTSignal;
+import services.smartfeatures.qr.QRBurstScanner;
 
 
 import java.awt.image.BufferedImage;
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.time.Clock;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletionException;
 
 /**
  * Clase controladora del caso de uso "Realizar desplazamiento".
@@ -21,17 +33,19 @@ import java.time.LocalDateTime;
  */
 public class JourneyRealizeHandler {
 
+    private static final Logger LOG = LogManager.getLogger(JourneyRealizeHandler.class);
+
     // Atributos
     private Server server;                    // Dependencia del servidor
     private QRDecoder qrDecoder;              // Servicio para decodificar códigos QR
     private ArduinoMicroController arduino;  // Microcontrolador Arduino para interacciones con el vehículo
     private UnbondedBTSignal btSignal; // Nueva dependencia para manejar Bluetooth
-    private JourneyService currentJourney;    // El servicio de trayecto actual
-    private PMVehicle currentVehicle;       // Vehículo actual asignado
-    private Wallet wallet;
-    private UserAccount currentUser;
-    private ServiceID currentService;
-    private char selectedPaymentMethod;
+    private final JourneySession session = new JourneySession(null); // Sesión usada por la API de un solo usuario
+    private volatile CompiledTariff tariff = CompiledTariff.standard(); // Tarifa con la que se calculan los importes
+    private volatile GeofenceMonitor geofence; // Zonas de aparcamiento y de circulación (null si no hay geovallas)
+    private volatile JourneyArchive archive;   // Archivo de trayectos finalizados (null si no se archivan)
+    private volatile QRBurstScanner burstScanner; // Escáner de ráfagas (null para decodificar los fotogramas uno a uno)
+    private volatile Clock clock = Clock.systemDefaultZone(); // Reloj con el que se fechan el final y las posiciones
 
     /**
      * Constructor de JourneyRealizeHandler.
@@ -59,48 +73,119 @@ public class JourneyRealizeHandler {
      * @throws ProceduralException             Error en la secuencia procedimental.
      */
     public void scanQR(BufferedImage qrImage) throws ConnectException, InvalidPairingArgsException, CorruptedImgException, PMVNotAvailException, ProceduralException {
-        System.out.println("Iniciando proceso de escaneo de QR...");
-
-        if (qrImage == null) {
-            throw new CorruptedImgException("La imagen del QR está corrupta o es nula.");
-        }
+        scanQR(session, qrImage);
+    }
 
+    /**
+     * Igual que {@link #scanQR(BufferedImage)}, pero sobre la sesión indicada.
+     */
+    void scanQR(JourneySession session, BufferedImage qrImage) throws ConnectException, InvalidPairingArgsException, CorruptedImgException, PMVNotAvailException, ProceduralException {
+        JourneyResult result;
         try {
-            VehicleID vehicleID = qrDecoder.getVehicleID(qrImage);
-            if (vehicleID == null) {
-                throw new ProceduralException("VehicleID no puede ser nulo o inválido.");
-            }
-
-            System.out.println("QR decodificado, VehicleID: " + vehicleID);
-
-            currentVehicle = server.getVehicleByID(vehicleID);
-            if (currentVehicle == null) {
-                throw new ProceduralException("El vehículo no se encontró en el servidor.");
-            }
-
-            System.out.println("Estado inicial del vehículo: " + currentVehicle.getState());
+            result = scan(session, qrImage);
+        } catch (CorruptedImgException | PMVNotAvailException e) {
+            throw e;
+        } catch (Exception e) {
+            // Encapsular cualquier otra excepción no prevista
+            throw new ProceduralException("Error durante el escaneo del QR: " + e.getMessage(), e);
+        }
+        switch (result) {
+            case OK:
+                return;
+            case CORRUPTED_IMAGE:
+                throw new CorruptedImgException(result.getMessage(), false);
+            case VEHICLE_NOT_AVAILABLE:
+                throw new PMVNotAvailException(result.getMessage(), false);
+            default:
+                throw new ProceduralException(result.getMessage(), false);
+        }
+    }
 
-            if (currentVehicle.getState() != PMVState.Available) {
-                throw new PMVNotAvailException("El vehículo no está disponible.");
-            }
+    /**
+     * Igual que {@link #scanQR(BufferedImage)}, pero informa del resultado sin lanzar excepciones. Los
+     * rechazos habituales (imagen corrupta, vehículo ocupado) no crean ningún objeto; los fallos de los
+     * servicios externos se devuelven como CONNECTION_ERROR o ERROR.
+     *
+     * @param qrImage La imagen del código QR.
+     * @return OK si el vehículo queda reclamado, o el motivo del rechazo.
+     */
+    public JourneyResult tryScanQR(BufferedImage qrImage) {
+        return tryScanQR(session, qrImage);
+    }
 
-            // Actualización del estado si todo está correcto
-            currentVehicle.setNotAvailb();
-            System.out.println("Estado del vehículo actualizado a 'NotAvailable'.");
+    /**
+     * Igual que {@link #tryScanQR(BufferedImage)}, pero sobre la sesión indicada.
+     */
+    JourneyResult tryScanQR(JourneySession session, BufferedImage qrImage) {
+        try {
+            return scan(session, qrImage);
         } catch (CorruptedImgException e) {
-            // Propagar la excepción directamente
-            throw e;
+            return JourneyResult.CORRUPTED_IMAGE;
+        } catch (InvalidPairingArgsException e) {
+            return JourneyResult.INVALID_QR;
         } catch (PMVNotAvailException e) {
+            return JourneyResult.VEHICLE_NOT_FOUND;
+        } catch (ConnectException e) {
+            return JourneyResult.CONNECTION_ERROR;
+        } catch (Exception e) {
+            LOG.error("Error durante el escaneo del QR: {}", e.getMessage());
+            return JourneyResult.ERROR;
+        }
+    }
+
+    /**
+     * Igual que {@link #scanQR(BufferedImage)}, pero con una ráfaga de fotogramas de la cámara: reclama el
+     * vehículo del primer fotograma que se decodifique y abandona el resto.
+     *
+     * @param frames Los fotogramas, en el orden en que se tomaron.
+     * @throws ConnectException            Error de conexión.
+     * @throws InvalidPairingArgsException Ningún fotograma se pudo leer y alguno tenía un QR que no es un VehicleID.
+     * @throws CorruptedImgException       Ningún fotograma contiene un QR legible.
+     * @throws PMVNotAvailException        El vehículo no está disponible.
+     * @throws ProceduralException         Error en la secuencia procedimental.
+     */
+    public void scanQRBurst(List<BufferedImage> frames) throws ConnectException, InvalidPairingArgsException, CorruptedImgException, PMVNotAvailException, ProceduralException {
+        JourneyResult result;
+        try {
+            result = claim(session, decodeBurst(frames));
+        } catch (CorruptedImgException | InvalidPairingArgsException | PMVNotAvailException e) {
             throw e;
         } catch (Exception e) {
             // Encapsular cualquier otra excepción no prevista
             throw new ProceduralException("Error durante el escaneo del QR: " + e.getMessage(), e);
         }
+        switch (result) {
+            case OK:
+                return;
+            case VEHICLE_NOT_AVAILABLE:
+                throw new PMVNotAvailException(result.getMessage(), false);
+            default:
+                throw new ProceduralException(result.getMessage(), false);
+        }
     }
 
-
-
-
+    /**
+     * Igual que {@link #scanQRBurst(List)}, pero informa del resultado sin lanzar excepciones.
+     *
+     * @param frames Los fotogramas, en el orden en que se tomaron.
+     * @return OK si el vehículo queda reclamado, o el motivo del rechazo.
+     */
+    public JourneyResult tryScanQRBurst(List<BufferedImage> frames) {
+        try {
+            return claim(session, decodeBurst(frames));
+        } catch (CorruptedImgException e) {
+            return JourneyResult.CORRUPTED_IMAGE;
+        } catch (InvalidPairingArgsException e) {
+            return JourneyResult.INVALID_QR;
+        } catch (PMVNotAvailException e) {
+            return JourneyResult.VEHICLE_NOT_FOUND;
+        } catch (ConnectException e) {
+            return JourneyResult.CONNECTION_ERROR;
+        } catch (Exception e) {
+            LOG.error("Error durante el escaneo del QR: {}", e.getMessage());
+            return JourneyResult.ERROR;
+        }
+    }
 
     /**
      * Finaliza el trayecto actual y realiza las actualizaciones necesarias.
@@ -111,59 +196,48 @@ public class JourneyRealizeHandler {
      * @throws ProceduralException             Error en la secuencia procedimental.
      */
     public void unPairVehicle() throws ConnectException, InvalidPairingArgsException, PairingNotFoundException, ProceduralException {
-        try {
-            if (currentJourney == null || !currentJourney.isInProgress()) {
-                throw new ProceduralException("No hay un trayecto en progreso para finalizar.");
-            }
-
-            if (currentVehicle == null) {
-                throw new PairingNotFoundException("No hay un vehículo asociado para finalizar el trayecto.");
-            }
-
-            // Calcular valores del trayecto antes de finalizar
-            GeographicPoint endPoint = currentVehicle.getLocation();
-            if (endPoint == null) {
-                throw new ProceduralException("La ubicación del vehículo no está disponible.");
-            }
-
-            LocalDateTime endDateTime = LocalDateTime.now();
-            calculateValues(endPoint, endDateTime);
-
-            if (currentJourney.getDuration() <= 0) {
-                throw new ProceduralException("La duración debe ser mayor a 0.");
-            }
-
-            // Calcular el importe del trayecto
-            calculateImport(endDateTime);
-
-            if (currentJourney.getImportValue().compareTo(BigDecimal.ZERO) <= 0) {
-                throw new ProceduralException("El importe debe ser mayor a 0.");
-            }
+        unPairVehicle(session);
+    }
 
-            // Detener el emparejamiento en el servidor
-            server.stopPairing(
-                    currentJourney.getUser(),
-                    currentVehicle.getId(),
-                    currentJourney.getEndStation(),
-                    endPoint,
-                    endDateTime,
-                    currentJourney.getAverageSpeed(),
-                    currentJourney.getDistance(),
-                    currentJourney.getDuration(),
-                    currentJourney.getImportValue()
-            );
-
-            // Actualizar el estado del vehículo y del trayecto
-            currentVehicle.setAvailb();
-            currentJourney.setInProgress(false);
-
-            System.out.println("El trayecto ha finalizado correctamente.");
+    /**
+     * Igual que {@link #unPairVehicle()}, pero sobre la sesión indicada.
+     */
+    void unPairVehicle(JourneySession session) throws ConnectException, InvalidPairingArgsException, PairingNotFoundException, ProceduralException {
+        JourneyResult result;
+        try {
+            result = unPair(session);
         } catch (Exception e) {
             throw new ProceduralException("Error inesperado al finalizar el trayecto: " + e.getMessage(), e);
         }
+        if (!result.isSuccess()) {
+            throw new ProceduralException(result.getMessage(), false);
+        }
     }
 
+    /**
+     * Igual que {@link #unPairVehicle()}, pero informa del resultado sin lanzar excepciones. Los rechazos
+     * habituales (sin trayecto en curso, fuera de zona de aparcamiento) no crean ningún objeto; los fallos
+     * del servidor se devuelven como CONNECTION_ERROR o ERROR.
+     *
+     * @return OK si el trayecto queda finalizado, o el motivo del rechazo.
+     */
+    public JourneyResult tryUnPairVehicle() {
+        return tryUnPairVehicle(session);
+    }
 
+    /**
+     * Igual que {@link #tryUnPairVehicle()}, pero sobre la sesión indicada.
+     */
+    JourneyResult tryUnPairVehicle(JourneySession session) {
+        try {
+            return unPair(session);
+        } catch (ConnectException e) {
+            return JourneyResult.CONNECTION_ERROR;
+        } catch (Exception e) {
+            LOG.error("Error inesperado al finalizar el trayecto: {}", e.getMessage());
+            return JourneyResult.ERROR;
+        }
+    }
 
     /**
      * Emula la recepción del ID de una estación a través del canal Bluetooth.
@@ -172,6 +246,13 @@ public class JourneyRealizeHandler {
      * @throws ConnectException Error de conexión.
      */
     public void broadcastStationID(StationID stID) throws ConnectException {
+        broadcastStationID(session, stID);
+    }
+
+    /**
+     * Igual que {@link #broadcastStationID(StationID)}, pero sobre la sesión indicada.
+     */
+    void broadcastStationID(JourneySession session, StationID stID) throws ConnectException {
         if (stID == null) {
             throw new IllegalArgumentException("El ID de la estación no puede ser nulo.");
         }
@@ -181,6 +262,7 @@ public class JourneyRealizeHandler {
         } catch (ConnectException e) {
             throw new ConnectException("Error de conexión Bluetooth al transmitir el ID de la estación.", e);
         }
+        session.currentStation = stID;
     }
 
     /**
@@ -190,24 +272,32 @@ public class JourneyRealizeHandler {
      * @throws ProceduralException Error en la secuencia procedimental.
      */
     public void startDriving() throws ConnectException, ProceduralException {
-        System.out.println("Iniciando desplazamiento...");
+        startDriving(session);
+    }
+
+    /**
+     * Igual que {@link #startDriving()}, pero sobre la sesión indicada.
+     */
+    void startDriving(JourneySession session) throws ConnectException, ProceduralException {
+        LOG.debug("Iniciando desplazamiento...");
 
-        if (currentVehicle == null) {
+        if (session.currentVehicle == null) {
             throw new ProceduralException("No hay un vehículo vinculado para iniciar el desplazamiento.");
         }
 
-        if (currentVehicle.getState() != PMVState.NotAvailable) {
-            throw new ProceduralException("El vehículo no está en estado NotAvailable.");
+        if (session.currentJourney == null) {
+            throw new ProceduralException("No se ha creado una instancia de JourneyService para iniciar el desplazamiento.");
         }
 
-        if (currentJourney == null) {
-            throw new ProceduralException("No se ha creado una instancia de JourneyService para iniciar el desplazamiento.");
+        if (!session.currentVehicle.compareAndTransition(PMVState.NotAvailable, PMVState.UnderWay)) {
+            throw new ProceduralException("El vehículo no está en estado NotAvailable.");
         }
 
+        session.originStation = session.currentStation;
         try {
-            currentVehicle.setUnderWay();
-            currentJourney.setInProgress(true);
-            System.out.println("El desplazamiento ha comenzado exitosamente.");
+            session.currentJourney.setInProgress(true);
+            startTracking(session);
+            LOG.info("El desplazamiento ha comenzado exitosamente.");
         } catch (Exception e) {
             throw new ProceduralException("Error inesperado al iniciar el desplazamiento: " + e.getMessage(), e);
         }
@@ -221,27 +311,185 @@ public class JourneyRealizeHandler {
      * @throws ProceduralException Error en la secuencia procedimental.
      */
     public void stopDriving() throws ConnectException, ProceduralException {
-        if (currentVehicle == null) {
+        stopDriving(session);
+    }
+
+    /**
+     * Igual que {@link #stopDriving()}, pero sobre la sesión indicada.
+     */
+    void stopDriving(JourneySession session) throws ConnectException, ProceduralException {
+        if (session.currentVehicle == null) {
             throw new ProceduralException("No hay un vehículo vinculado para detener el desplazamiento.");
         }
 
-        if (currentVehicle.getState() != PMVState.UnderWay) {
+        if (session.currentJourney == null || !session.currentJourney.isInProgress()) {
+            throw new ProceduralException("No hay un trayecto en curso para detener.");
+        }
+
+        // Liberar el vehículo: solo pasa a 'Available' si sigue en marcha
+        if (!session.currentVehicle.compareAndTransition(PMVState.UnderWay, PMVState.Available)) {
             throw new ProceduralException("El vehículo no está en marcha para detener el desplazamiento.");
         }
+        stopTracking(session);
+        session.currentJourney.setInProgress(false);
 
-        if (currentJourney == null || !currentJourney.isInProgress()) {
-            throw new ProceduralException("No hay un trayecto en curso para detener.");
+        LOG.info("El desplazamiento ha sido detenido exitosamente.");
+    }
+
+
+    // Métodos internos
+
+    /**
+     * Decodifica el QR y reclama el vehículo. Los rechazos que detecta el propio controlador se devuelven
+     * como resultado; las excepciones de los servicios externos se propagan.
+     */
+    private JourneyResult scan(JourneySession session, BufferedImage qrImage) throws Exception {
+        LOG.debug("Iniciando proceso de escaneo de QR...");
+
+        if (qrImage == null) {
+            return JourneyResult.CORRUPTED_IMAGE;
         }
 
-        // Cambiar el estado del vehículo a 'Available'
-        currentVehicle.setAvailb();
-        currentJourney.setInProgress(false);
+        return claim(session, qrDecoder.getVehicleID(qrImage));
+    }
 
-        System.out.println("El desplazamiento ha sido detenido exitosamente.");
+    /**
+     * Reclama el vehículo decodificado de un QR para la sesión.
+     */
+    private JourneyResult claim(JourneySession session, VehicleID vehicleID) throws Exception {
+        if (vehicleID == null) {
+            return JourneyResult.INVALID_QR;
+        }
+
+        LOG.debug("QR decodificado, VehicleID: {}", vehicleID);
+
+        PMVehicle vehicle = server.getVehicleByID(vehicleID);
+        if (vehicle == null) {
+            return JourneyResult.VEHICLE_NOT_FOUND;
+        }
+
+        LOG.debug("Estado inicial del vehículo: {}", vehicle.getState());
+
+        // Reclamar el vehículo de forma atómica: si dos usuarios escanean a la vez, solo uno gana.
+        // La sesión solo se vincula al vehículo que ha reclamado, nunca al de otro usuario.
+        if (!vehicle.compareAndTransition(PMVState.Available, PMVState.NotAvailable)) {
+            return JourneyResult.VEHICLE_NOT_AVAILABLE;
+        }
+        session.currentVehicle = vehicle;
+        LOG.debug("Estado del vehículo actualizado a 'NotAvailable'.");
+        return JourneyResult.OK;
     }
 
+    /**
+     * Decodifica el primer fotograma legible de una ráfaga: con el escáner de ráfagas si hay uno y, si no,
+     * con el decodificador del controlador, fotograma a fotograma hasta el primer acierto.
+     */
+    private VehicleID decodeBurst(List<BufferedImage> frames) throws Exception {
+        if (frames == null || frames.isEmpty()) {
+            throw new CorruptedImgException(JourneyResult.CORRUPTED_IMAGE.getMessage(), false);
+        }
+        QRBurstScanner scanner = burstScanner;
+        if (scanner != null) {
+            try {
+                return scanner.scan(frames).join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof Exception cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        InvalidPairingArgsException invalid = null;
+        for (BufferedImage frame : frames) {
+            try {
+                VehicleID vehicleID = qrDecoder.getVehicleID(frame);
+                if (vehicleID != null) {
+                    return vehicleID;
+                }
+            } catch (InvalidPairingArgsException e) {
+                invalid = e;
+            } catch (CorruptedImgException e) {
+                // Fotograma ilegible: se pasa al siguiente
+            }
+        }
+        if (invalid != null) {
+            throw invalid;
+        }
+        throw new CorruptedImgException(JourneyResult.CORRUPTED_IMAGE.getMessage(), false);
+    }
 
-    // Métodos internos
+    /**
+     * Finaliza el trayecto en curso. Los rechazos que detecta el propio controlador se devuelven como
+     * resultado; las excepciones del servidor se propagan.
+     */
+    private JourneyResult unPair(JourneySession session) throws Exception {
+        if (session.currentJourney == null || !session.currentJourney.isInProgress()) {
+            return JourneyResult.NO_JOURNEY_IN_PROGRESS;
+        }
+
+        if (session.currentVehicle == null) {
+            return JourneyResult.NO_VEHICLE_PAIRED;
+        }
+
+        // Calcular valores del trayecto antes de finalizar
+        GeographicPoint endPoint = session.currentVehicle.getLocation();
+        if (endPoint == null) {
+            return JourneyResult.LOCATION_UNAVAILABLE;
+        }
+
+        // Con geovallas, el vehículo solo se puede dejar donde se permite aparcar
+        GeofenceMonitor fences = geofence;
+        if (fences != null && !fences.getIndex().isParkingAllowed(endPoint.getLatitude(), endPoint.getLongitude())) {
+            return JourneyResult.PARKING_NOT_ALLOWED;
+        }
+
+        LocalDateTime endDateTime = LocalDateTime.now(clock);
+        calculateValues(session, endPoint, endDateTime);
+
+        if (session.currentJourney.getDuration() <= 0) {
+            return JourneyResult.INVALID_DURATION;
+        }
+        if (session.currentJourney.getDistance() <= 0) {
+            return JourneyResult.INVALID_DISTANCE;
+        }
+
+        // Calcular el importe del trayecto
+        calculateImport(session, endDateTime);
+
+        if (!session.currentJourney.getImportMoney().isPositive()) {
+            return JourneyResult.INVALID_AMOUNT;
+        }
+
+        // La estación de llegada es la última recibida por Bluetooth, si el trayecto no tiene otra
+        if (session.currentJourney.getEndStation() == null && session.currentStation != null) {
+            session.currentJourney.setEndStation(session.currentStation);
+        }
+
+        // Detener el emparejamiento en el servidor
+        server.stopPairing(
+                session.currentJourney.getUser(),
+                session.currentVehicle.getId(),
+                session.currentJourney.getEndStation(),
+                endPoint,
+                endDateTime,
+                session.currentJourney.getAverageSpeed(),
+                session.currentJourney.getDistance(),
+                session.currentJourney.getDuration(),
+                session.currentJourney.getImportValue()
+        );
+
+        // Solo se deja de registrar el recorrido cuando el servidor ha cerrado el trayecto: un rechazo o un
+        // fallo de conexión lo dejan en curso y las posiciones siguientes cuentan en el reintento
+        stopTracking(session);
+
+        // Actualizar el estado del vehículo y del trayecto
+        session.currentVehicle.setAvailb();
+        session.currentJourney.setInProgress(false);
+        archiveJourney(session.currentJourney);
+
+        LOG.info("El trayecto ha finalizado correctamente.");
+        return JourneyResult.OK;
+    }
 
     /**
      * Calcula los valores del trayecto (duración, distancia, velocidad promedio).
@@ -249,30 +497,105 @@ public class JourneyRealizeHandler {
      * @param gP   Punto geográfico final del trayecto.
      * @param date Fecha y hora de finalización.
      */
-    private void calculateValues(GeographicPoint gP, LocalDateTime date) {
-        if (currentJourney == null || !currentJourney.isInProgress()) {
+    private void calculateValues(JourneySession session, GeographicPoint gP, LocalDateTime date) {
+        if (session.currentJourney == null || !session.currentJourney.isInProgress()) {
             throw new IllegalStateException("No hay un trayecto en curso para calcular valores.");
         }
 
         // Calcular duración
         LocalDateTime startDateTime = LocalDateTime.of(
-                currentJourney.getStartDate(),
-                currentJourney.getStartTime()
+                session.currentJourney.getStartDate(),
+                session.currentJourney.getStartTime()
         );
         int duration = (int) java.time.Duration.between(startDateTime, date).toMinutes();
-        currentJourney.setDuration(duration);
-
-        // Calcular distancia
-        GeographicPoint origin = currentJourney.getOriginPoint();
-        float distance = calculateDistance(origin, gP);
-        currentJourney.setDistance(distance);
+        session.currentJourney.setDuration(duration);
+
+        // Calcular distancia: la del recorrido GPS, si lo hay, hasta el punto final; si no, en línea recta desde el origen
+        GpsTrack track = session.currentJourney.getTrack();
+        float distance;
+        if (track == null) {
+            distance = calculateDistance(session.currentJourney.getOriginPoint(), gP);
+        } else {
+            distance = (float) (track.getDistanceKm() + GeoDistance.haversineKm(track.getLastLatitude(),
+                    track.getLastLongitude(), gP.getLatitude(), gP.getLongitude()));
+        }
+        session.currentJourney.setDistance(distance);
 
         // Calcular velocidad promedio
         float avgSpeed = duration > 0 ? (distance / duration) * 60 : 0;
-        currentJourney.setAverageSpeed(avgSpeed);
+        session.currentJourney.setAverageSpeed(avgSpeed);
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Valores calculados: duración = {} min, distancia = {} km, velocidad promedio = {} km/h.",
+                    duration, distance, avgSpeed);
+        }
+    }
+
+    /**
+     * Empieza a registrar en el trayecto las posiciones que reporta el vehículo.
+     */
+    private void startTracking(JourneySession session) {
+        stopTracking(session);
+        PMVehicleListener recorder = new TrackRecorder(session.currentJourney, clock);
+        session.currentVehicle.addListener(recorder);
+        session.trackRecorder = recorder;
+        GeofenceMonitor fences = geofence;
+        if (fences != null) {
+            fences.watch(session.currentVehicle);
+        }
+    }
+
+    /**
+     * Deja de registrar las posiciones del vehículo en el trayecto.
+     */
+    private void stopTracking(JourneySession session) {
+        GeofenceMonitor fences = geofence;
+        if (fences != null && session.currentVehicle != null) {
+            fences.unwatch(session.currentVehicle);
+        }
+        if (session.trackRecorder != null) {
+            if (session.currentVehicle != null) {
+                session.currentVehicle.removeListener(session.trackRecorder);
+            }
+            session.trackRecorder = null;
+        }
+    }
+
+    /**
+     * Anexa el trayecto finalizado al archivo, si lo hay. Un fallo al archivar no deshace el trayecto.
+     */
+    private void archiveJourney(JourneyService journey) {
+        JourneyArchive target = archive;
+        if (target == null) {
+            return;
+        }
+        try {
+            target.append(journey);
+        } catch (IOException | RuntimeException e) {
+            LOG.error("No se pudo archivar el trayecto: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Observador que traslada las posiciones del vehículo al recorrido GPS del trayecto en curso.
+     */
+    private static final class TrackRecorder implements PMVehicleListener {
+        private final JourneyService journey;
+        private final Clock clock;
 
-        System.out.println("Valores calculados: duración = " + duration + " min, distancia = " + distance +
-                " km, velocidad promedio = " + avgSpeed + " km/h.");
+        private TrackRecorder(JourneyService journey, Clock clock) {
+            this.journey = journey;
+            this.clock = clock;
+        }
+
+        @Override
+        public void onLocationChanged(PMVehicle vehicle, GeographicPoint oldLocation, GeographicPoint newLocation) {
+            try {
+                journey.recordLocation(newLocation, clock.millis());
+            } catch (IllegalStateException e) {
+                // El trayecto acaba de cerrarse: la posición ya no le corresponde
+            }
+        }
     }
 
     /**
@@ -282,51 +605,41 @@ public class JourneyRealizeHandler {
      * @param end   Punto de finalización.
      * @return Distancia en kilómetros.
      */
-    private float calculateDistance(GeographicPoint start, GeographicPoint end) {
-        double earthRadius = 6371; // Radio de la Tierra en km
-
-        double latDiff = Math.toRadians(end.getLatitude() - start.getLatitude());
-        double lonDiff = Math.toRadians(end.getLongitude() - start.getLongitude());
-
-        double a = Math.sin(latDiff / 2) * Math.sin(latDiff / 2) +
-                Math.cos(Math.toRadians(start.getLatitude())) * Math.cos(Math.toRadians(end.getLatitude())) *
-                        Math.sin(lonDiff / 2) * Math.sin(lonDiff / 2);
-
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-
-        return (float) (earthRadius * c);
+    static float calculateDistance(GeographicPoint start, GeographicPoint end) {
+        return (float) GeoDistance.haversineKm(start, end);
     }
 
     /**
      * Calcula el importe correspondiente al trayecto.
+     * La tarifa se elige con la zona de la estación de salida y la hora de inicio, de modo que ambas
+     * describen el mismo momento del trayecto. Si al arrancar no se conocía la estación, se usa la de llegada.
      * @param date  Fecha de finalización.
      */
-    private void calculateImport(LocalDateTime date) {
-        if (currentJourney == null || !currentJourney.isInProgress()) {
+    private void calculateImport(JourneySession session, LocalDateTime date) {
+        if (session.currentJourney == null || !session.currentJourney.isInProgress()) {
             throw new IllegalStateException("No hay un trayecto en curso para calcular el importe.");
         }
 
         // Validar que los valores necesarios están presentes
-        float distance = currentJourney.getDistance();
-        float duration = currentJourney.getDuration();
-        float avgSpeed = currentJourney.getAverageSpeed();
+        float distance = session.currentJourney.getDistance();
+        float duration = session.currentJourney.getDuration();
 
         if (distance <= 0 || duration <= 0) {
             throw new IllegalArgumentException("La distancia y la duración deben ser mayores a 0 para calcular el importe.");
         }
 
-        // Tarifas base
-        float baseRate = 0.5f; // Tarifa base por km
-        float timeRate = 0.1f; // Tarifa base por minuto
-
-        // Calcular el importe
-        float importValue = (distance * baseRate) + (duration * timeRate);
+        // Tarifa aplicable según la zona de salida, la hora de inicio, el vehículo y el plan del usuario
+        JourneyService journey = session.currentJourney;
+        StationID zoneStation = session.originStation != null ? session.originStation : session.currentStation;
+        Money importValue = tariff.fare(tariff.zoneOf(zoneStation), journey.getStartTime().getHour(),
+                session.currentVehicle.getType(), session.userPlan, distance, journey.getDuration());
 
         // Actualizar el importe en el trayecto actual
-        currentJourney.setImportValue(BigDecimal.valueOf(importValue));
+        journey.setImportValue(importValue);
 
-        System.out.println("Importe calculado: " + importValue + " EUR (distancia = " + distance + " km, duración = " +
-                duration + " min, velocidad promedio = " + avgSpeed + " km/h).");
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Importe calculado: {} EUR (distancia = {} km, duración = {} min).", importValue, distance, duration);
+        }
     }
 
     // Métodos setter para inyectar dependencias (opcional)
@@ -343,22 +656,91 @@ public class JourneyRealizeHandler {
     }
 
     public JourneyService getCurrentJourney() {
-        return currentJourney;
+        return session.currentJourney;
     }
 
     public void setCurrentJourney(JourneyService currentJourney) {
-        this.currentJourney = currentJourney;
+        session.currentJourney = currentJourney;
     }
 
     public PMVehicle getCurrentVehicle() {
-        return currentVehicle;
+        return session.currentVehicle;
     }
 
     public void setCurrentVehicle(PMVehicle currentVehicle) {
-        this.currentVehicle = currentVehicle;
+        session.currentVehicle = currentVehicle;
+    }
+
+    public void setWallet(Wallet wallet) {session.wallet = wallet; }
+
+    public void setUserPlan(UserPlan userPlan) {
+        if (userPlan == null) {
+            throw new IllegalArgumentException("El plan de usuario no puede ser nulo.");
+        }
+        session.userPlan = userPlan;
+    }
+
+    /**
+     * Sustituye la tarifa con la que se calculan los importes.
+     *
+     * @param tariff La tarifa compilada.
+     */
+    public void setTariff(CompiledTariff tariff) {
+        if (tariff == null) {
+            throw new IllegalArgumentException("La tarifa no puede ser nula.");
+        }
+        this.tariff = tariff;
+    }
+
+    /**
+     * Establece las geovallas que siguen a los vehículos en marcha. Con geovallas, un trayecto solo se puede
+     * finalizar donde su índice permite aparcar.
+     *
+     * @param geofence El monitor de geovallas, o null para no usarlas.
+     */
+    public void setGeofence(GeofenceMonitor geofence) {
+        this.geofence = geofence;
     }
 
-    public void setWallet(Wallet wallet) {this.wallet = wallet; }
+    /**
+     * Obtiene las geovallas que siguen a los vehículos en marcha.
+     *
+     * @return El monitor de geovallas, o null si no se usan.
+     */
+    public GeofenceMonitor getGeofence() {
+        return geofence;
+    }
+
+    /**
+     * Establece el archivo donde se anexan los trayectos al finalizarlos.
+     *
+     * @param archive El archivo de trayectos, o null para no archivarlos.
+     */
+    public void setJourneyArchive(JourneyArchive archive) {
+        this.archive = archive;
+    }
+
+    /**
+     * Establece el escáner con el que se decodifican en paralelo las ráfagas de {@link #scanQRBurst(List)}.
+     *
+     * @param burstScanner El escáner de ráfagas, o null para decodificar los fotogramas uno a uno con el
+     *                     decodificador de QR del controlador.
+     */
+    public void setBurstScanner(QRBurstScanner burstScanner) {
+        this.burstScanner = burstScanner;
+    }
+
+    /**
+     * Sustituye el reloj con el que se fechan el final de los trayectos y las posiciones de su recorrido.
+     *
+     * @param clock El reloj.
+     */
+    public void setClock(Clock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("El reloj no puede ser nulo.");
+        }
+        this.clock = clock;
+    }
 
     //Metodos Caso de Uso Opcional
 
@@ -371,27 +753,39 @@ public class JourneyRealizeHandler {
      * @throws ConnectException          Si ocurre un problema de conexión al servidor.
      */
     public void selectPaymentMethod(char opt) throws ProceduralException, NotEnoughWalletException, ConnectException {
+        selectPaymentMethod(session, opt);
+    }
+
+    /**
+     * Igual que {@link #selectPaymentMethod(char)}, pero sobre la sesión indicada.
+     */
+    void selectPaymentMethod(JourneySession session, char opt) throws ProceduralException, NotEnoughWalletException, ConnectException {
         switch (opt) {
             case 'W': // Monedero
-                if (wallet == null) {
+                if (session.wallet == null) {
                     throw new ProceduralException("El monedero no está inicializado.");
                 }
-                BigDecimal importValue = currentJourney.getImportValue();
-                if (wallet.getBalance().compareTo(importValue) < 0) {
+                Money importValue = session.currentJourney.getImportMoney();
+                if (importValue == null) {
+                    throw new ProceduralException("El importe del trayecto no está calculado.");
+                }
+                if (session.wallet.getBalanceCents() < importValue.getCents()) {
                     throw new NotEnoughWalletException("Saldo insuficiente en el monedero.");
                 }
-                realizePayment(importValue);
+                realizePayment(session, importValue);
+                session.paid = true;
                 break;
 
             case 'C': // Tarjeta de crédito
             case 'P': // PayPal
             case 'T': // Transferencia bancaria
                 server.registerPayment(
-                        currentJourney.getServiceID(),
-                        currentJourney.getUser(), // Usar getUser desde JourneyService
-                        currentJourney.getImportValue(),
+                        session.currentJourney.getServiceID(),
+                        session.currentJourney.getUser(), // Usar getUser desde JourneyService
+                        session.currentJourney.getImportValue(),
                         opt
                 );
+                session.paid = true;
                 break;
 
             default:
@@ -405,8 +799,8 @@ public class JourneyRealizeHandler {
      * @param imp Importe del pago.
      * @throws NotEnoughWalletException Si no hay suficiente saldo en el monedero.
      */
-    private void realizePayment(BigDecimal imp) throws NotEnoughWalletException {
-        wallet.deduct(imp);
+    private void realizePayment(JourneySession session, Money imp) throws NotEnoughWalletException {
+        session.wallet.deduct(imp);
     }
 
 
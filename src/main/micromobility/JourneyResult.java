@@ -0,0 +1,49 @@
+package micromobility;
+
+/**
+ * Resultado de las variantes sin excepciones de las operaciones del trayecto (tryScanQR, tryUnPairVehicle).
+ * Los rechazos habituales, como un vehículo ya reclamado, se devuelven como un valor de este enumerado en
+ * lugar de lanzar una excepción.
+ */
+public enum JourneyResult {
+    OK("Operación realizada correctamente."),
+    CORRUPTED_IMAGE("La imagen del QR está corrupta o es nula."),
+    INVALID_QR("El QR no contiene un VehicleID válido."),
+    VEHICLE_NOT_FOUND("El vehículo no se encontró en el servidor."),
+    VEHICLE_NOT_AVAILABLE("El vehículo no está disponible."),
+    ALREADY_PAIRED("El usuario ya tiene un vehículo vinculado."),
+    NO_SESSION("El usuario no tiene una sesión activa."),
+    NO_JOURNEY_IN_PROGRESS("No hay un trayecto en progreso para finalizar."),
+    NO_VEHICLE_PAIRED("No hay un vehículo asociado para finalizar el trayecto."),
+    LOCATION_UNAVAILABLE("La ubicación del vehículo no está disponible."),
+    PARKING_NOT_ALLOWED("El vehículo no está en una zona de aparcamiento permitida."),
+    INVALID_DURATION("La duración debe ser mayor a 0."),
+    INVALID_DISTANCE("La distancia debe ser mayor a 0."),
+    INVALID_AMOUNT("El importe debe ser mayor a 0."),
+    CONNECTION_ERROR("Error de conexión con el servidor."),
+    ERROR("Error inesperado; los detalles quedan en el registro.");
+
+    private final String message;
+
+    JourneyResult(String message) {
+        this.message = message;
+    }
+
+    /**
+     * Indica si la operación se ha realizado.
+     *
+     * @return true solo para OK.
+     */
+    public boolean isSuccess() {
+        return this == OK;
+    }
+
+    /**
+     * Obtiene la descripción del resultado, la misma que lleva la excepción de la API que lanza excepciones.
+     *
+     * @return El mensaje.
+     */
+    public String getMessage() {
+        return message;
+    }
+}
@@ -1,14 +1,18 @@
 package micromobility;
 
 import data.GeographicPoint;
+import data.Money;
 import data.ServiceID;
 import data.StationID;
 import data.UserAccount;
+import micromobility.geo.GpsTrack;
 import micromobility.payment.Payment;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.ZoneId;
 import java.util.List;
 
 /**
@@ -25,12 +29,13 @@ public class JourneyService {
     private float distance;
     private float avgSpeed;
     private GeographicPoint endPoint;
-    private BigDecimal importValue;
-    private boolean inProgress;
+    private Money importValue;
+    private volatile boolean inProgress;
     private List<Payment> paymentMethods;
     private UserAccount user;
     private StationID endStation;
     private ServiceID serviceID;
+    private volatile GpsTrack track;  // Recorrido GPS, creado con la primera posición recibida
 
     /**
      * Constructor de JourneyService.
@@ -128,16 +133,83 @@ public class JourneyService {
     }
 
     public BigDecimal getImportValue() {
-        return importValue;
+        Money value = getImportMoney();
+        return value == null ? null : value.toBigDecimal();
     }
 
+    /**
+     * Establece el importe del trayecto, redondeado al céntimo según Money.ROUNDING.
+     *
+     * @param importValue El importe en euros.
+     */
     public void setImportValue(BigDecimal importValue) {
         if (importValue == null || importValue.compareTo(BigDecimal.ZERO) < 0) {
             throw new IllegalArgumentException("El importe no puede ser nulo ni negativo.");
         }
+        setImportValue(Money.of(importValue));
+    }
+
+    /**
+     * Obtiene el importe del trayecto en céntimos.
+     *
+     * @return El importe, o null si aún no se ha calculado.
+     */
+    public Money getImportMoney() {
+        return importValue;
+    }
+
+    /**
+     * Establece el importe del trayecto en céntimos.
+     *
+     * @param importValue El importe.
+     */
+    public void setImportValue(Money importValue) {
+        if (importValue == null || importValue.isNegative()) {
+            throw new IllegalArgumentException("El importe no puede ser nulo ni negativo.");
+        }
         this.importValue = importValue;
     }
 
+    /**
+     * Registra una posición GPS del trayecto en curso. El recorrido empieza en el punto de origen
+     * y acumula la distancia recorrida posición a posición.
+     *
+     * @param point       La posición recibida.
+     * @param epochMillis El instante de la posición.
+     * @throws IllegalArgumentException Si la posición es nula.
+     * @throws IllegalStateException    Si el trayecto no está en curso.
+     */
+    public void recordLocation(GeographicPoint point, long epochMillis) {
+        if (point == null) {
+            throw new IllegalArgumentException("La posición no puede ser nula.");
+        }
+        if (!inProgress) {
+            throw new IllegalStateException("Solo se pueden registrar posiciones de un trayecto en curso.");
+        }
+        GpsTrack current = track;
+        if (current == null) {
+            synchronized (this) {
+                current = track;
+                if (current == null) {
+                    current = new GpsTrack();
+                    long startMillis = LocalDateTime.of(initDate, initHour).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                    current.add(originPoint, Math.min(startMillis, epochMillis));
+                    track = current;
+                }
+            }
+        }
+        current.add(point, epochMillis);
+    }
+
+    /**
+     * Obtiene el recorrido GPS del trayecto.
+     *
+     * @return El recorrido, o null si no se ha registrado ninguna posición.
+     */
+    public GpsTrack getTrack() {
+        return track;
+    }
+
     public boolean isInProgress() {
         return inProgress;
     }
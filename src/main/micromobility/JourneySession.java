@@ -0,0 +1,81 @@
+package micromobility;
+
+import data.StationID;
+import data.UserAccount;
+import micromobility.payment.Wallet;
+import micromobility.tariff.UserPlan;
+
+/**
+ * Estado de un desplazamiento en curso para un usuario: vehículo vinculado, trayecto, monedero y
+ * estación conocida. JourneyRealizeHandler opera siempre sobre una sesión, lo que permite que
+ * JourneySessionEngine mantenga muchas sesiones simultáneas con una sola instancia del controlador.
+ * Las operaciones sobre una misma sesión se serializan con su propio monitor.
+ */
+public final class JourneySession {
+
+    final UserAccount user;          // Usuario propietario de la sesión (null en la sesión por defecto)
+    JourneyService currentJourney;   // El servicio de trayecto actual
+    PMVehicle currentVehicle;        // Vehículo actual asignado
+    Wallet wallet;                   // Monedero del usuario
+    UserPlan userPlan = UserPlan.PAY_AS_YOU_GO; // Plan tarifario del usuario
+    StationID currentStation;        // Última estación recibida por Bluetooth
+    StationID originStation;         // Estación conocida al iniciar la marcha: fija la zona tarifaria
+    PMVehicleListener trackRecorder; // Registra en el trayecto las posiciones del vehículo en marcha
+    boolean paid;                    // Indica si el trayecto ya se ha pagado
+    boolean closed;                  // La sesión se ha descartado del motor
+    volatile long lastActivityMillis; // Instante de la última operación según el reloj del motor
+
+    /**
+     * Constructor de JourneySession.
+     *
+     * @param user El usuario propietario de la sesión.
+     */
+    JourneySession(UserAccount user) {
+        this.user = user;
+    }
+
+    /**
+     * Obtiene el usuario propietario de la sesión.
+     *
+     * @return El usuario de la sesión.
+     */
+    public UserAccount getUser() {
+        return user;
+    }
+
+    /**
+     * Obtiene el trayecto de la sesión.
+     *
+     * @return El trayecto actual o null si aún no se ha creado.
+     */
+    public synchronized JourneyService getJourney() {
+        return currentJourney;
+    }
+
+    /**
+     * Obtiene el vehículo vinculado a la sesión.
+     *
+     * @return El vehículo actual o null si no hay ninguno.
+     */
+    public synchronized PMVehicle getVehicle() {
+        return currentVehicle;
+    }
+
+    /**
+     * Indica si la sesión ha terminado: el trayecto está cerrado y pagado.
+     *
+     * @return true si la sesión puede descartarse.
+     */
+    public synchronized boolean isFinished() {
+        return paid && currentJourney != null && !currentJourney.isInProgress();
+    }
+
+    /**
+     * Registra actividad en la sesión.
+     *
+     * @param nowMillis El instante actual en milisegundos según el reloj del motor.
+     */
+    void touch(long nowMillis) {
+        lastActivityMillis = nowMillis;
+    }
+}
@@ -0,0 +1,426 @@
+package micromobility;
+
+import data.StationID;
+import data.UserAccount;
+import data.VehicleID;
+import exceptions.*;
+import micromobility.payment.Wallet;
+import micromobility.tariff.UserPlan;
+import services.Server;
+import services.smartfeatures.ArduinoMicroController;
+import services.smartfeatures.QRDecoder;
+import services.smartfeatures.UnbondedBTSignal;
+
+import java.awt.image.BufferedImage;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Motor de sesiones para el caso de uso "Realizar desplazamiento" con muchos usuarios simultáneos.
+ * Mantiene una JourneySession por usuario (y un índice secundario por vehículo) y enruta cada evento
+ * a la sesión correspondiente, usando una única instancia de JourneyRealizeHandler para la lógica.
+ * Las sesiones se descartan al pagarse el trayecto, y las inactivas se recogen con evictIdleSessions.
+ */
+public class JourneySessionEngine {
+
+    private static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(15);
+
+    private final JourneyRealizeHandler handler;
+    private final Clock clock;
+    private final long idleTimeoutMillis;
+    private final ConcurrentMap<UserAccount, JourneySession> sessions = new ConcurrentHashMap<>();
+    private final ConcurrentMap<VehicleID, JourneySession> sessionsByVehicle = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor de JourneySessionEngine con el tiempo de inactividad por defecto.
+     *
+     * @param server    Servidor del sistema.
+     * @param qrDecoder Servicio para decodificar códigos QR.
+     * @param arduino   Microcontrolador Arduino.
+     * @param btSignal  Canal Bluetooth de la estación.
+     */
+    public JourneySessionEngine(Server server, QRDecoder qrDecoder, ArduinoMicroController arduino, UnbondedBTSignal btSignal) {
+        this(new JourneyRealizeHandler(server, qrDecoder, arduino, btSignal), Clock.systemDefaultZone(), DEFAULT_IDLE_TIMEOUT);
+    }
+
+    /**
+     * Constructor de JourneySessionEngine.
+     *
+     * @param handler     Controlador que implementa la lógica de cada evento.
+     * @param clock       Reloj usado para fechar los trayectos y medir la inactividad de las sesiones; también
+     *                    lo usa el controlador para el final de los trayectos y sus posiciones.
+     * @param idleTimeout Tiempo sin actividad tras el cual una sesión puede descartarse.
+     * @throws IllegalArgumentException Si algún parámetro es nulo o el tiempo no es positivo.
+     */
+    public JourneySessionEngine(JourneyRealizeHandler handler, Clock clock, Duration idleTimeout) {
+        if (handler == null || clock == null || idleTimeout == null || idleTimeout.isNegative() || idleTimeout.isZero()) {
+            throw new IllegalArgumentException("El controlador, el reloj y un tiempo de inactividad positivo son obligatorios.");
+        }
+        handler.setClock(clock);
+        this.handler = handler;
+        this.clock = clock;
+        this.idleTimeoutMillis = idleTimeout.toMillis();
+    }
+
+    /**
+     * Asocia un monedero a la sesión del usuario, creándola si no existe.
+     *
+     * @param user   El usuario.
+     * @param wallet El monedero del usuario.
+     */
+    public void setWallet(UserAccount user, Wallet wallet) {
+        while (true) {
+            JourneySession session = sessions.computeIfAbsent(requireUser(user), this::newSession);
+            synchronized (session) {
+                if (session.closed) {
+                    continue;
+                }
+                session.wallet = wallet;
+                session.touch(clock.millis());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Asocia un plan tarifario a la sesión del usuario, creándola si no existe.
+     *
+     * @param user El usuario.
+     * @param plan El plan del usuario.
+     */
+    public void setUserPlan(UserAccount user, UserPlan plan) {
+        if (plan == null) {
+            throw new IllegalArgumentException("El plan de usuario no puede ser nulo.");
+        }
+        while (true) {
+            JourneySession session = sessions.computeIfAbsent(requireUser(user), this::newSession);
+            synchronized (session) {
+                if (session.closed) {
+                    continue;
+                }
+                session.userPlan = plan;
+                session.touch(clock.millis());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Decodifica el QR para el usuario, reclama el vehículo y abre su trayecto.
+     *
+     * @param user    El usuario que escanea.
+     * @param qrImage La imagen del código QR.
+     * @throws ConnectException            Error de conexión.
+     * @throws InvalidPairingArgsException Argumentos inválidos para el emparejamiento.
+     * @throws CorruptedImgException       Imagen del código QR corrupta.
+     * @throws PMVNotAvailException        El vehículo no está disponible.
+     * @throws ProceduralException         El usuario ya tiene un vehículo vinculado o error en la secuencia.
+     */
+    public void scanQR(UserAccount user, BufferedImage qrImage)
+            throws ConnectException, InvalidPairingArgsException, CorruptedImgException, PMVNotAvailException, ProceduralException {
+        while (true) {
+            JourneySession session = sessions.computeIfAbsent(requireUser(user), this::newSession);
+            synchronized (session) {
+                if (session.closed) {
+                    continue;
+                }
+                if (session.currentVehicle != null) {
+                    throw new ProceduralException("El usuario ya tiene un vehículo vinculado.");
+                }
+                try {
+                    handler.scanQR(session, qrImage);
+                } catch (ConnectException | InvalidPairingArgsException | CorruptedImgException
+                         | PMVNotAvailException | ProceduralException e) {
+                    session.currentVehicle = null;
+                    evictIfEmpty(session);
+                    throw e;
+                }
+                openJourney(session, user);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Igual que {@link #scanQR(UserAccount, BufferedImage)}, pero informa del resultado sin lanzar
+     * excepciones (ver JourneyRealizeHandler#tryScanQR).
+     *
+     * @param user    El usuario que escanea.
+     * @param qrImage La imagen del código QR.
+     * @return OK si el vehículo queda reclamado y el trayecto abierto, o el motivo del rechazo.
+     * @throws IllegalArgumentException Si el usuario es nulo.
+     */
+    public JourneyResult tryScanQR(UserAccount user, BufferedImage qrImage) {
+        while (true) {
+            JourneySession session = sessions.computeIfAbsent(requireUser(user), this::newSession);
+            synchronized (session) {
+                if (session.closed) {
+                    continue;
+                }
+                if (session.currentVehicle != null) {
+                    return JourneyResult.ALREADY_PAIRED;
+                }
+                JourneyResult result = handler.tryScanQR(session, qrImage);
+                if (!result.isSuccess()) {
+                    session.currentVehicle = null;
+                    evictIfEmpty(session);
+                    return result;
+                }
+                openJourney(session, user);
+                return result;
+            }
+        }
+    }
+
+    /**
+     * Registra la estación recibida por Bluetooth en la sesión del usuario.
+     *
+     * @param user El usuario.
+     * @param stID El ID de la estación.
+     * @throws ConnectException    Error de conexión Bluetooth.
+     * @throws ProceduralException Si el usuario no tiene una sesión activa.
+     */
+    public void broadcastStationID(UserAccount user, StationID stID) throws ConnectException, ProceduralException {
+        JourneySession session = requireSession(user);
+        synchronized (session) {
+            ensureOpen(session);
+            handler.broadcastStationID(session, stID);
+            session.touch(clock.millis());
+        }
+    }
+
+    /**
+     * Inicia el desplazamiento del usuario.
+     *
+     * @param user El usuario.
+     * @throws ConnectException    Error de conexión.
+     * @throws ProceduralException Error en la secuencia procedimental.
+     */
+    public void startDriving(UserAccount user) throws ConnectException, ProceduralException {
+        JourneySession session = requireSession(user);
+        synchronized (session) {
+            ensureOpen(session);
+            handler.startDriving(session);
+            session.touch(clock.millis());
+        }
+    }
+
+    /**
+     * Detiene el desplazamiento del usuario.
+     *
+     * @param user El usuario.
+     * @throws ConnectException    Error de conexión.
+     * @throws ProceduralException Error en la secuencia procedimental.
+     */
+    public void stopDriving(UserAccount user) throws ConnectException, ProceduralException {
+        JourneySession session = requireSession(user);
+        synchronized (session) {
+            ensureOpen(session);
+            handler.stopDriving(session);
+            session.touch(clock.millis());
+        }
+    }
+
+    /**
+     * Finaliza el trayecto del usuario y libera el vehículo.
+     *
+     * @param user El usuario.
+     * @throws ConnectException            Error de conexión.
+     * @throws InvalidPairingArgsException Argumentos inválidos para el emparejamiento.
+     * @throws PairingNotFoundException    No se encuentra el emparejamiento.
+     * @throws ProceduralException         Error en la secuencia procedimental.
+     */
+    public void unPairVehicle(UserAccount user)
+            throws ConnectException, InvalidPairingArgsException, PairingNotFoundException, ProceduralException {
+        JourneySession session = requireSession(user);
+        synchronized (session) {
+            ensureOpen(session);
+            handler.unPairVehicle(session);
+            sessionsByVehicle.remove(session.currentVehicle.getId(), session);
+            session.touch(clock.millis());
+        }
+    }
+
+    /**
+     * Igual que {@link #unPairVehicle(UserAccount)}, pero informa del resultado sin lanzar excepciones (ver
+     * JourneyRealizeHandler#tryUnPairVehicle).
+     *
+     * @param user El usuario.
+     * @return OK si el trayecto queda finalizado, o el motivo del rechazo.
+     * @throws IllegalArgumentException Si el usuario es nulo.
+     */
+    public JourneyResult tryUnPairVehicle(UserAccount user) {
+        JourneySession session = sessions.get(requireUser(user));
+        if (session == null) {
+            return JourneyResult.NO_SESSION;
+        }
+        synchronized (session) {
+            if (session.closed) {
+                return JourneyResult.NO_SESSION;
+            }
+            JourneyResult result = handler.tryUnPairVehicle(session);
+            if (result.isSuccess()) {
+                sessionsByVehicle.remove(session.currentVehicle.getId(), session);
+                session.touch(clock.millis());
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Paga el trayecto del usuario. Si el trayecto ya ha finalizado, la sesión se descarta.
+     *
+     * @param user El usuario.
+     * @param opt  Método de pago escogido.
+     * @throws ProceduralException      Si no hay sesión o el método no es válido.
+     * @throws NotEnoughWalletException Si no hay saldo suficiente en el monedero.
+     * @throws ConnectException         Si ocurre un problema de conexión al servidor.
+     */
+    public void selectPaymentMethod(UserAccount user, char opt)
+            throws ProceduralException, NotEnoughWalletException, ConnectException {
+        JourneySession session = requireSession(user);
+        synchronized (session) {
+            ensureOpen(session);
+            if (session.currentJourney == null) {
+                throw new ProceduralException("No hay un trayecto que pagar.");
+            }
+            handler.selectPaymentMethod(session, opt);
+            session.touch(clock.millis());
+            if (session.isFinished()) {
+                evict(session);
+            }
+        }
+    }
+
+    /**
+     * Descarta las sesiones sin actividad durante más tiempo del configurado.
+     * Las sesiones con el vehículo en marcha se conservan; si el usuario solo había reclamado el
+     * vehículo sin llegar a iniciar la marcha, el vehículo vuelve a quedar disponible.
+     *
+     * @return El número de sesiones descartadas.
+     */
+    public int evictIdleSessions() {
+        long now = clock.millis();
+        int evicted = 0;
+        for (JourneySession session : sessions.values()) {
+            if (now - session.lastActivityMillis < idleTimeoutMillis) {
+                continue;
+            }
+            synchronized (session) {
+                if (session.closed || now - session.lastActivityMillis < idleTimeoutMillis) {
+                    continue;
+                }
+                PMVehicle vehicle = session.currentVehicle;
+                if (vehicle != null && vehicle.getState() == PMVState.UnderWay) {
+                    continue;
+                }
+                boolean journeyOpen = session.currentJourney != null && session.currentJourney.isInProgress();
+                if (vehicle != null && journeyOpen) {
+                    vehicle.compareAndTransition(PMVState.NotAvailable, PMVState.Available);
+                }
+                evict(session);
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Obtiene la sesión activa de un usuario.
+     *
+     * @param user El usuario.
+     * @return La sesión del usuario o null si no tiene ninguna.
+     */
+    public JourneySession getSession(UserAccount user) {
+        return sessions.get(user);
+    }
+
+    /**
+     * Obtiene la sesión que tiene vinculado un vehículo.
+     *
+     * @param vhID El identificador del vehículo.
+     * @return La sesión que usa el vehículo o null si no está vinculado.
+     */
+    public JourneySession getSessionByVehicle(VehicleID vhID) {
+        return sessionsByVehicle.get(vhID);
+    }
+
+    /**
+     * Obtiene una vista de las sesiones activas.
+     *
+     * @return Las sesiones activas.
+     */
+    public Collection<JourneySession> getActiveSessions() {
+        return Collections.unmodifiableCollection(sessions.values());
+    }
+
+    /**
+     * Obtiene el número de sesiones activas.
+     *
+     * @return El número de sesiones activas.
+     */
+    public int getActiveSessionCount() {
+        return sessions.size();
+    }
+
+    // Métodos internos
+
+    private JourneySession newSession(UserAccount user) {
+        JourneySession session = new JourneySession(user);
+        session.touch(clock.millis());
+        return session;
+    }
+
+    // Debe llamarse con el monitor de la sesión adquirido, tras reclamar el vehículo
+    private void openJourney(JourneySession session, UserAccount user) {
+        PMVehicle vehicle = session.currentVehicle;
+        JourneyService journey = new JourneyService(vehicle.getLocation(), LocalDate.now(clock), LocalTime.now(clock));
+        journey.setUser(user);
+        session.currentJourney = journey;
+        session.paid = false;
+        sessionsByVehicle.put(vehicle.getId(), session);
+        session.touch(clock.millis());
+    }
+
+    private UserAccount requireUser(UserAccount user) {
+        if (user == null) {
+            throw new IllegalArgumentException("El usuario no puede ser nulo.");
+        }
+        return user;
+    }
+
+    private JourneySession requireSession(UserAccount user) throws ProceduralException {
+        JourneySession session = sessions.get(requireUser(user));
+        if (session == null) {
+            throw new ProceduralException("El usuario " + user.getUsername() + " no tiene una sesión activa.");
+        }
+        return session;
+    }
+
+    private void ensureOpen(JourneySession session) throws ProceduralException {
+        if (session.closed) {
+            throw new ProceduralException("La sesión del usuario ya ha finalizado.");
+        }
+    }
+
+    private void evictIfEmpty(JourneySession session) {
+        if (session.currentVehicle == null && session.currentJourney == null && session.wallet == null) {
+            evict(session);
+        }
+    }
+
+    // Debe llamarse con el monitor de la sesión adquirido
+    private void evict(JourneySession session) {
+        session.closed = true;
+        sessions.remove(session.user, session);
+        if (session.currentVehicle != null) {
+            sessionsByVehicle.remove(session.currentVehicle.getId(), session);
+        }
+    }
+}
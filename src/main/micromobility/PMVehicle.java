@@ -3,17 +3,39 @@ package micromobility;
 import data.GeographicPoint;
 import data.VehicleID;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
 /**
  * Representa un Vehículo de Micromovilidad (PMV) con su estado y ubicación.
+ * El estado se guarda junto a un número de versión en una única palabra atómica, de modo que
+ * las transiciones se pueden reclamar sin bloqueos mediante compareAndTransition.
  */
 public class PMVehicle {
 
+    private static final PMVState[] STATES = PMVState.values();
+    private static final int STATE_BITS = 8;                 // Bits bajos: ordinal del estado
+    private static final long STATE_MASK = (1L << STATE_BITS) - 1;
+    private static final VarHandle STATE_WORD;
+    private static final PMVehicleListener[] NO_LISTENERS = new PMVehicleListener[0];
+
+    static {
+        try {
+            STATE_WORD = MethodHandles.lookup().findVarHandle(PMVehicle.class, "stateWord", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private final VehicleID id;              // Identificador único del vehículo
-    private PMVState state;                  // Estado actual del vehículo
-    private GeographicPoint location;        // Ubicación actual del vehículo
+    private final VehicleType type;          // Tipo de vehículo
+    private volatile long stateWord;         // Versión (bits altos) y estado actual (bits bajos)
+    private volatile GeographicPoint location; // Ubicación actual del vehículo
+    private volatile PMVehicleListener[] listeners = NO_LISTENERS; // Observadores de cambios
 
     /**
-     * Constructor de PMVehicle.
+     * Constructor de PMVehicle para un patinete eléctrico.
      *
      * @param id              Identificador único del vehículo. No puede ser nulo.
      * @param initialState    El estado inicial del vehículo. No puede ser nulo.
@@ -21,6 +43,19 @@ public class PMVehicle {
      * @throws IllegalArgumentException Si algún parámetro es nulo.
      */
     public PMVehicle(VehicleID id, PMVState initialState, GeographicPoint initialLocation) {
+        this(id, initialState, initialLocation, VehicleType.SCOOTER);
+    }
+
+    /**
+     * Constructor de PMVehicle.
+     *
+     * @param id              Identificador único del vehículo. No puede ser nulo.
+     * @param initialState    El estado inicial del vehículo. No puede ser nulo.
+     * @param initialLocation La ubicación inicial del vehículo. No puede ser nula.
+     * @param type            El tipo de vehículo. No puede ser nulo.
+     * @throws IllegalArgumentException Si algún parámetro es nulo.
+     */
+    public PMVehicle(VehicleID id, PMVState initialState, GeographicPoint initialLocation, VehicleType type) {
         if (id == null) {
             throw new IllegalArgumentException("El identificador del vehículo no puede ser nulo.");
         }
@@ -30,8 +65,12 @@ public class PMVehicle {
         if (initialLocation == null) {
             throw new IllegalArgumentException("La ubicación inicial no puede ser nula.");
         }
+        if (type == null) {
+            throw new IllegalArgumentException("El tipo de vehículo no puede ser nulo.");
+        }
         this.id = id;
-        this.state = initialState;
+        this.type = type;
+        this.stateWord = initialState.ordinal();
         this.location = initialLocation;
     }
 
@@ -44,13 +83,31 @@ public class PMVehicle {
         return id;
     }
 
+    /**
+     * Obtiene el tipo de vehículo.
+     *
+     * @return El tipo de vehículo.
+     */
+    public VehicleType getType() {
+        return type;
+    }
+
     /**
      * Obtiene el estado actual del vehículo.
      *
      * @return El estado actual del vehículo.
      */
     public PMVState getState() {
-        return state;
+        return stateOf(stateWord);
+    }
+
+    /**
+     * Obtiene la versión del estado, que se incrementa con cada transición.
+     *
+     * @return El número de transiciones aplicadas desde la creación del vehículo.
+     */
+    public long getStateVersion() {
+        return stateWord >>> STATE_BITS;
     }
 
     /**
@@ -66,21 +123,89 @@ public class PMVehicle {
      * Cambia el estado del vehículo a No disponible.
      */
     public void setNotAvailb() {
-        this.state = PMVState.NotAvailable;
+        forceState(PMVState.NotAvailable);
     }
 
     /**
      * Cambia el estado del vehículo a En marcha.
      */
     public void setUnderWay() {
-        this.state = PMVState.UnderWay;
+        forceState(PMVState.UnderWay);
     }
 
     /**
      * Cambia el estado del vehículo a Disponible.
      */
     public void setAvailb() {
-        this.state = PMVState.Available;
+        forceState(PMVState.Available);
+    }
+
+    /**
+     * Cambia atómicamente el estado del vehículo solo si su estado actual es el esperado.
+     * Si varios hilos intentan la misma transición a la vez, exactamente uno de ellos la gana.
+     *
+     * @param from El estado que se espera encontrar.
+     * @param to   El nuevo estado.
+     * @return true si se aplicó la transición, false si el estado actual no era el esperado.
+     * @throws IllegalArgumentException Si algún estado es nulo.
+     */
+    public boolean compareAndTransition(PMVState from, PMVState to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Los estados de la transición no pueden ser nulos.");
+        }
+        long current = stateWord;
+        while (stateOf(current) == from) {
+            if (STATE_WORD.compareAndSet(this, current, nextWord(current, to))) {
+                fireStateChanged(from, to);
+                return true;
+            }
+            current = stateWord;
+        }
+        return false;
+    }
+
+    /**
+     * Cambia atómicamente el estado del vehículo solo si no ha habido ninguna transición
+     * desde que se leyó la versión indicada.
+     *
+     * @param expectedVersion La versión leída previamente con getStateVersion.
+     * @param to              El nuevo estado.
+     * @return true si se aplicó la transición, false si el estado cambió entretanto.
+     * @throws IllegalArgumentException Si el nuevo estado es nulo.
+     */
+    public boolean compareAndTransition(long expectedVersion, PMVState to) {
+        if (to == null) {
+            throw new IllegalArgumentException("El nuevo estado no puede ser nulo.");
+        }
+        long current = stateWord;
+        if ((current >>> STATE_BITS) != expectedVersion
+                || !STATE_WORD.compareAndSet(this, current, nextWord(current, to))) {
+            return false;
+        }
+        fireStateChanged(stateOf(current), to);
+        return true;
+    }
+
+    private void forceState(PMVState to) {
+        long current;
+        do {
+            current = stateWord;
+        } while (!STATE_WORD.compareAndSet(this, current, nextWord(current, to)));
+        fireStateChanged(stateOf(current), to);
+    }
+
+    private void fireStateChanged(PMVState oldState, PMVState newState) {
+        for (PMVehicleListener listener : listeners) {
+            listener.onStateChanged(this, oldState, newState);
+        }
+    }
+
+    private static PMVState stateOf(long word) {
+        return STATES[(int) (word & STATE_MASK)];
+    }
+
+    private static long nextWord(long word, PMVState to) {
+        return (((word >>> STATE_BITS) + 1) << STATE_BITS) | to.ordinal();
     }
 
     /**
@@ -93,14 +218,52 @@ public class PMVehicle {
         if (newLocation == null) {
             throw new IllegalArgumentException("La nueva ubicación no puede ser nula.");
         }
+        GeographicPoint oldLocation = this.location;
         this.location = newLocation;
+        for (PMVehicleListener listener : listeners) {
+            listener.onLocationChanged(this, oldLocation, newLocation);
+        }
+    }
+
+    /**
+     * Registra un observador de los cambios de estado y ubicación del vehículo.
+     *
+     * @param listener El observador a registrar. No puede ser nulo.
+     * @throws IllegalArgumentException Si el observador es nulo.
+     */
+    public synchronized void addListener(PMVehicleListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("El observador no puede ser nulo.");
+        }
+        PMVehicleListener[] current = listeners;
+        PMVehicleListener[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = listener;
+        listeners = updated;
+    }
+
+    /**
+     * Elimina un observador registrado previamente.
+     *
+     * @param listener El observador a eliminar.
+     */
+    public synchronized void removeListener(PMVehicleListener listener) {
+        PMVehicleListener[] current = listeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == listener) {
+                PMVehicleListener[] updated = new PMVehicleListener[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                listeners = updated;
+                return;
+            }
+        }
     }
 
     @Override
     public String toString() {
         return "PMVehicle{" +
                 "id=" + id +
-                ", state=" + state +
+                ", state=" + getState() +
                 ", location=" + location +
                 '}';
     }
@@ -0,0 +1,31 @@
+package micromobility;
+
+import data.GeographicPoint;
+
+/**
+ * Interfaz para observar los cambios de estado y de ubicación de un vehículo.
+ * Permite que los índices de la flota se mantengan sincronizados sin recorrer todos los vehículos.
+ * Las notificaciones se emiten en el hilo que realiza el cambio, después de aplicarlo.
+ */
+public interface PMVehicleListener {
+
+    /**
+     * Se invoca después de que el vehículo cambie de estado.
+     *
+     * @param vehicle  El vehículo que ha cambiado.
+     * @param oldState El estado anterior.
+     * @param newState El nuevo estado.
+     */
+    default void onStateChanged(PMVehicle vehicle, PMVState oldState, PMVState newState) {
+    }
+
+    /**
+     * Se invoca después de que el vehículo cambie de ubicación.
+     *
+     * @param vehicle     El vehículo que ha cambiado.
+     * @param oldLocation La ubicación anterior.
+     * @param newLocation La nueva ubicación.
+     */
+    default void onLocationChanged(PMVehicle vehicle, GeographicPoint oldLocation, GeographicPoint newLocation) {
+    }
+}
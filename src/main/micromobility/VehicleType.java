@@ -0,0 +1,11 @@
+package micromobility;
+
+/**
+ * Tipos de vehículo de micromovilidad de la flota.
+ */
+public enum VehicleType {
+    SCOOTER,   // Patinete eléctrico
+    BICYCLE,   // Bicicleta mecánica
+    EBIKE,     // Bicicleta eléctrica
+    MOPED      // Ciclomotor eléctrico
+}
@@ -0,0 +1,282 @@
+package micromobility.geo;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Índice espacial inmutable de zonas de geovalla. El área cubierta se divide en una rejilla de celdas de
+ * tamaño fijo en grados; cada celda guarda las zonas cuyo rectángulo envolvente la toca. Una consulta calcula
+ * la celda del punto, la localiza con una búsqueda binaria sobre un array ordenado de claves y solo prueba los
+ * polígonos de esa celda, sin reservar memoria. Es seguro para usarse desde varios hilos.
+ *
+ * Formato de texto admitido por {@link #parse(Reader)}, una zona por línea:
+ * <pre>
+ *   # comentario
+ *   zone  &lt;id&gt; &lt;parking|no_parking|no_ride&gt; &lt;lat,lon&gt; &lt;lat,lon&gt; &lt;lat,lon&gt; ...
+ * </pre>
+ */
+public final class GeofenceIndex {
+
+    public static final double DEFAULT_CELL_DEGREES = 0.005;
+
+    private static final GeofenceIndex EMPTY = new GeofenceIndex(new ArrayList<>(), DEFAULT_CELL_DEGREES);
+
+    private final GeofenceZone[] zones;
+    private final double cellsPerDegree;
+    private final boolean hasParkingZones;
+
+    // Rejilla en formato comprimido: las zonas de la celda cellKeys[c] son cellZones[cellStarts[c] .. cellStarts[c + 1])
+    private final long[] cellKeys;
+    private final int[] cellStarts;
+    private final int[] cellZones;
+    private final int maxZonesPerCell;
+
+    /**
+     * Construye el índice con el tamaño de celda por defecto (unos 550 m de latitud).
+     *
+     * @param zones Las zonas a indexar.
+     * @throws IllegalArgumentException Si la lista o alguna zona es nula, o hay identificadores repetidos.
+     */
+    public GeofenceIndex(List<GeofenceZone> zones) {
+        this(zones, DEFAULT_CELL_DEGREES);
+    }
+
+    /**
+     * Construye el índice.
+     *
+     * @param zones       Las zonas a indexar.
+     * @param cellDegrees Lado de las celdas de la rejilla en grados.
+     * @throws IllegalArgumentException Si la lista o alguna zona es nula, hay identificadores repetidos
+     *                                  o el tamaño de celda no es positivo.
+     */
+    public GeofenceIndex(List<GeofenceZone> zones, double cellDegrees) {
+        if (zones == null) {
+            throw new IllegalArgumentException("La lista de zonas no puede ser nula.");
+        }
+        if (!(cellDegrees > 0)) {
+            throw new IllegalArgumentException("El tamaño de celda debe ser positivo.");
+        }
+        this.zones = zones.toArray(new GeofenceZone[0]);
+        this.cellsPerDegree = 1 / cellDegrees;
+
+        Map<String, Integer> ids = new HashMap<>();
+        Map<Long, List<Integer>> grid = new HashMap<>();
+        boolean parking = false;
+        for (int z = 0; z < this.zones.length; z++) {
+            GeofenceZone zone = this.zones[z];
+            if (zone == null) {
+                throw new IllegalArgumentException("Las zonas no pueden ser nulas.");
+            }
+            if (ids.put(zone.getId(), z) != null) {
+                throw new IllegalArgumentException("Identificador de zona repetido: " + zone.getId() + ".");
+            }
+            parking |= zone.getKind() == ZoneKind.PARKING;
+            for (int row = cell(zone.minLat); row <= cell(zone.maxLat); row++) {
+                for (int col = cell(zone.minLon); col <= cell(zone.maxLon); col++) {
+                    grid.computeIfAbsent(key(row, col), k -> new ArrayList<>()).add(z);
+                }
+            }
+        }
+        this.hasParkingZones = parking;
+
+        cellKeys = new long[grid.size()];
+        int c = 0;
+        for (long k : grid.keySet()) {
+            cellKeys[c++] = k;
+        }
+        Arrays.sort(cellKeys);
+        cellStarts = new int[cellKeys.length + 1];
+        int total = 0;
+        int max = 0;
+        for (int i = 0; i < cellKeys.length; i++) {
+            int count = grid.get(cellKeys[i]).size();
+            cellStarts[i] = total;
+            total += count;
+            max = Math.max(max, count);
+        }
+        cellStarts[cellKeys.length] = total;
+        cellZones = new int[total];
+        for (int i = 0; i < cellKeys.length; i++) {
+            int offset = cellStarts[i];
+            for (int z : grid.get(cellKeys[i])) {
+                cellZones[offset++] = z;
+            }
+        }
+        maxZonesPerCell = max;
+    }
+
+    /**
+     * Índice sin zonas: ningún punto está en ninguna zona y se puede aparcar en cualquier sitio.
+     *
+     * @return El índice vacío.
+     */
+    public static GeofenceIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Obtiene el número de zonas indexadas.
+     *
+     * @return El número de zonas.
+     */
+    public int getZoneCount() {
+        return zones.length;
+    }
+
+    /**
+     * Obtiene una zona por su posición en el índice.
+     *
+     * @param index Posición de la zona, entre 0 y getZoneCount() - 1.
+     * @return La zona.
+     */
+    public GeofenceZone getZone(int index) {
+        return zones[index];
+    }
+
+    /**
+     * Obtiene el número máximo de zonas en las que puede estar un punto a la vez, que es el tamaño
+     * suficiente del array de salida de {@link #zonesAt(float, float, int[])}.
+     *
+     * @return El número máximo de zonas por celda.
+     */
+    public int getMaxOverlap() {
+        return maxZonesPerCell;
+    }
+
+    /**
+     * Calcula las zonas que contienen un punto, sin reservar memoria.
+     *
+     * @param lat Latitud en grados.
+     * @param lon Longitud en grados.
+     * @param out Array de salida para las posiciones de las zonas, en orden creciente. Debe tener al menos
+     *            getMaxOverlap() posiciones.
+     * @return El número de zonas que contienen el punto.
+     * @throws IllegalArgumentException Si el array de salida es nulo o demasiado pequeño.
+     */
+    public int zonesAt(float lat, float lon, int[] out) {
+        if (out == null || out.length < maxZonesPerCell) {
+            throw new IllegalArgumentException("El array de salida debe tener al menos " + maxZonesPerCell + " posiciones.");
+        }
+        int c = Arrays.binarySearch(cellKeys, key(cell(lat), cell(lon)));
+        if (c < 0) {
+            return 0;
+        }
+        int count = 0;
+        for (int i = cellStarts[c], end = cellStarts[c + 1]; i < end; i++) {
+            int z = cellZones[i];
+            if (zones[z].contains(lat, lon)) {
+                out[count++] = z;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Indica si un punto está dentro de alguna zona del tipo indicado.
+     *
+     * @param lat  Latitud en grados.
+     * @param lon  Longitud en grados.
+     * @param kind Tipo de zona.
+     * @return true si alguna zona de ese tipo contiene el punto.
+     */
+    public boolean isInside(float lat, float lon, ZoneKind kind) {
+        int c = Arrays.binarySearch(cellKeys, key(cell(lat), cell(lon)));
+        if (c < 0) {
+            return false;
+        }
+        for (int i = cellStarts[c], end = cellStarts[c + 1]; i < end; i++) {
+            GeofenceZone zone = zones[cellZones[i]];
+            if (zone.getKind() == kind && zone.contains(lat, lon)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Indica si se puede dejar un vehículo en un punto: no debe estar en ninguna zona NO_PARKING ni NO_RIDE y,
+     * si el índice tiene zonas PARKING, debe estar dentro de alguna de ellas.
+     *
+     * @param lat Latitud en grados.
+     * @param lon Longitud en grados.
+     * @return true si se permite aparcar en el punto.
+     */
+    public boolean isParkingAllowed(float lat, float lon) {
+        boolean inParking = !hasParkingZones;
+        int c = Arrays.binarySearch(cellKeys, key(cell(lat), cell(lon)));
+        if (c < 0) {
+            return inParking;
+        }
+        for (int i = cellStarts[c], end = cellStarts[c + 1]; i < end; i++) {
+            GeofenceZone zone = zones[cellZones[i]];
+            if ((!inParking || zone.getKind() != ZoneKind.PARKING) && zone.contains(lat, lon)) {
+                if (zone.getKind() != ZoneKind.PARKING) {
+                    return false;
+                }
+                inParking = true;
+            }
+        }
+        return inParking;
+    }
+
+    /**
+     * Lee las zonas de un texto con el formato descrito en la clase y construye el índice.
+     *
+     * @param reader Origen del texto.
+     * @return El índice con las zonas leídas.
+     * @throws IOException              Si falla la lectura.
+     * @throws IllegalArgumentException Si alguna línea no es válida, indicando su número.
+     */
+    public static GeofenceIndex parse(Reader reader) throws IOException {
+        List<GeofenceZone> zones = new ArrayList<>();
+        BufferedReader lines = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        String line;
+        int number = 0;
+        while ((line = lines.readLine()) != null) {
+            number++;
+            String content = line.strip();
+            if (content.isEmpty() || content.startsWith("#")) {
+                continue;
+            }
+            String[] fields = content.split("\\s+");
+            try {
+                if (!fields[0].equalsIgnoreCase("zone") || fields.length < 6) {
+                    throw new IllegalArgumentException("formato no reconocido");
+                }
+                ZoneKind kind = ZoneKind.valueOf(fields[2].toUpperCase(Locale.ROOT));
+                int vertices = fields.length - 3;
+                float[] lats = new float[vertices];
+                float[] lons = new float[vertices];
+                for (int v = 0; v < vertices; v++) {
+                    String[] coordinates = fields[v + 3].split(",");
+                    if (coordinates.length != 2) {
+                        throw new IllegalArgumentException("vértice no válido: " + fields[v + 3]);
+                    }
+                    lats[v] = Float.parseFloat(coordinates[0]);
+                    lons[v] = Float.parseFloat(coordinates[1]);
+                }
+                zones.add(new GeofenceZone(fields[1], kind, lats, lons));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Línea " + number + " de las zonas no válida: " + e.getMessage(), e);
+            }
+        }
+        return new GeofenceIndex(zones);
+    }
+
+    // Métodos internos
+
+    private int cell(float degrees) {
+        return (int) Math.floor(degrees * cellsPerDegree);
+    }
+
+    private static long key(int row, int col) {
+        return ((long) row << 32) | (col & 0xFFFF_FFFFL);
+    }
+}
@@ -0,0 +1,28 @@
+package micromobility.geo;
+
+import micromobility.PMVehicle;
+
+/**
+ * Interfaz para observar las entradas y salidas de los vehículos en las zonas de geovalla.
+ * Las notificaciones se emiten en el hilo que actualiza la ubicación del vehículo.
+ */
+public interface GeofenceListener {
+
+    /**
+     * Se invoca cuando un vehículo entra en una zona.
+     *
+     * @param vehicle El vehículo.
+     * @param zone    La zona en la que ha entrado.
+     */
+    default void onZoneEntered(PMVehicle vehicle, GeofenceZone zone) {
+    }
+
+    /**
+     * Se invoca cuando un vehículo sale de una zona.
+     *
+     * @param vehicle El vehículo.
+     * @param zone    La zona de la que ha salido.
+     */
+    default void onZoneExited(PMVehicle vehicle, GeofenceZone zone) {
+    }
+}
@@ -0,0 +1,264 @@
+package micromobility.geo;
+
+import data.GeographicPoint;
+import micromobility.PMVehicle;
+import micromobility.PMVehicleListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sigue la posición de los vehículos registrados con {@link #watch(PMVehicle)} y notifica a los observadores
+ * cuando entran en una zona de geovalla o salen de ella. Se engancha como PMVehicleListener, de modo que cada
+ * llamada a PMVehicle.setLocation consulta el índice de zonas; si el vehículo sigue en las mismas zonas, la
+ * actualización no reserva memoria.
+ *
+ * El índice se puede sustituir en caliente con {@link #setIndex(GeofenceIndex)}; la siguiente actualización
+ * de cada vehículo compara sus zonas por identificador con las del índice nuevo.
+ * Es seguro para usarse desde varios hilos.
+ */
+public final class GeofenceMonitor implements PMVehicleListener {
+
+    private static final int[] NO_ZONES = new int[0];
+    private static final GeofenceListener[] NO_LISTENERS = new GeofenceListener[0];
+
+    private volatile GeofenceIndex index;
+    private volatile GeofenceListener[] listeners = NO_LISTENERS;
+    private final Map<PMVehicle, Membership> memberships = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor de GeofenceMonitor.
+     *
+     * @param index El índice de zonas. No puede ser nulo.
+     * @throws IllegalArgumentException Si el índice es nulo.
+     */
+    public GeofenceMonitor(GeofenceIndex index) {
+        setIndex(index);
+    }
+
+    /**
+     * Obtiene el índice de zonas vigente.
+     *
+     * @return El índice.
+     */
+    public GeofenceIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Sustituye el índice de zonas.
+     *
+     * @param index El nuevo índice. No puede ser nulo.
+     * @throws IllegalArgumentException Si el índice es nulo.
+     */
+    public void setIndex(GeofenceIndex index) {
+        if (index == null) {
+            throw new IllegalArgumentException("El índice de zonas no puede ser nulo.");
+        }
+        this.index = index;
+    }
+
+    /**
+     * Empieza a seguir un vehículo. Las zonas en las que ya está se registran sin notificar entradas.
+     * Seguir un vehículo que ya se seguía no tiene efecto.
+     *
+     * @param vehicle El vehículo. No puede ser nulo.
+     * @throws IllegalArgumentException Si el vehículo es nulo.
+     */
+    public void watch(PMVehicle vehicle) {
+        if (vehicle == null) {
+            throw new IllegalArgumentException("El vehículo no puede ser nulo.");
+        }
+        Membership membership = new Membership();
+        if (memberships.putIfAbsent(vehicle, membership) != null) {
+            return;
+        }
+        synchronized (membership) {
+            GeofenceIndex current = index;
+            GeographicPoint location = vehicle.getLocation();
+            membership.index = current;
+            membership.zones = zonesAt(current, location.getLatitude(), location.getLongitude());
+        }
+        vehicle.addListener(this);
+    }
+
+    /**
+     * Deja de seguir un vehículo, sin notificar salidas.
+     *
+     * @param vehicle El vehículo.
+     */
+    public void unwatch(PMVehicle vehicle) {
+        if (vehicle != null && memberships.remove(vehicle) != null) {
+            vehicle.removeListener(this);
+        }
+    }
+
+    /**
+     * Indica si se está siguiendo un vehículo.
+     *
+     * @param vehicle El vehículo.
+     * @return true si el vehículo está registrado.
+     */
+    public boolean isWatching(PMVehicle vehicle) {
+        return vehicle != null && memberships.containsKey(vehicle);
+    }
+
+    /**
+     * Obtiene las zonas en las que estaba un vehículo en su última actualización.
+     *
+     * @param vehicle El vehículo.
+     * @return Las zonas, o una lista vacía si el vehículo no se sigue.
+     */
+    public List<GeofenceZone> getZones(PMVehicle vehicle) {
+        Membership membership = vehicle == null ? null : memberships.get(vehicle);
+        if (membership == null) {
+            return Collections.emptyList();
+        }
+        synchronized (membership) {
+            List<GeofenceZone> result = new ArrayList<>(membership.zones.length);
+            for (int z : membership.zones) {
+                result.add(membership.index.getZone(z));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Registra un observador de entradas y salidas.
+     *
+     * @param listener El observador. No puede ser nulo.
+     * @throws IllegalArgumentException Si el observador es nulo.
+     */
+    public synchronized void addListener(GeofenceListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("El observador no puede ser nulo.");
+        }
+        GeofenceListener[] current = listeners;
+        GeofenceListener[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = listener;
+        listeners = updated;
+    }
+
+    /**
+     * Elimina un observador registrado previamente.
+     *
+     * @param listener El observador a eliminar.
+     */
+    public synchronized void removeListener(GeofenceListener listener) {
+        GeofenceListener[] current = listeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == listener) {
+                GeofenceListener[] updated = new GeofenceListener[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                listeners = updated;
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void onLocationChanged(PMVehicle vehicle, GeographicPoint oldLocation, GeographicPoint newLocation) {
+        Membership membership = memberships.get(vehicle);
+        if (membership == null) {
+            return;
+        }
+        synchronized (membership) {
+            GeofenceIndex current = index;
+            int[] scratch = membership.scratch;
+            if (scratch.length < current.getMaxOverlap()) {
+                scratch = new int[current.getMaxOverlap()];
+                membership.scratch = scratch;
+            }
+            int count = current.zonesAt(newLocation.getLatitude(), newLocation.getLongitude(), scratch);
+            if (current == membership.index) {
+                diff(vehicle, membership, current, scratch, count);
+            } else {
+                diffAcrossIndexes(vehicle, membership, current, scratch, count);
+            }
+        }
+    }
+
+    // Métodos internos
+
+    // Compara las zonas anteriores y las nuevas, ambas ordenadas y del mismo índice, y notifica las diferencias
+    private void diff(PMVehicle vehicle, Membership membership, GeofenceIndex current, int[] now, int count) {
+        int[] before = membership.zones;
+        if (before.length == count && Arrays.equals(before, 0, count, now, 0, count)) {
+            return;
+        }
+        membership.zones = count == 0 ? NO_ZONES : Arrays.copyOf(now, count);
+        int i = 0;
+        int j = 0;
+        while (i < before.length || j < count) {
+            if (j == count || (i < before.length && before[i] < now[j])) {
+                fireExited(vehicle, current.getZone(before[i++]));
+            } else if (i == before.length || now[j] < before[i]) {
+                fireEntered(vehicle, current.getZone(now[j++]));
+            } else {
+                i++;
+                j++;
+            }
+        }
+    }
+
+    // Tras cambiar el índice, las zonas se comparan por identificador
+    private void diffAcrossIndexes(PMVehicle vehicle, Membership membership, GeofenceIndex current, int[] now, int count) {
+        GeofenceIndex previous = membership.index;
+        int[] before = membership.zones;
+        membership.index = current;
+        membership.zones = count == 0 ? NO_ZONES : Arrays.copyOf(now, count);
+        for (int b : before) {
+            GeofenceZone zone = previous.getZone(b);
+            if (!containsId(current, now, count, zone.getId())) {
+                fireExited(vehicle, zone);
+            }
+        }
+        for (int j = 0; j < count; j++) {
+            GeofenceZone zone = current.getZone(now[j]);
+            if (!containsId(previous, before, before.length, zone.getId())) {
+                fireEntered(vehicle, zone);
+            }
+        }
+    }
+
+    private static boolean containsId(GeofenceIndex index, int[] zones, int count, String id) {
+        for (int i = 0; i < count; i++) {
+            if (index.getZone(zones[i]).getId().equals(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] zonesAt(GeofenceIndex index, float lat, float lon) {
+        int[] out = new int[index.getMaxOverlap()];
+        int count = index.zonesAt(lat, lon, out);
+        return count == 0 ? NO_ZONES : Arrays.copyOf(out, count);
+    }
+
+    private void fireEntered(PMVehicle vehicle, GeofenceZone zone) {
+        for (GeofenceListener listener : listeners) {
+            listener.onZoneEntered(vehicle, zone);
+        }
+    }
+
+    private void fireExited(PMVehicle vehicle, GeofenceZone zone) {
+        for (GeofenceListener listener : listeners) {
+            listener.onZoneExited(vehicle, zone);
+        }
+    }
+
+    /**
+     * Zonas en las que está un vehículo, junto al índice al que se refieren sus posiciones.
+     */
+    private static final class Membership {
+        private GeofenceIndex index;
+        private int[] zones = NO_ZONES;
+        private int[] scratch = NO_ZONES;
+    }
+}
@@ -0,0 +1,143 @@
+package micromobility.geo;
+
+/**
+ * Zona de geovalla: un polígono simple (cóncavo o convexo) de latitudes y longitudes en grados, con su
+ * identificador y su tipo. El polígono se cierra implícitamente entre el último vértice y el primero.
+ * Los puntos sobre el borde pueden quedar dentro o fuera según el redondeo. Es inmutable.
+ */
+public final class GeofenceZone {
+
+    private final String id;
+    private final ZoneKind kind;
+    private final float[] lats;
+    private final float[] lons;
+
+    // Rectángulo envolvente, para descartar puntos antes de recorrer los lados
+    final float minLat;
+    final float maxLat;
+    final float minLon;
+    final float maxLon;
+
+    /**
+     * Constructor de GeofenceZone.
+     *
+     * @param id   Identificador de la zona. No puede ser nulo ni vacío.
+     * @param kind Tipo de zona. No puede ser nulo.
+     * @param lats Latitudes de los vértices en grados.
+     * @param lons Longitudes de los vértices en grados.
+     * @throws IllegalArgumentException Si algún parámetro es nulo, hay menos de 3 vértices, los arrays
+     *                                  tienen distinta longitud o algún vértice está fuera de rango.
+     */
+    public GeofenceZone(String id, ZoneKind kind, float[] lats, float[] lons) {
+        if (id == null || id.isBlank()) {
+            throw new IllegalArgumentException("El identificador de la zona no puede ser nulo ni vacío.");
+        }
+        if (kind == null) {
+            throw new IllegalArgumentException("El tipo de zona no puede ser nulo.");
+        }
+        if (lats == null || lons == null || lats.length != lons.length || lats.length < 3) {
+            throw new IllegalArgumentException("La zona " + id + " debe tener al menos 3 vértices con latitud y longitud.");
+        }
+        float minLat = Float.MAX_VALUE;
+        float maxLat = -Float.MAX_VALUE;
+        float minLon = Float.MAX_VALUE;
+        float maxLon = -Float.MAX_VALUE;
+        for (int i = 0; i < lats.length; i++) {
+            if (!(lats[i] >= -90 && lats[i] <= 90) || !(lons[i] >= -180 && lons[i] <= 180)) {
+                throw new IllegalArgumentException("El vértice " + i + " de la zona " + id + " está fuera de rango.");
+            }
+            minLat = Math.min(minLat, lats[i]);
+            maxLat = Math.max(maxLat, lats[i]);
+            minLon = Math.min(minLon, lons[i]);
+            maxLon = Math.max(maxLon, lons[i]);
+        }
+        this.id = id;
+        this.kind = kind;
+        this.lats = lats.clone();
+        this.lons = lons.clone();
+        this.minLat = minLat;
+        this.maxLat = maxLat;
+        this.minLon = minLon;
+        this.maxLon = maxLon;
+    }
+
+    /**
+     * Obtiene el identificador de la zona.
+     *
+     * @return El identificador.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Obtiene el tipo de zona.
+     *
+     * @return El tipo de zona.
+     */
+    public ZoneKind getKind() {
+        return kind;
+    }
+
+    /**
+     * Obtiene el número de vértices del polígono.
+     *
+     * @return El número de vértices.
+     */
+    public int getVertexCount() {
+        return lats.length;
+    }
+
+    /**
+     * Obtiene las latitudes de los vértices.
+     *
+     * @return Una copia de las latitudes.
+     */
+    public float[] getLatitudes() {
+        return lats.clone();
+    }
+
+    /**
+     * Obtiene las longitudes de los vértices.
+     *
+     * @return Una copia de las longitudes.
+     */
+    public float[] getLongitudes() {
+        return lons.clone();
+    }
+
+    /**
+     * Indica si un punto está dentro del polígono, por la regla par-impar del rayo horizontal.
+     *
+     * @param lat Latitud en grados.
+     * @param lon Longitud en grados.
+     * @return true si el punto está dentro de la zona.
+     */
+    public boolean contains(float lat, float lon) {
+        if (lat < minLat || lat > maxLat || lon < minLon || lon > maxLon) {
+            return false;
+        }
+        boolean inside = false;
+        int n = lats.length;
+        for (int i = 0, j = n - 1; i < n; j = i++) {
+            float latI = lats[i];
+            float latJ = lats[j];
+            if ((latI > lat) != (latJ > lat)) {
+                double crossLon = lons[i] + (double) (lat - latI) * (lons[j] - lons[i]) / (latJ - latI);
+                if (lon < crossLon) {
+                    inside = !inside;
+                }
+            }
+        }
+        return inside;
+    }
+
+    @Override
+    public String toString() {
+        return "GeofenceZone{" +
+                "id='" + id + '\'' +
+                ", kind=" + kind +
+                ", vertices=" + lats.length +
+                '}';
+    }
+}
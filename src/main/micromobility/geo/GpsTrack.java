@@ -0,0 +1,290 @@
+package micromobility.geo;
+
+import data.GeographicPoint;
+
+import java.util.Arrays;
+
+/**
+ * Recorrido GPS de un trayecto construido a partir de una secuencia de posiciones.
+ *
+ * La distancia recorrida, el tiempo transcurrido y la velocidad media se acumulan en O(1) por posición,
+ * sumando la distancia haversine entre posiciones consecutivas, de modo que una ruta con curvas se mide
+ * por su longitud real y no por la línea recta entre origen y destino.
+ *
+ * El trazado se guarda simplificado mientras se recibe, con una ventana deslizante: una posición solo se
+ * conserva cuando el segmento que uniría el último punto guardado con la posición nueva se aparta más de la
+ * tolerancia de alguna de las posiciones intermedias. La ventana está limitada a WINDOW posiciones, así que
+ * el coste por posición es constante. Si el trazado alcanza el número máximo de puntos, se vuelve a
+ * simplificar con el doble de tolerancia; el error del trazado guardado queda acotado por el doble de la
+ * tolerancia vigente ({@link #getToleranceMeters()}) y la memoria no crece con la duración del trayecto.
+ *
+ * Es seguro para usarse desde varios hilos.
+ */
+public final class GpsTrack {
+
+    public static final double DEFAULT_TOLERANCE_METERS = 5;
+    public static final int DEFAULT_MAX_POINTS = 256;
+
+    private static final int WINDOW = 32;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final double METERS_PER_DEGREE = GeoDistance.EARTH_RADIUS_KM * 1000 * Math.PI / 180;
+
+    private final int maxPoints;
+    private double toleranceMeters;
+
+    // Trazado simplificado; el último punto guardado es el ancla de la ventana
+    private float[] lats = new float[INITIAL_CAPACITY];
+    private float[] lons = new float[INITIAL_CAPACITY];
+    private int size;
+    private double anchorCos;
+
+    // Posiciones recibidas desde el ancla que aún no se han descartado ni guardado
+    private final float[] windowLats = new float[WINDOW];
+    private final float[] windowLons = new float[WINDOW];
+    private int windowSize;
+
+    // Acumulados
+    private double distanceKm;
+    private long fixCount;
+    private long firstMillis;
+    private long lastMillis;
+
+    /**
+     * Constructor de GpsTrack con la tolerancia y el número máximo de puntos por defecto.
+     */
+    public GpsTrack() {
+        this(DEFAULT_TOLERANCE_METERS, DEFAULT_MAX_POINTS);
+    }
+
+    /**
+     * Constructor de GpsTrack.
+     *
+     * @param toleranceMeters Desviación máxima inicial del trazado guardado respecto a las posiciones recibidas.
+     * @param maxPoints       Número máximo de puntos guardados (al menos 8).
+     * @throws IllegalArgumentException Si la tolerancia no es positiva o el máximo es menor que 8.
+     */
+    public GpsTrack(double toleranceMeters, int maxPoints) {
+        if (!(toleranceMeters > 0) || maxPoints < 8) {
+            throw new IllegalArgumentException("La tolerancia debe ser positiva y el máximo de puntos al menos 8.");
+        }
+        this.toleranceMeters = toleranceMeters;
+        this.maxPoints = maxPoints;
+    }
+
+    /**
+     * Añade una posición al recorrido.
+     *
+     * @param point       La posición.
+     * @param epochMillis El instante de la posición. Si es anterior al de la última posición se toma el de esta.
+     * @throws IllegalArgumentException Si la posición es nula.
+     */
+    public void add(GeographicPoint point, long epochMillis) {
+        if (point == null) {
+            throw new IllegalArgumentException("La posición no puede ser nula.");
+        }
+        add(point.getLatitude(), point.getLongitude(), epochMillis);
+    }
+
+    /**
+     * Añade una posición al recorrido.
+     *
+     * @param lat         Latitud en grados.
+     * @param lon         Longitud en grados.
+     * @param epochMillis El instante de la posición. Si es anterior al de la última posición se toma el de esta.
+     */
+    public synchronized void add(float lat, float lon, long epochMillis) {
+        if (fixCount == 0) {
+            firstMillis = epochMillis;
+            lastMillis = epochMillis;
+            store(lat, lon);
+            fixCount = 1;
+            return;
+        }
+        float lastLat = getLastLatitude();
+        float lastLon = getLastLongitude();
+        distanceKm += GeoDistance.haversineKm(lastLat, lastLon, lat, lon);
+        lastMillis = Math.max(lastMillis, epochMillis);
+        fixCount++;
+
+        if (windowSize == WINDOW || !windowFits(lat, lon)) {
+            // La posición anterior pasa a ser el nuevo ancla y la ventana empieza de nuevo
+            store(lastLat, lastLon);
+            windowSize = 0;
+        }
+        windowLats[windowSize] = lat;
+        windowLons[windowSize] = lon;
+        windowSize++;
+    }
+
+    /**
+     * Obtiene la distancia recorrida.
+     *
+     * @return La distancia en kilómetros.
+     */
+    public synchronized double getDistanceKm() {
+        return distanceKm;
+    }
+
+    /**
+     * Obtiene el tiempo transcurrido entre la primera y la última posición.
+     *
+     * @return El tiempo en milisegundos.
+     */
+    public synchronized long getElapsedMillis() {
+        return lastMillis - firstMillis;
+    }
+
+    /**
+     * Obtiene la velocidad media del recorrido.
+     *
+     * @return La velocidad en km/h, o 0 si aún no ha transcurrido tiempo.
+     */
+    public synchronized double getAverageSpeedKmh() {
+        long elapsed = lastMillis - firstMillis;
+        return elapsed > 0 ? distanceKm / (elapsed / 3_600_000.0) : 0;
+    }
+
+    /**
+     * Obtiene el número de posiciones recibidas.
+     *
+     * @return El número de posiciones.
+     */
+    public synchronized long getFixCount() {
+        return fixCount;
+    }
+
+    /**
+     * Obtiene la latitud de la última posición recibida.
+     *
+     * @return La latitud en grados.
+     * @throws IllegalStateException Si aún no se ha recibido ninguna posición.
+     */
+    public synchronized float getLastLatitude() {
+        requireFix();
+        return windowSize > 0 ? windowLats[windowSize - 1] : lats[size - 1];
+    }
+
+    /**
+     * Obtiene la longitud de la última posición recibida.
+     *
+     * @return La longitud en grados.
+     * @throws IllegalStateException Si aún no se ha recibido ninguna posición.
+     */
+    public synchronized float getLastLongitude() {
+        requireFix();
+        return windowSize > 0 ? windowLons[windowSize - 1] : lons[size - 1];
+    }
+
+    /**
+     * Obtiene la tolerancia vigente de la simplificación, que se duplica cada vez que el trazado se compacta.
+     *
+     * @return La tolerancia en metros.
+     */
+    public synchronized double getToleranceMeters() {
+        return toleranceMeters;
+    }
+
+    /**
+     * Obtiene las latitudes del trazado simplificado, incluida la última posición recibida.
+     *
+     * @return Una copia de las latitudes.
+     */
+    public synchronized float[] getLatitudes() {
+        float[] result = Arrays.copyOf(lats, pathSize());
+        if (windowSize > 0) {
+            result[size] = windowLats[windowSize - 1];
+        }
+        return result;
+    }
+
+    /**
+     * Obtiene las longitudes del trazado simplificado, incluida la última posición recibida.
+     *
+     * @return Una copia de las longitudes.
+     */
+    public synchronized float[] getLongitudes() {
+        float[] result = Arrays.copyOf(lons, pathSize());
+        if (windowSize > 0) {
+            result[size] = windowLons[windowSize - 1];
+        }
+        return result;
+    }
+
+    // Métodos internos
+
+    private int pathSize() {
+        return windowSize > 0 ? size + 1 : size;
+    }
+
+    private void requireFix() {
+        if (fixCount == 0) {
+            throw new IllegalStateException("El recorrido aún no tiene posiciones.");
+        }
+    }
+
+    // Comprueba que todas las posiciones de la ventana queden dentro de la tolerancia del segmento ancla-posición
+    private boolean windowFits(float lat, float lon) {
+        float anchorLat = lats[size - 1];
+        float anchorLon = lons[size - 1];
+        for (int i = 0; i < windowSize; i++) {
+            if (deviationMeters(anchorLat, anchorLon, anchorCos, lat, lon, windowLats[i], windowLons[i]) > toleranceMeters) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void store(float lat, float lon) {
+        if (size == maxPoints) {
+            compact();
+        }
+        if (size == lats.length) {
+            int capacity = Math.min(maxPoints, size * 2);
+            lats = Arrays.copyOf(lats, capacity);
+            lons = Arrays.copyOf(lons, capacity);
+        }
+        lats[size] = lat;
+        lons[size] = lon;
+        size++;
+        anchorCos = Math.cos(Math.toRadians(lat));
+    }
+
+    // Vuelve a simplificar el trazado guardado con el doble de tolerancia hasta dejarlo en la mitad de puntos
+    private void compact() {
+        while (size > maxPoints / 2) {
+            toleranceMeters *= 2;
+            int kept = 1;
+            int anchor = 0;
+            for (int candidate = 2; candidate < size; candidate++) {
+                double cos = Math.cos(Math.toRadians(lats[anchor]));
+                for (int i = anchor + 1; i < candidate; i++) {
+                    if (deviationMeters(lats[anchor], lons[anchor], cos, lats[candidate], lons[candidate], lats[i], lons[i])
+                            > toleranceMeters) {
+                        // El punto anterior al candidato se conserva y pasa a ser el nuevo ancla
+                        lats[kept] = lats[candidate - 1];
+                        lons[kept] = lons[candidate - 1];
+                        anchor = candidate - 1;
+                        kept++;
+                        break;
+                    }
+                }
+            }
+            lats[kept] = lats[size - 1];
+            lons[kept] = lons[size - 1];
+            size = kept + 1;
+        }
+    }
+
+    // Distancia en metros del punto P al segmento A-B, en una proyección plana local centrada en A
+    static double deviationMeters(float aLat, float aLon, double aCos, float bLat, float bLon, float pLat, float pLon) {
+        double bx = (bLon - aLon) * aCos * METERS_PER_DEGREE;
+        double by = (bLat - aLat) * METERS_PER_DEGREE;
+        double px = (pLon - aLon) * aCos * METERS_PER_DEGREE;
+        double py = (pLat - aLat) * METERS_PER_DEGREE;
+        double lengthSquared = bx * bx + by * by;
+        double t = lengthSquared > 0 ? Math.max(0, Math.min(1, (px * bx + py * by) / lengthSquared)) : 0;
+        double dx = px - t * bx;
+        double dy = py - t * by;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+}
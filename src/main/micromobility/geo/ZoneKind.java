@@ -0,0 +1,10 @@
+package micromobility.geo;
+
+/**
+ * Tipos de zona de geovalla.
+ */
+public enum ZoneKind {
+    PARKING,     // Zona de aparcamiento permitido
+    NO_PARKING,  // Zona donde no se puede dejar el vehículo
+    NO_RIDE      // Zona por la que no se puede circular (tampoco aparcar)
+}
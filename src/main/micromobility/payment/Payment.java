@@ -1,5 +1,6 @@
 package micromobility.payment;
 
+import data.Money;
 import data.UserAccount;
 import micromobility.JourneyService;
 
@@ -13,7 +14,7 @@ public abstract class Payment {
 
     protected JourneyService journeyService; // Servicio de trayecto asociado al pago
     protected UserAccount userAccount;       // Usuario que realiza el pago
-    protected BigDecimal amount;            // Monto del pago
+    protected Money amount;                 // Monto del pago
 
     /**
      * Constructor para inicializar los datos básicos del pago.
@@ -24,6 +25,13 @@ public abstract class Payment {
      * @throws IllegalArgumentException Si alguno de los parámetros es inválido.
      */
     public Payment(JourneyService journeyService, UserAccount userAccount, BigDecimal amount) {
+        this(journeyService, userAccount, amount == null || amount.signum() <= 0 ? null : Money.of(amount));
+    }
+
+    /**
+     * Igual que {@link #Payment(JourneyService, UserAccount, BigDecimal)}, con el monto en céntimos.
+     */
+    public Payment(JourneyService journeyService, UserAccount userAccount, Money amount) {
         validatePaymentData(journeyService, userAccount, amount);
         this.journeyService = journeyService;
         this.userAccount = userAccount;
@@ -44,6 +52,15 @@ public abstract class Payment {
      * @return El monto del pago.
      */
     public BigDecimal getAmount() {
+        return amount.toBigDecimal();
+    }
+
+    /**
+     * Obtiene el monto del pago en céntimos.
+     *
+     * @return El monto del pago.
+     */
+    public Money getAmountMoney() {
         return amount;
     }
 
@@ -73,14 +90,14 @@ public abstract class Payment {
      * @param amount         El monto del pago.
      * @throws IllegalArgumentException Si alguno de los datos es inválido.
      */
-    private void validatePaymentData(JourneyService journeyService, UserAccount userAccount, BigDecimal amount) {
+    private void validatePaymentData(JourneyService journeyService, UserAccount userAccount, Money amount) {
         if (journeyService == null) {
             throw new IllegalArgumentException("El servicio de trayecto no puede ser nulo.");
         }
         if (userAccount == null) {
             throw new IllegalArgumentException("El usuario no puede ser nulo.");
         }
-        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+        if (amount == null || !amount.isPositive()) {
             throw new IllegalArgumentException("El monto debe ser mayor que 0.");
         }
     }
@@ -1,32 +1,84 @@
 package micromobility.payment;
 
+import data.Money;
 import exceptions.NotEnoughWalletException;
 import java.math.BigDecimal;
 
 public class Wallet {
-    private BigDecimal balance;
+    private long balanceCents; // Saldo en céntimos
 
     public Wallet(BigDecimal initialBalance) {
         if (initialBalance == null || initialBalance.compareTo(BigDecimal.ZERO) < 0) {
             throw new IllegalArgumentException("El saldo inicial no puede ser nulo o negativo.");
         }
-        this.balance = initialBalance;
+        this.balanceCents = Money.toCents(initialBalance);
+    }
+
+    private Wallet(long initialBalanceCents) {
+        this.balanceCents = initialBalanceCents;
+    }
+
+    /**
+     * Crea un monedero con el saldo inicial indicado en céntimos.
+     * Es una factoría en lugar de un constructor para que new Wallet(null) siga sin ser ambiguo.
+     *
+     * @param initialBalance El saldo inicial.
+     * @return El monedero.
+     * @throws IllegalArgumentException Si el saldo inicial es nulo o negativo.
+     */
+    public static Wallet of(Money initialBalance) {
+        if (initialBalance == null || initialBalance.isNegative()) {
+            throw new IllegalArgumentException("El saldo inicial no puede ser nulo o negativo.");
+        }
+        return new Wallet(initialBalance.getCents());
     }
 
     public BigDecimal getBalance() {
-        return balance;
+        return BigDecimal.valueOf(balanceCents, 2);
+    }
+
+    /**
+     * Obtiene el saldo como importe en céntimos.
+     *
+     * @return El saldo.
+     */
+    public Money getBalanceMoney() {
+        return Money.ofCents(balanceCents);
+    }
+
+    /**
+     * Obtiene el saldo en céntimos, sin reservar memoria.
+     *
+     * @return El saldo en céntimos.
+     */
+    public long getBalanceCents() {
+        return balanceCents;
     }
 
     public void deduct(BigDecimal imp) throws NotEnoughWalletException {
         if (imp == null || imp.compareTo(BigDecimal.ZERO) <= 0) {
             throw new IllegalArgumentException("El importe debe ser mayor a cero.");
         }
+        deduct(Money.of(imp));
+    }
+
+    /**
+     * Descuenta un importe del saldo.
+     *
+     * @param imp El importe a descontar.
+     * @throws NotEnoughWalletException Si el saldo es insuficiente.
+     * @throws IllegalArgumentException Si el importe es nulo o no es positivo.
+     */
+    public void deduct(Money imp) throws NotEnoughWalletException {
+        if (imp == null || !imp.isPositive()) {
+            throw new IllegalArgumentException("El importe debe ser mayor a cero.");
+        }
 
-        if (balance.compareTo(imp) < 0) {
+        if (balanceCents < imp.getCents()) {
             throw new NotEnoughWalletException("Fondos insuficientes en el monedero.");
         }
 
-        balance = balance.subtract(imp);
+        balanceCents -= imp.getCents();
     }
 
     /**
@@ -38,6 +90,18 @@ public class Wallet {
         if (newBalance == null || newBalance.compareTo(BigDecimal.ZERO) < 0) {
             throw new IllegalArgumentException("El nuevo balance no puede ser nulo o negativo.");
         }
-        this.balance = newBalance;
+        this.balanceCents = Money.toCents(newBalance);
+    }
+
+    /**
+     * Igual que {@link #updateBalance(BigDecimal)}, con el saldo como importe en céntimos.
+     *
+     * @param newBalance El nuevo balance a establecer.
+     */
+    protected void updateBalance(Money newBalance) {
+        if (newBalance == null || newBalance.isNegative()) {
+            throw new IllegalArgumentException("El nuevo balance no puede ser nulo o negativo.");
+        }
+        this.balanceCents = newBalance.getCents();
     }
 }
@@ -1,13 +1,19 @@
 package micromobility.payment;
 
+import data.Money;
 import data.UserAccount;
 import exceptions.NotEnoughWalletException;
+import logging.LogManager;
+import logging.Logger;
 import micromobility.JourneyService;
 import micromobility.payment.Wallet;
 
 import java.math.BigDecimal;
 
 public class WalletPayment extends Payment {
+
+    private static final Logger LOG = LogManager.getLogger(WalletPayment.class);
+
     private Wallet wallet;
 
     public WalletPayment(JourneyService journeyService, UserAccount userAccount, BigDecimal amount, Wallet wallet) {
@@ -18,10 +24,18 @@ public class WalletPayment extends Payment {
         this.wallet = wallet;
     }
 
+    public WalletPayment(JourneyService journeyService, UserAccount userAccount, Money amount, Wallet wallet) {
+        super(journeyService, userAccount, amount);
+        if (wallet == null) {
+            throw new IllegalArgumentException("El monedero no puede ser nulo.");
+        }
+        this.wallet = wallet;
+    }
+
     @Override
     public void processPayment() throws NotEnoughWalletException {
         wallet.deduct(amount);
-        System.out.println("Pago realizado con éxito desde el monedero.");
+        LOG.info("Pago realizado con éxito desde el monedero.");
     }
 
     public Wallet getWallet() {
@@ -0,0 +1,176 @@
+package micromobility.tariff;
+
+import data.Money;
+import data.StationID;
+import micromobility.VehicleType;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Tabla de tarifas compilada e inmutable. Cada combinación de zona, hora, tipo de vehículo y plan de usuario
+ * ocupa una celda de un array plano que apunta directamente a su tarifa, de modo que calcular un importe
+ * es un cálculo de índice, un acceso al array y aritmética entera, sin reservar memoria.
+ * Es segura para usarse desde varios hilos.
+ */
+public final class CompiledTariff {
+
+    private static final int HOURS = 24;
+    private static final int TYPES = VehicleType.values().length;
+    private static final int PLANS = UserPlan.values().length;
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+    private static final int CHUNK = 1 << 14;
+
+    private final int zones;
+    private final Rate[] cells;
+    private final Map<StationID, Integer> stationZones;
+
+    CompiledTariff(int zones, Rate[] cells, Map<StationID, Integer> stationZones) {
+        this.zones = zones;
+        this.cells = cells;
+        this.stationZones = new HashMap<>(stationZones);
+    }
+
+    /**
+     * Tarifa estándar del sistema: 0,50 EUR por kilómetro y 0,10 EUR por minuto, sin desbloqueo ni mínimo.
+     *
+     * @return La tarifa estándar compilada.
+     */
+    public static CompiledTariff standard() {
+        return new TariffTable()
+                .addRule(TariffTable.ANY_ZONE, null, null, Rate.of("0", "0.50", "0.10", "0"))
+                .compile();
+    }
+
+    /**
+     * Obtiene el número de zonas de la tarifa.
+     *
+     * @return El número de zonas.
+     */
+    public int getZoneCount() {
+        return zones;
+    }
+
+    /**
+     * Obtiene la zona tarifaria de una estación.
+     *
+     * @param station La estación.
+     * @return La zona asignada, o 0 si la estación es nula o no tiene zona asignada.
+     */
+    public int zoneOf(StationID station) {
+        if (station == null) {
+            return 0;
+        }
+        Integer zone = stationZones.get(station);
+        return zone == null ? 0 : zone;
+    }
+
+    /**
+     * Obtiene la tarifa que se aplica a una combinación.
+     *
+     * @return La tarifa aplicable.
+     * @throws IllegalArgumentException Si la hora no es válida o el tipo o el plan son nulos.
+     */
+    public Rate rateFor(int zone, int hour, VehicleType type, UserPlan plan) {
+        return cells[cell(zone, hour, type, plan)];
+    }
+
+    /**
+     * Calcula el importe de un trayecto en céntimos.
+     *
+     * @param zone            La zona tarifaria; una zona desconocida se trata como la zona 0.
+     * @param hour            La hora de inicio del trayecto (0-23).
+     * @param type            El tipo de vehículo.
+     * @param plan            El plan del usuario.
+     * @param distanceKm      La distancia recorrida en kilómetros.
+     * @param durationMinutes La duración en minutos.
+     * @return El importe en céntimos.
+     * @throws IllegalArgumentException Si algún valor está fuera de rango.
+     */
+    public long fareCents(int zone, int hour, VehicleType type, UserPlan plan, float distanceKm, int durationMinutes) {
+        if (!(distanceKm >= 0) || durationMinutes < 0) {
+            throw new IllegalArgumentException("La distancia y la duración no pueden ser negativas.");
+        }
+        return cells[cell(zone, hour, type, plan)].fareCents(Math.round((double) distanceKm * 1000), durationMinutes);
+    }
+
+    /**
+     * Calcula el importe de un trayecto.
+     *
+     * @return El importe.
+     * @see #fareCents(int, int, VehicleType, UserPlan, float, int)
+     */
+    public Money fare(int zone, int hour, VehicleType type, UserPlan plan, float distanceKm, int durationMinutes) {
+        return Money.ofCents(fareCents(zone, hour, type, plan, distanceKm, durationMinutes));
+    }
+
+    /**
+     * Calcula los importes de un lote de trayectos, por ejemplo al repetir una facturación.
+     * Los lotes grandes se reparten en bloques que se calculan en paralelo.
+     *
+     * @param batch      Los trayectos.
+     * @param fareCents  Array de salida con al menos batch.size() posiciones.
+     * @return La suma de los importes en céntimos.
+     * @throws IllegalArgumentException Si el array de salida es demasiado pequeño.
+     */
+    public long priceAll(TariffBatch batch, long[] fareCents) {
+        int size = batch.size();
+        if (fareCents == null || fareCents.length < size) {
+            throw new IllegalArgumentException("El array de salida debe tener al menos " + size + " posiciones.");
+        }
+        if (size < PARALLEL_THRESHOLD) {
+            return priceRange(batch, fareCents, 0, size);
+        }
+        int chunks = (size + CHUNK - 1) / CHUNK;
+        return IntStream.range(0, chunks).parallel()
+                .mapToLong(chunk -> priceRange(batch, fareCents, chunk * CHUNK, Math.min(size, (chunk + 1) * CHUNK)))
+                .sum();
+    }
+
+    // Métodos internos
+
+    private long priceRange(TariffBatch batch, long[] fareCents, int from, int to) {
+        int[] zoneColumn = batch.zones;
+        byte[] hourColumn = batch.hours;
+        byte[] typeColumn = batch.types;
+        byte[] planColumn = batch.plans;
+        int[] distanceColumn = batch.distancesMeters;
+        int[] durationColumn = batch.durationsMinutes;
+        long total = 0;
+        for (int i = from; i < to; i++) {
+            int zone = zoneColumn[i];
+            if (zone >= zones) {
+                zone = 0;
+            }
+            Rate rate = cells[cellIndex(zone, hourColumn[i], typeColumn[i], planColumn[i])];
+            long fare = rate.fareCents(distanceColumn[i], durationColumn[i]);
+            fareCents[i] = fare;
+            total += fare;
+        }
+        return total;
+    }
+
+    private int cell(int zone, int hour, VehicleType type, UserPlan plan) {
+        if (hour < 0 || hour >= HOURS || type == null || plan == null) {
+            throw new IllegalArgumentException("La hora debe estar entre 0 y 23 y el tipo de vehículo y el plan no pueden ser nulos.");
+        }
+        if (zone < 0 || zone >= zones) {
+            zone = 0;
+        }
+        return cellIndex(zone, hour, type.ordinal(), plan.ordinal());
+    }
+
+    static int cellIndex(int zone, int hour, int type, int plan) {
+        return ((zone * HOURS + hour) * TYPES + type) * PLANS + plan;
+    }
+
+    static String describeCell(int cell) {
+        int plan = cell % PLANS;
+        cell /= PLANS;
+        int type = cell % TYPES;
+        cell /= TYPES;
+        return "zona " + cell / HOURS + ", hora " + cell % HOURS + ", " + VehicleType.values()[type] + ", " +
+                UserPlan.values()[plan];
+    }
+}
@@ -0,0 +1,148 @@
+package micromobility.tariff;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Objects;
+
+/**
+ * Tarifa aplicable a un trayecto: importe de desbloqueo, precio por kilómetro, precio por minuto
+ * e importe mínimo. Los importes se guardan como enteros en milésimas de céntimo (1e-5 EUR), de modo
+ * que tarifas como 0,10 EUR/min o 0,035 EUR/km se representan sin error de redondeo.
+ */
+public final class Rate {
+
+    static final long UNITS_PER_CENT = 1000;
+    private static final BigDecimal UNITS_PER_EURO = BigDecimal.valueOf(100 * UNITS_PER_CENT);
+
+    private final long unlock;
+    private final long perKm;
+    private final long perMinute;
+    private final long minimum;
+
+    private Rate(long unlock, long perKm, long perMinute, long minimum) {
+        this.unlock = unlock;
+        this.perKm = perKm;
+        this.perMinute = perMinute;
+        this.minimum = minimum;
+    }
+
+    /**
+     * Crea una tarifa a partir de importes en euros.
+     *
+     * @param unlock    Importe fijo de desbloqueo.
+     * @param perKm     Precio por kilómetro.
+     * @param perMinute Precio por minuto.
+     * @param minimum   Importe mínimo del trayecto.
+     * @return La tarifa.
+     * @throws IllegalArgumentException Si algún importe es nulo, negativo o tiene más de 5 decimales.
+     */
+    public static Rate of(BigDecimal unlock, BigDecimal perKm, BigDecimal perMinute, BigDecimal minimum) {
+        return new Rate(toUnits(unlock), toUnits(perKm), toUnits(perMinute), toUnits(minimum));
+    }
+
+    /**
+     * Crea una tarifa a partir de importes en euros expresados como texto (por ejemplo "0.10").
+     *
+     * @return La tarifa.
+     * @throws IllegalArgumentException Si algún importe no es válido.
+     */
+    public static Rate of(String unlock, String perKm, String perMinute, String minimum) {
+        try {
+            return of(new BigDecimal(unlock), new BigDecimal(perKm), new BigDecimal(perMinute), new BigDecimal(minimum));
+        } catch (NumberFormatException | NullPointerException e) {
+            throw new IllegalArgumentException("Importe de tarifa no válido.", e);
+        }
+    }
+
+    /**
+     * Calcula el importe de un trayecto en céntimos, redondeando al céntimo más cercano (mitades al par).
+     *
+     * @param distanceMeters  La distancia recorrida en metros.
+     * @param durationMinutes La duración en minutos.
+     * @return El importe en céntimos.
+     */
+    long fareCents(long distanceMeters, long durationMinutes) {
+        long units = unlock + divideHalfEven(perKm * distanceMeters, 1000) + perMinute * durationMinutes;
+        return divideHalfEven(Math.max(units, minimum), UNITS_PER_CENT);
+    }
+
+    /**
+     * Obtiene el importe de desbloqueo en euros.
+     *
+     * @return El importe de desbloqueo.
+     */
+    public BigDecimal getUnlock() {
+        return toEuros(unlock);
+    }
+
+    /**
+     * Obtiene el precio por kilómetro en euros.
+     *
+     * @return El precio por kilómetro.
+     */
+    public BigDecimal getPerKm() {
+        return toEuros(perKm);
+    }
+
+    /**
+     * Obtiene el precio por minuto en euros.
+     *
+     * @return El precio por minuto.
+     */
+    public BigDecimal getPerMinute() {
+        return toEuros(perMinute);
+    }
+
+    /**
+     * Obtiene el importe mínimo del trayecto en euros.
+     *
+     * @return El importe mínimo.
+     */
+    public BigDecimal getMinimum() {
+        return toEuros(minimum);
+    }
+
+    static long divideHalfEven(long value, long divisor) {
+        long quotient = value / divisor;
+        long remainder = value % divisor;
+        long twice = 2 * Math.abs(remainder);
+        if (twice > divisor || (twice == divisor && (quotient & 1) != 0)) {
+            quotient += Long.signum(value);
+        }
+        return quotient;
+    }
+
+    private static long toUnits(BigDecimal euros) {
+        if (euros == null || euros.signum() < 0) {
+            throw new IllegalArgumentException("Los importes de la tarifa no pueden ser nulos ni negativos.");
+        }
+        try {
+            return euros.multiply(UNITS_PER_EURO).setScale(0, RoundingMode.UNNECESSARY).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("El importe " + euros + " tiene más precisión de la admitida.", e);
+        }
+    }
+
+    private static BigDecimal toEuros(long units) {
+        return BigDecimal.valueOf(units, 5).stripTrailingZeros();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Rate rate = (Rate) o;
+        return unlock == rate.unlock && perKm == rate.perKm && perMinute == rate.perMinute && minimum == rate.minimum;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(unlock, perKm, perMinute, minimum);
+    }
+
+    @Override
+    public String toString() {
+        return "Rate {unlock=" + getUnlock() + ", perKm=" + getPerKm() + ", perMinute=" + getPerMinute() +
+                ", minimum=" + getMinimum() + "}";
+    }
+}
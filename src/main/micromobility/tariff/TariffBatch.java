@@ -0,0 +1,95 @@
+package micromobility.tariff;
+
+import micromobility.VehicleType;
+
+import java.util.Arrays;
+
+/**
+ * Lote de trayectos a tarificar, guardado por columnas en arrays primitivos para que
+ * CompiledTariff#priceAll los recorra de forma secuencial. Se puede vaciar y reutilizar.
+ * No es seguro para añadir trayectos desde varios hilos.
+ */
+public final class TariffBatch {
+
+    int[] zones;
+    byte[] hours;
+    byte[] types;
+    byte[] plans;
+    int[] distancesMeters;
+    int[] durationsMinutes;
+    private int size;
+
+    /**
+     * Constructor de TariffBatch.
+     *
+     * @param initialCapacity Número de trayectos previsto.
+     * @throws IllegalArgumentException Si la capacidad no es positiva.
+     */
+    public TariffBatch(int initialCapacity) {
+        if (initialCapacity <= 0) {
+            throw new IllegalArgumentException("La capacidad inicial debe ser positiva.");
+        }
+        zones = new int[initialCapacity];
+        hours = new byte[initialCapacity];
+        types = new byte[initialCapacity];
+        plans = new byte[initialCapacity];
+        distancesMeters = new int[initialCapacity];
+        durationsMinutes = new int[initialCapacity];
+    }
+
+    /**
+     * Añade un trayecto al lote.
+     *
+     * @param zone            La zona tarifaria.
+     * @param hour            La hora de inicio (0-23).
+     * @param type            El tipo de vehículo.
+     * @param plan            El plan del usuario.
+     * @param distanceKm      La distancia en kilómetros.
+     * @param durationMinutes La duración en minutos.
+     * @throws IllegalArgumentException Si algún valor está fuera de rango.
+     */
+    public void add(int zone, int hour, VehicleType type, UserPlan plan, float distanceKm, int durationMinutes) {
+        if (hour < 0 || hour > 23 || type == null || plan == null || !(distanceKm >= 0) || distanceKm > 2_000_000f
+                || durationMinutes < 0) {
+            throw new IllegalArgumentException("Trayecto no válido para tarificar.");
+        }
+        if (size == zones.length) {
+            grow();
+        }
+        zones[size] = Math.max(zone, 0);
+        hours[size] = (byte) hour;
+        types[size] = (byte) type.ordinal();
+        plans[size] = (byte) plan.ordinal();
+        distancesMeters[size] = (int) Math.round((double) distanceKm * 1000);
+        durationsMinutes[size] = durationMinutes;
+        size++;
+    }
+
+    /**
+     * Obtiene el número de trayectos del lote.
+     *
+     * @return El número de trayectos.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Vacía el lote conservando la memoria reservada.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    // Métodos internos
+
+    private void grow() {
+        int capacity = zones.length * 2;
+        zones = Arrays.copyOf(zones, capacity);
+        hours = Arrays.copyOf(hours, capacity);
+        types = Arrays.copyOf(types, capacity);
+        plans = Arrays.copyOf(plans, capacity);
+        distancesMeters = Arrays.copyOf(distancesMeters, capacity);
+        durationsMinutes = Arrays.copyOf(durationsMinutes, capacity);
+    }
+}
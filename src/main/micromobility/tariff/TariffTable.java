@@ -0,0 +1,228 @@
+package micromobility.tariff;
+
+import data.StationID;
+import exceptions.InvalidPairingArgsException;
+import micromobility.VehicleType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Tabla de tarifas editable: reglas por zona, franja horaria, tipo de vehículo y plan de usuario,
+ * y la asignación de estaciones a zonas. Cualquiera de las cuatro dimensiones de una regla puede
+ * dejarse abierta (comodín). Cuando varias reglas se aplican al mismo trayecto gana la más específica
+ * (la que fija más dimensiones) y, a igualdad, la añadida en último lugar.
+ * La tabla se compila una vez con {@link #compile()} en un CompiledTariff de consulta directa.
+ *
+ * Formato de texto admitido por {@link #parse(Reader)}, un elemento por línea:
+ * <pre>
+ *   # comentario
+ *   zone  &lt;estación&gt; &lt;zona&gt;
+ *   rate  &lt;zona|*&gt; &lt;horas|*&gt; &lt;vehículo|*&gt; &lt;plan|*&gt; &lt;desbloqueo&gt; &lt;€/km&gt; &lt;€/min&gt; &lt;mínimo&gt;
+ * </pre>
+ * Las horas se indican como intervalo "desde-hasta" con el final excluido (por ejemplo "7-10" o "22-6").
+ */
+public final class TariffTable {
+
+    public static final int ANY_ZONE = -1;
+    public static final int MAX_ZONES = 1024;
+
+    private final List<Rule> rules = new ArrayList<>();
+    private final Map<StationID, Integer> stationZones = new HashMap<>();
+
+    /**
+     * Añade una regla de tarifa.
+     *
+     * @param zone     La zona, o ANY_ZONE para todas.
+     * @param fromHour Hora de inicio de la franja (0-23).
+     * @param toHour   Hora de fin de la franja, excluida (1-24). Si es menor o igual que fromHour, la franja cruza la medianoche.
+     * @param type     El tipo de vehículo, o null para todos.
+     * @param plan     El plan de usuario, o null para todos.
+     * @param rate     La tarifa a aplicar.
+     * @return Esta misma tabla.
+     * @throws IllegalArgumentException Si algún valor está fuera de rango o la tarifa es nula.
+     */
+    public TariffTable addRule(int zone, int fromHour, int toHour, VehicleType type, UserPlan plan, Rate rate) {
+        if (zone < ANY_ZONE || zone >= MAX_ZONES) {
+            throw new IllegalArgumentException("La zona debe estar entre 0 y " + (MAX_ZONES - 1) + ".");
+        }
+        if (fromHour < 0 || fromHour > 23 || toHour < 1 || toHour > 24) {
+            throw new IllegalArgumentException("La franja horaria no es válida: " + fromHour + "-" + toHour + ".");
+        }
+        if (rate == null) {
+            throw new IllegalArgumentException("La tarifa no puede ser nula.");
+        }
+        rules.add(new Rule(zone, fromHour, toHour, type, plan, rate));
+        return this;
+    }
+
+    /**
+     * Añade una regla válida a cualquier hora.
+     *
+     * @return Esta misma tabla.
+     */
+    public TariffTable addRule(int zone, VehicleType type, UserPlan plan, Rate rate) {
+        return addRule(zone, 0, 24, type, plan, rate);
+    }
+
+    /**
+     * Asigna una estación a una zona tarifaria.
+     *
+     * @param station La estación.
+     * @param zone    La zona.
+     * @return Esta misma tabla.
+     */
+    public TariffTable assignZone(StationID station, int zone) {
+        if (station == null || zone < 0 || zone >= MAX_ZONES) {
+            throw new IllegalArgumentException("La estación no puede ser nula y la zona debe estar entre 0 y " +
+                    (MAX_ZONES - 1) + ".");
+        }
+        stationZones.put(station, zone);
+        return this;
+    }
+
+    /**
+     * Compila la tabla en una estructura de consulta directa.
+     *
+     * @return La tarifa compilada.
+     * @throws IllegalStateException Si alguna combinación de zona, hora, vehículo y plan no tiene tarifa.
+     */
+    public CompiledTariff compile() {
+        int zones = 1;
+        for (Rule rule : rules) {
+            zones = Math.max(zones, rule.zone + 1);
+        }
+        for (int zone : stationZones.values()) {
+            zones = Math.max(zones, zone + 1);
+        }
+        VehicleType[] types = VehicleType.values();
+        UserPlan[] plans = UserPlan.values();
+        Rate[] cells = new Rate[zones * 24 * types.length * plans.length];
+        int[] specificity = new int[cells.length];
+        for (Rule rule : rules) {
+            int score = rule.specificity();
+            for (int zone = 0; zone < zones; zone++) {
+                if (rule.zone != ANY_ZONE && rule.zone != zone) {
+                    continue;
+                }
+                for (int hour = 0; hour < 24; hour++) {
+                    if (!rule.coversHour(hour)) {
+                        continue;
+                    }
+                    for (VehicleType type : types) {
+                        if (rule.type != null && rule.type != type) {
+                            continue;
+                        }
+                        for (UserPlan plan : plans) {
+                            if (rule.plan != null && rule.plan != plan) {
+                                continue;
+                            }
+                            int cell = CompiledTariff.cellIndex(zone, hour, type.ordinal(), plan.ordinal());
+                            if (cells[cell] == null || score >= specificity[cell]) {
+                                cells[cell] = rule.rate;
+                                specificity[cell] = score;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        for (int cell = 0; cell < cells.length; cell++) {
+            if (cells[cell] == null) {
+                throw new IllegalStateException("La tabla de tarifas no cubre la combinación " + CompiledTariff.describeCell(cell) + ".");
+            }
+        }
+        return new CompiledTariff(zones, cells, stationZones);
+    }
+
+    /**
+     * Lee una tabla de tarifas en formato de texto.
+     *
+     * @param reader La fuente del texto.
+     * @return La tabla leída.
+     * @throws IOException              Si falla la lectura.
+     * @throws IllegalArgumentException Si alguna línea no es válida.
+     */
+    public static TariffTable parse(Reader reader) throws IOException {
+        TariffTable table = new TariffTable();
+        BufferedReader lines = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        String line;
+        int number = 0;
+        while ((line = lines.readLine()) != null) {
+            number++;
+            String content = line.strip();
+            if (content.isEmpty() || content.startsWith("#")) {
+                continue;
+            }
+            String[] fields = content.split("\\s+");
+            try {
+                if (fields[0].equalsIgnoreCase("zone") && fields.length == 3) {
+                    table.assignZone(new StationID(fields[1]), Integer.parseInt(fields[2]));
+                } else if (fields[0].equalsIgnoreCase("rate") && fields.length == 9) {
+                    int zone = fields[1].equals("*") ? ANY_ZONE : Integer.parseInt(fields[1]);
+                    int fromHour = 0;
+                    int toHour = 24;
+                    if (!fields[2].equals("*")) {
+                        String[] hours = fields[2].split("-");
+                        if (hours.length != 2) {
+                            throw new IllegalArgumentException("franja horaria no válida");
+                        }
+                        fromHour = Integer.parseInt(hours[0]);
+                        toHour = Integer.parseInt(hours[1]);
+                    }
+                    VehicleType type = fields[3].equals("*") ? null : VehicleType.valueOf(fields[3].toUpperCase(Locale.ROOT));
+                    UserPlan plan = fields[4].equals("*") ? null : UserPlan.valueOf(fields[4].toUpperCase(Locale.ROOT));
+                    table.addRule(zone, fromHour, toHour, type, plan, Rate.of(fields[5], fields[6], fields[7], fields[8]));
+                } else {
+                    throw new IllegalArgumentException("formato no reconocido");
+                }
+            } catch (IllegalArgumentException | InvalidPairingArgsException e) {
+                throw new IllegalArgumentException("Línea " + number + " de la tabla de tarifas no válida: " + e.getMessage(), e);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Regla de tarifa con sus dimensiones.
+     */
+    private static final class Rule {
+        private final int zone;
+        private final int fromHour;
+        private final int toHour;
+        private final VehicleType type;
+        private final UserPlan plan;
+        private final Rate rate;
+
+        private Rule(int zone, int fromHour, int toHour, VehicleType type, UserPlan plan, Rate rate) {
+            this.zone = zone;
+            this.fromHour = fromHour;
+            this.toHour = toHour;
+            this.type = type;
+            this.plan = plan;
+            this.rate = rate;
+        }
+
+        private boolean coversHour(int hour) {
+            if (fromHour < toHour) {
+                return hour >= fromHour && hour < toHour;
+            }
+            return hour >= fromHour || hour < toHour; // Franja que cruza la medianoche
+        }
+
+        private int specificity() {
+            int score = 0;
+            if (zone != ANY_ZONE) score++;
+            if (fromHour != 0 || toHour != 24) score++;
+            if (type != null) score++;
+            if (plan != null) score++;
+            return score;
+        }
+    }
+}
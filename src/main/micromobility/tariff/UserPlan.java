@@ -0,0 +1,11 @@
+package micromobility.tariff;
+
+/**
+ * Planes de usuario con tarifas diferenciadas.
+ */
+public enum UserPlan {
+    PAY_AS_YOU_GO, // Pago por uso, sin suscripción
+    SUBSCRIBER,    // Suscripción mensual
+    STUDENT,       // Tarifa de estudiante
+    CORPORATE      // Cuenta de empresa
+}
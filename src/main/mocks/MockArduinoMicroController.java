@@ -3,6 +3,8 @@ package mocks;
 import exceptions.ConnectException;
 import exceptions.PMVNotAvailException;
 import exceptions.ProceduralException;
+import logging.LogManager;
+import logging.Logger;
 import services.smartfeatures.ArduinoMicroController;
 
 /**
@@ -11,6 +13,8 @@ import services.smartfeatures.ArduinoMicroController;
  */
 public class MockArduinoMicroController implements ArduinoMicroController {
 
+    private static final Logger LOG = LogManager.getLogger(MockArduinoMicroController.class);
+
     private boolean btConnectionEstablished = false; // Simula si la conexión Bluetooth está establecida
     private boolean drivingStarted = false; // Simula si el vehículo está en marcha
 
@@ -20,7 +24,7 @@ public class MockArduinoMicroController implements ArduinoMicroController {
             throw new ConnectException("Fallo al establecer la conexión Bluetooth.");
         }
         btConnectionEstablished = true;
-        System.out.println("Mock: Conexión Bluetooth establecida.");
+        LOG.debug("Mock: Conexión Bluetooth establecida.");
     }
 
     @Override
@@ -35,7 +39,7 @@ public class MockArduinoMicroController implements ArduinoMicroController {
             throw new ProceduralException("Problema inesperado en el procedimiento.");
         }
         drivingStarted = true;
-        System.out.println("Mock: El vehículo ha comenzado a conducir.");
+        LOG.debug("Mock: El vehículo ha comenzado a conducir.");
     }
 
     @Override
@@ -53,13 +57,13 @@ public class MockArduinoMicroController implements ArduinoMicroController {
             throw new ProceduralException("Problema inesperado en el procedimiento al detenerse.");
         }
         drivingStarted = false;
-        System.out.println("Mock: El vehículo ha dejado de conducir.");
+        LOG.debug("Mock: El vehículo ha dejado de conducir.");
     }
 
     @Override
     public void undoBTconnection() {
         btConnectionEstablished = false;
-        System.out.println("Mock: Conexión Bluetooth deshecha.");
+        LOG.debug("Mock: Conexión Bluetooth deshecha.");
     }
 
     // Simula el comportamiento de la conexión Bluetooth
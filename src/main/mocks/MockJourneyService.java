@@ -1,5 +1,6 @@
 package mocks;
 
+import data.Money;
 import data.ServiceID;
 import micromobility.JourneyService;
 
@@ -12,7 +13,7 @@ import java.math.BigDecimal;
 public class MockJourneyService extends JourneyService {
 
     private ServiceID serviceID;       // Identificador del servicio simulado
-    private BigDecimal importValue;   // Importe del trayecto simulado
+    private Money importValue;        // Importe del trayecto simulado
 
     /**
      * Constructor de MockJourneyService.
@@ -23,7 +24,7 @@ public class MockJourneyService extends JourneyService {
     public MockJourneyService(ServiceID serviceID, BigDecimal importValue) {
         super(null, null, null); // Llamada a super con valores nulos porque este es un mock
         this.serviceID = serviceID;
-        this.importValue = importValue;
+        this.importValue = importValue == null ? null : Money.of(importValue);
     }
 
     /**
@@ -42,7 +43,7 @@ public class MockJourneyService extends JourneyService {
      * @return El importe del trayecto.
      */
     @Override
-    public BigDecimal getImportValue() {
+    public Money getImportMoney() {
         return importValue;
     }
 
@@ -52,7 +53,7 @@ public class MockJourneyService extends JourneyService {
      * @param importValue El importe a establecer.
      */
     @Override
-    public void setImportValue(BigDecimal importValue) {
+    public void setImportValue(Money importValue) {
         this.importValue = importValue;
     }
 }
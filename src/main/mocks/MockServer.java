@@ -2,15 +2,20 @@ package mocks;
 
 import data.*;
 import exceptions.*;
+import logging.LogManager;
+import logging.Logger;
 import micromobility.JourneyService;
 import micromobility.PMVehicle;
 import micromobility.PMVState;
+import micromobility.geo.GeoDistance;
 import services.Server;
+import services.fleet.VehicleRegistry;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 
 /**
  * Mock para la implementación de la interfaz Server.
@@ -18,7 +23,9 @@ import java.util.Map;
  */
 public class MockServer implements Server {
 
-    private final Map<VehicleID, PMVehicle> vehicles = new HashMap<>();
+    private static final Logger LOG = LogManager.getLogger(MockServer.class);
+
+    private final VehicleRegistry vehicles = new VehicleRegistry();
 
     @Override
     public void checkPMVAvail(VehicleID vhID) throws PMVNotAvailException, ConnectException {
@@ -29,15 +36,15 @@ public class MockServer implements Server {
         if (vehicle.getState() != PMVState.Available) {
             throw new PMVNotAvailException("El vehículo no está disponible.");
         }
-        log("Mock: El vehículo " + vhID.getId() + " está disponible.");
+        LOG.debug("Mock: El vehículo {} está disponible.", vhID.getId());
     }
 
     @Override
     public void registerPairing(UserAccount user, VehicleID veh, StationID st, GeographicPoint loc, LocalDateTime date)
             throws InvalidPairingArgsException, ConnectException {
         validarArgumentosEmparejamiento(user, veh, st, loc, date);
-        log("Mock: Emparejamiento registrado correctamente para el usuario " + user.getUsername() +
-                " y el vehículo " + veh.getId() + ".");
+        LOG.debug("Mock: Emparejamiento registrado correctamente para el usuario {} y el vehículo {}.",
+                user.getUsername(), veh.getId());
     }
 
     @Override
@@ -46,13 +53,13 @@ public class MockServer implements Server {
             throws InvalidPairingArgsException, ConnectException {
         validarTiempoFinalizacion(date);
         validarValoresTrayecto(dist, dur, imp);
-        log("Mock: Emparejamiento finalizado correctamente.");
+        LOG.debug("Mock: Emparejamiento finalizado correctamente.");
     }
 
     @Override
     public void setPairing(UserAccount user, VehicleID veh, StationID st, GeographicPoint loc, LocalDateTime date) {
-        log("Mock: Emparejamiento configurado para el usuario " + user.getUsername() +
-                " y el vehículo " + veh.getId() + ".");
+        LOG.debug("Mock: Emparejamiento configurado para el usuario {} y el vehículo {}.",
+                user.getUsername(), veh.getId());
     }
 
     @Override
@@ -60,7 +67,7 @@ public class MockServer implements Server {
         if (service == null) {
             throw new PairingNotFoundException("El servicio no se encontró.");
         }
-        log("Mock: Servicio desvinculado correctamente.");
+        LOG.debug("Mock: Servicio desvinculado correctamente.");
     }
 
     @Override
@@ -68,7 +75,7 @@ public class MockServer implements Server {
         if (veh == null || st == null) {
             throw new IllegalArgumentException("El vehículo o la estación son inválidos.");
         }
-        log("Mock: Ubicación del vehículo " + veh.getId() + " registrada en la estación " + st.getId() + ".");
+        LOG.debug("Mock: Ubicación del vehículo {} registrada en la estación {}.", veh.getId(), st.getId());
     }
 
     @Override
@@ -80,28 +87,52 @@ public class MockServer implements Server {
         return vehicle;
     }
 
+    @Override
+    public List<PMVehicle> getNearestAvailableVehicles(GeographicPoint loc, int k) {
+        if (loc == null || k <= 0) {
+            throw new IllegalArgumentException("La ubicación no puede ser nula y k debe ser mayor que 0.");
+        }
+        List<PMVehicle> available = availableSortedByDistance(loc);
+        return new ArrayList<>(available.subList(0, Math.min(k, available.size())));
+    }
+
+    @Override
+    public List<PMVehicle> getAvailableVehiclesWithin(GeographicPoint loc, float radiusKm) {
+        if (loc == null || radiusKm < 0) {
+            throw new IllegalArgumentException("La ubicación no puede ser nula y el radio no puede ser negativo.");
+        }
+        List<PMVehicle> result = new ArrayList<>();
+        for (PMVehicle vehicle : availableSortedByDistance(loc)) {
+            if (GeoDistance.haversineKm(loc, vehicle.getLocation()) <= radiusKm) {
+                result.add(vehicle);
+            }
+        }
+        return result;
+    }
+
     /**
      * Simula agregar un vehículo al mock del servidor.
      *
      * @param vhID    El ID del vehículo.
      * @param vehicle La instancia de PMVehicle.
+     * @throws IllegalArgumentException Si algún parámetro es nulo o el ID no coincide con el del vehículo.
      */
     public void addVehicle(VehicleID vhID, PMVehicle vehicle) {
         if (vhID == null || vehicle == null) {
             throw new IllegalArgumentException("VehicleID o PMVehicle no pueden ser nulos.");
         }
-        vehicles.put(vhID, vehicle);
-        log("Mock: Vehículo " + vhID.getId() + " añadido correctamente.");
+        if (!vhID.equals(vehicle.getId())) {
+            throw new IllegalArgumentException("El VehicleID no coincide con el del vehículo.");
+        }
+        vehicles.put(vehicle);
+        LOG.debug("Mock: Vehículo {} añadido correctamente.", vhID.getId());
     }
 
     @Override
     public void registerPayment(ServiceID servID, UserAccount user, BigDecimal imp, char payMeth) throws ConnectException {
         validarArgumentosPago(servID, user, imp, payMeth);
-        log("Registro del pago:");
-        log("ServiceID: " + servID.getId());
-        log("Usuario: " + user.getUsername());
-        log("Importe: " + imp);
-        log("Método de pago: " + payMeth);
+        LOG.debug("Registro del pago: ServiceID = {}, usuario = {}, importe = {}.", servID.getId(), user.getUsername(), imp);
+        LOG.debug("Método de pago: {}", payMeth);
     }
 
     // Métodos privados de validación
@@ -145,8 +176,15 @@ public class MockServer implements Server {
         return payMeth == 'C' || payMeth == 'D' || payMeth == 'P' || payMeth == 'W';
     }
 
-    // Método privado para manejar logs
-    private void log(String message) {
-        System.out.println(message);
+    // Recorrido completo de la flota: suficiente para un mock
+    private List<PMVehicle> availableSortedByDistance(GeographicPoint loc) {
+        List<PMVehicle> available = new ArrayList<>();
+        for (PMVehicle vehicle : vehicles.values()) {
+            if (vehicle.getState() == PMVState.Available) {
+                available.add(vehicle);
+            }
+        }
+        available.sort(Comparator.comparingDouble(vehicle -> GeoDistance.haversineKm(loc, vehicle.getLocation())));
+        return available;
     }
 }
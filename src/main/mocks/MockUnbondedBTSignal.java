@@ -1,6 +1,8 @@
 package mocks;
 
 import exceptions.ConnectException;
+import logging.LogManager;
+import logging.Logger;
 import services.smartfeatures.UnbondedBTSignal;
 
 /**
@@ -9,6 +11,8 @@ import services.smartfeatures.UnbondedBTSignal;
  */
 public class MockUnbondedBTSignal implements UnbondedBTSignal {
 
+    private static final Logger LOG = LogManager.getLogger(MockUnbondedBTSignal.class);
+
     private boolean simulateConnectionIssue = false; // Simula problemas de conexión
 
     /**
@@ -21,7 +25,7 @@ public class MockUnbondedBTSignal implements UnbondedBTSignal {
         if (simulateConnectionIssue) {
             throw new ConnectException("Error de conexión en el canal Bluetooth.");
         }
-        System.out.println("Mock: Emisión del ID de la estación realizada correctamente.");
+        LOG.debug("Mock: Emisión del ID de la estación realizada correctamente.");
     }
 
     /**
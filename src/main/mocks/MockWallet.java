@@ -1,5 +1,6 @@
 package mocks;
 
+import data.Money;
 import exceptions.NotEnoughWalletException;
 import micromobility.payment.Wallet;
 
@@ -29,15 +30,15 @@ public class MockWallet extends Wallet {
      * @throws IllegalArgumentException Si el monto a deducir es nulo o negativo.
      */
     @Override
-    public void deduct(BigDecimal amount) throws NotEnoughWalletException {
-        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+    public void deduct(Money amount) throws NotEnoughWalletException {
+        if (amount == null || !amount.isPositive()) {
             throw new IllegalArgumentException("El monto a deducir debe ser mayor que cero.");
         }
-        if (amount.compareTo(this.getBalance()) > 0) {
+        if (amount.getCents() > this.getBalanceCents()) {
             throw new NotEnoughWalletException("Fondos insuficientes en el monedero.");
         }
         // Calcula el nuevo balance y lo actualiza utilizando el método de la clase base
-        BigDecimal newBalance = this.getBalance().subtract(amount);
+        Money newBalance = this.getBalanceMoney().minus(amount);
         super.updateBalance(newBalance); // Método protegido de Wallet
     }
 }
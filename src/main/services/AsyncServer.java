@@ -0,0 +1,124 @@
+package services;
+
+import data.*;
+import micromobility.JourneyService;
+import micromobility.PMVehicle;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Contrapartida asíncrona de {@link Server}: las mismas operaciones, pero sin bloquear al llamante.
+ * Cada operación devuelve un CompletableFuture que se completa con el resultado, o excepcionalmente
+ * con la misma excepción que lanzaría la operación síncrona (ConnectException, PMVNotAvailException, etc.).
+ * Los futuros pueden encadenarse para componer un desplazamiento sin ocupar un hilo por petición.
+ */
+public interface AsyncServer {
+
+    /**
+     * Verifica de forma asíncrona si un vehículo está disponible.
+     *
+     * @param vhID El identificador del vehículo.
+     * @return Un futuro que falla con PMVNotAvailException o ConnectException si no está disponible.
+     */
+    CompletableFuture<Void> checkPMVAvail(VehicleID vhID);
+
+    /**
+     * Registra de forma asíncrona una operación de emparejamiento.
+     *
+     * @param user El usuario que inicia el emparejamiento.
+     * @param veh  El vehículo que se empareja.
+     * @param st   La estación donde ocurre el emparejamiento.
+     * @param loc  La ubicación geográfica del emparejamiento.
+     * @param date La fecha y hora del emparejamiento.
+     * @return Un futuro que falla con InvalidPairingArgsException o ConnectException si no se registra.
+     */
+    CompletableFuture<Void> registerPairing(UserAccount user, VehicleID veh, StationID st, GeographicPoint loc,
+                                            LocalDateTime date);
+
+    /**
+     * Finaliza de forma asíncrona una operación de emparejamiento.
+     *
+     * @param user El usuario que finaliza el emparejamiento.
+     * @param veh  El vehículo que se desempareja.
+     * @param st   La estación donde ocurre el desemparejamiento.
+     * @param loc  La ubicación geográfica del desemparejamiento.
+     * @param date La fecha y hora del desemparejamiento.
+     * @param avSp La velocidad promedio durante el trayecto.
+     * @param dist La distancia recorrida durante el trayecto.
+     * @param dur  La duración del trayecto.
+     * @param imp  El importe final a pagar por el trayecto.
+     * @return Un futuro que falla con InvalidPairingArgsException o ConnectException si no se registra.
+     */
+    CompletableFuture<Void> stopPairing(UserAccount user, VehicleID veh, StationID st, GeographicPoint loc,
+                                        LocalDateTime date, float avSp, float dist, int dur, BigDecimal imp);
+
+    /**
+     * Configura de forma asíncrona una operación de emparejamiento.
+     *
+     * @param user El usuario.
+     * @param veh  El vehículo.
+     * @param st   La estación.
+     * @param loc  La ubicación geográfica.
+     * @param date La fecha y hora.
+     * @return Un futuro que se completa al configurarse el emparejamiento.
+     */
+    CompletableFuture<Void> setPairing(UserAccount user, VehicleID veh, StationID st, GeographicPoint loc,
+                                       LocalDateTime date);
+
+    /**
+     * Desregistra de forma asíncrona el servicio de un emparejamiento.
+     *
+     * @param service El servicio de trayecto.
+     * @return Un futuro que falla con PairingNotFoundException si no se encuentra el emparejamiento.
+     */
+    CompletableFuture<Void> unPairRegisterService(JourneyService service);
+
+    /**
+     * Registra de forma asíncrona la ubicación de un vehículo.
+     *
+     * @param veh El vehículo.
+     * @param st  La estación.
+     * @return Un futuro que se completa al registrarse la ubicación.
+     */
+    CompletableFuture<Void> registerLocation(VehicleID veh, StationID st);
+
+    /**
+     * Registra de forma asíncrona un pago.
+     *
+     * @param servID  El identificador del servicio.
+     * @param user    El usuario que paga.
+     * @param imp     El importe.
+     * @param payMeth El método de pago.
+     * @return Un futuro que falla con ConnectException si no se registra el pago.
+     */
+    CompletableFuture<Void> registerPayment(ServiceID servID, UserAccount user, BigDecimal imp, char payMeth);
+
+    /**
+     * Obtiene de forma asíncrona un vehículo por su identificador.
+     *
+     * @param vhID El identificador del vehículo.
+     * @return Un futuro con el vehículo, o que falla con PMVNotAvailException si no existe.
+     */
+    CompletableFuture<PMVehicle> getVehicleByID(VehicleID vhID);
+
+    /**
+     * Busca de forma asíncrona los vehículos disponibles más cercanos a una ubicación.
+     *
+     * @param loc La ubicación de referencia.
+     * @param k   Número máximo de vehículos.
+     * @return Un futuro con hasta k vehículos, de más cercano a más lejano.
+     */
+    CompletableFuture<List<PMVehicle>> getNearestAvailableVehicles(GeographicPoint loc, int k);
+
+    /**
+     * Busca de forma asíncrona los vehículos disponibles dentro de un radio.
+     *
+     * @param loc      La ubicación de referencia.
+     * @param radiusKm El radio en kilómetros.
+     * @return Un futuro con los vehículos dentro del radio, de más cercano a más lejano.
+     */
+    CompletableFuture<List<PMVehicle>> getAvailableVehiclesWithin(GeographicPoint loc, float radiusKm);
+}
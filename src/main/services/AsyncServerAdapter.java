@@ -0,0 +1,218 @@
+package services;
+
+import data.*;
+import micromobility.JourneyService;
+import micromobility.PMVehicle;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptador que expone cualquier {@link Server} bloqueante (incluido MockServer) como {@link AsyncServer}.
+ * Cada llamada se ejecuta en un hilo del ejecutor y su resultado, o la excepción que lance, completa el futuro.
+ * Por defecto usa un hilo virtual por tarea si la JVM lo ofrece; en otro caso, un grupo de hilos daemon
+ * que crece bajo demanda y reutiliza los hilos ociosos.
+ * Con {@link #call(BlockingCall)} pueden ejecutarse en el mismo ejecutor otros pasos bloqueantes, como
+ * las operaciones de JourneyRealizeHandler o JourneySessionEngine, y encadenarlos con los del servidor.
+ */
+public class AsyncServerAdapter implements AsyncServer, AutoCloseable {
+
+    private final Server delegate;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+
+    /**
+     * Constructor que usa el ejecutor por defecto, que se cierra junto con el adaptador.
+     *
+     * @param delegate El servidor bloqueante.
+     */
+    public AsyncServerAdapter(Server delegate) {
+        this(delegate, newDefaultExecutor(), true);
+    }
+
+    /**
+     * Constructor con un ejecutor propio. El adaptador no lo cierra.
+     *
+     * @param delegate El servidor bloqueante.
+     * @param executor El ejecutor donde se realizan las llamadas.
+     * @throws IllegalArgumentException Si algún parámetro es nulo.
+     */
+    public AsyncServerAdapter(Server delegate, ExecutorService executor) {
+        this(delegate, executor, false);
+    }
+
+    private AsyncServerAdapter(Server delegate, ExecutorService executor, boolean ownsExecutor) {
+        if (delegate == null || executor == null) {
+            throw new IllegalArgumentException("El servidor y el ejecutor no pueden ser nulos.");
+        }
+        this.delegate = delegate;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    /**
+     * Crea el ejecutor por defecto: un hilo virtual por tarea si la JVM los soporta, o si no un grupo
+     * de hilos daemon que crece bajo demanda.
+     *
+     * @return Un nuevo ejecutor.
+     */
+    public static ExecutorService newDefaultExecutor() {
+        try {
+            // Se resuelve en tiempo de ejecución para seguir compilando y funcionando en JVM sin hilos virtuales
+            return (ExecutorService) MethodHandles.publicLookup()
+                    .findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class))
+                    .invoke();
+        } catch (Throwable e) {
+            return Executors.newCachedThreadPool(new DaemonThreadFactory());
+        }
+    }
+
+    /**
+     * Obtiene el servidor bloqueante subyacente.
+     *
+     * @return El servidor adaptado.
+     */
+    public Server getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Ejecuta un paso bloqueante cualquiera en el ejecutor del adaptador.
+     *
+     * @param call El paso a ejecutar.
+     * @param <T>  El tipo del resultado.
+     * @return Un futuro con el resultado del paso, o que falla con la excepción que lance.
+     */
+    public <T> CompletableFuture<T> call(BlockingCall<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    result.complete(call.call());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<Void> checkPMVAvail(VehicleID vhID) {
+        return call(() -> {
+            delegate.checkPMVAvail(vhID);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> registerPairing(UserAccount user, VehicleID veh, StationID st, GeographicPoint loc,
+                                                   LocalDateTime date) {
+        return call(() -> {
+            delegate.registerPairing(user, veh, st, loc, date);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> stopPairing(UserAccount user, VehicleID veh, StationID st, GeographicPoint loc,
+                                               LocalDateTime date, float avSp, float dist, int dur, BigDecimal imp) {
+        return call(() -> {
+            delegate.stopPairing(user, veh, st, loc, date, avSp, dist, dur, imp);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> setPairing(UserAccount user, VehicleID veh, StationID st, GeographicPoint loc,
+                                              LocalDateTime date) {
+        return call(() -> {
+            delegate.setPairing(user, veh, st, loc, date);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> unPairRegisterService(JourneyService service) {
+        return call(() -> {
+            delegate.unPairRegisterService(service);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> registerLocation(VehicleID veh, StationID st) {
+        return call(() -> {
+            delegate.registerLocation(veh, st);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> registerPayment(ServiceID servID, UserAccount user, BigDecimal imp, char payMeth) {
+        return call(() -> {
+            delegate.registerPayment(servID, user, imp, payMeth);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<PMVehicle> getVehicleByID(VehicleID vhID) {
+        return call(() -> delegate.getVehicleByID(vhID));
+    }
+
+    @Override
+    public CompletableFuture<List<PMVehicle>> getNearestAvailableVehicles(GeographicPoint loc, int k) {
+        return call(() -> delegate.getNearestAvailableVehicles(loc, k));
+    }
+
+    @Override
+    public CompletableFuture<List<PMVehicle>> getAvailableVehiclesWithin(GeographicPoint loc, float radiusKm) {
+        return call(() -> delegate.getAvailableVehiclesWithin(loc, radiusKm));
+    }
+
+    /**
+     * Cierra el ejecutor si lo creó el propio adaptador. Las llamadas en curso terminan normalmente.
+     */
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Paso bloqueante que puede lanzar cualquier excepción de dominio.
+     *
+     * @param <T> El tipo del resultado.
+     */
+    @FunctionalInterface
+    public interface BlockingCall<T> {
+        T call() throws Exception;
+    }
+
+    /**
+     * Fábrica de hilos daemon para el ejecutor de respaldo.
+     */
+    private static final class DaemonThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "async-server-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
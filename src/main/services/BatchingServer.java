@@ -0,0 +1,328 @@
+package services;
+
+import data.*;
+import exceptions.*;
+import micromobility.JourneyService;
+import micromobility.PMVehicle;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Variante de Server que agrupa las escrituras de emparejamiento.
+ * Los eventos de inicio y fin de emparejamiento se encolan y un hilo confirmador los escribe en lotes
+ * de tamaño máximo configurable, o cuando vence la ventana de tiempo indicada, lo que ocurra antes.
+ * submitPairing y submitStopPairing devuelven un CompletableFuture que se completa con el resultado de su
+ * propio evento dentro del lote;
+ * registerPairing y stopPairing conservan la semántica síncrona esperando a su lote.
+ * El resto de operaciones se delegan directamente en el servidor subyacente.
+ */
+public class BatchingServer implements Server, AutoCloseable {
+
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final Server delegate;
+    private final PairingBatchSink sink;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final BlockingQueue<Pending> queue;
+    private final Thread committer;
+    private final AtomicLong committedBatches = new AtomicLong();
+    private final AtomicLong committedEvents = new AtomicLong();
+    private volatile boolean closed;
+
+    /**
+     * Constructor que confirma los lotes reenviando cada evento al servidor subyacente. La confirmación no es
+     * atómica: cada futuro se completa con el resultado de su evento.
+     *
+     * @param delegate     El servidor subyacente.
+     * @param maxBatchSize Número máximo de eventos por lote.
+     * @param maxDelay     Tiempo máximo que un evento espera a que se complete su lote.
+     */
+    public BatchingServer(Server delegate, int maxBatchSize, Duration maxDelay) {
+        this(delegate, PairingBatchSink.forServer(delegate), maxBatchSize, maxDelay);
+    }
+
+    /**
+     * Constructor de BatchingServer.
+     *
+     * @param delegate     El servidor subyacente para las operaciones no agrupadas.
+     * @param sink         El destino donde se confirman los lotes de emparejamiento.
+     * @param maxBatchSize Número máximo de eventos por lote. Debe ser mayor que 0.
+     * @param maxDelay     Tiempo máximo que un evento espera a que se complete su lote. No puede ser negativo.
+     * @throws IllegalArgumentException Si algún parámetro es nulo o inválido.
+     */
+    public BatchingServer(Server delegate, PairingBatchSink sink, int maxBatchSize, Duration maxDelay) {
+        if (delegate == null || sink == null || maxDelay == null) {
+            throw new IllegalArgumentException("El servidor, el destino y la ventana de tiempo no pueden ser nulos.");
+        }
+        if (maxBatchSize <= 0 || maxDelay.isNegative()) {
+            throw new IllegalArgumentException("El tamaño de lote debe ser mayor que 0 y la ventana no puede ser negativa.");
+        }
+        this.delegate = delegate;
+        this.sink = sink;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.queue = new ArrayBlockingQueue<>(Math.max(1024, maxBatchSize * 64));
+        this.committer = new Thread(this::commitLoop, "pairing-batch-committer");
+        this.committer.setDaemon(true);
+        this.committer.start();
+    }
+
+    /**
+     * Encola un evento de emparejamiento para su confirmación por lotes.
+     * Si la cola está llena, espera a que haya hueco.
+     *
+     * @param event El evento a encolar. No puede ser nulo.
+     * @return Un futuro que se completa cuando el lote que contiene el evento se ha confirmado,
+     * o excepcionalmente si la confirmación falla.
+     */
+    public CompletableFuture<Void> submit(PairingEvent event) {
+        if (event == null) {
+            throw new IllegalArgumentException("El evento no puede ser nulo.");
+        }
+        Pending pending = new Pending(event);
+        if (closed) {
+            pending.completion.completeExceptionally(new IllegalStateException("El servidor por lotes está cerrado."));
+            return pending.completion;
+        }
+        try {
+            queue.put(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.completion.completeExceptionally(e);
+            return pending.completion;
+        }
+        // Si se cerró mientras encolábamos, el confirmador puede haber terminado ya
+        if (closed && queue.remove(pending)) {
+            pending.completion.completeExceptionally(new IllegalStateException("El servidor por lotes está cerrado."));
+        }
+        return pending.completion;
+    }
+
+    /**
+     * Encola un inicio de emparejamiento.
+     *
+     * @param user El usuario que inicia el emparejamiento.
+     * @param veh  El vehículo que se empareja.
+     * @param st   La estación donde ocurre el emparejamiento.
+     * @param loc  La ubicación geográfica del emparejamiento.
+     * @param date La fecha y hora del emparejamiento.
+     * @return Un futuro que se completa al confirmarse el evento.
+     * @throws InvalidPairingArgsException Si alguno de los argumentos es inválido.
+     */
+    public CompletableFuture<Void> submitPairing(UserAccount user, VehicleID veh, StationID st, GeographicPoint loc,
+                                                 LocalDateTime date) throws InvalidPairingArgsException {
+        return submit(PairingEvent.start(user, veh, st, loc, date));
+    }
+
+    /**
+     * Encola un fin de emparejamiento.
+     *
+     * @param user El usuario que finaliza el emparejamiento.
+     * @param veh  El vehículo que se desempareja.
+     * @param st   La estación donde ocurre el desemparejamiento.
+     * @param loc  La ubicación geográfica del desemparejamiento.
+     * @param date La fecha y hora del desemparejamiento.
+     * @param avSp La velocidad promedio durante el trayecto.
+     * @param dist La distancia recorrida durante el trayecto.
+     * @param dur  La duración del trayecto.
+     * @param imp  El importe final a pagar por el trayecto.
+     * @return Un futuro que se completa al confirmarse el evento.
+     * @throws InvalidPairingArgsException Si alguno de los argumentos es inválido.
+     */
+    public CompletableFuture<Void> submitStopPairing(UserAccount user, VehicleID veh, StationID st, GeographicPoint loc,
+                                                     LocalDateTime date, float avSp, float dist, int dur, BigDecimal imp)
+            throws InvalidPairingArgsException {
+        return submit(PairingEvent.stop(user, veh, st, loc, date, avSp, dist, dur, imp));
+    }
+
+    @Override
+    public void registerPairing(UserAccount user, VehicleID veh, StationID st, GeographicPoint loc, LocalDateTime date)
+            throws InvalidPairingArgsException, ConnectException {
+        await(submitPairing(user, veh, st, loc, date));
+    }
+
+    @Override
+    public void stopPairing(UserAccount user, VehicleID veh, StationID st, GeographicPoint loc, LocalDateTime date,
+                            float avSp, float dist, int dur, BigDecimal imp)
+            throws InvalidPairingArgsException, ConnectException {
+        await(submitStopPairing(user, veh, st, loc, date, avSp, dist, dur, imp));
+    }
+
+    @Override
+    public void checkPMVAvail(VehicleID vhID) throws PMVNotAvailException, ConnectException {
+        delegate.checkPMVAvail(vhID);
+    }
+
+    @Override
+    public void setPairing(UserAccount user, VehicleID veh, StationID st, GeographicPoint loc, LocalDateTime date) {
+        delegate.setPairing(user, veh, st, loc, date);
+    }
+
+    @Override
+    public void unPairRegisterService(JourneyService service) throws PairingNotFoundException {
+        delegate.unPairRegisterService(service);
+    }
+
+    @Override
+    public void registerLocation(VehicleID veh, StationID st) {
+        delegate.registerLocation(veh, st);
+    }
+
+    @Override
+    public void registerPayment(ServiceID servID, UserAccount user, BigDecimal imp, char payMeth) throws ConnectException {
+        delegate.registerPayment(servID, user, imp, payMeth);
+    }
+
+    @Override
+    public PMVehicle getVehicleByID(VehicleID vhID) throws PMVNotAvailException {
+        return delegate.getVehicleByID(vhID);
+    }
+
+    @Override
+    public List<PMVehicle> getNearestAvailableVehicles(GeographicPoint loc, int k) {
+        return delegate.getNearestAvailableVehicles(loc, k);
+    }
+
+    @Override
+    public List<PMVehicle> getAvailableVehiclesWithin(GeographicPoint loc, float radiusKm) {
+        return delegate.getAvailableVehiclesWithin(loc, radiusKm);
+    }
+
+    /**
+     * Obtiene el número de lotes confirmados.
+     *
+     * @return El número de lotes confirmados desde la creación.
+     */
+    public long getCommittedBatches() {
+        return committedBatches.get();
+    }
+
+    /**
+     * Obtiene el número de eventos confirmados.
+     *
+     * @return El número de eventos confirmados desde la creación.
+     */
+    public long getCommittedEvents() {
+        return committedEvents.get();
+    }
+
+    /**
+     * Deja de aceptar eventos, confirma los que quedan en cola y detiene el hilo confirmador.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            committer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Métodos internos
+
+    private void commitLoop() {
+        List<Pending> batch = new ArrayList<>(maxBatchSize);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fillBatch(batch);
+            } catch (InterruptedException e) {
+                // Solo se interrumpe al cerrar: se confirma lo que haya y se sigue vaciando la cola
+                closed = true;
+            }
+            if (!batch.isEmpty()) {
+                commit(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void fillBatch(List<Pending> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + maxDelayNanos;
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remaining <= 0) {
+                return;
+            }
+            Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void commit(List<Pending> batch) {
+        List<PairingEvent> events = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            events.add(pending.event);
+        }
+        Exception[] failures;
+        try {
+            failures = sink.commitEach(events);
+        } catch (Exception e) {
+            for (Pending pending : batch) {
+                pending.completion.completeExceptionally(e);
+            }
+            return;
+        }
+        committedBatches.incrementAndGet();
+        // Cada futuro recibe el resultado de su propio evento: un rechazo no afecta a los ya confirmados
+        for (int i = 0; i < batch.size(); i++) {
+            Exception failure = i < failures.length ? failures[i] : null;
+            if (failure == null) {
+                committedEvents.incrementAndGet();
+                batch.get(i).completion.complete(null);
+            } else {
+                batch.get(i).completion.completeExceptionally(failure);
+            }
+        }
+    }
+
+    private static void await(CompletableFuture<Void> completion) throws InvalidPairingArgsException, ConnectException {
+        try {
+            completion.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConnectException("Interrumpido mientras se esperaba la confirmación del emparejamiento.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ConnectException) {
+                throw (ConnectException) cause;
+            }
+            if (cause instanceof InvalidPairingArgsException) {
+                throw (InvalidPairingArgsException) cause;
+            }
+            throw new ConnectException("Error al confirmar el lote de emparejamientos: " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Evento encolado junto con el futuro que se completa al confirmarlo.
+     */
+    private static final class Pending {
+        private final PairingEvent event;
+        private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+        private Pending(PairingEvent event) {
+            this.event = event;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package services;
+
+import data.*;
+import exceptions.*;
+import micromobility.JourneyService;
+import micromobility.PMVehicle;
+import micromobility.PMVState;
+import services.fleet.SpatialVehicleIndex;
+import services.fleet.StationAvailabilityIndex;
+import services.fleet.VehicleRegistry;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Implementación de producción de la interfaz Server.
+ * Mantiene el registro de la flota en un VehicleRegistry y los índices en estructuras concurrentes para
+ * que varios hilos de peticiones puedan consultar y actualizar vehículos a la vez sin bloqueos globales.
+ */
+public class ConcurrentFleetServer implements Server {
+
+    private static final int DEFAULT_EXPECTED_VEHICLES = 1 << 16;
+    private static final int REPLACEMENT_LOCKS = 64;
+
+    private final VehicleRegistry vehicles;                          // Registro de la flota
+    private final SpatialVehicleIndex spatialIndex = new SpatialVehicleIndex();           // Vehículos disponibles por zona
+    private final StationAvailabilityIndex stationIndex = new StationAvailabilityIndex(); // Vehículos disponibles por estación
+    private final Object[] replacementLocks = new Object[REPLACEMENT_LOCKS];               // Altas por identificador
+
+    /**
+     * Constructor por defecto, dimensionado para una flota mediana.
+     */
+    public ConcurrentFleetServer() {
+        this(DEFAULT_EXPECTED_VEHICLES);
+    }
+
+    /**
+     * Constructor que dimensiona el registro para el tamaño de flota esperado,
+     * evitando redimensionados mientras se da de alta la flota.
+     *
+     * @param expectedVehicles Número de vehículos esperado. Debe ser mayor que 0.
+     * @throws IllegalArgumentException Si el número esperado no es positivo.
+     */
+    public ConcurrentFleetServer(int expectedVehicles) {
+        if (expectedVehicles <= 0) {
+            throw new IllegalArgumentException("El número de vehículos esperado debe ser mayor que 0.");
+        }
+        this.vehicles = new VehicleRegistry(expectedVehicles);
+        for (int i = 0; i < REPLACEMENT_LOCKS; i++) {
+            replacementLocks[i] = new Object();
+        }
+    }
+
+    @Override
+    public void checkPMVAvail(VehicleID vhID) throws PMVNotAvailException, ConnectException {
+        PMVState state = vehicles.getState(vhID);
+        if (state == null) {
+            throw new ConnectException("El vehículo no se encontró en el servidor.");
+        }
+        if (state != PMVState.Available) {
+            throw new PMVNotAvailException("El vehículo no está disponible.");
+        }
+    }
+
+    @Override
+    public void registerPairing(UserAccount user, VehicleID veh, StationID st, GeographicPoint loc, LocalDateTime date)
+            throws InvalidPairingArgsException, ConnectException {
+        validarArgumentosEmparejamiento(user, veh, st, loc, date);
+        PMVehicle vehicle = vehicles.get(veh);
+        if (vehicle == null) {
+            throw new InvalidPairingArgsException("El vehículo " + veh.getId() + " no está registrado en el servidor.");
+        }
+        stationIndex.moveToStation(vehicle, st);
+    }
+
+    @Override
+    public void stopPairing(UserAccount user, VehicleID veh, StationID st, GeographicPoint loc, LocalDateTime date,
+                            float avSp, float dist, int dur, BigDecimal imp)
+            throws InvalidPairingArgsException, ConnectException {
+        validarArgumentosEmparejamiento(user, veh, st, loc, date);
+        validarValoresTrayecto(dist, dur, imp);
+        PMVehicle vehicle = vehicles.get(veh);
+        if (vehicle == null) {
+            throw new InvalidPairingArgsException("El vehículo " + veh.getId() + " no está registrado en el servidor.");
+        }
+        stationIndex.moveToStation(vehicle, st);
+    }
+
+    @Override
+    public void setPairing(UserAccount user, VehicleID veh, StationID st, GeographicPoint loc, LocalDateTime date) {
+        if (user == null || veh == null) {
+            throw new IllegalArgumentException("El usuario y el vehículo no pueden ser nulos.");
+        }
+    }
+
+    @Override
+    public void unPairRegisterService(JourneyService service) throws PairingNotFoundException {
+        if (service == null) {
+            throw new PairingNotFoundException("El servicio no se encontró.");
+        }
+    }
+
+    @Override
+    public void registerLocation(VehicleID veh, StationID st) {
+        if (veh == null || st == null) {
+            throw new IllegalArgumentException("El vehículo o la estación son inválidos.");
+        }
+        PMVehicle vehicle = vehicles.get(veh);
+        if (vehicle == null) {
+            throw new IllegalArgumentException("El vehículo " + veh.getId() + " no está registrado en el servidor.");
+        }
+        stationIndex.moveToStation(vehicle, st);
+    }
+
+    @Override
+    public void registerPayment(ServiceID servID, UserAccount user, BigDecimal imp, char payMeth) throws ConnectException {
+        if (servID == null || user == null || imp == null) {
+            throw new IllegalArgumentException("El ServiceID, UserAccount o el importe no pueden ser nulos.");
+        }
+        if (imp.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("El importe debe ser mayor que 0.");
+        }
+        if (!isValidPayMethod(payMeth)) {
+            throw new IllegalArgumentException("Método de pago inválido.");
+        }
+    }
+
+    @Override
+    public PMVehicle getVehicleByID(VehicleID vhID) throws PMVNotAvailException {
+        PMVehicle vehicle = vehicles.get(vhID);
+        if (vehicle == null) {
+            throw new PMVNotAvailException("El vehículo no se encontró en el servidor.");
+        }
+        return vehicle;
+    }
+
+    @Override
+    public List<PMVehicle> getNearestAvailableVehicles(GeographicPoint loc, int k) {
+        return spatialIndex.nearestAvailable(loc, k);
+    }
+
+    @Override
+    public List<PMVehicle> getAvailableVehiclesWithin(GeographicPoint loc, float radiusKm) {
+        return spatialIndex.availableWithin(loc, radiusKm);
+    }
+
+    /**
+     * Da de alta un vehículo en el registro de la flota. Las altas de un mismo identificador se serializan,
+     * de modo que el registro y los índices siguen siempre a la misma instancia.
+     *
+     * @param vhID    El ID del vehículo.
+     * @param vehicle La instancia de PMVehicle.
+     * @throws IllegalArgumentException Si algún parámetro es nulo o el ID no coincide con el del vehículo.
+     */
+    public void addVehicle(VehicleID vhID, PMVehicle vehicle) {
+        if (vhID == null || vehicle == null) {
+            throw new IllegalArgumentException("VehicleID o PMVehicle no pueden ser nulos.");
+        }
+        if (!vhID.equals(vehicle.getId())) {
+            throw new IllegalArgumentException("El VehicleID no coincide con el del vehículo.");
+        }
+        synchronized (replacementLocks[Math.floorMod(vhID.hashCode(), REPLACEMENT_LOCKS)]) {
+            PMVehicle previous = vehicles.put(vehicle);
+            if (previous != null && previous != vehicle) {
+                spatialIndex.untrack(previous);
+                stationIndex.untrack(previous);
+            }
+            if (previous != vehicle) {
+                spatialIndex.track(vehicle);
+                stationIndex.track(vehicle);
+            }
+        }
+    }
+
+    /**
+     * Obtiene la última estación registrada para un vehículo.
+     *
+     * @param vhID El identificador del vehículo.
+     * @return La estación registrada o null si no se conoce ninguna.
+     */
+    public StationID getRegisteredStation(VehicleID vhID) {
+        return stationIndex.stationOf(vhID);
+    }
+
+    /**
+     * Obtiene el número de vehículos disponibles en una estación, en tiempo constante.
+     *
+     * @param st La estación a consultar.
+     * @return El número de vehículos disponibles en la estación.
+     */
+    public int getAvailableCount(StationID st) {
+        return stationIndex.availableCount(st);
+    }
+
+    /**
+     * Obtiene los vehículos disponibles en una estación.
+     *
+     * @param st La estación a consultar.
+     * @return Los vehículos disponibles en la estación.
+     */
+    public List<PMVehicle> getAvailableVehiclesAt(StationID st) {
+        return stationIndex.availableVehicles(st);
+    }
+
+    /**
+     * Obtiene el índice de disponibilidad por estación de la flota.
+     *
+     * @return El índice de disponibilidad por estación.
+     */
+    public StationAvailabilityIndex getStationIndex() {
+        return stationIndex;
+    }
+
+    /**
+     * Obtiene el número de vehículos registrados.
+     *
+     * @return El tamaño de la flota registrada.
+     */
+    public int getFleetSize() {
+        return vehicles.size();
+    }
+
+    // Métodos privados de validación
+    private void validarArgumentosEmparejamiento(UserAccount user, VehicleID veh, StationID st, GeographicPoint loc, LocalDateTime date)
+            throws InvalidPairingArgsException {
+        if (user == null || veh == null || st == null || loc == null || date == null) {
+            throw new InvalidPairingArgsException("Argumentos inválidos para el emparejamiento.");
+        }
+    }
+
+    private void validarValoresTrayecto(float dist, int dur, BigDecimal imp) throws InvalidPairingArgsException {
+        if (dist <= 0 || dur <= 0 || imp == null || imp.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new InvalidPairingArgsException("La distancia, la duración y el importe deben ser mayores a 0.");
+        }
+    }
+
+    private boolean isValidPayMethod(char payMeth) {
+        return payMeth == 'C' || payMeth == 'D' || payMeth == 'P' || payMeth == 'T' || payMeth == 'W';
+    }
+}
@@ -0,0 +1,87 @@
+package services;
+
+import exceptions.ConnectException;
+import exceptions.InvalidPairingArgsException;
+
+import java.util.List;
+
+/**
+ * Destino de los lotes de eventos de emparejamiento confirmados por BatchingServer.
+ * Una implementación típica escribe todo el lote en una sola operación contra el almacenamiento remoto.
+ */
+public interface PairingBatchSink {
+
+    /**
+     * Confirma un lote de eventos. O se confirma el lote completo o se lanza una excepción.
+     *
+     * @param batch Los eventos a confirmar, en orden de llegada.
+     * @throws ConnectException            Si ocurre un problema de conexión al confirmar el lote.
+     * @throws InvalidPairingArgsException Si el destino rechaza alguno de los eventos.
+     */
+    void commit(List<PairingEvent> batch) throws ConnectException, InvalidPairingArgsException;
+
+    /**
+     * Confirma un lote de eventos e informa del resultado de cada uno por separado. BatchingServer usa este
+     * método, así que un destino que no pueda confirmar el lote de forma atómica debe sobrescribirlo para que
+     * el fallo de un evento no se atribuya a los demás.
+     * La implementación por defecto delega en commit: si lanza una excepción, falla el lote completo.
+     *
+     * @param batch Los eventos a confirmar, en orden de llegada.
+     * @return Un array del tamaño del lote con null en los eventos confirmados y la excepción que rechazó
+     * cada uno de los demás.
+     * @throws ConnectException            Si ocurre un problema de conexión que impide confirmar el lote.
+     * @throws InvalidPairingArgsException Si el destino rechaza el lote completo.
+     */
+    default Exception[] commitEach(List<PairingEvent> batch) throws ConnectException, InvalidPairingArgsException {
+        commit(batch);
+        return new Exception[batch.size()];
+    }
+
+    /**
+     * Crea un destino que reenvía cada evento del lote a un servidor existente, uno a uno.
+     * No es atómico: commitEach informa del resultado de cada evento, y commit lanza el primer fallo después
+     * de haber intentado todos los eventos del lote.
+     *
+     * @param server El servidor de destino.
+     * @return Un destino que delega en registerPairing y stopPairing.
+     */
+    static PairingBatchSink forServer(Server server) {
+        return new PairingBatchSink() {
+            @Override
+            public void commit(List<PairingEvent> batch) throws ConnectException, InvalidPairingArgsException {
+                for (Exception failure : commitEach(batch)) {
+                    if (failure instanceof ConnectException connect) {
+                        throw connect;
+                    }
+                    if (failure instanceof InvalidPairingArgsException invalid) {
+                        throw invalid;
+                    }
+                    if (failure instanceof RuntimeException runtime) {
+                        throw runtime;
+                    }
+                }
+            }
+
+            @Override
+            public Exception[] commitEach(List<PairingEvent> batch) {
+                Exception[] failures = new Exception[batch.size()];
+                for (int i = 0; i < failures.length; i++) {
+                    PairingEvent event = batch.get(i);
+                    try {
+                        if (event.getType() == PairingEvent.Type.START) {
+                            server.registerPairing(event.getUser(), event.getVehicle(), event.getStation(),
+                                    event.getLocation(), event.getDate());
+                        } else {
+                            server.stopPairing(event.getUser(), event.getVehicle(), event.getStation(),
+                                    event.getLocation(), event.getDate(), event.getAverageSpeed(),
+                                    event.getDistance(), event.getDuration(), event.getImportValue());
+                        }
+                    } catch (ConnectException | InvalidPairingArgsException | RuntimeException e) {
+                        failures[i] = e;
+                    }
+                }
+                return failures;
+            }
+        };
+    }
+}
@@ -0,0 +1,150 @@
+package services;
+
+import data.GeographicPoint;
+import data.StationID;
+import data.UserAccount;
+import data.VehicleID;
+import exceptions.InvalidPairingArgsException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Evento inmutable de inicio o fin de emparejamiento.
+ * Agrupa en un solo objeto los argumentos de registerPairing y stopPairing para poder encolarlos
+ * y confirmarlos por lotes.
+ */
+public final class PairingEvent {
+
+    /**
+     * Tipo de evento de emparejamiento.
+     */
+    public enum Type {
+        START, // Inicio del emparejamiento (registerPairing)
+        STOP   // Fin del emparejamiento (stopPairing)
+    }
+
+    private final Type type;
+    private final UserAccount user;
+    private final VehicleID vehicle;
+    private final StationID station;
+    private final GeographicPoint location;
+    private final LocalDateTime date;
+    private final float averageSpeed;
+    private final float distance;
+    private final int duration;
+    private final BigDecimal importValue;
+
+    private PairingEvent(Type type, UserAccount user, VehicleID vehicle, StationID station, GeographicPoint location,
+                         LocalDateTime date, float averageSpeed, float distance, int duration, BigDecimal importValue) {
+        this.type = type;
+        this.user = user;
+        this.vehicle = vehicle;
+        this.station = station;
+        this.location = location;
+        this.date = date;
+        this.averageSpeed = averageSpeed;
+        this.distance = distance;
+        this.duration = duration;
+        this.importValue = importValue;
+    }
+
+    /**
+     * Crea un evento de inicio de emparejamiento.
+     *
+     * @param user El usuario que inicia el emparejamiento.
+     * @param veh  El vehículo que se empareja.
+     * @param st   La estación donde ocurre el emparejamiento.
+     * @param loc  La ubicación geográfica del emparejamiento.
+     * @param date La fecha y hora del emparejamiento.
+     * @return El evento creado.
+     * @throws InvalidPairingArgsException Si alguno de los argumentos es nulo.
+     */
+    public static PairingEvent start(UserAccount user, VehicleID veh, StationID st, GeographicPoint loc, LocalDateTime date)
+            throws InvalidPairingArgsException {
+        validarArgumentos(user, veh, st, loc, date);
+        return new PairingEvent(Type.START, user, veh, st, loc, date, 0, 0, 0, null);
+    }
+
+    /**
+     * Crea un evento de fin de emparejamiento.
+     *
+     * @param user El usuario que finaliza el emparejamiento.
+     * @param veh  El vehículo que se desempareja.
+     * @param st   La estación donde ocurre el desemparejamiento.
+     * @param loc  La ubicación geográfica del desemparejamiento.
+     * @param date La fecha y hora del desemparejamiento.
+     * @param avSp La velocidad promedio durante el trayecto.
+     * @param dist La distancia recorrida durante el trayecto.
+     * @param dur  La duración del trayecto.
+     * @param imp  El importe final a pagar por el trayecto.
+     * @return El evento creado.
+     * @throws InvalidPairingArgsException Si algún argumento es nulo o algún valor del trayecto no es positivo.
+     */
+    public static PairingEvent stop(UserAccount user, VehicleID veh, StationID st, GeographicPoint loc, LocalDateTime date,
+                                    float avSp, float dist, int dur, BigDecimal imp) throws InvalidPairingArgsException {
+        validarArgumentos(user, veh, st, loc, date);
+        if (dist <= 0 || dur <= 0 || imp == null || imp.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new InvalidPairingArgsException("La distancia, la duración y el importe deben ser mayores a 0.");
+        }
+        return new PairingEvent(Type.STOP, user, veh, st, loc, date, avSp, dist, dur, imp);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public UserAccount getUser() {
+        return user;
+    }
+
+    public VehicleID getVehicle() {
+        return vehicle;
+    }
+
+    public StationID getStation() {
+        return station;
+    }
+
+    public GeographicPoint getLocation() {
+        return location;
+    }
+
+    public LocalDateTime getDate() {
+        return date;
+    }
+
+    public float getAverageSpeed() {
+        return averageSpeed;
+    }
+
+    public float getDistance() {
+        return distance;
+    }
+
+    public int getDuration() {
+        return duration;
+    }
+
+    public BigDecimal getImportValue() {
+        return importValue;
+    }
+
+    private static void validarArgumentos(UserAccount user, VehicleID veh, StationID st, GeographicPoint loc, LocalDateTime date)
+            throws InvalidPairingArgsException {
+        if (user == null || veh == null || st == null || loc == null || date == null) {
+            throw new InvalidPairingArgsException("Argumentos inválidos para el emparejamiento.");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PairingEvent{" +
+                "type=" + type +
+                ", user=" + user +
+                ", vehicle=" + vehicle +
+                ", station=" + station +
+                ", date=" + date +
+                '}';
+    }
+}
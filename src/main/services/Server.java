@@ -7,6 +7,7 @@ import micromobility.PMVehicle;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Interfaz que define las operaciones del servidor para emparejamiento y gestión de vehículos.
@@ -101,4 +102,22 @@ public interface Server {
      * @throws PMVNotAvailException Si el vehículo no se encuentra en el servidor.
      */
     PMVehicle getVehicleByID(VehicleID vhID) throws PMVNotAvailException;
+
+    /**
+     * Busca los vehículos disponibles más cercanos a una ubicación.
+     *
+     * @param loc La ubicación de búsqueda.
+     * @param k   El número máximo de vehículos a devolver. Debe ser mayor que 0.
+     * @return Hasta k vehículos en estado Available, ordenados de más cercano a más lejano.
+     */
+    List<PMVehicle> getNearestAvailableVehicles(GeographicPoint loc, int k);
+
+    /**
+     * Busca los vehículos disponibles dentro de un radio alrededor de una ubicación.
+     *
+     * @param loc      La ubicación de búsqueda.
+     * @param radiusKm El radio de búsqueda en kilómetros. No puede ser negativo.
+     * @return Los vehículos en estado Available dentro del radio, ordenados de más cercano a más lejano.
+     */
+    List<PMVehicle> getAvailableVehiclesWithin(GeographicPoint loc, float radiusKm);
 }
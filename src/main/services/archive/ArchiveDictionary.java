@@ -0,0 +1,124 @@
+package services.archive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Diccionario de identificadores del archivo de trayectos: asigna a cada texto un código entero denso,
+ * en orden de aparición. Se guarda como un fichero de texto con un identificador por línea, de modo que
+ * el código de cada identificador es su número de línea empezando en 0.
+ */
+final class ArchiveDictionary {
+
+    private final Path file;
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+    private int persisted;
+    private long persistedBytes;
+
+    private ArchiveDictionary(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Carga el diccionario de un fichero, o lo crea vacío si no existe.
+     * Una última línea sin salto de línea es una escritura interrumpida: se ignora, y la siguiente escritura
+     * la sobrescribe en lugar de anexar tras ella.
+     */
+    static ArchiveDictionary load(Path file) throws IOException {
+        ArchiveDictionary dictionary = new ArchiveDictionary(file);
+        if (Files.exists(file)) {
+            byte[] content = Files.readAllBytes(file);
+            int complete = content.length;
+            while (complete > 0 && content[complete - 1] != '\n') {
+                complete--;
+            }
+            int lineStart = 0;
+            for (int i = 0; i < complete; i++) {
+                if (content[i] == '\n') {
+                    String line = new String(content, lineStart, i - lineStart, StandardCharsets.UTF_8);
+                    dictionary.codes.put(line, dictionary.values.size());
+                    dictionary.values.add(line);
+                    lineStart = i + 1;
+                }
+            }
+            dictionary.persistedBytes = complete;
+        }
+        dictionary.persisted = dictionary.values.size();
+        return dictionary;
+    }
+
+    /**
+     * Obtiene el código de un identificador, asignándole uno nuevo si no lo tenía.
+     */
+    synchronized int encode(String value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            if (value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                throw new IllegalArgumentException("El identificador no puede contener saltos de línea.");
+            }
+            code = values.size();
+            codes.put(value, code);
+            values.add(value);
+        }
+        return code;
+    }
+
+    /**
+     * Obtiene el código de un identificador sin asignarlo.
+     *
+     * @return El código, o -1 si no está en el diccionario.
+     */
+    synchronized int codeOf(String value) {
+        Integer code = codes.get(value);
+        return code == null ? -1 : code;
+    }
+
+    /**
+     * Obtiene el identificador de un código.
+     *
+     * @return El identificador, o null si el código no es válido.
+     */
+    synchronized String decode(int code) {
+        return code >= 0 && code < values.size() ? values.get(code) : null;
+    }
+
+    synchronized int size() {
+        return values.size();
+    }
+
+    /**
+     * Anexa al fichero los identificadores asignados desde la última escritura y lo fuerza a disco, de modo
+     * que ninguna fila de las columnas escritas después pueda referirse a un código que no se haya guardado.
+     */
+    synchronized void persist() throws IOException {
+        if (persisted == values.size()) {
+            return;
+        }
+        StringBuilder pending = new StringBuilder();
+        for (int i = persisted; i < values.size(); i++) {
+            pending.append(values.get(i)).append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(pending.toString().getBytes(StandardCharsets.UTF_8));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            // Descarta la línea a medio escribir que pudiera quedar de una caída anterior
+            channel.truncate(persistedBytes);
+            channel.position(persistedBytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        persistedBytes += buffer.limit();
+        persisted = values.size();
+    }
+}
@@ -0,0 +1,77 @@
+package services.archive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Fichero de una columna proyectado en memoria en solo lectura, en trozos de CHUNK_ROWS filas para no
+ * depender del límite de 2 GiB de un MappedByteBuffer. Los trozos son además la unidad de reparto de
+ * los recorridos en paralelo.
+ */
+final class ColumnFile {
+
+    static final int CHUNK_SHIFT = 24;
+    static final int CHUNK_ROWS = 1 << CHUNK_SHIFT;
+
+    private final JourneyColumn column;
+    private final long rows;
+    private final ByteBuffer[] chunks;
+
+    private ColumnFile(JourneyColumn column, long rows, ByteBuffer[] chunks) {
+        this.column = column;
+        this.rows = rows;
+        this.chunks = chunks;
+    }
+
+    /**
+     * Proyecta las primeras filas de la columna.
+     */
+    static ColumnFile map(Path directory, JourneyColumn column, long rows) throws IOException {
+        int count = (int) ((rows + CHUNK_ROWS - 1) >>> CHUNK_SHIFT);
+        ByteBuffer[] chunks = new ByteBuffer[count];
+        try (FileChannel channel = FileChannel.open(directory.resolve(column.fileName()), StandardOpenOption.READ)) {
+            for (int i = 0; i < count; i++) {
+                long first = (long) i << CHUNK_SHIFT;
+                long length = Math.min(CHUNK_ROWS, rows - first) * column.getWidth();
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, first * column.getWidth(), length)
+                        .order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+        return new ColumnFile(column, rows, chunks);
+    }
+
+    JourneyColumn column() {
+        return column;
+    }
+
+    long rows() {
+        return rows;
+    }
+
+    int chunkCount() {
+        return chunks.length;
+    }
+
+    /**
+     * Obtiene un trozo de la columna. El búfer es compartido: solo deben usarse lecturas absolutas.
+     */
+    ByteBuffer chunk(int index) {
+        return chunks[index];
+    }
+
+    long getLong(long row) {
+        return chunks[(int) (row >>> CHUNK_SHIFT)].getLong((int) (row & (CHUNK_ROWS - 1)) * 8);
+    }
+
+    int getInt(long row) {
+        return chunks[(int) (row >>> CHUNK_SHIFT)].getInt((int) (row & (CHUNK_ROWS - 1)) * 4);
+    }
+
+    float getFloat(long row) {
+        return chunks[(int) (row >>> CHUNK_SHIFT)].getFloat((int) (row & (CHUNK_ROWS - 1)) * 4);
+    }
+}
@@ -0,0 +1,120 @@
+package services.archive;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Condición sobre los valores de una sola columna, evaluada directamente sobre el trozo proyectado en
+ * memoria. Trabaja con un vector de selección: la primera condición de un bloque recorre todas sus filas y
+ * anota las que la cumplen, y las siguientes solo miran las filas que siguen seleccionadas.
+ */
+final class ColumnPredicate {
+
+    private enum Kind { INT_EQUALS, LONG_RANGE, FLOAT_RANGE }
+
+    private final Kind kind;
+    private final JourneyColumn column;
+    private final long low;
+    private final long high;
+    private final float lowFloat;
+    private final float highFloat;
+
+    private ColumnPredicate(Kind kind, JourneyColumn column, long low, long high, float lowFloat, float highFloat) {
+        this.kind = kind;
+        this.column = column;
+        this.low = low;
+        this.high = high;
+        this.lowFloat = lowFloat;
+        this.highFloat = highFloat;
+    }
+
+    /**
+     * Valor entero igual a uno dado.
+     */
+    static ColumnPredicate intEquals(JourneyColumn column, int value) {
+        return new ColumnPredicate(Kind.INT_EQUALS, column, value, value, 0, 0);
+    }
+
+    /**
+     * Valor de 8 bytes en [low, high).
+     */
+    static ColumnPredicate longRange(JourneyColumn column, long low, long high) {
+        return new ColumnPredicate(Kind.LONG_RANGE, column, low, high, 0, 0);
+    }
+
+    /**
+     * Valor de coma flotante en [low, high].
+     */
+    static ColumnPredicate floatRange(JourneyColumn column, float low, float high) {
+        return new ColumnPredicate(Kind.FLOAT_RANGE, column, 0, 0, low, high);
+    }
+
+    JourneyColumn column() {
+        return column;
+    }
+
+    /**
+     * Filtra las filas de un bloque.
+     *
+     * @param chunk     El trozo de la columna que contiene el bloque.
+     * @param offset    Fila del trozo donde empieza el bloque.
+     * @param length    Número de filas del bloque.
+     * @param selection Posiciones dentro del bloque de las filas seleccionadas; se sobrescribe.
+     * @param count     Número de filas seleccionadas, o -1 si es la primera condición del bloque.
+     * @return El nuevo número de filas seleccionadas.
+     */
+    int filter(ByteBuffer chunk, int offset, int length, int[] selection, int count) {
+        int selected = 0;
+        switch (kind) {
+            case INT_EQUALS: {
+                int value = (int) low;
+                if (count < 0) {
+                    for (int i = 0; i < length; i++) {
+                        selection[selected] = i;
+                        selected += chunk.getInt((offset + i) << 2) == value ? 1 : 0;
+                    }
+                } else {
+                    for (int k = 0; k < count; k++) {
+                        int i = selection[k];
+                        selection[selected] = i;
+                        selected += chunk.getInt((offset + i) << 2) == value ? 1 : 0;
+                    }
+                }
+                return selected;
+            }
+            case LONG_RANGE: {
+                if (count < 0) {
+                    for (int i = 0; i < length; i++) {
+                        long v = chunk.getLong((offset + i) << 3);
+                        selection[selected] = i;
+                        selected += v >= low && v < high ? 1 : 0;
+                    }
+                } else {
+                    for (int k = 0; k < count; k++) {
+                        int i = selection[k];
+                        long v = chunk.getLong((offset + i) << 3);
+                        selection[selected] = i;
+                        selected += v >= low && v < high ? 1 : 0;
+                    }
+                }
+                return selected;
+            }
+            default: {
+                if (count < 0) {
+                    for (int i = 0; i < length; i++) {
+                        float v = chunk.getFloat((offset + i) << 2);
+                        selection[selected] = i;
+                        selected += v >= lowFloat && v <= highFloat ? 1 : 0;
+                    }
+                } else {
+                    for (int k = 0; k < count; k++) {
+                        int i = selection[k];
+                        float v = chunk.getFloat((offset + i) << 2);
+                        selection[selected] = i;
+                        selected += v >= lowFloat && v <= highFloat ? 1 : 0;
+                    }
+                }
+                return selected;
+            }
+        }
+    }
+}
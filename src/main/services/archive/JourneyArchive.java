@@ -0,0 +1,261 @@
+package services.archive;
+
+import data.Money;
+import micromobility.JourneyService;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Archivo columnar de trayectos finalizados, de solo anexado.
+ *
+ * Cada columna (ver JourneyColumn) se guarda en su propio fichero con valores de ancho fijo, y los
+ * identificadores de usuario y de estación se codifican con diccionario como enteros de 4 bytes, de modo
+ * que cada trayecto ocupa {@link JourneyColumn#rowWidth()} bytes y un análisis solo lee las columnas que
+ * necesita (ver JourneyArchiveReader).
+ *
+ * Las filas se acumulan en búferes por columna y se escriben por lotes; los diccionarios se escriben antes
+ * que las columnas, así que todo código guardado tiene su identificador. Si una caída deja columnas de
+ * distinta longitud, al abrir el archivo se recortan a la fila completa más larga.
+ * Es seguro para usarse desde varios hilos.
+ */
+public final class JourneyArchive implements AutoCloseable {
+
+    public static final int DEFAULT_BATCH_ROWS = 4096;
+
+    static final String STATIONS_FILE = "stations.dict";
+    static final String USERS_FILE = "users.dict";
+
+    private static final JourneyColumn[] COLUMNS = JourneyColumn.values();
+
+    private final int batchRows;
+    private final FileChannel[] channels = new FileChannel[COLUMNS.length];
+    private final ByteBuffer[] buffers = new ByteBuffer[COLUMNS.length];
+    private final ArchiveDictionary stations;
+    private final ArchiveDictionary users;
+    private long persistedRows;
+    private int bufferedRows;
+    private boolean closed;
+    private boolean failed;
+
+    private JourneyArchive(Path directory, int batchRows) throws IOException {
+        this.batchRows = batchRows;
+        this.stations = ArchiveDictionary.load(directory.resolve(STATIONS_FILE));
+        this.users = ArchiveDictionary.load(directory.resolve(USERS_FILE));
+        try {
+            long rows = Long.MAX_VALUE;
+            for (JourneyColumn column : COLUMNS) {
+                FileChannel channel = FileChannel.open(directory.resolve(column.fileName()),
+                        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                channels[column.ordinal()] = channel;
+                rows = Math.min(rows, channel.size() / column.getWidth());
+                buffers[column.ordinal()] = ByteBuffer.allocateDirect(batchRows * column.getWidth())
+                        .order(ByteOrder.LITTLE_ENDIAN);
+            }
+            // Descarta las filas a medio escribir de una caída anterior
+            for (JourneyColumn column : COLUMNS) {
+                channels[column.ordinal()].truncate(rows * column.getWidth());
+                channels[column.ordinal()].position(rows * column.getWidth());
+            }
+            this.persistedRows = rows;
+        } catch (IOException e) {
+            closeChannels();
+            throw e;
+        }
+    }
+
+    /**
+     * Abre (o crea) el archivo con el tamaño de lote por defecto.
+     *
+     * @param directory El directorio del archivo.
+     * @return El archivo abierto, listo para anexar tras la última fila completa.
+     * @throws IOException Si no se pueden abrir o crear los ficheros.
+     */
+    public static JourneyArchive open(Path directory) throws IOException {
+        return open(directory, DEFAULT_BATCH_ROWS);
+    }
+
+    /**
+     * Abre (o crea) el archivo.
+     *
+     * @param directory El directorio del archivo.
+     * @param batchRows Número de filas que se acumulan en memoria antes de escribirlas.
+     * @return El archivo abierto, listo para anexar tras la última fila completa.
+     * @throws IOException              Si no se pueden abrir o crear los ficheros.
+     * @throws IllegalArgumentException Si el directorio es nulo o el lote no es positivo.
+     */
+    public static JourneyArchive open(Path directory, int batchRows) throws IOException {
+        if (directory == null || batchRows <= 0) {
+            throw new IllegalArgumentException("El directorio no puede ser nulo y el lote debe ser positivo.");
+        }
+        Files.createDirectories(directory);
+        return new JourneyArchive(directory, batchRows);
+    }
+
+    /**
+     * Anexa un trayecto finalizado.
+     *
+     * @param journey El trayecto. Debe estar finalizado.
+     * @return El número de fila asignado al trayecto.
+     * @throws IOException              Si falla la escritura de un lote.
+     * @throws IllegalArgumentException Si el trayecto es nulo o sigue en curso.
+     * @throws IllegalStateException    Si el archivo está cerrado.
+     */
+    public synchronized long append(JourneyService journey) throws IOException {
+        if (journey == null || journey.isInProgress()) {
+            throw new IllegalArgumentException("Solo se pueden archivar trayectos finalizados.");
+        }
+        ensureOpen();
+        if (bufferedRows == batchRows) {
+            flush(); // Un lote anterior no se pudo escribir: se reintenta antes de añadir la fila
+        }
+        // Hora local de pared codificada como si fuera UTC (ver JourneyColumn)
+        long start = LocalDateTime.of(journey.getStartDate(), journey.getStartTime()).toEpochSecond(ZoneOffset.UTC);
+        long end = journey.getEndDate() != null && journey.getEndHour() != null
+                ? LocalDateTime.of(journey.getEndDate(), journey.getEndHour()).toEpochSecond(ZoneOffset.UTC)
+                : start + journey.getDuration() * 60L;
+        Money amount = journey.getImportMoney();
+        int station = journey.getEndStation() == null ? -1 : stations.encode(journey.getEndStation().getId());
+        int user = journey.getUser() == null ? -1 : users.encode(journey.getUser().getUsername());
+
+        buffers[JourneyColumn.START.ordinal()].putLong(start);
+        buffers[JourneyColumn.END.ordinal()].putLong(end);
+        buffers[JourneyColumn.DURATION.ordinal()].putInt(journey.getDuration());
+        buffers[JourneyColumn.DISTANCE.ordinal()].putFloat(journey.getDistance());
+        buffers[JourneyColumn.AVG_SPEED.ordinal()].putFloat(journey.getAverageSpeed());
+        buffers[JourneyColumn.AMOUNT.ordinal()].putLong(amount == null ? 0 : amount.getCents());
+        buffers[JourneyColumn.STATION.ordinal()].putInt(station);
+        buffers[JourneyColumn.USER.ordinal()].putInt(user);
+        long row = persistedRows + bufferedRows;
+        if (++bufferedRows == batchRows) {
+            flush();
+        }
+        return row;
+    }
+
+    /**
+     * Escribe en los ficheros las filas acumuladas en memoria.
+     * Si la escritura falla, las columnas se recortan a las filas ya escritas y las filas siguen en memoria
+     * para reintentarlo; si ni siquiera se pueden recortar, el archivo queda inutilizable y rechaza nuevas
+     * operaciones con IllegalStateException.
+     *
+     * @throws IOException           Si falla la escritura.
+     * @throws IllegalStateException Si el archivo está cerrado o inutilizado por un fallo anterior.
+     */
+    public synchronized void flush() throws IOException {
+        if (bufferedRows == 0) {
+            return;
+        }
+        ensureOpen();
+        try {
+            stations.persist();
+            users.persist();
+            for (int c = 0; c < COLUMNS.length; c++) {
+                ByteBuffer buffer = buffers[c];
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    channels[c].write(buffer);
+                }
+            }
+        } catch (IOException e) {
+            rollBack(e);
+            throw e;
+        }
+        for (ByteBuffer buffer : buffers) {
+            buffer.clear();
+        }
+        persistedRows += bufferedRows;
+        bufferedRows = 0;
+    }
+
+    /**
+     * Obtiene el número de trayectos archivados, incluidos los que aún están en memoria.
+     *
+     * @return El número de filas.
+     */
+    public synchronized long size() {
+        return persistedRows + bufferedRows;
+    }
+
+    /**
+     * Escribe las filas pendientes, fuerza los ficheros a disco y los cierra.
+     *
+     * @throws IOException Si falla la escritura.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            if (failed) {
+                return; // Las filas en memoria no se pueden escribir de forma coherente
+            }
+            flush();
+            for (FileChannel channel : channels) {
+                channel.force(false);
+            }
+        } finally {
+            closed = true;
+            closeChannels();
+        }
+    }
+
+    /**
+     * Canal del fichero de una columna, para simular fallos de escritura.
+     */
+    FileChannel channelOf(JourneyColumn column) {
+        return channels[column.ordinal()];
+    }
+
+    // Métodos internos
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("El archivo de trayectos está cerrado.");
+        }
+        if (failed) {
+            throw new IllegalStateException("El archivo de trayectos quedó inutilizado por un fallo de escritura.");
+        }
+    }
+
+    // Deshace una escritura de lote a medias: columnas recortadas a persistedRows y búferes llenos de nuevo
+    private void rollBack(IOException cause) {
+        try {
+            for (JourneyColumn column : COLUMNS) {
+                ByteBuffer buffer = buffers[column.ordinal()];
+                buffer.limit(buffer.capacity()).position(bufferedRows * column.getWidth());
+                long length = persistedRows * column.getWidth();
+                channels[column.ordinal()].truncate(length);
+                channels[column.ordinal()].position(length);
+            }
+        } catch (IOException e) {
+            failed = true;
+            cause.addSuppressed(e);
+        }
+    }
+
+    private void closeChannels() throws IOException {
+        IOException failure = null;
+        for (FileChannel channel : channels) {
+            if (channel == null) {
+                continue;
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package services.archive;
+
+import data.Money;
+import data.StationID;
+import data.UserAccount;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Lector del archivo columnar de trayectos. Ve las filas completas que había al abrirlo y proyecta en
+ * memoria cada columna solo la primera vez que se consulta, de modo que un análisis que solo usa, por
+ * ejemplo, la estación y el importe no lee el resto de ficheros.
+ * Es seguro para usarse desde varios hilos.
+ */
+public final class JourneyArchiveReader {
+
+    private static final JourneyColumn[] COLUMNS = JourneyColumn.values();
+
+    private final Path directory;
+    private final long rows;
+    private final ArchiveDictionary stations;
+    private final ArchiveDictionary users;
+    private final ColumnFile[] columns = new ColumnFile[COLUMNS.length];
+
+    private JourneyArchiveReader(Path directory, long rows, ArchiveDictionary stations, ArchiveDictionary users) {
+        this.directory = directory;
+        this.rows = rows;
+        this.stations = stations;
+        this.users = users;
+    }
+
+    /**
+     * Abre un archivo para lectura.
+     *
+     * @param directory El directorio del archivo.
+     * @return El lector.
+     * @throws IOException              Si no se pueden leer los ficheros.
+     * @throws IllegalArgumentException Si el directorio es nulo o no contiene un archivo.
+     */
+    public static JourneyArchiveReader open(Path directory) throws IOException {
+        if (directory == null || !Files.isDirectory(directory)) {
+            throw new IllegalArgumentException("El directorio del archivo no existe.");
+        }
+        long rows = Long.MAX_VALUE;
+        for (JourneyColumn column : COLUMNS) {
+            Path file = directory.resolve(column.fileName());
+            rows = Math.min(rows, Files.exists(file) ? Files.size(file) / column.getWidth() : 0);
+        }
+        return new JourneyArchiveReader(directory, rows,
+                ArchiveDictionary.load(directory.resolve(JourneyArchive.STATIONS_FILE)),
+                ArchiveDictionary.load(directory.resolve(JourneyArchive.USERS_FILE)));
+    }
+
+    /**
+     * Obtiene el número de trayectos visibles para este lector.
+     *
+     * @return El número de filas.
+     */
+    public long size() {
+        return rows;
+    }
+
+    /**
+     * Obtiene el código de diccionario de una estación.
+     *
+     * @param station La estación.
+     * @return El código, o -1 si la estación no aparece en el archivo.
+     */
+    public int stationCode(StationID station) {
+        return station == null ? -1 : stations.codeOf(station.getId());
+    }
+
+    /**
+     * Obtiene el identificador de estación de un código de diccionario.
+     *
+     * @param code El código.
+     * @return El identificador, o null si el código es -1 o no es válido.
+     */
+    public String stationName(int code) {
+        return stations.decode(code);
+    }
+
+    /**
+     * Obtiene el número de estaciones distintas del diccionario.
+     *
+     * @return El número de códigos de estación.
+     */
+    public int stationCount() {
+        return stations.size();
+    }
+
+    /**
+     * Obtiene el código de diccionario de un usuario.
+     *
+     * @param user El usuario.
+     * @return El código, o -1 si el usuario no aparece en el archivo.
+     */
+    public int userCode(UserAccount user) {
+        return user == null ? -1 : users.codeOf(user.getUsername());
+    }
+
+    /**
+     * Obtiene el nombre de usuario de un código de diccionario.
+     *
+     * @param code El código.
+     * @return El nombre de usuario, o null si el código es -1 o no es válido.
+     */
+    public String userName(int code) {
+        return users.decode(code);
+    }
+
+    /**
+     * Lee un valor de una columna de 8 bytes (START, END o AMOUNT).
+     *
+     * @throws IOException               Si no se puede proyectar la columna.
+     * @throws IndexOutOfBoundsException Si la fila no existe.
+     * @throws IllegalArgumentException  Si la columna no es de 8 bytes.
+     */
+    public long getLong(JourneyColumn column, long row) throws IOException {
+        return column(checkWidth(column, 8), row).getLong(row);
+    }
+
+    /**
+     * Lee un valor de una columna entera de 4 bytes (DURATION, STATION o USER).
+     *
+     * @throws IOException               Si no se puede proyectar la columna.
+     * @throws IndexOutOfBoundsException Si la fila no existe.
+     * @throws IllegalArgumentException  Si la columna no es entera de 4 bytes.
+     */
+    public int getInt(JourneyColumn column, long row) throws IOException {
+        if (column == JourneyColumn.DISTANCE || column == JourneyColumn.AVG_SPEED) {
+            throw new IllegalArgumentException("La columna " + column + " es de coma flotante.");
+        }
+        return column(checkWidth(column, 4), row).getInt(row);
+    }
+
+    /**
+     * Lee un valor de una columna de coma flotante (DISTANCE o AVG_SPEED).
+     *
+     * @throws IOException               Si no se puede proyectar la columna.
+     * @throws IndexOutOfBoundsException Si la fila no existe.
+     * @throws IllegalArgumentException  Si la columna no es de coma flotante.
+     */
+    public float getFloat(JourneyColumn column, long row) throws IOException {
+        if (column != JourneyColumn.DISTANCE && column != JourneyColumn.AVG_SPEED) {
+            throw new IllegalArgumentException("La columna " + column + " no es de coma flotante.");
+        }
+        return column(column, row).getFloat(row);
+    }
+
+    /**
+     * Lee el inicio de un trayecto, como la hora local de pared con la que se archivó.
+     *
+     * @throws IOException Si no se puede proyectar la columna.
+     */
+    public LocalDateTime getStart(long row) throws IOException {
+        return LocalDateTime.ofEpochSecond(getLong(JourneyColumn.START, row), 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Lee el importe de un trayecto.
+     *
+     * @throws IOException Si no se puede proyectar la columna.
+     */
+    public Money getAmount(long row) throws IOException {
+        return Money.ofCents(getLong(JourneyColumn.AMOUNT, row));
+    }
+
+    /**
+     * Obtiene una columna proyectada en memoria, proyectándola si aún no lo estaba.
+     */
+    synchronized ColumnFile column(JourneyColumn column) throws IOException {
+        ColumnFile file = columns[column.ordinal()];
+        if (file == null) {
+            file = ColumnFile.map(directory, column, rows);
+            columns[column.ordinal()] = file;
+        }
+        return file;
+    }
+
+    // Métodos internos
+
+    private ColumnFile column(JourneyColumn column, long row) throws IOException {
+        if (row < 0 || row >= rows) {
+            throw new IndexOutOfBoundsException("Fila " + row + " fuera de rango para " + rows + " trayectos.");
+        }
+        return column(column);
+    }
+
+    private static JourneyColumn checkWidth(JourneyColumn column, int width) {
+        if (column == null || column.getWidth() != width) {
+            throw new IllegalArgumentException("La columna " + column + " no es de " + width + " bytes.");
+        }
+        return column;
+    }
+}
@@ -0,0 +1,58 @@
+package services.archive;
+
+import java.util.Locale;
+
+/**
+ * Columnas del archivo de trayectos. Cada columna se guarda en su propio fichero con valores de ancho
+ * fijo en little-endian, de modo que la fila i está en la posición i * ancho de cada fichero.
+ * START y END guardan la hora local de pared del trayecto, no un instante: son los segundos que tendría esa
+ * fecha y hora si fuera UTC. Así la hora del día se obtiene sin zona horaria (ver averageSpeedByHour), pero
+ * no se pueden comparar con instantes como los del diario de eventos sin convertirlos antes.
+ */
+public enum JourneyColumn {
+    START(8),      // Inicio del trayecto, hora local de pared en segundos (long)
+    END(8),        // Fin del trayecto, hora local de pared en segundos (long)
+    DURATION(4),   // Duración en minutos (int)
+    DISTANCE(4),   // Distancia en kilómetros (float)
+    AVG_SPEED(4),  // Velocidad media en km/h (float)
+    AMOUNT(8),     // Importe en céntimos (long)
+    STATION(4),    // Código de diccionario de la estación de llegada, o -1 (int)
+    USER(4);       // Código de diccionario del usuario, o -1 (int)
+
+    private final int width;
+
+    JourneyColumn(int width) {
+        this.width = width;
+    }
+
+    /**
+     * Obtiene el ancho de los valores de la columna.
+     *
+     * @return El ancho en bytes.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Obtiene el nombre del fichero de la columna.
+     *
+     * @return El nombre del fichero.
+     */
+    public String fileName() {
+        return name().toLowerCase(Locale.ROOT) + ".col";
+    }
+
+    /**
+     * Obtiene el número de bytes que ocupa una fila sumando todas las columnas.
+     *
+     * @return Los bytes por trayecto.
+     */
+    public static int rowWidth() {
+        int total = 0;
+        for (JourneyColumn column : values()) {
+            total += column.width;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,139 @@
+package services.archive;
+
+import data.StationID;
+import data.UserAccount;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Filtro inmutable sobre los trayectos archivados. Cada condición se refiere a una sola columna, de modo
+ * que JourneyQueryEngine la evalúa directamente sobre los valores proyectados de esa columna sin
+ * reconstruir los trayectos. Las condiciones se combinan con Y; un filtro sin condiciones acepta todo.
+ */
+public final class JourneyFilter {
+
+    private static final JourneyFilter ALL = new JourneyFilter(Long.MIN_VALUE, Long.MAX_VALUE, null, null,
+            Float.NEGATIVE_INFINITY, Float.POSITIVE_INFINITY);
+
+    private final long startFrom;
+    private final long startTo;
+    private final StationID station;
+    private final UserAccount user;
+    private final float minDistance;
+    private final float maxDistance;
+
+    private JourneyFilter(long startFrom, long startTo, StationID station, UserAccount user,
+                          float minDistance, float maxDistance) {
+        this.startFrom = startFrom;
+        this.startTo = startTo;
+        this.station = station;
+        this.user = user;
+        this.minDistance = minDistance;
+        this.maxDistance = maxDistance;
+    }
+
+    /**
+     * Obtiene el filtro que acepta todos los trayectos.
+     *
+     * @return El filtro vacío.
+     */
+    public static JourneyFilter all() {
+        return ALL;
+    }
+
+    /**
+     * Restringe los trayectos a los que empiezan en un intervalo, expresado en hora local de pared como
+     * las fechas de los trayectos.
+     *
+     * @param from Inicio del intervalo, incluido.
+     * @param to   Fin del intervalo, excluido.
+     * @return Un nuevo filtro con la condición añadida.
+     * @throws IllegalArgumentException Si algún extremo es nulo o el intervalo está invertido.
+     */
+    public JourneyFilter startingBetween(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new IllegalArgumentException("El intervalo de inicio no es válido.");
+        }
+        return new JourneyFilter(from.toEpochSecond(ZoneOffset.UTC), to.toEpochSecond(ZoneOffset.UTC),
+                station, user, minDistance, maxDistance);
+    }
+
+    /**
+     * Restringe los trayectos a los que terminan en una estación.
+     *
+     * @param station La estación de llegada.
+     * @return Un nuevo filtro con la condición añadida.
+     * @throws IllegalArgumentException Si la estación es nula.
+     */
+    public JourneyFilter endingAt(StationID station) {
+        if (station == null) {
+            throw new IllegalArgumentException("La estación no puede ser nula.");
+        }
+        return new JourneyFilter(startFrom, startTo, station, user, minDistance, maxDistance);
+    }
+
+    /**
+     * Restringe los trayectos a los de un usuario.
+     *
+     * @param user El usuario.
+     * @return Un nuevo filtro con la condición añadida.
+     * @throws IllegalArgumentException Si el usuario es nulo.
+     */
+    public JourneyFilter byUser(UserAccount user) {
+        if (user == null) {
+            throw new IllegalArgumentException("El usuario no puede ser nulo.");
+        }
+        return new JourneyFilter(startFrom, startTo, station, user, minDistance, maxDistance);
+    }
+
+    /**
+     * Restringe los trayectos a los de una distancia en un rango.
+     *
+     * @param min Distancia mínima en kilómetros, incluida.
+     * @param max Distancia máxima en kilómetros, incluida.
+     * @return Un nuevo filtro con la condición añadida.
+     * @throws IllegalArgumentException Si el rango está invertido o no es un número.
+     */
+    public JourneyFilter distanceBetween(float min, float max) {
+        if (!(min <= max)) {
+            throw new IllegalArgumentException("El rango de distancia no es válido.");
+        }
+        return new JourneyFilter(startFrom, startTo, station, user, min, max);
+    }
+
+    // Métodos internos
+
+    /**
+     * Traduce el filtro a condiciones por columna con los códigos de diccionario del lector. Las
+     * condiciones de igualdad van primero porque suelen ser las más selectivas. Si la estación o el usuario
+     * no aparecen en el archivo, devuelve null: ningún trayecto puede cumplir el filtro.
+     */
+    ColumnPredicate[] resolve(JourneyArchiveReader reader) {
+        ColumnPredicate[] predicates = new ColumnPredicate[4];
+        int n = 0;
+        if (station != null) {
+            int code = reader.stationCode(station);
+            if (code < 0) {
+                return null;
+            }
+            predicates[n++] = ColumnPredicate.intEquals(JourneyColumn.STATION, code);
+        }
+        if (user != null) {
+            int code = reader.userCode(user);
+            if (code < 0) {
+                return null;
+            }
+            predicates[n++] = ColumnPredicate.intEquals(JourneyColumn.USER, code);
+        }
+        if (startFrom != Long.MIN_VALUE || startTo != Long.MAX_VALUE) {
+            predicates[n++] = ColumnPredicate.longRange(JourneyColumn.START, startFrom, startTo);
+        }
+        if (minDistance != Float.NEGATIVE_INFINITY || maxDistance != Float.POSITIVE_INFINITY) {
+            predicates[n++] = ColumnPredicate.floatRange(JourneyColumn.DISTANCE, minDistance, maxDistance);
+        }
+        ColumnPredicate[] result = new ColumnPredicate[n];
+        System.arraycopy(predicates, 0, result, 0, n);
+        return result;
+    }
+}
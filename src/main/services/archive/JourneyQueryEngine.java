@@ -0,0 +1,359 @@
+package services.archive;
+
+import data.Money;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Motor de consultas de filtrado y agregación sobre un archivo de trayectos.
+ *
+ * Cada consulta proyecta solo las columnas de sus condiciones y de su agregado, y reparte el recorrido de
+ * las filas en bloques de BLOCK_ROWS entre los hilos de un ForkJoinPool. En cada bloque las condiciones del
+ * JourneyFilter se evalúan columna a columna sobre los valores proyectados, reduciendo un vector de
+ * selección, y el agregado solo lee las filas que quedan. Cada tarea acumula en su propio resultado parcial
+ * y los parciales se combinan al terminar, así que el recorrido no comparte estado entre hilos.
+ * Es seguro para usarse desde varios hilos.
+ */
+public final class JourneyQueryEngine {
+
+    static final int BLOCK_ROWS = 1 << 14;
+    private static final int LEAF_BLOCKS = 8;
+    private static final int HOURS = 24;
+
+    private final JourneyArchiveReader reader;
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructor que usa el ForkJoinPool común.
+     *
+     * @param reader El lector del archivo.
+     * @throws IllegalArgumentException Si el lector es nulo.
+     */
+    public JourneyQueryEngine(JourneyArchiveReader reader) {
+        this(reader, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor de JourneyQueryEngine.
+     *
+     * @param reader El lector del archivo.
+     * @param pool   El pool donde se ejecutan los recorridos.
+     * @throws IllegalArgumentException Si algún parámetro es nulo.
+     */
+    public JourneyQueryEngine(JourneyArchiveReader reader, ForkJoinPool pool) {
+        if (reader == null) {
+            throw new IllegalArgumentException("El lector no puede ser nulo.");
+        }
+        if (pool == null) {
+            throw new IllegalArgumentException("El pool no puede ser nulo.");
+        }
+        this.reader = reader;
+        this.pool = pool;
+    }
+
+    /**
+     * Cuenta los trayectos que cumplen un filtro.
+     *
+     * @param filter El filtro.
+     * @return El número de trayectos.
+     * @throws IOException              Si no se puede proyectar alguna columna.
+     * @throws IllegalArgumentException Si el filtro es nulo.
+     */
+    public long count(JourneyFilter filter) throws IOException {
+        Count result = (Count) run(filter, new Count());
+        return result.count;
+    }
+
+    /**
+     * Suma el importe de los trayectos que cumplen un filtro.
+     *
+     * @param filter El filtro.
+     * @return La recaudación.
+     * @throws IOException              Si no se puede proyectar alguna columna.
+     * @throws IllegalArgumentException Si el filtro es nulo.
+     */
+    public Money revenue(JourneyFilter filter) throws IOException {
+        Revenue result = (Revenue) run(filter, new Revenue());
+        return Money.ofCents(result.cents);
+    }
+
+    /**
+     * Suma el importe de los trayectos que cumplen un filtro, agrupado por estación de llegada.
+     * Los trayectos sin estación no se incluyen.
+     *
+     * @param filter El filtro.
+     * @return La recaudación de cada estación con algún trayecto, en orden de aparición en el archivo.
+     * @throws IOException              Si no se puede proyectar alguna columna.
+     * @throws IllegalArgumentException Si el filtro es nulo.
+     */
+    public Map<String, Money> revenueByStation(JourneyFilter filter) throws IOException {
+        RevenueByStation result = (RevenueByStation) run(filter, new RevenueByStation(reader.stationCount()));
+        Map<String, Money> revenue = new LinkedHashMap<>();
+        for (int code = 0; code < result.cents.length; code++) {
+            if (result.counts[code] > 0) {
+                revenue.put(reader.stationName(code), Money.ofCents(result.cents[code]));
+            }
+        }
+        return Collections.unmodifiableMap(revenue);
+    }
+
+    /**
+     * Calcula la velocidad media de los trayectos que cumplen un filtro, agrupada por la hora de inicio.
+     *
+     * @param filter El filtro.
+     * @return 24 valores en km/h, uno por hora del día; NaN en las horas sin trayectos.
+     * @throws IOException              Si no se puede proyectar alguna columna.
+     * @throws IllegalArgumentException Si el filtro es nulo.
+     */
+    public double[] averageSpeedByHour(JourneyFilter filter) throws IOException {
+        SpeedByHour result = (SpeedByHour) run(filter, new SpeedByHour());
+        double[] averages = new double[HOURS];
+        for (int hour = 0; hour < HOURS; hour++) {
+            averages[hour] = result.counts[hour] == 0 ? Double.NaN : result.sums[hour] / result.counts[hour];
+        }
+        return averages;
+    }
+
+    // Métodos internos
+
+    private Aggregate run(JourneyFilter filter, Aggregate aggregate) throws IOException {
+        if (filter == null) {
+            throw new IllegalArgumentException("El filtro no puede ser nulo.");
+        }
+        ColumnPredicate[] predicates = filter.resolve(reader);
+        long rows = reader.size();
+        if (predicates == null || rows == 0) {
+            return aggregate;
+        }
+        ColumnFile[] predicateColumns = new ColumnFile[predicates.length];
+        for (int i = 0; i < predicates.length; i++) {
+            predicateColumns[i] = reader.column(predicates[i].column());
+        }
+        JourneyColumn[] needed = aggregate.columns();
+        ColumnFile[] aggregateColumns = new ColumnFile[needed.length];
+        for (int i = 0; i < needed.length; i++) {
+            aggregateColumns[i] = reader.column(needed[i]);
+        }
+        long blocks = (rows + BLOCK_ROWS - 1) / BLOCK_ROWS;
+        return pool.invoke(new ScanTask(predicates, predicateColumns, aggregateColumns, aggregate, rows, 0, blocks));
+    }
+
+    /**
+     * Recorre un rango de bloques, dividiéndolo mientras tenga más de LEAF_BLOCKS.
+     */
+    private static final class ScanTask extends RecursiveTask<Aggregate> {
+        private final ColumnPredicate[] predicates;
+        private final ColumnFile[] predicateColumns;
+        private final ColumnFile[] aggregateColumns;
+        private final Aggregate prototype;
+        private final long rows;
+        private final long fromBlock;
+        private final long toBlock;
+
+        private ScanTask(ColumnPredicate[] predicates, ColumnFile[] predicateColumns, ColumnFile[] aggregateColumns,
+                         Aggregate prototype, long rows, long fromBlock, long toBlock) {
+            this.predicates = predicates;
+            this.predicateColumns = predicateColumns;
+            this.aggregateColumns = aggregateColumns;
+            this.prototype = prototype;
+            this.rows = rows;
+            this.fromBlock = fromBlock;
+            this.toBlock = toBlock;
+        }
+
+        @Override
+        protected Aggregate compute() {
+            if (toBlock - fromBlock > LEAF_BLOCKS) {
+                long middle = (fromBlock + toBlock) >>> 1;
+                ScanTask left = new ScanTask(predicates, predicateColumns, aggregateColumns, prototype, rows,
+                        fromBlock, middle);
+                ScanTask right = new ScanTask(predicates, predicateColumns, aggregateColumns, prototype, rows,
+                        middle, toBlock);
+                left.fork();
+                Aggregate result = right.compute();
+                result.merge(left.join());
+                return result;
+            }
+            Aggregate partial = prototype.empty();
+            int[] selection = new int[BLOCK_ROWS];
+            ByteBuffer[] chunks = new ByteBuffer[aggregateColumns.length];
+            for (long block = fromBlock; block < toBlock; block++) {
+                long first = block * BLOCK_ROWS;
+                int length = (int) Math.min(BLOCK_ROWS, rows - first);
+                // BLOCK_ROWS divide a CHUNK_ROWS, así que un bloque nunca cruza dos trozos
+                int chunk = (int) (first >>> ColumnFile.CHUNK_SHIFT);
+                int offset = (int) (first & (ColumnFile.CHUNK_ROWS - 1));
+                int count = -1;
+                for (int i = 0; i < predicates.length && count != 0; i++) {
+                    count = predicates[i].filter(predicateColumns[i].chunk(chunk), offset, length, selection, count);
+                }
+                if (count == 0) {
+                    continue;
+                }
+                if (count < 0) {
+                    for (int i = 0; i < length; i++) {
+                        selection[i] = i;
+                    }
+                    count = length;
+                }
+                for (int i = 0; i < chunks.length; i++) {
+                    chunks[i] = aggregateColumns[i].chunk(chunk);
+                }
+                partial.accumulate(chunks, offset, selection, count);
+            }
+            return partial;
+        }
+    }
+
+    /**
+     * Agregado parcial de una tarea. Lee solo las columnas que declara, en ese orden.
+     */
+    private abstract static class Aggregate {
+
+        abstract JourneyColumn[] columns();
+
+        abstract Aggregate empty();
+
+        abstract void accumulate(ByteBuffer[] chunks, int offset, int[] selection, int count);
+
+        abstract void merge(Aggregate other);
+    }
+
+    private static final class Count extends Aggregate {
+        private long count;
+
+        @Override
+        JourneyColumn[] columns() {
+            return new JourneyColumn[0];
+        }
+
+        @Override
+        Aggregate empty() {
+            return new Count();
+        }
+
+        @Override
+        void accumulate(ByteBuffer[] chunks, int offset, int[] selection, int count) {
+            this.count += count;
+        }
+
+        @Override
+        void merge(Aggregate other) {
+            count += ((Count) other).count;
+        }
+    }
+
+    private static final class Revenue extends Aggregate {
+        private long cents;
+
+        @Override
+        JourneyColumn[] columns() {
+            return new JourneyColumn[]{JourneyColumn.AMOUNT};
+        }
+
+        @Override
+        Aggregate empty() {
+            return new Revenue();
+        }
+
+        @Override
+        void accumulate(ByteBuffer[] chunks, int offset, int[] selection, int count) {
+            ByteBuffer amounts = chunks[0];
+            long sum = 0;
+            for (int k = 0; k < count; k++) {
+                sum += amounts.getLong((offset + selection[k]) << 3);
+            }
+            cents += sum;
+        }
+
+        @Override
+        void merge(Aggregate other) {
+            cents += ((Revenue) other).cents;
+        }
+    }
+
+    private static final class RevenueByStation extends Aggregate {
+        private final long[] cents;
+        private final long[] counts;
+
+        private RevenueByStation(int stations) {
+            this.cents = new long[stations];
+            this.counts = new long[stations];
+        }
+
+        @Override
+        JourneyColumn[] columns() {
+            return new JourneyColumn[]{JourneyColumn.STATION, JourneyColumn.AMOUNT};
+        }
+
+        @Override
+        Aggregate empty() {
+            return new RevenueByStation(cents.length);
+        }
+
+        @Override
+        void accumulate(ByteBuffer[] chunks, int offset, int[] selection, int count) {
+            ByteBuffer stations = chunks[0];
+            ByteBuffer amounts = chunks[1];
+            for (int k = 0; k < count; k++) {
+                int row = offset + selection[k];
+                int station = stations.getInt(row << 2);
+                if (station >= 0) {
+                    cents[station] += amounts.getLong(row << 3);
+                    counts[station]++;
+                }
+            }
+        }
+
+        @Override
+        void merge(Aggregate other) {
+            RevenueByStation partial = (RevenueByStation) other;
+            for (int i = 0; i < cents.length; i++) {
+                cents[i] += partial.cents[i];
+                counts[i] += partial.counts[i];
+            }
+        }
+    }
+
+    private static final class SpeedByHour extends Aggregate {
+        private final double[] sums = new double[HOURS];
+        private final long[] counts = new long[HOURS];
+
+        @Override
+        JourneyColumn[] columns() {
+            return new JourneyColumn[]{JourneyColumn.START, JourneyColumn.AVG_SPEED};
+        }
+
+        @Override
+        Aggregate empty() {
+            return new SpeedByHour();
+        }
+
+        @Override
+        void accumulate(ByteBuffer[] chunks, int offset, int[] selection, int count) {
+            ByteBuffer starts = chunks[0];
+            ByteBuffer speeds = chunks[1];
+            for (int k = 0; k < count; k++) {
+                int row = offset + selection[k];
+                int hour = (int) (Math.floorMod(starts.getLong(row << 3), 86_400L) / 3_600);
+                sums[hour] += speeds.getFloat(row << 2);
+                counts[hour]++;
+            }
+        }
+
+        @Override
+        void merge(Aggregate other) {
+            SpeedByHour partial = (SpeedByHour) other;
+            for (int i = 0; i < HOURS; i++) {
+                sums[i] += partial.sums[i];
+                counts[i] += partial.counts[i];
+            }
+        }
+    }
+}
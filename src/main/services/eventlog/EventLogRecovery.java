@@ -0,0 +1,364 @@
+package services.eventlog;
+
+import data.GeographicPoint;
+import data.StationID;
+import data.UserAccount;
+import data.VehicleID;
+import exceptions.InvalidPairingArgsException;
+import exceptions.PMVNotAvailException;
+import micromobility.PMVState;
+import micromobility.PMVehicle;
+import services.Server;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static services.eventlog.JourneyEventLog.*;
+
+/**
+ * Estado reconstruido al reproducir un JourneyEventLog: el estado, la estación y la ubicación
+ * conocidos de cada vehículo, y los trayectos que se emparejaron pero no llegaron a cerrarse.
+ * Un inicio de emparejamiento deja el vehículo como no disponible con un trayecto abierto; un fin
+ * de emparejamiento lo devuelve a disponible y cierra el trayecto.
+ */
+public final class EventLogRecovery {
+
+    private final Map<VehicleID, PMVState> vehicleStates;
+    private final Map<VehicleID, StationID> vehicleStations;
+    private final Map<VehicleID, GeographicPoint> vehicleLocations;
+    private final Map<VehicleID, OpenJourney> openJourneys;
+    private final long eventCount;
+    private final long paymentCount;
+    private final long paymentCents;
+    private final long tornRecords;
+
+    private EventLogRecovery(Map<VehicleID, PMVState> vehicleStates, Map<VehicleID, StationID> vehicleStations,
+                             Map<VehicleID, GeographicPoint> vehicleLocations, Map<VehicleID, OpenJourney> openJourneys,
+                             long eventCount, long paymentCount, long paymentCents, long tornRecords) {
+        this.vehicleStates = Collections.unmodifiableMap(vehicleStates);
+        this.vehicleStations = Collections.unmodifiableMap(vehicleStations);
+        this.vehicleLocations = Collections.unmodifiableMap(vehicleLocations);
+        this.openJourneys = Collections.unmodifiableMap(openJourneys);
+        this.eventCount = eventCount;
+        this.paymentCount = paymentCount;
+        this.paymentCents = paymentCents;
+        this.tornRecords = tornRecords;
+    }
+
+    /**
+     * Obtiene el último estado conocido de cada vehículo que aparece en el diario.
+     *
+     * @return Los estados por vehículo.
+     */
+    public Map<VehicleID, PMVState> getVehicleStates() {
+        return vehicleStates;
+    }
+
+    /**
+     * Obtiene la última estación registrada de cada vehículo.
+     *
+     * @return Las estaciones por vehículo.
+     */
+    public Map<VehicleID, StationID> getVehicleStations() {
+        return vehicleStations;
+    }
+
+    /**
+     * Obtiene la última ubicación conocida de cada vehículo.
+     *
+     * @return Las ubicaciones por vehículo.
+     */
+    public Map<VehicleID, GeographicPoint> getVehicleLocations() {
+        return vehicleLocations;
+    }
+
+    /**
+     * Obtiene los trayectos emparejados que no se cerraron antes de la caída.
+     *
+     * @return Los trayectos abiertos por vehículo.
+     */
+    public Map<VehicleID, OpenJourney> getOpenJourneys() {
+        return openJourneys;
+    }
+
+    /**
+     * Obtiene el número de eventos válidos reproducidos.
+     *
+     * @return El número de eventos.
+     */
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * Obtiene el número de pagos registrados en el diario.
+     *
+     * @return El número de pagos.
+     */
+    public long getPaymentCount() {
+        return paymentCount;
+    }
+
+    /**
+     * Obtiene la suma de los importes pagados, en céntimos.
+     *
+     * @return El total pagado en céntimos.
+     */
+    public long getPaymentCents() {
+        return paymentCents;
+    }
+
+    /**
+     * Obtiene el número de registros descartados por estar vacíos, a medio escribir o dañados.
+     *
+     * @return El número de registros descartados.
+     */
+    public long getTornRecords() {
+        return tornRecords;
+    }
+
+    /**
+     * Aplica el estado reconstruido a los vehículos de un servidor: estado, ubicación y estación.
+     * Los vehículos que el servidor no conoce se ignoran.
+     *
+     * @param server El servidor cuyos vehículos se restauran.
+     * @return El número de vehículos restaurados.
+     */
+    public int restoreInto(Server server) {
+        if (server == null) {
+            throw new IllegalArgumentException("El servidor no puede ser nulo.");
+        }
+        int restored = 0;
+        for (Map.Entry<VehicleID, PMVState> entry : vehicleStates.entrySet()) {
+            PMVehicle vehicle;
+            try {
+                vehicle = server.getVehicleByID(entry.getKey());
+            } catch (PMVNotAvailException e) {
+                continue;
+            }
+            GeographicPoint location = vehicleLocations.get(entry.getKey());
+            if (location != null) {
+                vehicle.setLocation(location);
+            }
+            if (entry.getValue() == PMVState.Available) {
+                vehicle.setAvailb();
+            } else {
+                vehicle.setNotAvailb();
+            }
+            StationID station = vehicleStations.get(entry.getKey());
+            if (station != null) {
+                server.registerLocation(entry.getKey(), station);
+            }
+            restored++;
+        }
+        return restored;
+    }
+
+    /**
+     * Trayecto emparejado pendiente de cierre.
+     */
+    public static final class OpenJourney {
+        private final UserAccount user;
+        private final StationID originStation;
+        private final GeographicPoint originPoint;
+        private final LocalDateTime start;
+
+        private OpenJourney(UserAccount user, StationID originStation, GeographicPoint originPoint, LocalDateTime start) {
+            this.user = user;
+            this.originStation = originStation;
+            this.originPoint = originPoint;
+            this.start = start;
+        }
+
+        /**
+         * @return El usuario que emparejó el vehículo.
+         */
+        public UserAccount getUser() {
+            return user;
+        }
+
+        /**
+         * @return La estación de origen, o null si no se conocía.
+         */
+        public StationID getOriginStation() {
+            return originStation;
+        }
+
+        /**
+         * @return La ubicación de origen.
+         */
+        public GeographicPoint getOriginPoint() {
+            return originPoint;
+        }
+
+        /**
+         * @return La fecha y hora del emparejamiento, en la zona horaria del sistema.
+         */
+        public LocalDateTime getStart() {
+            return start;
+        }
+    }
+
+    /**
+     * Acumula los eventos durante la reproducción. Trabaja con los identificadores tal y como están
+     * en el registro (palabras de 8 bytes) y solo construye los objetos de dominio al final, una vez
+     * por vehículo, de modo que reproducir un evento no reserva memoria salvo la primera vez que
+     * aparece un vehículo.
+     */
+    static final class Builder {
+        private final Map<TextKey, VehicleRecord> vehicles = new HashMap<>();
+        private final TextKey probe = new TextKey();
+        private long eventCount;
+        private long paymentCount;
+        private long paymentCents;
+        private long tornRecords;
+
+        void accept(ByteBuffer record) {
+            JourneyEventType type = JourneyEventType.fromCode(record.get(OFF_TYPE));
+            if (type == null) {
+                tornRecords++;
+                return;
+            }
+            eventCount++;
+            if (type == JourneyEventType.PAYMENT) {
+                paymentCount++;
+                paymentCents += record.getLong(OFF_AMOUNT);
+                return;
+            }
+            probe.first = record.getLong(OFF_VEHICLE);
+            probe.second = record.getLong(OFF_VEHICLE + 8);
+            VehicleRecord vehicle = vehicles.get(probe);
+            if (vehicle == null) {
+                vehicle = new VehicleRecord();
+                vehicles.put(probe.copy(), vehicle);
+            }
+            // Un evento sin estación (campo vacío) conserva la última conocida
+            if (record.getLong(OFF_STATION) != 0) {
+                vehicle.station[0] = record.getLong(OFF_STATION);
+                vehicle.station[1] = record.getLong(OFF_STATION + 8);
+            }
+            if (type == JourneyEventType.LOCATION) {
+                return;
+            }
+            vehicle.latitude = record.getFloat(OFF_LATITUDE);
+            vehicle.longitude = record.getFloat(OFF_LONGITUDE);
+            vehicle.hasLocation = true;
+            if (type == JourneyEventType.PAIRING_START) {
+                vehicle.state = PMVState.NotAvailable;
+                vehicle.open = true;
+                vehicle.user[0] = record.getLong(OFF_USER);
+                vehicle.user[1] = record.getLong(OFF_USER + 8);
+                vehicle.user[2] = record.getLong(OFF_USER + 16);
+                vehicle.originStation[0] = vehicle.station[0];
+                vehicle.originStation[1] = vehicle.station[1];
+                vehicle.startMillis = record.getLong(OFF_TIMESTAMP);
+            } else {
+                vehicle.state = PMVState.Available;
+                vehicle.open = false;
+            }
+        }
+
+        void skipTorn() {
+            tornRecords++;
+        }
+
+        EventLogRecovery build() {
+            Map<VehicleID, PMVState> states = new HashMap<>();
+            Map<VehicleID, StationID> stations = new HashMap<>();
+            Map<VehicleID, GeographicPoint> locations = new HashMap<>();
+            Map<VehicleID, OpenJourney> open = new HashMap<>();
+            for (Map.Entry<TextKey, VehicleRecord> entry : vehicles.entrySet()) {
+                VehicleRecord record = entry.getValue();
+                try {
+                    VehicleID id = new VehicleID(decode(entry.getKey().first, entry.getKey().second));
+                    if (record.station[0] != 0) {
+                        stations.put(id, new StationID(decode(record.station)));
+                    }
+                    if (record.state != null) {
+                        states.put(id, record.state);
+                    }
+                    GeographicPoint point = null;
+                    if (record.hasLocation) {
+                        point = new GeographicPoint(record.latitude, record.longitude);
+                        locations.put(id, point);
+                    }
+                    if (record.open) {
+                        LocalDateTime start = LocalDateTime.ofInstant(Instant.ofEpochMilli(record.startMillis), ZoneId.systemDefault());
+                        StationID origin = record.originStation[0] == 0 ? null : new StationID(decode(record.originStation));
+                        open.put(id, new OpenJourney(new UserAccount(decode(record.user)), origin, point, start));
+                    }
+                } catch (InvalidPairingArgsException e) {
+                    // Solo puede ocurrir si el registro tenía un CRC válido pero datos ajenos al formato
+                    tornRecords++;
+                }
+            }
+            return new EventLogRecovery(states, stations, locations, open, eventCount, paymentCount, paymentCents,
+                    tornRecords);
+        }
+
+        /**
+         * Decodifica un texto ASCII guardado en palabras little-endian y terminado en cero o al agotarse.
+         */
+        private static String decode(long... words) {
+            StringBuilder text = new StringBuilder(words.length * Long.BYTES);
+            for (long word : words) {
+                for (int i = 0; i < Long.BYTES; i++) {
+                    char c = (char) ((word >>> (8 * i)) & 0xFF);
+                    if (c == 0) {
+                        return text.toString();
+                    }
+                    text.append(c);
+                }
+            }
+            return text.toString();
+        }
+    }
+
+    /**
+     * Clave de 16 bytes con el VehicleID tal y como aparece en el registro.
+     */
+    private static final class TextKey {
+        private long first;
+        private long second;
+
+        private TextKey copy() {
+            TextKey key = new TextKey();
+            key.first = first;
+            key.second = second;
+            return key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof TextKey)) return false;
+            TextKey other = (TextKey) o;
+            return first == other.first && second == other.second;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(first * 31 + second);
+        }
+    }
+
+    /**
+     * Último estado conocido de un vehículo durante la reproducción.
+     */
+    private static final class VehicleRecord {
+        private final long[] station = new long[2];
+        private final long[] originStation = new long[2];
+        private final long[] user = new long[3];
+        private PMVState state;
+        private float latitude;
+        private float longitude;
+        private boolean hasLocation;
+        private boolean open;
+        private long startMillis;
+    }
+}
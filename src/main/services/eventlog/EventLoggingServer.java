@@ -0,0 +1,136 @@
+package services.eventlog;
+
+import data.*;
+import exceptions.*;
+import micromobility.JourneyService;
+import micromobility.PMVehicle;
+import services.Server;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Variante de Server que deja constancia duradera de los eventos de trayecto.
+ * Tras cada inicio o fin de emparejamiento, registro de estación o pago aceptado por el servidor
+ * subyacente, anexa el evento correspondiente al JourneyEventLog, de modo que el estado de la flota
+ * pueda reconstruirse tras un reinicio con {@link JourneyEventLog#replay()}.
+ * Cada registro se codifica antes de llamar al servidor subyacente, de modo que un evento que este acepta
+ * solo puede quedar sin registrar por un fallo de E/S del diario.
+ * El resto de operaciones se delegan directamente en el servidor subyacente.
+ */
+public class EventLoggingServer implements Server {
+
+    private final Server delegate;
+    private final JourneyEventLog log;
+    private final Clock clock;
+
+    /**
+     * Constructor que fecha los registros de estación y los pagos con el reloj del sistema.
+     *
+     * @param delegate El servidor subyacente.
+     * @param log      El diario donde se anexan los eventos.
+     */
+    public EventLoggingServer(Server delegate, JourneyEventLog log) {
+        this(delegate, log, Clock.systemDefaultZone());
+    }
+
+    /**
+     * Constructor de EventLoggingServer.
+     *
+     * @param delegate El servidor subyacente.
+     * @param log      El diario donde se anexan los eventos.
+     * @param clock    Reloj para fechar los eventos que no llevan fecha propia. Las fechas se toman en la zona
+     *                 horaria del sistema, como las de los emparejamientos, sea cual sea la zona del reloj.
+     * @throws IllegalArgumentException Si algún parámetro es nulo.
+     */
+    public EventLoggingServer(Server delegate, JourneyEventLog log, Clock clock) {
+        if (delegate == null || log == null || clock == null) {
+            throw new IllegalArgumentException("El servidor, el diario y el reloj no pueden ser nulos.");
+        }
+        this.delegate = delegate;
+        this.log = log;
+        this.clock = clock.withZone(ZoneId.systemDefault());
+    }
+
+    @Override
+    public void registerPairing(UserAccount user, VehicleID veh, StationID st, GeographicPoint loc, LocalDateTime date)
+            throws InvalidPairingArgsException, ConnectException {
+        byte[] record = log.encodePairingStart(user, veh, st, loc, date);
+        delegate.registerPairing(user, veh, st, loc, date);
+        try {
+            log.appendEncoded(record);
+        } catch (IOException e) {
+            throw new ConnectException("No se pudo registrar el emparejamiento en el diario: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void stopPairing(UserAccount user, VehicleID veh, StationID st, GeographicPoint loc, LocalDateTime date,
+                            float avSp, float dist, int dur, BigDecimal imp)
+            throws InvalidPairingArgsException, ConnectException {
+        byte[] record = log.encodePairingStop(user, veh, st, loc, date, avSp, dist, dur, imp);
+        delegate.stopPairing(user, veh, st, loc, date, avSp, dist, dur, imp);
+        try {
+            log.appendEncoded(record);
+        } catch (IOException e) {
+            throw new ConnectException("No se pudo registrar el fin del emparejamiento en el diario: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void registerLocation(VehicleID veh, StationID st) {
+        byte[] record = log.encodeLocation(veh, st, LocalDateTime.now(clock));
+        delegate.registerLocation(veh, st);
+        try {
+            log.appendEncoded(record);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo registrar la ubicación en el diario.", e);
+        }
+    }
+
+    @Override
+    public void registerPayment(ServiceID servID, UserAccount user, BigDecimal imp, char payMeth) throws ConnectException {
+        byte[] record = log.encodePayment(servID, user, imp, payMeth, LocalDateTime.now(clock));
+        delegate.registerPayment(servID, user, imp, payMeth);
+        try {
+            log.appendEncoded(record);
+        } catch (IOException e) {
+            throw new ConnectException("No se pudo registrar el pago en el diario: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void checkPMVAvail(VehicleID vhID) throws PMVNotAvailException, ConnectException {
+        delegate.checkPMVAvail(vhID);
+    }
+
+    @Override
+    public void setPairing(UserAccount user, VehicleID veh, StationID st, GeographicPoint loc, LocalDateTime date) {
+        delegate.setPairing(user, veh, st, loc, date);
+    }
+
+    @Override
+    public void unPairRegisterService(JourneyService service) throws PairingNotFoundException {
+        delegate.unPairRegisterService(service);
+    }
+
+    @Override
+    public PMVehicle getVehicleByID(VehicleID vhID) throws PMVNotAvailException {
+        return delegate.getVehicleByID(vhID);
+    }
+
+    @Override
+    public List<PMVehicle> getNearestAvailableVehicles(GeographicPoint loc, int k) {
+        return delegate.getNearestAvailableVehicles(loc, k);
+    }
+
+    @Override
+    public List<PMVehicle> getAvailableVehiclesWithin(GeographicPoint loc, float radiusKm) {
+        return delegate.getAvailableVehiclesWithin(loc, radiusKm);
+    }
+}
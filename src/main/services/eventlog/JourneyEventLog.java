@@ -0,0 +1,471 @@
+package services.eventlog;
+
+import data.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32C;
+
+/**
+ * Diario persistente de eventos de trayecto, de solo anexado, sobre ficheros proyectados en memoria.
+ * Cada evento ocupa un registro binario de tamaño fijo (RECORD_SIZE bytes) y el diario se reparte en
+ * segmentos de igual capacidad. Cada registro lleva un CRC32C, de modo que tras una caída los registros
+ * a medio escribir se detectan y se ignoran al reproducir el diario.
+ * Varios hilos pueden anexar a la vez: cada uno reclama su posición con un contador atómico.
+ * Los cambios se fuerzan a disco periódicamente y al cerrar.
+ *
+ * Formato de registro (little-endian):
+ * <pre>
+ *   0 int   crc32c de los bytes 4..127
+ *   4 byte  tipo de evento       5 byte método de pago    6 short reservado
+ *   8 long  número de secuencia
+ *  16 long  instante (ms desde epoch; las fechas se interpretan en la zona horaria del sistema)
+ *  24 float latitud              28 float longitud
+ *  32 float velocidad media      36 float distancia
+ *  40 int   duración (min)       44 int   reservado
+ *  48 long  importe en céntimos
+ *  56 16 B  VehicleID (ASCII)    72 16 B  StationID (ASCII)
+ *  88 24 B  usuario (ASCII)     112 16 B  ServiceID (ASCII)
+ * </pre>
+ * Un identificador nulo deja su campo vacío; un ServiceID que no cabe se guarda resumido en un hash.
+ */
+public final class JourneyEventLog implements AutoCloseable {
+
+    public static final int RECORD_SIZE = 128;
+    public static final int DEFAULT_RECORDS_PER_SEGMENT = 1 << 20; // 128 MiB por segmento
+
+    static final int OFF_TYPE = 4;
+    static final int OFF_PAY_METHOD = 5;
+    static final int OFF_SEQUENCE = 8;
+    static final int OFF_TIMESTAMP = 16;
+    static final int OFF_LATITUDE = 24;
+    static final int OFF_LONGITUDE = 28;
+    static final int OFF_AVG_SPEED = 32;
+    static final int OFF_DISTANCE = 36;
+    static final int OFF_DURATION = 40;
+    static final int OFF_AMOUNT = 48;
+    static final int OFF_VEHICLE = 56;
+    static final int OFF_STATION = 72;
+    static final int OFF_USER = 88;
+    static final int OFF_SERVICE = 112;
+    static final int LEN_VEHICLE = 16;
+    static final int LEN_STATION = 16;
+    static final int LEN_USER = 24;
+    static final int LEN_SERVICE = 16;
+
+    private static final String SEGMENT_PREFIX = "journey-events-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final AtomicLong nextSequence;
+    private final ScheduledExecutorService forcer;
+    private final ThreadLocal<RecordWriter> writers = ThreadLocal.withInitial(RecordWriter::new);
+    private volatile MappedByteBuffer[] segments;
+    private int forcedFromSegment; // Protegido por this
+    private volatile boolean closed;
+
+    private JourneyEventLog(Path directory, int recordsPerSegment, MappedByteBuffer[] segments, long nextSequence,
+                            Duration forceInterval) {
+        this.directory = directory;
+        this.recordsPerSegment = recordsPerSegment;
+        this.segments = segments;
+        this.nextSequence = new AtomicLong(nextSequence);
+        this.forcedFromSegment = Math.max(0, segments.length - 1);
+        if (forceInterval == null || forceInterval.isZero()) {
+            this.forcer = null;
+        } else {
+            this.forcer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "journey-event-log-force");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long millis = Math.max(1, forceInterval.toMillis());
+            this.forcer.scheduleWithFixedDelay(this::force, millis, millis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Abre (o crea) el diario con la capacidad de segmento por defecto, forzando a disco cada segundo.
+     *
+     * @param directory El directorio del diario.
+     * @return El diario abierto, listo para anexar tras el último registro válido.
+     * @throws IOException Si no se puede crear o proyectar algún segmento.
+     */
+    public static JourneyEventLog open(Path directory) throws IOException {
+        return open(directory, DEFAULT_RECORDS_PER_SEGMENT, Duration.ofSeconds(1));
+    }
+
+    /**
+     * Abre (o crea) el diario.
+     *
+     * @param directory         El directorio del diario.
+     * @param recordsPerSegment Número de registros por segmento. Debe coincidir con el usado al crearlo.
+     * @param forceInterval     Cada cuánto se fuerzan los cambios a disco; cero o null para hacerlo solo al cerrar.
+     * @return El diario abierto, listo para anexar tras el último registro válido.
+     * @throws IOException Si no se puede crear o proyectar algún segmento.
+     */
+    public static JourneyEventLog open(Path directory, int recordsPerSegment, Duration forceInterval) throws IOException {
+        if (directory == null || recordsPerSegment <= 0 || recordsPerSegment > Integer.MAX_VALUE / RECORD_SIZE) {
+            throw new IllegalArgumentException("El directorio no puede ser nulo y la capacidad del segmento debe ser válida.");
+        }
+        Files.createDirectories(directory);
+        int count = 0;
+        while (Files.exists(segmentPath(directory, count))) {
+            count++;
+        }
+        MappedByteBuffer[] segments = new MappedByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = map(segmentPath(directory, i), recordsPerSegment);
+        }
+        long next = 0;
+        for (int i = count - 1; i >= 0 && next == 0; i--) {
+            int last = lastValidSlot(segments[i], recordsPerSegment);
+            if (last >= 0) {
+                next = (long) i * recordsPerSegment + last + 1;
+            }
+        }
+        return new JourneyEventLog(directory, recordsPerSegment, segments, next, forceInterval);
+    }
+
+    /**
+     * Anexa un inicio de emparejamiento.
+     *
+     * @return El número de secuencia asignado al evento.
+     * @throws IOException Si no se puede crear un nuevo segmento.
+     */
+    public long appendPairingStart(UserAccount user, VehicleID veh, StationID st, GeographicPoint loc, LocalDateTime date)
+            throws IOException {
+        return append(writePairingStart(user, veh, st, loc, date));
+    }
+
+    /**
+     * Anexa un fin de emparejamiento con los valores del trayecto.
+     *
+     * @return El número de secuencia asignado al evento.
+     * @throws IOException Si no se puede crear un nuevo segmento.
+     */
+    public long appendPairingStop(UserAccount user, VehicleID veh, StationID st, GeographicPoint loc, LocalDateTime date,
+                                  float avSp, float dist, int dur, BigDecimal imp) throws IOException {
+        return append(writePairingStop(user, veh, st, loc, date, avSp, dist, dur, imp));
+    }
+
+    /**
+     * Anexa el registro de la estación de un vehículo.
+     *
+     * @return El número de secuencia asignado al evento.
+     * @throws IOException Si no se puede crear un nuevo segmento.
+     */
+    public long appendLocation(VehicleID veh, StationID st, LocalDateTime date) throws IOException {
+        return append(writeLocation(veh, st, date));
+    }
+
+    /**
+     * Anexa el registro de un pago.
+     *
+     * @return El número de secuencia asignado al evento.
+     * @throws IOException Si no se puede crear un nuevo segmento.
+     */
+    public long appendPayment(ServiceID servID, UserAccount user, BigDecimal imp, char payMeth, LocalDateTime date)
+            throws IOException {
+        return append(writePayment(servID, user, imp, payMeth, date));
+    }
+
+    // Codificación previa: EventLoggingServer codifica el registro antes de aplicar el evento en el servidor,
+    // de modo que anexarlo después solo puede fallar por E/S
+
+    byte[] encodePairingStart(UserAccount user, VehicleID veh, StationID st, GeographicPoint loc, LocalDateTime date) {
+        return writePairingStart(user, veh, st, loc, date).bytes.clone();
+    }
+
+    byte[] encodePairingStop(UserAccount user, VehicleID veh, StationID st, GeographicPoint loc, LocalDateTime date,
+                             float avSp, float dist, int dur, BigDecimal imp) {
+        return writePairingStop(user, veh, st, loc, date, avSp, dist, dur, imp).bytes.clone();
+    }
+
+    byte[] encodeLocation(VehicleID veh, StationID st, LocalDateTime date) {
+        return writeLocation(veh, st, date).bytes.clone();
+    }
+
+    byte[] encodePayment(ServiceID servID, UserAccount user, BigDecimal imp, char payMeth, LocalDateTime date) {
+        return writePayment(servID, user, imp, payMeth, date).bytes.clone();
+    }
+
+    /**
+     * Anexa un registro codificado con uno de los métodos encode.
+     *
+     * @return El número de secuencia asignado al evento.
+     * @throws IOException Si no se puede crear un nuevo segmento.
+     */
+    long appendEncoded(byte[] record) throws IOException {
+        RecordWriter w = writers.get();
+        System.arraycopy(record, 0, w.bytes, 0, RECORD_SIZE);
+        return append(w);
+    }
+
+    /**
+     * Reproduce el diario completo y reconstruye el estado de los vehículos y los trayectos abiertos.
+     *
+     * @return El estado reconstruido.
+     */
+    public EventLogRecovery replay() {
+        EventLogRecovery.Builder builder = new EventLogRecovery.Builder();
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        CRC32C crc = new CRC32C();
+        MappedByteBuffer[] current = segments;
+        long end = nextSequence.get();
+        for (int s = 0; s < current.length; s++) {
+            long first = (long) s * recordsPerSegment;
+            int slots = (int) Math.min(recordsPerSegment, end - first);
+            for (int slot = 0; slot < slots; slot++) {
+                // Se copia el registro de una vez y se valida y decodifica sobre la copia
+                current[s].get(slot * RECORD_SIZE, record.array(), 0, RECORD_SIZE);
+                if (isValid(record, crc)) {
+                    builder.accept(record);
+                } else {
+                    builder.skipTorn();
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Obtiene el número de registros reservados en el diario, incluidos los huecos de registros dañados.
+     *
+     * @return La siguiente posición de escritura.
+     */
+    public long size() {
+        return nextSequence.get();
+    }
+
+    /**
+     * Fuerza a disco los segmentos modificados desde el último forzado.
+     */
+    public synchronized void force() {
+        MappedByteBuffer[] current = segments;
+        for (int i = forcedFromSegment; i < current.length; i++) {
+            current[i].force();
+        }
+        forcedFromSegment = Math.max(0, current.length - 1);
+    }
+
+    /**
+     * Detiene el forzado periódico y fuerza a disco los cambios pendientes.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (forcer != null) {
+            forcer.shutdownNow();
+        }
+        force();
+    }
+
+    // Métodos internos
+
+    private RecordWriter writePairingStart(UserAccount user, VehicleID veh, StationID st, GeographicPoint loc,
+                                           LocalDateTime date) {
+        return writers.get().begin(JourneyEventType.PAIRING_START, date).location(loc)
+                .text(OFF_VEHICLE, LEN_VEHICLE, veh == null ? null : veh.getId())
+                .text(OFF_STATION, LEN_STATION, st == null ? null : st.getId())
+                .text(OFF_USER, LEN_USER, user == null ? null : user.getUsername());
+    }
+
+    private RecordWriter writePairingStop(UserAccount user, VehicleID veh, StationID st, GeographicPoint loc,
+                                          LocalDateTime date, float avSp, float dist, int dur, BigDecimal imp) {
+        RecordWriter w = writers.get().begin(JourneyEventType.PAIRING_STOP, date).location(loc)
+                .text(OFF_VEHICLE, LEN_VEHICLE, veh == null ? null : veh.getId())
+                .text(OFF_STATION, LEN_STATION, st == null ? null : st.getId())
+                .text(OFF_USER, LEN_USER, user == null ? null : user.getUsername());
+        w.buffer.putFloat(OFF_AVG_SPEED, avSp).putFloat(OFF_DISTANCE, dist).putInt(OFF_DURATION, dur)
+                .putLong(OFF_AMOUNT, toCents(imp));
+        return w;
+    }
+
+    private RecordWriter writeLocation(VehicleID veh, StationID st, LocalDateTime date) {
+        return writers.get().begin(JourneyEventType.LOCATION, date)
+                .text(OFF_VEHICLE, LEN_VEHICLE, veh == null ? null : veh.getId())
+                .text(OFF_STATION, LEN_STATION, st == null ? null : st.getId());
+    }
+
+    private RecordWriter writePayment(ServiceID servID, UserAccount user, BigDecimal imp, char payMeth,
+                                      LocalDateTime date) {
+        RecordWriter w = writers.get().begin(JourneyEventType.PAYMENT, date)
+                .compactText(OFF_SERVICE, LEN_SERVICE, servID == null ? null : servID.getId())
+                .text(OFF_USER, LEN_USER, user == null ? null : user.getUsername());
+        w.buffer.put(OFF_PAY_METHOD, (byte) payMeth).putLong(OFF_AMOUNT, toCents(imp));
+        return w;
+    }
+
+    private long append(RecordWriter writer) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("El diario de eventos está cerrado.");
+        }
+        long sequence = nextSequence.getAndIncrement();
+        int segmentIndex = (int) (sequence / recordsPerSegment);
+        int offset = (int) (sequence % recordsPerSegment) * RECORD_SIZE;
+        MappedByteBuffer[] current = segments;
+        MappedByteBuffer segment = segmentIndex < current.length ? current[segmentIndex] : ensureSegment(segmentIndex);
+        segment.put(offset, writer.finish(sequence), 0, RECORD_SIZE);
+        return sequence;
+    }
+
+    private synchronized MappedByteBuffer ensureSegment(int segmentIndex) throws IOException {
+        MappedByteBuffer[] current = segments;
+        if (segmentIndex >= current.length) {
+            MappedByteBuffer[] grown = Arrays.copyOf(current, segmentIndex + 1);
+            for (int i = current.length; i <= segmentIndex; i++) {
+                grown[i] = map(segmentPath(directory, i), recordsPerSegment);
+            }
+            segments = grown;
+            current = grown;
+        }
+        return current[segmentIndex];
+    }
+
+    private static MappedByteBuffer map(Path path, int recordsPerSegment) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * RECORD_SIZE);
+        }
+    }
+
+    private static Path segmentPath(Path directory, int index) {
+        return directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    private static int lastValidSlot(MappedByteBuffer segment, int recordsPerSegment) {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        CRC32C crc = new CRC32C();
+        for (int slot = recordsPerSegment - 1; slot >= 0; slot--) {
+            int offset = slot * RECORD_SIZE;
+            if (segment.get(offset + OFF_TYPE) == 0) {
+                continue;
+            }
+            segment.get(offset, record.array(), 0, RECORD_SIZE);
+            if (isValid(record, crc)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isValid(ByteBuffer record, CRC32C crc) {
+        if (record.get(OFF_TYPE) == 0) {
+            return false;
+        }
+        crc.reset();
+        crc.update(record.array(), OFF_TYPE, RECORD_SIZE - OFF_TYPE);
+        return (int) crc.getValue() == record.getInt(0);
+    }
+
+    private static long toCents(BigDecimal amount) {
+        if (amount == null) {
+            return 0;
+        }
+        return amount.setScale(2, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Búfer por hilo donde se compone un registro antes de copiarlo al segmento.
+     */
+    private static final class RecordWriter {
+        private final byte[] bytes = new byte[RECORD_SIZE];
+        private final ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        private final CRC32C crc = new CRC32C();
+
+        RecordWriter begin(JourneyEventType type, LocalDateTime date) {
+            Arrays.fill(bytes, (byte) 0);
+            buffer.put(OFF_TYPE, type.getCode());
+            if (date != null) {
+                buffer.putLong(OFF_TIMESTAMP, date.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            }
+            return this;
+        }
+
+        RecordWriter location(GeographicPoint point) {
+            if (point == null) {
+                return this;
+            }
+            buffer.putFloat(OFF_LATITUDE, point.getLatitude()).putFloat(OFF_LONGITUDE, point.getLongitude());
+            return this;
+        }
+
+        // Un valor nulo deja el campo vacío
+        RecordWriter text(int offset, int length, String value) {
+            if (value == null) {
+                return this;
+            }
+            int n = value.length();
+            if (n > length) {
+                throw new IllegalArgumentException("El identificador '" + value + "' excede " + length + " caracteres.");
+            }
+            for (int i = 0; i < n; i++) {
+                char c = value.charAt(i);
+                if (c == 0 || c > 0x7F) {
+                    throw new IllegalArgumentException("El identificador '" + value + "' contiene caracteres no ASCII.");
+                }
+                bytes[offset + i] = (byte) c;
+            }
+            return this;
+        }
+
+        /**
+         * Igual que text, pero un identificador que no cabe o no es ASCII se guarda como '~' seguido de
+         * los 60 bits altos de su hash FNV-1a en hexadecimal, en lugar de rechazarse.
+         */
+        RecordWriter compactText(int offset, int length, String value) {
+            if (value != null && !fits(value, length)) {
+                long hash = 0xcbf29ce484222325L;
+                for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+                    hash = (hash ^ (b & 0xFF)) * 0x100000001b3L;
+                }
+                String hex = Long.toHexString(hash >>> 4);
+                value = "~" + "0".repeat(15 - hex.length()) + hex;
+            }
+            return text(offset, length, value);
+        }
+
+        private static boolean fits(String value, int length) {
+            if (value.length() > length) {
+                return false;
+            }
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == 0 || c > 0x7F) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        byte[] finish(long sequence) {
+            buffer.putLong(OFF_SEQUENCE, sequence);
+            crc.reset();
+            crc.update(bytes, OFF_TYPE, RECORD_SIZE - OFF_TYPE);
+            buffer.putInt(0, (int) crc.getValue());
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package services.eventlog;
+
+/**
+ * Tipos de evento registrados en el diario de trayectos.
+ * El código se guarda en un byte de cada registro; el 0 se reserva para huecos sin escribir.
+ */
+public enum JourneyEventType {
+    PAIRING_START(1), // Inicio de emparejamiento
+    PAIRING_STOP(2),  // Fin de emparejamiento
+    LOCATION(3),      // Registro de la estación de un vehículo
+    PAYMENT(4);       // Registro de un pago
+
+    private final byte code;
+
+    JourneyEventType(int code) {
+        this.code = (byte) code;
+    }
+
+    /**
+     * Obtiene el código binario del tipo de evento.
+     *
+     * @return El código del tipo.
+     */
+    public byte getCode() {
+        return code;
+    }
+
+    /**
+     * Obtiene el tipo de evento correspondiente a un código binario.
+     *
+     * @param code El código leído del registro.
+     * @return El tipo de evento, o null si el código no corresponde a ninguno.
+     */
+    public static JourneyEventType fromCode(byte code) {
+        switch (code) {
+            case 1:
+                return PAIRING_START;
+            case 2:
+                return PAIRING_STOP;
+            case 3:
+                return LOCATION;
+            case 4:
+                return PAYMENT;
+            default:
+                return null;
+        }
+    }
+}
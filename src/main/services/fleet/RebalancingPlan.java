@@ -0,0 +1,93 @@
+package services.fleet;
+
+import data.StationID;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resultado del planificador de reequilibrado: el desequilibrio de cada estación y las rutas de los camiones.
+ */
+public final class RebalancingPlan {
+
+    private final Map<StationID, Integer> imbalances;
+    private final List<TruckRoute> routes;
+    private final int surplus;
+    private final int deficit;
+    private final int moved;
+
+    RebalancingPlan(Map<StationID, Integer> imbalances, List<TruckRoute> routes, int surplus, int deficit, int moved) {
+        this.imbalances = Collections.unmodifiableMap(imbalances);
+        this.routes = Collections.unmodifiableList(routes);
+        this.surplus = surplus;
+        this.deficit = deficit;
+        this.moved = moved;
+    }
+
+    /**
+     * Obtiene el desequilibrio de cada estación: vehículos disponibles menos vehículos deseados.
+     * Solo aparecen las estaciones con desequilibrio distinto de cero.
+     *
+     * @return Un mapa de estación a desequilibrio, positivo si sobran vehículos y negativo si faltan.
+     */
+    public Map<StationID, Integer> getImbalances() {
+        return imbalances;
+    }
+
+    /**
+     * Obtiene el desequilibrio de una estación.
+     *
+     * @param station La estación.
+     * @return El desequilibrio, o 0 si la estación está equilibrada o no se conoce.
+     */
+    public int getImbalance(StationID station) {
+        return imbalances.getOrDefault(station, 0);
+    }
+
+    /**
+     * Obtiene las rutas de los camiones.
+     *
+     * @return Las rutas, una por camión.
+     */
+    public List<TruckRoute> getRoutes() {
+        return routes;
+    }
+
+    /**
+     * Obtiene el total de vehículos sobrantes en la red.
+     *
+     * @return La suma de los desequilibrios positivos.
+     */
+    public int getTotalSurplus() {
+        return surplus;
+    }
+
+    /**
+     * Obtiene el total de vehículos que faltan en la red.
+     *
+     * @return La suma de los desequilibrios negativos, en valor absoluto.
+     */
+    public int getTotalDeficit() {
+        return deficit;
+    }
+
+    /**
+     * Obtiene el número de vehículos que las rutas dejan en estaciones con déficit.
+     *
+     * @return El número de vehículos recolocados.
+     */
+    public int getMovedVehicles() {
+        return moved;
+    }
+
+    @Override
+    public String toString() {
+        return "RebalancingPlan{" +
+                "surplus=" + surplus +
+                ", deficit=" + deficit +
+                ", moved=" + moved +
+                ", routes=" + routes.size() +
+                '}';
+    }
+}
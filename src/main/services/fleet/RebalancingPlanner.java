@@ -0,0 +1,289 @@
+package services.fleet;
+
+import data.GeographicPoint;
+import data.StationID;
+import micromobility.geo.GeoDistance;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Planificador de reequilibrado de la flota entre estaciones.
+ *
+ * A partir de la ocupación de StationAvailabilityIndex (alimentada por registerLocation y por los cambios
+ * de estado de los vehículos) y del objetivo de cada estación, calcula el desequilibrio de cada una y reparte
+ * las estaciones desequilibradas entre los camiones por sectores angulares alrededor del depósito, con un
+ * número parecido de estaciones por sector. Cada camión construye su ruta de forma voraz: desde su posición
+ * va a la estación más cercana donde puede actuar, recogiendo vehículos sobrantes mientras tenga hueco y
+ * queden estaciones con déficit en su sector, y dejándolos donde faltan mientras lleve carga.
+ *
+ * El cálculo de desequilibrios y la construcción de las rutas de cada camión se ejecutan en paralelo sobre
+ * un ForkJoinPool. Es seguro para usarse desde varios hilos.
+ */
+public final class RebalancingPlanner {
+
+    private static final int SEQUENTIAL_THRESHOLD = 512;
+
+    private final int trucks;
+    private final int truckCapacity;
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructor que usa el ForkJoinPool común.
+     *
+     * @param trucks        Número de camiones.
+     * @param truckCapacity Vehículos que cabe en cada camión.
+     * @throws IllegalArgumentException Si algún valor no es positivo.
+     */
+    public RebalancingPlanner(int trucks, int truckCapacity) {
+        this(trucks, truckCapacity, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor de RebalancingPlanner.
+     *
+     * @param trucks        Número de camiones.
+     * @param truckCapacity Vehículos que cabe en cada camión.
+     * @param pool          El pool donde se ejecuta la planificación.
+     * @throws IllegalArgumentException Si algún valor no es positivo o el pool es nulo.
+     */
+    public RebalancingPlanner(int trucks, int truckCapacity, ForkJoinPool pool) {
+        if (trucks <= 0 || truckCapacity <= 0) {
+            throw new IllegalArgumentException("El número de camiones y su capacidad deben ser positivos.");
+        }
+        if (pool == null) {
+            throw new IllegalArgumentException("El pool no puede ser nulo.");
+        }
+        this.trucks = trucks;
+        this.truckCapacity = truckCapacity;
+        this.pool = pool;
+    }
+
+    /**
+     * Planifica el reequilibrado con la ocupación actual del índice.
+     *
+     * @param index El índice de disponibilidad por estación.
+     * @param sites Las estaciones de la red con su ubicación y objetivo.
+     * @param depot Punto de salida de los camiones.
+     * @return El plan.
+     * @throws IllegalArgumentException Si algún parámetro es nulo.
+     */
+    public RebalancingPlan plan(StationAvailabilityIndex index, List<StationSite> sites, GeographicPoint depot) {
+        if (index == null) {
+            throw new IllegalArgumentException("El índice de disponibilidad no puede ser nulo.");
+        }
+        if (sites == null) {
+            throw new IllegalArgumentException("La lista de estaciones no puede ser nula.");
+        }
+        StationSite[] array = sites.toArray(new StationSite[0]);
+        int[] available = new int[array.length];
+        for (int i = 0; i < array.length; i++) {
+            if (array[i] == null) {
+                throw new IllegalArgumentException("Las estaciones no pueden ser nulas.");
+            }
+            available[i] = index.availableCount(array[i].getId());
+        }
+        return plan(array, available, depot);
+    }
+
+    /**
+     * Planifica el reequilibrado con una ocupación dada, alineada con la lista de estaciones.
+     *
+     * @param sites     Las estaciones de la red con su ubicación y objetivo.
+     * @param available Vehículos disponibles en cada estación.
+     * @param depot     Punto de salida de los camiones.
+     * @return El plan.
+     * @throws IllegalArgumentException Si algún parámetro es nulo o los arrays tienen distinta longitud.
+     */
+    public RebalancingPlan plan(StationSite[] sites, int[] available, GeographicPoint depot) {
+        if (sites == null || available == null || sites.length != available.length) {
+            throw new IllegalArgumentException("Las estaciones y su ocupación deben tener la misma longitud.");
+        }
+        if (depot == null) {
+            throw new IllegalArgumentException("El depósito no puede ser nulo.");
+        }
+        int n = sites.length;
+        int[] imbalance = new int[n];
+        float[] lats = new float[n];
+        float[] lons = new float[n];
+        double[] angles = new double[n];
+        pool.invoke(new ImbalanceTask(sites, available, depot, imbalance, lats, lons, angles, 0, n));
+
+        Map<StationID, Integer> imbalances = new HashMap<>();
+        int surplus = 0;
+        int deficit = 0;
+        int unbalanced = 0;
+        for (int i = 0; i < n; i++) {
+            if (imbalance[i] != 0) {
+                imbalances.put(sites[i].getId(), imbalance[i]);
+                surplus += Math.max(0, imbalance[i]);
+                deficit += Math.max(0, -imbalance[i]);
+                unbalanced++;
+            }
+        }
+
+        // Estaciones desequilibradas ordenadas por ángulo alrededor del depósito y repartidas en sectores
+        Integer[] order = new Integer[unbalanced];
+        for (int i = 0, k = 0; i < n; i++) {
+            if (imbalance[i] != 0) {
+                order[k++] = i;
+            }
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(angles[a], angles[b]));
+        List<RouteTask> tasks = new ArrayList<>(trucks);
+        for (int t = 0; t < trucks; t++) {
+            int from = (int) ((long) unbalanced * t / trucks);
+            int to = (int) ((long) unbalanced * (t + 1) / trucks);
+            int[] sector = new int[to - from];
+            for (int k = from; k < to; k++) {
+                sector[k - from] = order[k];
+            }
+            tasks.add(new RouteTask(t, sector, sites, imbalance, lats, lons, depot));
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                ForkJoinTask.invokeAll(tasks);
+            }
+        });
+
+        List<TruckRoute> routes = new ArrayList<>(trucks);
+        int moved = 0;
+        for (RouteTask task : tasks) {
+            TruckRoute route = task.join();
+            routes.add(route);
+            for (TruckRoute.Stop stop : route.getStops()) {
+                moved += Math.max(0, stop.getChange());
+            }
+        }
+        return new RebalancingPlan(imbalances, routes, surplus, deficit, moved);
+    }
+
+    // Métodos internos
+
+    /**
+     * Calcula en paralelo el desequilibrio, las coordenadas y el ángulo respecto al depósito de cada estación.
+     */
+    private static final class ImbalanceTask extends RecursiveAction {
+        private final StationSite[] sites;
+        private final int[] available;
+        private final GeographicPoint depot;
+        private final int[] imbalance;
+        private final float[] lats;
+        private final float[] lons;
+        private final double[] angles;
+        private final int from;
+        private final int to;
+
+        private ImbalanceTask(StationSite[] sites, int[] available, GeographicPoint depot, int[] imbalance,
+                              float[] lats, float[] lons, double[] angles, int from, int to) {
+            this.sites = sites;
+            this.available = available;
+            this.depot = depot;
+            this.imbalance = imbalance;
+            this.lats = lats;
+            this.lons = lons;
+            this.angles = angles;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SEQUENTIAL_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ImbalanceTask(sites, available, depot, imbalance, lats, lons, angles, from, middle),
+                        new ImbalanceTask(sites, available, depot, imbalance, lats, lons, angles, middle, to));
+                return;
+            }
+            double cosDepot = Math.cos(Math.toRadians(depot.getLatitude()));
+            for (int i = from; i < to; i++) {
+                GeographicPoint location = sites[i].getLocation();
+                imbalance[i] = available[i] - sites[i].getTarget();
+                lats[i] = location.getLatitude();
+                lons[i] = location.getLongitude();
+                angles[i] = Math.atan2(lats[i] - depot.getLatitude(), (lons[i] - depot.getLongitude()) * cosDepot);
+            }
+        }
+    }
+
+    /**
+     * Construye la ruta voraz de un camión sobre las estaciones de su sector.
+     */
+    private final class RouteTask extends RecursiveTask<TruckRoute> {
+        private final int truck;
+        private final int[] sector;
+        private final StationSite[] sites;
+        private final int[] imbalance;
+        private final float[] lats;
+        private final float[] lons;
+        private final GeographicPoint depot;
+
+        private RouteTask(int truck, int[] sector, StationSite[] sites, int[] imbalance, float[] lats, float[] lons,
+                          GeographicPoint depot) {
+            this.truck = truck;
+            this.sector = sector;
+            this.sites = sites;
+            this.imbalance = imbalance;
+            this.lats = lats;
+            this.lons = lons;
+            this.depot = depot;
+        }
+
+        @Override
+        protected TruckRoute compute() {
+            int m = sector.length;
+            int[] pending = new int[m];
+            int missing = 0;
+            for (int k = 0; k < m; k++) {
+                pending[k] = imbalance[sector[k]];
+                missing += Math.max(0, -pending[k]);
+            }
+            List<TruckRoute.Stop> stops = new ArrayList<>();
+            float lat = depot.getLatitude();
+            float lon = depot.getLongitude();
+            double distance = 0;
+            int load = 0;
+            while (true) {
+                int best = -1;
+                double bestKm = Double.MAX_VALUE;
+                for (int k = 0; k < m; k++) {
+                    int p = pending[k];
+                    // Solo se recoge lo que aún se puede dejar en el sector
+                    if ((p > 0 && load < truckCapacity && load < missing) || (p < 0 && load > 0)) {
+                        int s = sector[k];
+                        double km = GeoDistance.equirectangularKm(lat, lon, lats[s], lons[s]);
+                        if (km < bestKm) {
+                            bestKm = km;
+                            best = k;
+                        }
+                    }
+                }
+                if (best < 0) {
+                    break;
+                }
+                int s = sector[best];
+                int change = pending[best] > 0
+                        ? -Math.min(pending[best], Math.min(truckCapacity, missing) - load)
+                        : Math.min(-pending[best], load);
+                pending[best] += change;
+                load -= change;
+                if (change > 0) {
+                    missing -= change;
+                }
+                distance += bestKm;
+                lat = lats[s];
+                lon = lons[s];
+                stops.add(new TruckRoute.Stop(sites[s].getId(), change));
+            }
+            return new TruckRoute(truck, stops, distance, load);
+        }
+    }
+}
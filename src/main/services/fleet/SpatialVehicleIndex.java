@@ -0,0 +1,280 @@
+package services.fleet;
+
+import data.GeographicPoint;
+import micromobility.PMVState;
+import micromobility.PMVehicle;
+import micromobility.PMVehicleListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Índice espacial de vehículos disponibles basado en una rejilla regular de latitud y longitud.
+ * Solo contiene vehículos en estado Available; se mantiene sincronizado escuchando los cambios de
+ * estado y de ubicación de cada vehículo registrado, por lo que las consultas de proximidad solo
+ * recorren las celdas cercanas al punto de búsqueda.
+ */
+public class SpatialVehicleIndex implements PMVehicleListener {
+
+    private static final double KM_PER_DEGREE = 111.32;
+    private static final double DEFAULT_CELL_DEGREES = 0.0025; // ~280 m de latitud
+    private static final int MAX_RINGS = 200;                 // Límite de anillos en búsquedas k-nearest
+
+    private final double cellDegrees;
+    private final ConcurrentMap<Long, Set<PMVehicle>> cells = new ConcurrentHashMap<>();
+    private final ConcurrentMap<PMVehicle, Long> indexedCells = new ConcurrentHashMap<>();
+    private final Set<PMVehicle> tracked = ConcurrentHashMap.newKeySet(); // Vehículos cuyos cambios se siguen
+    private final AtomicInteger indexedCount = new AtomicInteger();
+
+    /**
+     * Constructor con el tamaño de celda por defecto.
+     */
+    public SpatialVehicleIndex() {
+        this(DEFAULT_CELL_DEGREES);
+    }
+
+    /**
+     * Constructor con un tamaño de celda configurable.
+     *
+     * @param cellDegrees Lado de cada celda en grados. Debe ser mayor que 0.
+     * @throws IllegalArgumentException Si el tamaño de celda no es positivo.
+     */
+    public SpatialVehicleIndex(double cellDegrees) {
+        if (!(cellDegrees > 0)) {
+            throw new IllegalArgumentException("El tamaño de celda debe ser mayor que 0.");
+        }
+        this.cellDegrees = cellDegrees;
+    }
+
+    /**
+     * Empieza a seguir un vehículo: lo indexa si está disponible y se suscribe a sus cambios.
+     *
+     * @param vehicle El vehículo a seguir. No puede ser nulo.
+     * @throws IllegalArgumentException Si el vehículo es nulo.
+     */
+    public void track(PMVehicle vehicle) {
+        if (vehicle == null) {
+            throw new IllegalArgumentException("El vehículo no puede ser nulo.");
+        }
+        tracked.add(vehicle);
+        vehicle.addListener(this);
+        refresh(vehicle);
+    }
+
+    /**
+     * Deja de seguir un vehículo y lo elimina del índice.
+     *
+     * @param vehicle El vehículo a olvidar.
+     */
+    public void untrack(PMVehicle vehicle) {
+        vehicle.removeListener(this);
+        tracked.remove(vehicle);
+        indexedCells.computeIfPresent(vehicle, (v, cell) -> {
+            removeFromCell(cell, v);
+            return null;
+        });
+    }
+
+    @Override
+    public void onStateChanged(PMVehicle vehicle, PMVState oldState, PMVState newState) {
+        if (oldState == PMVState.Available || newState == PMVState.Available) {
+            refresh(vehicle);
+        }
+    }
+
+    @Override
+    public void onLocationChanged(PMVehicle vehicle, GeographicPoint oldLocation, GeographicPoint newLocation) {
+        refresh(vehicle);
+    }
+
+    /**
+     * Obtiene el número de vehículos disponibles indexados.
+     *
+     * @return El número de vehículos disponibles.
+     */
+    public int size() {
+        return indexedCount.get();
+    }
+
+    /**
+     * Busca los k vehículos disponibles más cercanos a un punto.
+     *
+     * @param center Punto de búsqueda. No puede ser nulo.
+     * @param k      Número máximo de vehículos a devolver. Debe ser mayor que 0.
+     * @return Los vehículos encontrados, ordenados de más cercano a más lejano.
+     * @throws IllegalArgumentException Si el punto es nulo o k no es positivo.
+     */
+    public List<PMVehicle> nearestAvailable(GeographicPoint center, int k) {
+        if (center == null || k <= 0) {
+            throw new IllegalArgumentException("El punto de búsqueda no puede ser nulo y k debe ser mayor que 0.");
+        }
+        double lat = center.getLatitude();
+        double lon = center.getLongitude();
+        double lonScale = Math.cos(Math.toRadians(lat));
+        int latCell = cellIndex(lat);
+        int lonCell = cellIndex(lon);
+        // Distancia mínima garantizada hasta cualquier celda del anillo r + 1 (el lado más corto es el de longitud)
+        double ringKm = cellDegrees * KM_PER_DEGREE * Math.max(Math.cos(Math.toRadians(Math.abs(lat) + cellDegrees)), 0.01);
+
+        PriorityQueue<Candidate> best = new PriorityQueue<>(k, Comparator.comparingDouble((Candidate c) -> c.distanceKm).reversed());
+        int total = indexedCount.get();
+        int seen = 0;
+        for (int ring = 0; ring <= MAX_RINGS && seen < total; ring++) {
+            if (best.size() == k && best.peek().distanceKm <= (ring - 1) * ringKm) {
+                break;
+            }
+            for (int dLat = -ring; dLat <= ring; dLat++) {
+                boolean edgeRow = dLat == -ring || dLat == ring;
+                for (int dLon = -ring; dLon <= ring; dLon += edgeRow ? 1 : 2 * ring) {
+                    Set<PMVehicle> cell = cells.get(cellKey(latCell + dLat, lonCell + dLon));
+                    if (cell != null) {
+                        for (PMVehicle vehicle : cell) {
+                            seen++;
+                            offer(best, k, vehicle, lat, lon, lonScale);
+                        }
+                    }
+                }
+            }
+        }
+        return drain(best);
+    }
+
+    /**
+     * Busca los vehículos disponibles situados dentro de un radio alrededor de un punto.
+     *
+     * @param center   Punto de búsqueda. No puede ser nulo.
+     * @param radiusKm Radio de búsqueda en kilómetros. No puede ser negativo.
+     * @return Los vehículos encontrados, ordenados de más cercano a más lejano.
+     * @throws IllegalArgumentException Si el punto es nulo o el radio es negativo.
+     */
+    public List<PMVehicle> availableWithin(GeographicPoint center, double radiusKm) {
+        if (center == null || !(radiusKm >= 0)) {
+            throw new IllegalArgumentException("El punto de búsqueda no puede ser nulo y el radio no puede ser negativo.");
+        }
+        double lat = center.getLatitude();
+        double lon = center.getLongitude();
+        double latSpan = radiusKm / KM_PER_DEGREE;
+        double lonSpan = radiusKm / (KM_PER_DEGREE * Math.max(Math.cos(Math.toRadians(Math.min(Math.abs(lat) + latSpan, 89.0))), 0.01));
+        double lonScale = Math.cos(Math.toRadians(lat));
+
+        List<Candidate> found = new ArrayList<>();
+        for (int latCell = cellIndex(lat - latSpan); latCell <= cellIndex(lat + latSpan); latCell++) {
+            for (int lonCell = cellIndex(lon - lonSpan); lonCell <= cellIndex(lon + lonSpan); lonCell++) {
+                Set<PMVehicle> cell = cells.get(cellKey(latCell, lonCell));
+                if (cell == null) {
+                    continue;
+                }
+                for (PMVehicle vehicle : cell) {
+                    if (vehicle.getState() != PMVState.Available) {
+                        continue;
+                    }
+                    double distance = distanceKm(lat, lon, lonScale, vehicle.getLocation());
+                    if (distance <= radiusKm) {
+                        found.add(new Candidate(vehicle, distance));
+                    }
+                }
+            }
+        }
+        found.sort(Comparator.comparingDouble(c -> c.distanceKm));
+        List<PMVehicle> result = new ArrayList<>(found.size());
+        for (Candidate candidate : found) {
+            result.add(candidate.vehicle);
+        }
+        return result;
+    }
+
+    /**
+     * Reconcilia la entrada del vehículo con su estado y ubicación actuales.
+     * Se ejecuta de forma atómica por vehículo, por lo que notificaciones concurrentes
+     * convergen siempre al último estado observado. Una notificación que llega después de dejar de
+     * seguir el vehículo no lo vuelve a indexar.
+     */
+    private void refresh(PMVehicle vehicle) {
+        indexedCells.compute(vehicle, (v, currentCell) -> {
+            Long targetCell = tracked.contains(v) && v.getState() == PMVState.Available ? cellOf(v.getLocation()) : null;
+            if (targetCell != null && targetCell.equals(currentCell)) {
+                return currentCell;
+            }
+            if (currentCell != null) {
+                removeFromCell(currentCell, v);
+            }
+            if (targetCell != null) {
+                cells.computeIfAbsent(targetCell, key -> ConcurrentHashMap.newKeySet()).add(v);
+                indexedCount.incrementAndGet();
+            }
+            return targetCell;
+        });
+    }
+
+    private void removeFromCell(Long cell, PMVehicle vehicle) {
+        Set<PMVehicle> members = cells.get(cell);
+        if (members != null && members.remove(vehicle)) {
+            indexedCount.decrementAndGet();
+        }
+    }
+
+    private void offer(PriorityQueue<Candidate> best, int k, PMVehicle vehicle, double lat, double lon, double lonScale) {
+        if (vehicle.getState() != PMVState.Available) {
+            return;
+        }
+        double distance = distanceKm(lat, lon, lonScale, vehicle.getLocation());
+        if (best.size() < k) {
+            best.add(new Candidate(vehicle, distance));
+        } else if (distance < best.peek().distanceKm) {
+            best.poll();
+            best.add(new Candidate(vehicle, distance));
+        }
+    }
+
+    private static List<PMVehicle> drain(PriorityQueue<Candidate> best) {
+        List<PMVehicle> result = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            result.add(best.poll().vehicle);
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    private Long cellOf(GeographicPoint point) {
+        return cellKey(cellIndex(point.getLatitude()), cellIndex(point.getLongitude()));
+    }
+
+    private int cellIndex(double degrees) {
+        return (int) Math.floor(degrees / cellDegrees);
+    }
+
+    private static long cellKey(int latCell, int lonCell) {
+        return ((long) latCell << 32) | (lonCell & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Distancia equirectangular con la escala de longitud del punto de búsqueda.
+     * Para radios de pocos kilómetros difiere de haversine en menos de un 0,1 %,
+     * y evita evaluar funciones trigonométricas por cada candidato.
+     */
+    private static double distanceKm(double lat, double lon, double lonScale, GeographicPoint point) {
+        double dLat = point.getLatitude() - lat;
+        double dLon = (point.getLongitude() - lon) * lonScale;
+        return KM_PER_DEGREE * Math.sqrt(dLat * dLat + dLon * dLon);
+    }
+
+    /**
+     * Vehículo candidato junto con su distancia al punto de búsqueda.
+     */
+    private static final class Candidate {
+        private final PMVehicle vehicle;
+        private final double distanceKm;
+
+        private Candidate(PMVehicle vehicle, double distanceKm) {
+            this.vehicle = vehicle;
+            this.distanceKm = distanceKm;
+        }
+    }
+}
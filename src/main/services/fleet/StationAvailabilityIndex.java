@@ -0,0 +1,333 @@
+package services.fleet;
+
+import data.StationID;
+import data.VehicleID;
+import micromobility.PMVState;
+import micromobility.PMVehicle;
+import micromobility.PMVehicleListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+/**
+ * Índice de vehículos disponibles por estación.
+ * Cada vehículo seguido recibe un número de ranura denso, y cada estación guarda las ranuras de sus
+ * vehículos disponibles en un conjunto de enteros primitivos, de modo que contar los vehículos de una
+ * estación es O(1) y recorrerlos no requiere visitar el resto de la flota.
+ * El índice se actualiza de forma incremental con registerLocation y con los cambios de estado.
+ * Las ranuras de los vehículos que se dejan de seguir se reutilizan, así que la tabla de ranuras no crece
+ * con las altas y bajas, sino con el máximo de vehículos seguidos a la vez.
+ * Cada ubicación pertenece a una instancia concreta: los cambios de una instancia que ya no se sigue,
+ * aunque comparta identificador con la actual, se ignoran.
+ */
+public class StationAvailabilityIndex implements PMVehicleListener {
+
+    private final ConcurrentMap<VehicleID, Placement> placements = new ConcurrentHashMap<>();
+    private final ConcurrentMap<StationID, SlotSet> stations = new ConcurrentHashMap<>();
+    private volatile PMVehicle[] bySlot = new PMVehicle[1024]; // Ranura -> vehículo
+    private int nextSlot;                                      // Protegido por this
+    private int[] freeSlots = new int[16];                     // Pila de ranuras libres, protegida por this
+    private int freeCount;                                     // Protegido por this
+
+    /**
+     * Empieza a seguir un vehículo y se suscribe a sus cambios de estado.
+     * Hasta que se registre su estación, el vehículo no cuenta en ninguna.
+     *
+     * @param vehicle El vehículo a seguir. No puede ser nulo.
+     * @throws IllegalArgumentException Si el vehículo es nulo o ya se sigue otro con su identificador.
+     */
+    public void track(PMVehicle vehicle) {
+        if (vehicle == null) {
+            throw new IllegalArgumentException("El vehículo no puede ser nulo.");
+        }
+        Placement placement = placements.computeIfAbsent(vehicle.getId(), id -> new Placement(vehicle, assignSlot(vehicle)));
+        if (placement.vehicle != vehicle) {
+            throw new IllegalArgumentException("Ya se sigue otro vehículo con el identificador " + vehicle.getId().getId() + ".");
+        }
+        vehicle.addListener(this);
+        refresh(vehicle, null);
+    }
+
+    /**
+     * Deja de seguir un vehículo, lo elimina de su estación y libera su ranura. No afecta a otra instancia
+     * que se siga con el mismo identificador.
+     *
+     * @param vehicle El vehículo a olvidar.
+     */
+    public void untrack(PMVehicle vehicle) {
+        vehicle.removeListener(this);
+        placements.computeIfPresent(vehicle.getId(), (id, placement) -> {
+            if (placement.vehicle != vehicle) {
+                return placement;
+            }
+            if (placement.counted) {
+                stations.get(placement.station).remove(placement.slot);
+            }
+            releaseSlot(placement.slot);
+            return null;
+        });
+    }
+
+    /**
+     * Registra la estación en la que se encuentra un vehículo seguido.
+     *
+     * @param vehicle El vehículo. Debe estar seguido por el índice.
+     * @param station La estación donde se encuentra. No puede ser nula.
+     * @throws IllegalArgumentException Si algún parámetro es nulo o el vehículo no está seguido.
+     */
+    public void moveToStation(PMVehicle vehicle, StationID station) {
+        if (vehicle == null || station == null) {
+            throw new IllegalArgumentException("El vehículo o la estación son inválidos.");
+        }
+        Placement placement = placements.get(vehicle.getId());
+        if (placement == null || placement.vehicle != vehicle) {
+            throw new IllegalArgumentException("El vehículo " + vehicle.getId().getId() + " no está registrado en el índice.");
+        }
+        refresh(vehicle, station);
+    }
+
+    @Override
+    public void onStateChanged(PMVehicle vehicle, PMVState oldState, PMVState newState) {
+        if (oldState == PMVState.Available || newState == PMVState.Available) {
+            refresh(vehicle, null);
+        }
+    }
+
+    /**
+     * Obtiene la estación registrada de un vehículo.
+     *
+     * @param vhID El identificador del vehículo.
+     * @return La estación registrada o null si no se conoce.
+     */
+    public StationID stationOf(VehicleID vhID) {
+        Placement placement = placements.get(vhID);
+        return placement == null ? null : placement.station;
+    }
+
+    /**
+     * Obtiene el número de vehículos disponibles en una estación, en tiempo constante.
+     *
+     * @param station La estación a consultar.
+     * @return El número de vehículos disponibles en la estación.
+     */
+    public int availableCount(StationID station) {
+        SlotSet slots = stations.get(station);
+        return slots == null ? 0 : slots.size();
+    }
+
+    /**
+     * Recorre los vehículos disponibles en una estación.
+     *
+     * @param station La estación a consultar.
+     * @param action  La acción a aplicar a cada vehículo disponible.
+     */
+    public void forEachAvailable(StationID station, Consumer<PMVehicle> action) {
+        SlotSet slots = stations.get(station);
+        if (slots == null) {
+            return;
+        }
+        int[] available = slots.toArray();
+        // La tabla se lee después de las ranuras para que incluya las que se asignaron antes de copiarlas
+        PMVehicle[] vehicles = bySlot;
+        for (int slot : available) {
+            PMVehicle vehicle = vehicles[slot];
+            // La ranura pudo liberarse, o reutilizarse para otro vehículo, mientras se recorría
+            if (vehicle != null && isAvailableAt(vehicle, slot, station)) {
+                action.accept(vehicle);
+            }
+        }
+    }
+
+    /**
+     * Obtiene los vehículos disponibles en una estación.
+     *
+     * @param station La estación a consultar.
+     * @return Una lista con los vehículos disponibles en la estación.
+     */
+    public List<PMVehicle> availableVehicles(StationID station) {
+        List<PMVehicle> result = new ArrayList<>(availableCount(station));
+        forEachAvailable(station, result::add);
+        return result;
+    }
+
+    /**
+     * Obtiene una instantánea del número de vehículos disponibles de cada estación conocida.
+     *
+     * @return Un mapa de estación a número de vehículos disponibles.
+     */
+    public Map<StationID, Integer> availabilitySnapshot() {
+        Map<StationID, Integer> snapshot = new ConcurrentHashMap<>();
+        stations.forEach((station, slots) -> snapshot.put(station, slots.size()));
+        return snapshot;
+    }
+
+    /**
+     * Número de ranuras de la tabla de vehículos, para comprobar que las bajas las liberan.
+     */
+    int slotCapacity() {
+        return bySlot.length;
+    }
+
+    /**
+     * Reconcilia la ubicación y el recuento del vehículo con su estado actual.
+     * Se ejecuta de forma atómica por vehículo e ignora las instancias que ya no se siguen.
+     *
+     * @param newStation La nueva estación del vehículo o null para conservar la actual.
+     */
+    private void refresh(PMVehicle vehicle, StationID newStation) {
+        placements.computeIfPresent(vehicle.getId(), (id, placement) -> {
+            if (placement.vehicle != vehicle) {
+                return placement;
+            }
+            StationID station = newStation != null ? newStation : placement.station;
+            boolean counted = station != null && vehicle.getState() == PMVState.Available;
+            if (placement.counted && (!counted || !station.equals(placement.station))) {
+                stations.get(placement.station).remove(placement.slot);
+                placement.counted = false;
+            }
+            placement.station = station;
+            if (counted && !placement.counted) {
+                stations.computeIfAbsent(station, st -> new SlotSet()).add(placement.slot);
+                placement.counted = true;
+            }
+            return placement;
+        });
+    }
+
+    /**
+     * Comprueba que el vehículo siga ocupando la ranura y contando como disponible en la estación.
+     */
+    private boolean isAvailableAt(PMVehicle vehicle, int slot, StationID station) {
+        Placement placement = placements.get(vehicle.getId());
+        return placement != null && placement.vehicle == vehicle && placement.slot == slot && placement.counted
+                && station.equals(placement.station);
+    }
+
+    private synchronized int assignSlot(PMVehicle vehicle) {
+        int slot = freeCount > 0 ? freeSlots[--freeCount] : nextSlot++;
+        PMVehicle[] vehicles = bySlot;
+        if (slot == vehicles.length) {
+            vehicles = Arrays.copyOf(vehicles, vehicles.length * 2);
+        }
+        vehicles[slot] = vehicle;
+        bySlot = vehicles;
+        return slot;
+    }
+
+    private synchronized void releaseSlot(int slot) {
+        bySlot[slot] = null;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    /**
+     * Ubicación de un vehículo seguido. Solo se modifica dentro de compute sobre su entrada.
+     */
+    private static final class Placement {
+        private final PMVehicle vehicle;
+        private final int slot;
+        private volatile StationID station;
+        private volatile boolean counted;
+
+        private Placement(PMVehicle vehicle, int slot) {
+            this.vehicle = vehicle;
+            this.slot = slot;
+        }
+    }
+
+    /**
+     * Conjunto de ranuras con direccionamiento abierto y sondeo lineal.
+     * Las escrituras se serializan por estación; el tamaño se lee sin bloqueo.
+     */
+    private static final class SlotSet {
+        private static final int EMPTY = -1;
+
+        private int[] table = newTable(8);
+        private volatile int size;
+
+        synchronized void add(int slot) {
+            if ((size + 1) * 2 > table.length) {
+                rehash(table.length * 2);
+            }
+            int mask = table.length - 1;
+            int i = mix(slot) & mask;
+            while (table[i] != EMPTY) {
+                if (table[i] == slot) {
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            table[i] = slot;
+            size++;
+        }
+
+        synchronized void remove(int slot) {
+            int mask = table.length - 1;
+            int i = mix(slot) & mask;
+            while (table[i] != slot) {
+                if (table[i] == EMPTY) {
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            // Borrado por desplazamiento hacia atrás para no dejar marcas de borrado
+            int gap = i;
+            for (int j = (gap + 1) & mask; table[j] != EMPTY; j = (j + 1) & mask) {
+                int home = mix(table[j]) & mask;
+                if (((j - home) & mask) >= ((j - gap) & mask)) {
+                    table[gap] = table[j];
+                    gap = j;
+                }
+            }
+            table[gap] = EMPTY;
+            size--;
+        }
+
+        int size() {
+            return size;
+        }
+
+        synchronized int[] toArray() {
+            int[] result = new int[size];
+            int n = 0;
+            for (int slot : table) {
+                if (slot != EMPTY) {
+                    result[n++] = slot;
+                }
+            }
+            return result;
+        }
+
+        private void rehash(int capacity) {
+            int[] old = table;
+            table = newTable(capacity);
+            int mask = capacity - 1;
+            for (int slot : old) {
+                if (slot != EMPTY) {
+                    int i = mix(slot) & mask;
+                    while (table[i] != EMPTY) {
+                        i = (i + 1) & mask;
+                    }
+                    table[i] = slot;
+                }
+            }
+        }
+
+        private static int[] newTable(int capacity) {
+            int[] table = new int[capacity];
+            Arrays.fill(table, EMPTY);
+            return table;
+        }
+
+        private static int mix(int slot) {
+            return slot * 0x9E3779B9 >>> 7;
+        }
+    }
+}
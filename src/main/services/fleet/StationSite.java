@@ -0,0 +1,71 @@
+package services.fleet;
+
+import data.GeographicPoint;
+import data.StationID;
+
+/**
+ * Estación de la red con su ubicación y el número de vehículos disponibles que se desea tener en ella.
+ * Es la entrada del planificador de reequilibrado junto a la ocupación de StationAvailabilityIndex.
+ */
+public final class StationSite {
+
+    private final StationID id;
+    private final GeographicPoint location;
+    private final int target;
+
+    /**
+     * Constructor de StationSite.
+     *
+     * @param id       Identificador de la estación. No puede ser nulo.
+     * @param location Ubicación de la estación. No puede ser nula.
+     * @param target   Número de vehículos disponibles deseado. No puede ser negativo.
+     * @throws IllegalArgumentException Si algún parámetro es nulo o el objetivo es negativo.
+     */
+    public StationSite(StationID id, GeographicPoint location, int target) {
+        if (id == null || location == null) {
+            throw new IllegalArgumentException("La estación y su ubicación no pueden ser nulas.");
+        }
+        if (target < 0) {
+            throw new IllegalArgumentException("El número de vehículos deseado no puede ser negativo.");
+        }
+        this.id = id;
+        this.location = location;
+        this.target = target;
+    }
+
+    /**
+     * Obtiene el identificador de la estación.
+     *
+     * @return El identificador.
+     */
+    public StationID getId() {
+        return id;
+    }
+
+    /**
+     * Obtiene la ubicación de la estación.
+     *
+     * @return La ubicación.
+     */
+    public GeographicPoint getLocation() {
+        return location;
+    }
+
+    /**
+     * Obtiene el número de vehículos disponibles deseado.
+     *
+     * @return El objetivo de vehículos.
+     */
+    public int getTarget() {
+        return target;
+    }
+
+    @Override
+    public String toString() {
+        return "StationSite{" +
+                "id=" + id +
+                ", location=" + location +
+                ", target=" + target +
+                '}';
+    }
+}
@@ -0,0 +1,107 @@
+package services.fleet;
+
+import data.StationID;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Ruta de un camión de reequilibrado: la secuencia de paradas en orden de visita, con los vehículos que
+ * recoge o deja en cada una, y la distancia recorrida desde el depósito hasta la última parada.
+ */
+public final class TruckRoute {
+
+    private final int truck;
+    private final List<Stop> stops;
+    private final double distanceKm;
+    private final int finalLoad;
+
+    TruckRoute(int truck, List<Stop> stops, double distanceKm, int finalLoad) {
+        this.truck = truck;
+        this.stops = Collections.unmodifiableList(stops);
+        this.distanceKm = distanceKm;
+        this.finalLoad = finalLoad;
+    }
+
+    /**
+     * Obtiene el número del camión.
+     *
+     * @return El número del camión, desde 0.
+     */
+    public int getTruck() {
+        return truck;
+    }
+
+    /**
+     * Obtiene las paradas en orden de visita.
+     *
+     * @return Las paradas.
+     */
+    public List<Stop> getStops() {
+        return stops;
+    }
+
+    /**
+     * Obtiene la distancia de la ruta, desde el depósito hasta la última parada.
+     *
+     * @return La distancia en kilómetros.
+     */
+    public double getDistanceKm() {
+        return distanceKm;
+    }
+
+    /**
+     * Obtiene los vehículos que quedan en el camión al terminar la ruta, para devolver al depósito.
+     *
+     * @return El número de vehículos.
+     */
+    public int getFinalLoad() {
+        return finalLoad;
+    }
+
+    @Override
+    public String toString() {
+        return "TruckRoute{" +
+                "truck=" + truck +
+                ", stops=" + stops.size() +
+                ", distanceKm=" + distanceKm +
+                ", finalLoad=" + finalLoad +
+                '}';
+    }
+
+    /**
+     * Parada de una ruta.
+     */
+    public static final class Stop {
+        private final StationID station;
+        private final int change;
+
+        Stop(StationID station, int change) {
+            this.station = station;
+            this.change = change;
+        }
+
+        /**
+         * Obtiene la estación de la parada.
+         *
+         * @return La estación.
+         */
+        public StationID getStation() {
+            return station;
+        }
+
+        /**
+         * Obtiene la variación de vehículos en la estación.
+         *
+         * @return Positivo si el camión deja vehículos, negativo si los recoge.
+         */
+        public int getChange() {
+            return change;
+        }
+
+        @Override
+        public String toString() {
+            return station.getId() + (change > 0 ? "+" : "") + change;
+        }
+    }
+}
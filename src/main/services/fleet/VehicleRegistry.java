@@ -0,0 +1,557 @@
+package services.fleet;
+
+import data.GeographicPoint;
+import data.PackedId;
+import data.PackedPoint;
+import data.VehicleID;
+import micromobility.PMVState;
+import micromobility.PMVehicle;
+import micromobility.PMVehicleListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Registro de la flota indexado por la codificación de VehicleID (ver PackedId).
+ *
+ * Es una tabla hash de direccionamiento abierto con sondeo lineal, sin nodos ni objetos clave: las dos
+ * palabras de la clave, el estado, la ubicación empaquetada (ver PackedPoint) y el vehículo se guardan en
+ * arrays paralelos. El estado y la ubicación se mantienen sincronizados escuchando los cambios de cada
+ * vehículo, así que pueden consultarse sin tocar el PMVehicle.
+ *
+ * La tabla se divide en SEGMENTS segmentos según el hash de la clave, cada uno con su StampedLock: las
+ * escrituras bloquean solo su segmento y las lecturas son optimistas, sin bloqueo, y solo toman el bloqueo
+ * de lectura si una escritura concurrente las invalida. Los borrados desplazan hacia atrás las entradas
+ * siguientes, sin marcas de borrado. Es seguro para usarse desde varios hilos.
+ *
+ * Para quien solo necesita el identificador, el estado y la ubicación, el registro compacto (ver
+ * {@link #compact(int)}) no guarda el PMVehicle ni se suscribe a él: el estado y la ubicación se actualizan
+ * con {@link #update(VehicleID, PMVState, GeographicPoint)}. Cada posición de la tabla ocupa entonces 25 bytes
+ * (clave, ubicación y estado), frente al nodo, el VehicleID con su cadena, el PMVehicle y su GeographicPoint
+ * que mantiene vivos un HashMap de VehicleID a PMVehicle.
+ */
+public class VehicleRegistry implements PMVehicleListener {
+
+    public static final long NO_LOCATION = Long.MIN_VALUE;
+
+    private static final int SEGMENT_BITS = 4;
+    private static final int SEGMENTS = 1 << SEGMENT_BITS;
+    private static final int MIN_SEGMENT_CAPACITY = 16;
+    private static final int DEFAULT_EXPECTED_VEHICLES = 1 << 12;
+    private static final PMVState[] STATES = PMVState.values();
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final boolean retainsVehicles; // false en el registro compacto
+
+    /**
+     * Constructor por defecto, dimensionado para una flota pequeña.
+     */
+    public VehicleRegistry() {
+        this(DEFAULT_EXPECTED_VEHICLES);
+    }
+
+    /**
+     * Constructor que dimensiona la tabla para el tamaño de flota esperado.
+     *
+     * @param expectedVehicles Número de vehículos esperado. Debe ser mayor que 0.
+     * @throws IllegalArgumentException Si el número esperado no es positivo.
+     */
+    public VehicleRegistry(int expectedVehicles) {
+        this(expectedVehicles, true);
+    }
+
+    private VehicleRegistry(int expectedVehicles, boolean retainsVehicles) {
+        if (expectedVehicles <= 0) {
+            throw new IllegalArgumentException("El número de vehículos esperado debe ser mayor que 0.");
+        }
+        this.retainsVehicles = retainsVehicles;
+        int perSegment = (int) Math.min(1 << 30, (long) expectedVehicles * 4 / 3 / SEGMENTS + 1);
+        int capacity = Math.max(MIN_SEGMENT_CAPACITY, Integer.highestOneBit(perSegment - 1) << 1);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(capacity, retainsVehicles);
+        }
+    }
+
+    /**
+     * Crea un registro compacto, que solo guarda el identificador, el estado y la ubicación de cada vehículo.
+     * Sus entradas se mantienen con update y remove; put, get y values no están disponibles.
+     *
+     * @param expectedVehicles Número de vehículos esperado. Debe ser mayor que 0.
+     * @return El registro compacto.
+     * @throws IllegalArgumentException Si el número esperado no es positivo.
+     */
+    public static VehicleRegistry compact(int expectedVehicles) {
+        return new VehicleRegistry(expectedVehicles, false);
+    }
+
+    /**
+     * Registra un vehículo, sustituyendo al que tuviera el mismo identificador, y se suscribe a sus cambios.
+     *
+     * @param vehicle El vehículo. No puede ser nulo.
+     * @return El vehículo sustituido, o null si no había ninguno.
+     * @throws IllegalArgumentException Si el vehículo es nulo.
+     * @throws IllegalStateException    Si el registro es compacto.
+     */
+    public PMVehicle put(PMVehicle vehicle) {
+        if (vehicle == null) {
+            throw new IllegalArgumentException("El vehículo no puede ser nulo.");
+        }
+        requireVehicles();
+        VehicleID id = vehicle.getId();
+        long high = id.getKeyHigh();
+        long low = id.getKeyLow();
+        int hash = PackedId.hash(high, low);
+        Segment segment = segmentFor(hash);
+        PMVehicle previous;
+        long stamp = segment.lock.writeLock();
+        try {
+            Table table = segment.table;
+            int slot = find(table, high, low, hash);
+            if (slot < 0) {
+                if ((segment.size + 1) * 4L > (table.mask + 1) * 3L) {
+                    table = segment.resize();
+                }
+                slot = freeSlot(table, hash);
+                table.keyHigh[slot] = high;
+                table.keyLow[slot] = low;
+                segment.size++;
+            }
+            previous = table.vehicles[slot];
+            table.vehicles[slot] = vehicle;
+            table.store(slot, vehicle);
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+        if (previous != vehicle) {
+            if (previous != null) {
+                previous.removeListener(this);
+            }
+            vehicle.addListener(this);
+            // Recoge los cambios que hubiera entre el registro y la suscripción
+            refresh(vehicle);
+        }
+        return previous;
+    }
+
+    /**
+     * Registra o actualiza el estado y la ubicación de un vehículo en el registro compacto.
+     *
+     * @param id       El identificador del vehículo. No puede ser nulo.
+     * @param state    El estado actual. No puede ser nulo.
+     * @param location La ubicación actual. No puede ser nula.
+     * @return true si el vehículo no estaba registrado.
+     * @throws IllegalArgumentException Si algún parámetro es nulo o la ubicación está fuera de rango.
+     * @throws IllegalStateException    Si el registro guarda los vehículos: su estado se sigue con sus
+     *                                  notificaciones.
+     */
+    public boolean update(VehicleID id, PMVState state, GeographicPoint location) {
+        if (id == null || state == null) {
+            throw new IllegalArgumentException("El identificador y el estado no pueden ser nulos.");
+        }
+        if (retainsVehicles) {
+            throw new IllegalStateException("El estado de un registro con vehículos se sigue con sus notificaciones.");
+        }
+        long packed = PackedPoint.pack(location);
+        long high = id.getKeyHigh();
+        long low = id.getKeyLow();
+        int hash = PackedId.hash(high, low);
+        Segment segment = segmentFor(hash);
+        long stamp = segment.lock.writeLock();
+        try {
+            Table table = segment.table;
+            int slot = find(table, high, low, hash);
+            boolean added = slot < 0;
+            if (added) {
+                if ((segment.size + 1) * 4L > (table.mask + 1) * 3L) {
+                    table = segment.resize();
+                }
+                slot = freeSlot(table, hash);
+                table.keyHigh[slot] = high;
+                table.keyLow[slot] = low;
+                segment.size++;
+            }
+            table.states[slot] = (byte) state.ordinal();
+            table.locations[slot] = packed;
+            return added;
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Comprueba si un vehículo está registrado.
+     *
+     * @param id El identificador del vehículo.
+     * @return true si está registrado.
+     */
+    public boolean contains(VehicleID id) {
+        return getState(id) != null;
+    }
+
+    /**
+     * Da de baja un vehículo y deja de escuchar sus cambios.
+     *
+     * @param id El identificador del vehículo.
+     * @return El vehículo eliminado, o null si no estaba registrado o el registro es compacto.
+     */
+    public PMVehicle remove(VehicleID id) {
+        if (id == null) {
+            return null;
+        }
+        long high = id.getKeyHigh();
+        long low = id.getKeyLow();
+        int hash = PackedId.hash(high, low);
+        Segment segment = segmentFor(hash);
+        PMVehicle removed;
+        long stamp = segment.lock.writeLock();
+        try {
+            Table table = segment.table;
+            int slot = find(table, high, low, hash);
+            if (slot < 0) {
+                return null;
+            }
+            removed = table.vehicles == null ? null : table.vehicles[slot];
+            table.delete(slot);
+            segment.size--;
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+        if (removed != null) {
+            removed.removeListener(this);
+        }
+        return removed;
+    }
+
+    /**
+     * Obtiene un vehículo por su identificador.
+     *
+     * @param id El identificador del vehículo.
+     * @return El vehículo, o null si no está registrado.
+     * @throws IllegalStateException Si el registro es compacto.
+     */
+    public PMVehicle get(VehicleID id) {
+        return id == null ? null : get(id.getKeyHigh(), id.getKeyLow());
+    }
+
+    /**
+     * Obtiene un vehículo por la codificación de su identificador.
+     *
+     * @param high La palabra alta de la clave.
+     * @param low  La palabra baja de la clave.
+     * @return El vehículo, o null si no está registrado.
+     * @throws IllegalStateException Si el registro es compacto.
+     */
+    public PMVehicle get(long high, long low) {
+        requireVehicles();
+        int hash = PackedId.hash(high, low);
+        Segment segment = segmentFor(hash);
+        long stamp = segment.lock.tryOptimisticRead();
+        Table table = segment.table;
+        int slot = find(table, high, low, hash);
+        PMVehicle vehicle = slot < 0 ? null : table.vehicles[slot];
+        if (segment.lock.validate(stamp)) {
+            return vehicle;
+        }
+        stamp = segment.lock.readLock();
+        try {
+            table = segment.table;
+            slot = find(table, high, low, hash);
+            return slot < 0 ? null : table.vehicles[slot];
+        } finally {
+            segment.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Obtiene el estado de un vehículo sin acceder al PMVehicle.
+     *
+     * @param id El identificador del vehículo.
+     * @return El estado, o null si el vehículo no está registrado.
+     */
+    public PMVState getState(VehicleID id) {
+        if (id == null) {
+            return null;
+        }
+        long high = id.getKeyHigh();
+        long low = id.getKeyLow();
+        int hash = PackedId.hash(high, low);
+        Segment segment = segmentFor(hash);
+        long stamp = segment.lock.tryOptimisticRead();
+        Table table = segment.table;
+        int slot = find(table, high, low, hash);
+        int state = slot < 0 ? -1 : table.states[slot];
+        if (!segment.lock.validate(stamp)) {
+            stamp = segment.lock.readLock();
+            try {
+                table = segment.table;
+                slot = find(table, high, low, hash);
+                state = slot < 0 ? -1 : table.states[slot];
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+        return state < 0 ? null : STATES[state];
+    }
+
+    /**
+     * Obtiene la ubicación empaquetada de un vehículo sin acceder al PMVehicle.
+     *
+     * @param id El identificador del vehículo.
+     * @return La ubicación empaquetada con PackedPoint, o NO_LOCATION si el vehículo no está registrado.
+     */
+    public long getPackedLocation(VehicleID id) {
+        if (id == null) {
+            return NO_LOCATION;
+        }
+        long high = id.getKeyHigh();
+        long low = id.getKeyLow();
+        int hash = PackedId.hash(high, low);
+        Segment segment = segmentFor(hash);
+        long stamp = segment.lock.tryOptimisticRead();
+        Table table = segment.table;
+        int slot = find(table, high, low, hash);
+        long location = slot < 0 ? NO_LOCATION : table.locations[slot];
+        if (!segment.lock.validate(stamp)) {
+            stamp = segment.lock.readLock();
+            try {
+                table = segment.table;
+                slot = find(table, high, low, hash);
+                location = slot < 0 ? NO_LOCATION : table.locations[slot];
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+        return location;
+    }
+
+    /**
+     * Cuenta los vehículos registrados en un estado recorriendo solo el array de estados.
+     *
+     * @param state El estado.
+     * @return El número de vehículos en ese estado.
+     * @throws IllegalArgumentException Si el estado es nulo.
+     */
+    public int count(PMVState state) {
+        if (state == null) {
+            throw new IllegalArgumentException("El estado no puede ser nulo.");
+        }
+        int count = 0;
+        for (Segment segment : segments) {
+            long stamp = segment.lock.readLock();
+            try {
+                Table table = segment.table;
+                for (int i = 0; i <= table.mask; i++) {
+                    if (table.keyHigh[i] != 0 && table.states[i] == state.ordinal()) {
+                        count++;
+                    }
+                }
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Obtiene una copia de los vehículos registrados. Cada segmento se copia con su bloqueo de lectura, así
+     * que el resultado es coherente por segmento pero no entre segmentos.
+     *
+     * @return Los vehículos, sin un orden definido.
+     * @throws IllegalStateException Si el registro es compacto.
+     */
+    public List<PMVehicle> values() {
+        requireVehicles();
+        List<PMVehicle> values = new ArrayList<>(size());
+        for (Segment segment : segments) {
+            long stamp = segment.lock.readLock();
+            try {
+                for (PMVehicle vehicle : segment.table.vehicles) {
+                    if (vehicle != null) {
+                        values.add(vehicle);
+                    }
+                }
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Obtiene el número de vehículos registrados.
+     *
+     * @return El tamaño de la flota registrada.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    @Override
+    public void onStateChanged(PMVehicle vehicle, PMVState oldState, PMVState newState) {
+        refresh(vehicle);
+    }
+
+    @Override
+    public void onLocationChanged(PMVehicle vehicle, GeographicPoint oldLocation, GeographicPoint newLocation) {
+        refresh(vehicle);
+    }
+
+    // Métodos internos
+
+    private void requireVehicles() {
+        if (!retainsVehicles) {
+            throw new IllegalStateException("El registro compacto no guarda los vehículos.");
+        }
+    }
+
+    private Segment segmentFor(int hash) {
+        return segments[hash >>> (Integer.SIZE - SEGMENT_BITS)];
+    }
+
+    /**
+     * Copia el estado y la ubicación actuales del vehículo a su entrada, si sigue registrado. Se leen del
+     * vehículo con el bloqueo tomado, de modo que dos notificaciones simultáneas dejan el último valor.
+     */
+    private void refresh(PMVehicle vehicle) {
+        VehicleID id = vehicle.getId();
+        long high = id.getKeyHigh();
+        long low = id.getKeyLow();
+        int hash = PackedId.hash(high, low);
+        Segment segment = segmentFor(hash);
+        long stamp = segment.lock.writeLock();
+        try {
+            Table table = segment.table;
+            int slot = find(table, high, low, hash);
+            if (slot >= 0 && table.vehicles[slot] == vehicle) {
+                table.store(slot, vehicle);
+            }
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Busca la posición de una clave. Acota el sondeo a la capacidad de la tabla para terminar aunque una
+     * lectura optimista vea la tabla a medio modificar; en ese caso el resultado se descarta al validar.
+     */
+    private static int find(Table table, long high, long low, int hash) {
+        int mask = table.mask;
+        int slot = hash & mask;
+        for (int probes = 0; probes <= mask; probes++) {
+            long key = table.keyHigh[slot];
+            if (key == 0) {
+                return -1;
+            }
+            if (key == high && table.keyLow[slot] == low) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static int freeSlot(Table table, int hash) {
+        int slot = hash & table.mask;
+        while (table.keyHigh[slot] != 0) {
+            slot = (slot + 1) & table.mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Segmento de la tabla con su propio bloqueo.
+     */
+    private static final class Segment {
+        private final StampedLock lock = new StampedLock();
+        private volatile Table table;
+        private volatile int size;
+
+        private Segment(int capacity, boolean retainsVehicles) {
+            this.table = new Table(capacity, retainsVehicles);
+        }
+
+        /**
+         * Duplica la capacidad del segmento. Se llama con el bloqueo de escritura tomado.
+         */
+        private Table resize() {
+            Table old = table;
+            Table grown = new Table((old.mask + 1) * 2, old.vehicles != null);
+            for (int i = 0; i <= old.mask; i++) {
+                if (old.keyHigh[i] != 0) {
+                    int slot = freeSlot(grown, PackedId.hash(old.keyHigh[i], old.keyLow[i]));
+                    grown.keyHigh[slot] = old.keyHigh[i];
+                    grown.keyLow[slot] = old.keyLow[i];
+                    grown.locations[slot] = old.locations[i];
+                    grown.states[slot] = old.states[i];
+                    if (old.vehicles != null) {
+                        grown.vehicles[slot] = old.vehicles[i];
+                    }
+                }
+            }
+            table = grown;
+            return grown;
+        }
+    }
+
+    /**
+     * Arrays paralelos de un segmento. Una palabra alta a 0 marca una posición libre: ningún VehicleID
+     * válido la tiene, porque su primer carácter nunca se codifica como 0. En el registro compacto no hay
+     * array de vehículos.
+     */
+    private static final class Table {
+        private final int mask;
+        private final long[] keyHigh;
+        private final long[] keyLow;
+        private final long[] locations;
+        private final byte[] states;
+        private final PMVehicle[] vehicles;
+
+        private Table(int capacity, boolean retainsVehicles) {
+            this.mask = capacity - 1;
+            this.keyHigh = new long[capacity];
+            this.keyLow = new long[capacity];
+            this.locations = new long[capacity];
+            this.states = new byte[capacity];
+            this.vehicles = retainsVehicles ? new PMVehicle[capacity] : null;
+        }
+
+        private void store(int slot, PMVehicle vehicle) {
+            states[slot] = (byte) vehicle.getState().ordinal();
+            locations[slot] = PackedPoint.pack(vehicle.getLocation());
+        }
+
+        /**
+         * Elimina una entrada desplazando hacia atrás las siguientes del mismo tramo que puedan ocupar su
+         * posición, para que ninguna búsqueda se corte en un hueco.
+         */
+        private void delete(int slot) {
+            int hole = slot;
+            int next = (hole + 1) & mask;
+            while (keyHigh[next] != 0) {
+                int home = PackedId.hash(keyHigh[next], keyLow[next]) & mask;
+                // La entrada puede moverse al hueco si su posición ideal no está entre el hueco y ella
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    keyHigh[hole] = keyHigh[next];
+                    keyLow[hole] = keyLow[next];
+                    locations[hole] = locations[next];
+                    states[hole] = states[next];
+                    if (vehicles != null) {
+                        vehicles[hole] = vehicles[next];
+                    }
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+            keyHigh[hole] = 0;
+            keyLow[hole] = 0;
+            if (vehicles != null) {
+                vehicles[hole] = null;
+            }
+        }
+    }
+}
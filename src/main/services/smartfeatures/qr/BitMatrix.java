@@ -0,0 +1,92 @@
+package services.smartfeatures.qr;
+
+import java.util.Arrays;
+
+/**
+ * Matriz de bits en filas de long, para la imagen binarizada y para los módulos de un código QR.
+ * Un bit a 1 es un píxel o módulo oscuro. Las coordenadas son (x, y): columna y fila.
+ */
+final class BitMatrix {
+
+    private int width;
+    private int height;
+    private int rowWords;
+    private long[] bits;
+    private long[] scratch = new long[0];
+
+    BitMatrix(int width, int height) {
+        this.bits = new long[0];
+        reset(width, height);
+    }
+
+    /**
+     * Redimensiona la matriz y la deja en blanco, reutilizando el array si cabe.
+     */
+    void reset(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.rowWords = (width + 63) >>> 6;
+        int words = rowWords * height;
+        if (bits.length < words) {
+            bits = new long[words];
+        } else {
+            Arrays.fill(bits, 0, words, 0L);
+        }
+    }
+
+    int width() {
+        return width;
+    }
+
+    int height() {
+        return height;
+    }
+
+    boolean get(int x, int y) {
+        return (bits[y * rowWords + (x >>> 6)] & (1L << x)) != 0;
+    }
+
+    void set(int x, int y) {
+        bits[y * rowWords + (x >>> 6)] |= 1L << x;
+    }
+
+    void set(int x, int y, boolean dark) {
+        int index = y * rowWords + (x >>> 6);
+        if (dark) {
+            bits[index] |= 1L << x;
+        } else {
+            bits[index] &= ~(1L << x);
+        }
+    }
+
+    void flip(int x, int y) {
+        bits[y * rowWords + (x >>> 6)] ^= 1L << x;
+    }
+
+    /**
+     * Invierte los bits aislados, distintos de sus cuatro vecinos, operando por palabras de 64 bits.
+     * Fuera de la matriz se consideran claros los vecinos laterales e iguales los de arriba y abajo.
+     */
+    void despeckle() {
+        int words = rowWords * height;
+        if (scratch.length < words) {
+            scratch = new long[words];
+        }
+        System.arraycopy(bits, 0, scratch, 0, words);
+        long lastWordMask = (width & 63) == 0 ? -1L : (1L << width) - 1;
+        for (int y = 0; y < height; y++) {
+            int row = y * rowWords;
+            for (int k = 0; k < rowWords; k++) {
+                long center = scratch[row + k];
+                long up = y > 0 ? scratch[row - rowWords + k] : center;
+                long down = y < height - 1 ? scratch[row + rowWords + k] : center;
+                long left = center << 1 | (k > 0 ? scratch[row + k - 1] >>> 63 : 0L);
+                long right = center >>> 1 | (k < rowWords - 1 ? scratch[row + k + 1] << 63 : 0L);
+                long isolatedDark = center & ~up & ~down & ~left & ~right;
+                long isolatedLight = ~center & up & down & left & right;
+                long value = (center & ~isolatedDark) | isolatedLight;
+                bits[row + k] = k == rowWords - 1 ? value & lastWordMask : value;
+            }
+        }
+    }
+}
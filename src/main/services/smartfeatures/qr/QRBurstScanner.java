@@ -0,0 +1,178 @@
+package services.smartfeatures.qr;
+
+import data.VehicleID;
+import exceptions.CorruptedImgException;
+import exceptions.InvalidPairingArgsException;
+
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Escanea ráfagas de fotogramas de la cámara y devuelve el primer VehicleID que se decodifique, en lugar de
+ * depender de que el primer fotograma sea nítido. Varios trabajadores se reparten los fotogramas en orden;
+ * en cuanto uno acierta se completa el futuro y los demás abandonan la imagen que estén procesando en la
+ * siguiente etapa del decodificador, sin empezar ninguna otra. Cancelar el futuro tiene el mismo efecto.
+ * Los espacios de trabajo del decodificador se reutilizan entre fotogramas y entre ráfagas, así que una
+ * ráfaga del mismo tamaño de imagen que la anterior no reserva arrays nuevos.
+ */
+public class QRBurstScanner implements AutoCloseable {
+
+    private final QRImageDecoder decoder;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private final int parallelism;
+    private final ConcurrentLinkedQueue<QRImageDecoder.Workspace> workspaces = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Constructor que usa un decodificador nuevo y un trabajador por procesador sobre el ejecutor por defecto
+     * de {@link QRDecodingPool}, que se cierra junto con el escáner.
+     */
+    public QRBurstScanner() {
+        this(new QRImageDecoder(), QRDecodingPool.newDefaultExecutor(), Runtime.getRuntime().availableProcessors(), true);
+    }
+
+    /**
+     * Constructor con un decodificador y un ejecutor propios. El escáner no cierra el ejecutor.
+     *
+     * @param decoder     El decodificador.
+     * @param executor    El ejecutor donde trabajan los decodificadores.
+     * @param parallelism Número máximo de fotogramas de una ráfaga que se decodifican a la vez.
+     * @throws IllegalArgumentException Si algún parámetro es nulo o el paralelismo no es positivo.
+     */
+    public QRBurstScanner(QRImageDecoder decoder, ExecutorService executor, int parallelism) {
+        this(decoder, executor, parallelism, false);
+    }
+
+    private QRBurstScanner(QRImageDecoder decoder, ExecutorService executor, int parallelism, boolean ownsExecutor) {
+        if (decoder == null || executor == null) {
+            throw new IllegalArgumentException("El decodificador y el ejecutor no pueden ser nulos.");
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("El paralelismo debe ser mayor a 0.");
+        }
+        this.decoder = decoder;
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    /**
+     * Decodifica una ráfaga de fotogramas hasta el primer acierto.
+     *
+     * @param frames Los fotogramas, en el orden en que los tomó la cámara.
+     * @return Un futuro con el primer VehicleID decodificado. Si ningún fotograma se puede leer, falla con
+     * InvalidPairingArgsException cuando alguno tenía un QR que no es un VehicleID, o con
+     * CorruptedImgException en otro caso.
+     * @throws IllegalArgumentException Si la lista es nula.
+     */
+    public CompletableFuture<VehicleID> scan(List<BufferedImage> frames) {
+        if (frames == null) {
+            throw new IllegalArgumentException("La lista de fotogramas no puede ser nula.");
+        }
+        Burst burst = new Burst(frames);
+        if (frames.isEmpty()) {
+            burst.result.completeExceptionally(burst.failure());
+            return burst.result;
+        }
+        int workers = Math.min(parallelism, frames.size());
+        burst.activeWorkers.set(workers);
+        for (int i = 0; i < workers; i++) {
+            try {
+                executor.execute(burst::work);
+            } catch (RejectedExecutionException e) {
+                burst.result.completeExceptionally(e);
+                burst.activeWorkers.addAndGet(-(workers - i));
+                break;
+            }
+        }
+        return burst.result;
+    }
+
+    /**
+     * Número de espacios de trabajo libres, listos para la siguiente ráfaga.
+     */
+    int idleWorkspaces() {
+        return workspaces.size();
+    }
+
+    /**
+     * Cierra el ejecutor si lo creó el propio escáner. Las ráfagas en curso terminan normalmente.
+     */
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+    }
+
+    // Métodos internos
+
+    private QRImageDecoder.Workspace borrowWorkspace() {
+        QRImageDecoder.Workspace workspace = workspaces.poll();
+        return workspace != null ? workspace : new QRImageDecoder.Workspace();
+    }
+
+    /**
+     * Estado compartido de una ráfaga: el siguiente fotograma por repartir, los trabajadores activos y el
+     * motivo del fallo si ninguno acierta. Hace también de señal de parada para los espacios de trabajo.
+     */
+    private final class Burst implements BooleanSupplier {
+        private final List<BufferedImage> frames;
+        private final CompletableFuture<VehicleID> result = new CompletableFuture<>();
+        private final AtomicInteger nextFrame = new AtomicInteger();
+        private final AtomicInteger activeWorkers = new AtomicInteger();
+        private volatile InvalidPairingArgsException invalid;
+
+        private Burst(List<BufferedImage> frames) {
+            this.frames = frames;
+        }
+
+        @Override
+        public boolean getAsBoolean() {
+            return result.isDone();
+        }
+
+        private void work() {
+            QRImageDecoder.Workspace workspace = borrowWorkspace();
+            workspace.setStopSignal(this);
+            try {
+                while (!result.isDone()) {
+                    int index = nextFrame.getAndIncrement();
+                    if (index >= frames.size()) {
+                        break;
+                    }
+                    try {
+                        result.complete(decoder.getVehicleID(frames.get(index), workspace));
+                    } catch (InvalidPairingArgsException e) {
+                        invalid = e;
+                    } catch (CorruptedImgException e) {
+                        // Fotograma ilegible: se pasa al siguiente
+                    } catch (RuntimeException e) {
+                        result.completeExceptionally(e);
+                    }
+                }
+            } finally {
+                workspace.setStopSignal(null);
+                workspaces.offer(workspace);
+                if (activeWorkers.decrementAndGet() == 0 && !result.isDone()) {
+                    result.completeExceptionally(failure());
+                }
+            }
+        }
+
+        private Exception failure() {
+            InvalidPairingArgsException cause = invalid;
+            if (cause != null) {
+                return cause;
+            }
+            return new CorruptedImgException("Ninguno de los " + frames.size()
+                    + " fotogramas contiene un código QR legible.");
+        }
+    }
+}
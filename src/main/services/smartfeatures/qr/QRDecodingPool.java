@@ -0,0 +1,149 @@
+package services.smartfeatures.qr;
+
+import data.VehicleID;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decodifica lotes de imágenes de QR en paralelo sobre un grupo de hilos. Cada hilo reutiliza su espacio de
+ * trabajo del {@link QRImageDecoder}, así que un lote no crea arrays nuevos por imagen una vez calentado.
+ * Como la decodificación solo usa CPU, el ejecutor por defecto tiene un hilo daemon por procesador.
+ */
+public class QRDecodingPool implements AutoCloseable {
+
+    private final QRImageDecoder decoder;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+
+    /**
+     * Constructor que usa un decodificador nuevo y el ejecutor por defecto, que se cierra junto con el grupo.
+     */
+    public QRDecodingPool() {
+        this(new QRImageDecoder(), newDefaultExecutor(), true);
+    }
+
+    /**
+     * Constructor con un decodificador y un ejecutor propios. El grupo no cierra el ejecutor.
+     *
+     * @param decoder  El decodificador.
+     * @param executor El ejecutor donde se decodifican las imágenes.
+     * @throws IllegalArgumentException Si algún parámetro es nulo.
+     */
+    public QRDecodingPool(QRImageDecoder decoder, ExecutorService executor) {
+        this(decoder, executor, false);
+    }
+
+    private QRDecodingPool(QRImageDecoder decoder, ExecutorService executor, boolean ownsExecutor) {
+        if (decoder == null || executor == null) {
+            throw new IllegalArgumentException("El decodificador y el ejecutor no pueden ser nulos.");
+        }
+        this.decoder = decoder;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    /**
+     * Crea el ejecutor por defecto: un grupo fijo de hilos daemon, uno por procesador.
+     *
+     * @return Un nuevo ejecutor.
+     */
+    public static ExecutorService newDefaultExecutor() {
+        return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new DaemonThreadFactory());
+    }
+
+    /**
+     * Encola la decodificación de una imagen.
+     *
+     * @param qrImg La imagen del QR.
+     * @return Un futuro con el VehicleID, o que falla con CorruptedImgException o InvalidPairingArgsException.
+     */
+    public CompletableFuture<VehicleID> submit(BufferedImage qrImg) {
+        CompletableFuture<VehicleID> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                if (result.isDone()) {
+                    return;  // Cancelado antes de empezar
+                }
+                try {
+                    result.complete(decoder.getVehicleID(qrImg));
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Encola la decodificación de todas las imágenes de un lote.
+     *
+     * @param images Las imágenes.
+     * @return Un futuro por imagen, en el mismo orden.
+     * @throws IllegalArgumentException Si la lista es nula.
+     */
+    public List<CompletableFuture<VehicleID>> submitAll(List<BufferedImage> images) {
+        if (images == null) {
+            throw new IllegalArgumentException("La lista de imágenes no puede ser nula.");
+        }
+        List<CompletableFuture<VehicleID>> futures = new ArrayList<>(images.size());
+        for (BufferedImage image : images) {
+            futures.add(submit(image));
+        }
+        return futures;
+    }
+
+    /**
+     * Decodifica un lote y espera a que terminen todas las imágenes.
+     *
+     * @param images Las imágenes.
+     * @return El VehicleID de cada imagen en el mismo orden, o null en las que no se pudieron decodificar.
+     * @throws IllegalArgumentException Si la lista es nula.
+     */
+    public List<VehicleID> decodeAll(List<BufferedImage> images) {
+        List<CompletableFuture<VehicleID>> futures = submitAll(images);
+        List<VehicleID> ids = new ArrayList<>(futures.size());
+        for (CompletableFuture<VehicleID> future : futures) {
+            try {
+                ids.add(future.join());
+            } catch (CompletionException e) {
+                ids.add(null);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Cierra el ejecutor si lo creó el propio grupo. Las decodificaciones en curso terminan normalmente.
+     */
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Fábrica de hilos daemon para el ejecutor por defecto.
+     */
+    private static final class DaemonThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "qr-decoder-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
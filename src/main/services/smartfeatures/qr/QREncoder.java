@@ -0,0 +1,283 @@
+package services.smartfeatures.qr;
+
+import data.VehicleID;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Generador de códigos QR en modo byte, versiones 1 a 4, para imprimir las pegatinas de los vehículos y para
+ * preparar imágenes de prueba del decodificador. Elige la versión más pequeña en la que cabe el texto y la
+ * máscara de datos con menor penalización.
+ */
+public final class QREncoder {
+
+    /**
+     * Tamaño por defecto de cada módulo, en píxeles.
+     */
+    public static final int DEFAULT_MODULE_SIZE = 4;
+
+    /**
+     * Módulos claros que rodean al símbolo, como exige la norma.
+     */
+    public static final int QUIET_ZONE = 4;
+
+    private static final int MODE_BYTE = 0b0100;
+    private static final int DARK = 0x000000;
+    private static final int LIGHT = 0xFFFFFF;
+
+    private QREncoder() {
+    }
+
+    /**
+     * Genera la imagen del código QR de un vehículo, con corrección de nivel M y el tamaño de módulo por defecto.
+     *
+     * @param vehicleID El identificador del vehículo.
+     * @return Una imagen TYPE_INT_RGB con el código y su zona de silencio.
+     * @throws IllegalArgumentException Si el identificador es nulo.
+     */
+    public static BufferedImage render(VehicleID vehicleID) {
+        if (vehicleID == null) {
+            throw new IllegalArgumentException("El VehicleID no puede ser nulo.");
+        }
+        return render(vehicleID.getId(), QRErrorCorrection.M, DEFAULT_MODULE_SIZE);
+    }
+
+    /**
+     * Genera la imagen de un código QR.
+     *
+     * @param text       El contenido, en ISO-8859-1.
+     * @param level      El nivel de corrección de errores.
+     * @param moduleSize El lado de cada módulo, en píxeles.
+     * @return Una imagen TYPE_INT_RGB con el código y su zona de silencio.
+     * @throws IllegalArgumentException Si algún parámetro es nulo, el tamaño no es positivo o el texto no cabe
+     *                                  en la versión 4.
+     */
+    public static BufferedImage render(String text, QRErrorCorrection level, int moduleSize) {
+        if (moduleSize <= 0) {
+            throw new IllegalArgumentException("El tamaño de módulo debe ser mayor a 0.");
+        }
+        return toImage(encode(text, level, -1), moduleSize);
+    }
+
+    /**
+     * Genera la matriz de módulos de un código QR.
+     *
+     * @param mask La máscara de datos (0 a 7), o -1 para elegir la de menor penalización.
+     */
+    static BitMatrix encode(String text, QRErrorCorrection level, int mask) {
+        if (text == null || level == null) {
+            throw new IllegalArgumentException("El texto y el nivel de corrección no pueden ser nulos.");
+        }
+        if (mask < -1 || mask > 7) {
+            throw new IllegalArgumentException("Máscara de datos fuera de rango: " + mask);
+        }
+        byte[] payload = text.getBytes(StandardCharsets.ISO_8859_1);
+        QRVersion version = chooseVersion(payload.length, level);
+        int[] codewords = interleave(version, level, dataCodewords(payload, version.dataCodewords(level)));
+
+        BitMatrix modules = new BitMatrix(version.size(), version.size());
+        drawFunctionPatterns(modules, version);
+        drawCodewords(modules, version, codewords);
+        if (mask >= 0) {
+            applyMask(modules, version, mask);
+            drawFormat(modules, version, level, mask);
+            return modules;
+        }
+
+        int bestMask = 0;
+        int bestPenalty = Integer.MAX_VALUE;
+        for (int candidate = 0; candidate < 8; candidate++) {
+            applyMask(modules, version, candidate);
+            drawFormat(modules, version, level, candidate);
+            int penalty = penalty(modules);
+            if (penalty < bestPenalty) {
+                bestMask = candidate;
+                bestPenalty = penalty;
+            }
+            applyMask(modules, version, candidate);  // La máscara es un XOR: aplicarla otra vez la deshace
+        }
+        applyMask(modules, version, bestMask);
+        drawFormat(modules, version, level, bestMask);
+        return modules;
+    }
+
+    /**
+     * Dibuja una matriz de módulos sobre el array de la imagen, sin pasar por setRGB.
+     */
+    static BufferedImage toImage(BitMatrix modules, int moduleSize) {
+        int side = (modules.width() + 2 * QUIET_ZONE) * moduleSize;
+        BufferedImage image = new BufferedImage(side, side, BufferedImage.TYPE_INT_RGB);
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        Arrays.fill(pixels, LIGHT);
+        int offset = QUIET_ZONE * moduleSize;
+        for (int y = 0; y < modules.height(); y++) {
+            int rowStart = (offset + y * moduleSize) * side + offset;
+            for (int x = 0; x < modules.width(); x++) {
+                if (modules.get(x, y)) {
+                    Arrays.fill(pixels, rowStart + x * moduleSize, rowStart + (x + 1) * moduleSize, DARK);
+                }
+            }
+            for (int i = 1; i < moduleSize; i++) {
+                System.arraycopy(pixels, rowStart - offset, pixels, rowStart - offset + i * side, side);
+            }
+        }
+        return image;
+    }
+
+    // Métodos internos
+
+    private static QRVersion chooseVersion(int length, QRErrorCorrection level) {
+        int bitsNeeded = 4 + 8 + 8 * length;
+        for (int v = QRVersion.MIN_VERSION; v <= QRVersion.MAX_VERSION; v++) {
+            QRVersion version = QRVersion.forNumber(v);
+            if (bitsNeeded <= version.dataCodewords(level) * 8) {
+                return version;
+            }
+        }
+        throw new IllegalArgumentException("El texto no cabe en un código QR de versión 4 con nivel " + level + ".");
+    }
+
+    private static int[] dataCodewords(byte[] payload, int capacity) {
+        int[] codewords = new int[capacity];
+        int bit = 0;
+        bit = appendBits(codewords, bit, MODE_BYTE, 4);
+        bit = appendBits(codewords, bit, payload.length, 8);
+        for (byte b : payload) {
+            bit = appendBits(codewords, bit, b & 0xFF, 8);
+        }
+        // Terminador de hasta cuatro ceros, ajuste a byte y bytes de relleno alternos
+        bit = Math.min(bit + 4, capacity * 8);
+        int index = (bit + 7) >>> 3;
+        for (int pad = 0xEC; index < capacity; index++, pad ^= 0xEC ^ 0x11) {
+            codewords[index] = pad;
+        }
+        return codewords;
+    }
+
+    private static int appendBits(int[] codewords, int bit, int value, int count) {
+        for (int i = count - 1; i >= 0; i--, bit++) {
+            codewords[bit >>> 3] |= ((value >>> i) & 1) << (7 - (bit & 7));
+        }
+        return bit;
+    }
+
+    private static int[] interleave(QRVersion version, QRErrorCorrection level, int[] data) {
+        int blocks = version.blockCount(level);
+        int dataPerBlock = version.dataPerBlock(level);
+        int ecPerBlock = version.ecPerBlock(level);
+        int[] result = new int[version.totalCodewords()];
+        for (int b = 0; b < blocks; b++) {
+            int[] blockData = Arrays.copyOfRange(data, b * dataPerBlock, (b + 1) * dataPerBlock);
+            int[] ec = ReedSolomon.encode(blockData, ecPerBlock);
+            for (int i = 0; i < dataPerBlock; i++) {
+                result[i * blocks + b] = blockData[i];
+            }
+            for (int i = 0; i < ecPerBlock; i++) {
+                result[blocks * dataPerBlock + i * blocks + b] = ec[i];
+            }
+        }
+        return result;
+    }
+
+    private static void drawFunctionPatterns(BitMatrix modules, QRVersion version) {
+        int size = version.size();
+        for (int i = 8; i < size - 8; i++) {
+            modules.set(6, i, i % 2 == 0);
+            modules.set(i, 6, i % 2 == 0);
+        }
+        drawFinder(modules, 3, 3);
+        drawFinder(modules, size - 4, 3);
+        drawFinder(modules, 3, size - 4);
+        int center = version.alignmentCenter();
+        if (center != 0) {
+            for (int dy = -2; dy <= 2; dy++) {
+                for (int dx = -2; dx <= 2; dx++) {
+                    modules.set(center + dx, center + dy, Math.max(Math.abs(dx), Math.abs(dy)) != 1);
+                }
+            }
+        }
+        modules.set(8, size - 8);  // Módulo oscuro fijo
+    }
+
+    private static void drawFinder(BitMatrix modules, int cx, int cy) {
+        int size = modules.width();
+        for (int dy = -4; dy <= 4; dy++) {
+            for (int dx = -4; dx <= 4; dx++) {
+                int x = cx + dx;
+                int y = cy + dy;
+                if (x >= 0 && x < size && y >= 0 && y < size) {
+                    int distance = Math.max(Math.abs(dx), Math.abs(dy));
+                    modules.set(x, y, distance != 2 && distance != 4);
+                }
+            }
+        }
+    }
+
+    private static void drawCodewords(BitMatrix modules, QRVersion version, int[] codewords) {
+        int[] order = version.dataOrder();
+        int size = version.size();
+        for (int bit = 0; bit < codewords.length * 8; bit++) {
+            if (((codewords[bit >>> 3] >>> (7 - (bit & 7))) & 1) != 0) {
+                modules.set(order[bit] % size, order[bit] / size);
+            }
+        }
+    }
+
+    private static void applyMask(BitMatrix modules, QRVersion version, int mask) {
+        int size = version.size();
+        for (int position : version.dataOrder()) {
+            int x = position % size;
+            int y = position / size;
+            if (QRVersion.masked(mask, x, y)) {
+                modules.flip(x, y);
+            }
+        }
+    }
+
+    private static void drawFormat(BitMatrix modules, QRVersion version, QRErrorCorrection level, int mask) {
+        int bits = QRVersion.formatBits(level, mask);
+        for (int i = 0; i < 15; i++) {
+            boolean dark = ((bits >>> i) & 1) != 0;
+            modules.set(QRVersion.formatX1(i), QRVersion.formatY1(i), dark);
+            modules.set(version.formatX2(i), version.formatY2(i), dark);
+        }
+    }
+
+    /**
+     * Penalización de la norma para elegir la máscara: tramos de cinco o más módulos iguales, bloques de 2x2
+     * del mismo color y desequilibrio entre módulos claros y oscuros. Se omite la regla de los patrones
+     * parecidos a un localizador, que apenas cambia la elección en símbolos tan pequeños.
+     */
+    private static int penalty(BitMatrix modules) {
+        int size = modules.width();
+        int penalty = 0;
+        int dark = 0;
+        for (int a = 0; a < size; a++) {
+            int rowRun = 1;
+            int columnRun = 1;
+            for (int b = 1; b < size; b++) {
+                rowRun = modules.get(b, a) == modules.get(b - 1, a) ? rowRun + 1 : 1;
+                columnRun = modules.get(a, b) == modules.get(a, b - 1) ? columnRun + 1 : 1;
+                penalty += (rowRun == 5 ? 3 : rowRun > 5 ? 1 : 0) + (columnRun == 5 ? 3 : columnRun > 5 ? 1 : 0);
+            }
+        }
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                boolean color = modules.get(x, y);
+                if (color) {
+                    dark++;
+                }
+                if (x > 0 && y > 0 && color == modules.get(x - 1, y) && color == modules.get(x, y - 1)
+                        && color == modules.get(x - 1, y - 1)) {
+                    penalty += 3;
+                }
+            }
+        }
+        int total = size * size;
+        penalty += (Math.abs(dark * 20 - total * 10) + total - 1) / total * 10;
+        return penalty;
+    }
+}
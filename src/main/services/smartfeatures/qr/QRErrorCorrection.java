@@ -0,0 +1,28 @@
+package services.smartfeatures.qr;
+
+/**
+ * Niveles de corrección de errores de un código QR, con los bits que los identifican en la información de
+ * formato.
+ */
+public enum QRErrorCorrection {
+    L(1),  // Recupera ~7 % de los codewords
+    M(0),  // Recupera ~15 %
+    Q(3),  // Recupera ~25 %
+    H(2);  // Recupera ~30 %
+
+    private static final QRErrorCorrection[] BY_FORMAT_BITS = {M, L, H, Q};
+
+    private final int formatBits;
+
+    QRErrorCorrection(int formatBits) {
+        this.formatBits = formatBits;
+    }
+
+    int formatBits() {
+        return formatBits;
+    }
+
+    static QRErrorCorrection fromFormatBits(int bits) {
+        return BY_FORMAT_BITS[bits & 3];
+    }
+}
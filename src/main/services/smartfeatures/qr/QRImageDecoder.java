@@ -0,0 +1,603 @@
+package services.smartfeatures.qr;
+
+import data.VehicleID;
+import exceptions.CorruptedImgException;
+import exceptions.InvalidPairingArgsException;
+import services.smartfeatures.QRDecoder;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Decodificador de códigos QR de vehículos a partir de imágenes de cámara, sin dependencias externas.
+ * El proceso se hace por etapas sobre arrays reutilizables:
+ * <ol>
+ *     <li>Luminancia: se leen los píxeles directamente del array de la imagen (TYPE_INT_RGB, TYPE_INT_ARGB,
+ *     TYPE_3BYTE_BGR o TYPE_BYTE_GRAY) en lugar de llamar a getRGB por píxel; para otros tipos se hace una
+ *     sola llamada a getRGB para toda la imagen.</li>
+ *     <li>Binarización con umbral adaptativo por bloques de 8x8 píxeles, que tolera sombras y reflejos.</li>
+ *     <li>Búsqueda de los tres patrones localizadores por la proporción 1:1:3:1:1, confirmada en vertical y
+ *     en horizontal. Si no aparecen los tres, se repite tras eliminar los píxeles sueltos de la imagen
+ *     binarizada, que es lo que suele romper las proporciones en una foto con ruido.</li>
+ *     <li>Muestreo de la rejilla de módulos con la transformación afín que definen los localizadores y
+ *     decodificación del símbolo, con corrección de errores Reed-Solomon.</li>
+ * </ol>
+ * Admite las versiones 1 a 4, suficientes para un VehicleID, y no corrige la perspectiva: la imagen debe
+ * estar tomada más o menos de frente, como la de la cámara de la aplicación al escanear la pegatina.
+ * Es seguro usarlo desde varios hilos: cada hilo reutiliza su propio espacio de trabajo.
+ */
+public class QRImageDecoder implements QRDecoder {
+
+    private static final int BLOCK_SIZE = 8;
+    private static final int MIN_DYNAMIC_RANGE = 24;
+    private static final int MAX_CANDIDATES = 32;
+
+    private final ThreadLocal<Workspace> workspaces = ThreadLocal.withInitial(Workspace::new);
+
+    @Override
+    public VehicleID getVehicleID(BufferedImage qrImg) throws CorruptedImgException, InvalidPairingArgsException {
+        return getVehicleID(qrImg, workspaces.get());
+    }
+
+    /**
+     * Decodifica el VehicleID usando un espacio de trabajo concreto.
+     */
+    VehicleID getVehicleID(BufferedImage qrImg, Workspace workspace)
+            throws CorruptedImgException, InvalidPairingArgsException {
+        return new VehicleID(decodeText(qrImg, workspace));
+    }
+
+    /**
+     * Decodifica el texto de la imagen usando un espacio de trabajo concreto.
+     *
+     * @throws CorruptedImgException Si la imagen es nula, no contiene un código QR legible, este no es de
+     *                               una versión soportada o la señal de parada del espacio de trabajo se
+     *                               activa entre dos etapas.
+     */
+    String decodeText(BufferedImage qrImg, Workspace workspace) throws CorruptedImgException {
+        if (qrImg == null) {
+            throw new CorruptedImgException("La imagen del QR no puede ser nula.");
+        }
+        loadLuminance(qrImg, workspace);
+        workspace.checkStop();
+        binarize(workspace);
+        workspace.checkStop();
+        findFinderPatterns(workspace);
+        float[] finders = selectFinders(workspace);
+        if (finders == null) {
+            // Segundo intento sin los píxeles sueltos, que rompen las proporciones de los localizadores
+            workspace.checkStop();
+            workspace.clearCandidates();
+            workspace.binary.despeckle();
+            findFinderPatterns(workspace);
+            workspace.checkStop();
+            finders = selectFinders(workspace);
+            if (finders == null) {
+                throw new CorruptedImgException("No se encontró ningún código QR en la imagen.", false);
+            }
+        }
+        return QRSymbolDecoder.decode(sampleGrid(workspace, finders));
+    }
+
+    // Métodos internos
+
+    static void loadLuminance(BufferedImage image, Workspace workspace) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        workspace.reset(width, height);
+        byte[] luminance = workspace.luminance;
+        int pixels = width * height;
+
+        WritableRaster raster = image.getRaster();
+        boolean packed = raster.getSampleModelTranslateX() == 0 && raster.getSampleModelTranslateY() == 0
+                && raster.getDataBuffer().getOffset() == 0;
+        switch (image.getType()) {
+            case BufferedImage.TYPE_INT_RGB:
+            case BufferedImage.TYPE_INT_ARGB:
+            case BufferedImage.TYPE_INT_ARGB_PRE:
+                if (packed && raster.getSampleModel() instanceof SinglePixelPackedSampleModel model
+                        && model.getScanlineStride() == width) {
+                    int[] data = ((DataBufferInt) raster.getDataBuffer()).getData();
+                    for (int i = 0; i < pixels; i++) {
+                        luminance[i] = luminance(data[i]);
+                    }
+                    return;
+                }
+                break;
+            case BufferedImage.TYPE_3BYTE_BGR:
+                if (packed && raster.getSampleModel() instanceof ComponentSampleModel model
+                        && model.getScanlineStride() == width * 3 && model.getPixelStride() == 3) {
+                    byte[] data = ((DataBufferByte) raster.getDataBuffer()).getData();
+                    for (int i = 0, j = 0; i < pixels; i++, j += 3) {
+                        luminance[i] = (byte) (((data[j + 2] & 0xFF) * 77 + (data[j + 1] & 0xFF) * 150
+                                + (data[j] & 0xFF) * 29) >>> 8);
+                    }
+                    return;
+                }
+                break;
+            case BufferedImage.TYPE_BYTE_GRAY:
+                if (packed && raster.getSampleModel() instanceof ComponentSampleModel model
+                        && model.getScanlineStride() == width && model.getPixelStride() == 1) {
+                    System.arraycopy(((DataBufferByte) raster.getDataBuffer()).getData(), 0, luminance, 0, pixels);
+                    return;
+                }
+                break;
+            default:
+                break;
+        }
+        // Otros formatos o subimágenes: una sola conversión de toda la imagen
+        int[] rgb = workspace.rgb(pixels);
+        image.getRGB(0, 0, width, height, rgb, 0, width);
+        for (int i = 0; i < pixels; i++) {
+            luminance[i] = luminance(rgb[i]);
+        }
+    }
+
+    private static byte luminance(int rgb) {
+        return (byte) ((((rgb >>> 16) & 0xFF) * 77 + ((rgb >>> 8) & 0xFF) * 150 + (rgb & 0xFF) * 29) >>> 8);
+    }
+
+    /**
+     * Umbral adaptativo: la media de cada bloque de 8x8, promediada con la de sus vecinos en una ventana de
+     * 5x5 bloques. Un bloque sin contraste toma el umbral de sus vecinos ya calculados, para que el interior
+     * de un módulo oscuro grande no se tome por fondo.
+     */
+    private static void binarize(Workspace workspace) {
+        int width = workspace.width;
+        int height = workspace.height;
+        byte[] luminance = workspace.luminance;
+        BitMatrix binary = workspace.binary;
+        int blocksX = (width + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        int blocksY = (height + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        if (blocksX < 5 || blocksY < 5) {
+            binarizeGlobal(workspace);
+            return;
+        }
+
+        int[] averages = workspace.averages(blocksX * blocksY);
+        for (int by = 0; by < blocksY; by++) {
+            for (int bx = 0; bx < blocksX; bx++) {
+                int x1 = Math.min((bx + 1) * BLOCK_SIZE, width);
+                int y1 = Math.min((by + 1) * BLOCK_SIZE, height);
+                int sum = 0;
+                int min = 255;
+                int max = 0;
+                for (int y = by * BLOCK_SIZE; y < y1; y++) {
+                    for (int i = y * width + bx * BLOCK_SIZE, end = y * width + x1; i < end; i++) {
+                        int value = luminance[i] & 0xFF;
+                        sum += value;
+                        min = Math.min(min, value);
+                        max = Math.max(max, value);
+                    }
+                }
+                int average = sum / ((x1 - bx * BLOCK_SIZE) * (y1 - by * BLOCK_SIZE));
+                if (max - min <= MIN_DYNAMIC_RANGE) {
+                    average = min / 2;
+                    if (bx > 0 && by > 0) {
+                        int neighbours = (averages[(by - 1) * blocksX + bx] + 2 * averages[by * blocksX + bx - 1]
+                                + averages[(by - 1) * blocksX + bx - 1]) / 4;
+                        if (min < neighbours) {
+                            average = neighbours;
+                        }
+                    }
+                }
+                averages[by * blocksX + bx] = average;
+            }
+        }
+
+        for (int by = 0; by < blocksY; by++) {
+            int centerY = Math.min(Math.max(by, 2), blocksY - 3);
+            for (int bx = 0; bx < blocksX; bx++) {
+                int centerX = Math.min(Math.max(bx, 2), blocksX - 3);
+                int sum = 0;
+                for (int dy = -2; dy <= 2; dy++) {
+                    int row = (centerY + dy) * blocksX + centerX;
+                    sum += averages[row - 2] + averages[row - 1] + averages[row] + averages[row + 1] + averages[row + 2];
+                }
+                int threshold = sum / 25;
+                int x1 = Math.min((bx + 1) * BLOCK_SIZE, width);
+                int y1 = Math.min((by + 1) * BLOCK_SIZE, height);
+                for (int y = by * BLOCK_SIZE; y < y1; y++) {
+                    for (int x = bx * BLOCK_SIZE; x < x1; x++) {
+                        if ((luminance[y * width + x] & 0xFF) <= threshold) {
+                            binary.set(x, y);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static void binarizeGlobal(Workspace workspace) {
+        byte[] luminance = workspace.luminance;
+        int pixels = workspace.width * workspace.height;
+        int min = 255;
+        int max = 0;
+        for (int i = 0; i < pixels; i++) {
+            int value = luminance[i] & 0xFF;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        int threshold = (min + max) / 2;
+        for (int i = 0; i < pixels; i++) {
+            if ((luminance[i] & 0xFF) <= threshold) {
+                workspace.binary.set(i % workspace.width, i / workspace.width);
+            }
+        }
+    }
+
+    /**
+     * Recorre las filas buscando la secuencia oscuro-claro-oscuro-claro-oscuro en proporción 1:1:3:1:1 y
+     * confirma cada posible centro en vertical y en horizontal.
+     */
+    private static void findFinderPatterns(Workspace workspace) {
+        BitMatrix binary = workspace.binary;
+        int width = workspace.width;
+        int height = workspace.height;
+        int[] counts = workspace.counts;
+        for (int y = 0; y < height; y++) {
+            Arrays.fill(counts, 0);
+            int state = 0;
+            for (int x = 0; x < width; x++) {
+                if (binary.get(x, y)) {
+                    if ((state & 1) == 1) {
+                        state++;
+                    }
+                    counts[state]++;
+                } else if ((state & 1) == 1) {
+                    counts[state]++;
+                } else if (state < 4) {
+                    counts[++state]++;
+                } else if (isFinderRatio(counts) && handleCandidate(workspace, counts, x, y)) {
+                    Arrays.fill(counts, 0);
+                    state = 0;
+                } else {
+                    counts[0] = counts[2];
+                    counts[1] = counts[3];
+                    counts[2] = counts[4];
+                    counts[3] = 1;
+                    counts[4] = 0;
+                    state = 3;
+                }
+            }
+            if (state == 4 && isFinderRatio(counts)) {
+                handleCandidate(workspace, counts, width, y);
+            }
+        }
+    }
+
+    private static boolean isFinderRatio(int[] counts) {
+        int total = 0;
+        for (int count : counts) {
+            if (count == 0) {
+                return false;
+            }
+            total += count;
+        }
+        if (total < 7) {
+            return false;
+        }
+        float module = total / 7f;
+        float variance = module / 2f;
+        return Math.abs(module - counts[0]) < variance
+                && Math.abs(module - counts[1]) < variance
+                && Math.abs(3f * module - counts[2]) < 3f * variance
+                && Math.abs(module - counts[3]) < variance
+                && Math.abs(module - counts[4]) < variance;
+    }
+
+    private static boolean handleCandidate(Workspace workspace, int[] counts, int endX, int y) {
+        int total = counts[0] + counts[1] + counts[2] + counts[3] + counts[4];
+        float centerX = endX - counts[4] - counts[3] - counts[2] / 2f;
+        // Un píxel de ruido en la columna del centro la invalida: se prueban también las columnas vecinas
+        int offset = Math.max(1, total / 21);
+        float centerY = Float.NaN;
+        for (int dx = 0; dx <= offset && Float.isNaN(centerY); dx += offset) {
+            centerY = crossCheck(workspace, (int) centerX - dx, y, false, counts[2], total);
+            if (Float.isNaN(centerY) && dx > 0) {
+                centerY = crossCheck(workspace, (int) centerX + dx, y, false, counts[2], total);
+            }
+        }
+        if (Float.isNaN(centerY)) {
+            return false;
+        }
+        // La fila ya confirma la proporción en horizontal; la fila del centro solo afina la x si está limpia
+        float refinedX = crossCheck(workspace, (int) centerX, (int) centerY, true, counts[2], total);
+        if (!Float.isNaN(refinedX)) {
+            centerX = refinedX;
+        }
+        workspace.addCandidate(centerX, centerY, total / 7f);
+        return true;
+    }
+
+    /**
+     * Comprueba la proporción 1:1:3:1:1 a lo largo de una columna (o de una fila si horizontal es true)
+     * que pasa por (x, y), y devuelve el centro en esa dirección, o NaN si no hay un localizador.
+     */
+    private static float crossCheck(Workspace workspace, int x, int y, boolean horizontal, int maxCount,
+                                    int originalTotal) {
+        BitMatrix binary = workspace.binary;
+        int limit = horizontal ? workspace.width : workspace.height;
+        int start = horizontal ? x : y;
+        int[] counts = workspace.crossCounts;
+        Arrays.fill(counts, 0);
+
+        int i = start;
+        while (i >= 0 && dark(binary, horizontal, x, y, i)) {
+            counts[2]++;
+            i--;
+        }
+        while (i >= 0 && !dark(binary, horizontal, x, y, i) && counts[1] <= maxCount) {
+            counts[1]++;
+            i--;
+        }
+        if (i < 0 || counts[1] > maxCount) {
+            return Float.NaN;
+        }
+        while (i >= 0 && dark(binary, horizontal, x, y, i) && counts[0] <= maxCount) {
+            counts[0]++;
+            i--;
+        }
+        if (counts[0] > maxCount) {
+            return Float.NaN;
+        }
+
+        i = start + 1;
+        while (i < limit && dark(binary, horizontal, x, y, i)) {
+            counts[2]++;
+            i++;
+        }
+        while (i < limit && !dark(binary, horizontal, x, y, i) && counts[3] <= maxCount) {
+            counts[3]++;
+            i++;
+        }
+        if (i == limit || counts[3] > maxCount) {
+            return Float.NaN;
+        }
+        while (i < limit && dark(binary, horizontal, x, y, i) && counts[4] <= maxCount) {
+            counts[4]++;
+            i++;
+        }
+        if (counts[4] > maxCount) {
+            return Float.NaN;
+        }
+
+        int total = counts[0] + counts[1] + counts[2] + counts[3] + counts[4];
+        if (5 * Math.abs(total - originalTotal) >= 2 * originalTotal || !isFinderRatio(counts)) {
+            return Float.NaN;
+        }
+        return i - counts[4] - counts[3] - counts[2] / 2f;
+    }
+
+    private static boolean dark(BitMatrix binary, boolean horizontal, int x, int y, int i) {
+        return horizontal ? binary.get(i, y) : binary.get(x, i);
+    }
+
+    /**
+     * Elige, entre los candidatos, los tres que mejor forman un triángulo rectángulo isósceles con módulos
+     * del mismo tamaño, y los ordena: esquina superior izquierda, superior derecha e inferior izquierda.
+     *
+     * @return Las coordenadas x, y de los tres localizadores y el tamaño medio del módulo, o null si no hay
+     * tres candidatos que encajen.
+     */
+    private static float[] selectFinders(Workspace workspace) {
+        int count = workspace.candidateCount;
+        if (count < 3) {
+            return null;
+        }
+        float[] cx = workspace.candidateX;
+        float[] cy = workspace.candidateY;
+        float[] size = workspace.candidateSize;
+        int bestA = -1;
+        int bestB = -1;
+        int bestC = -1;
+        float bestScore = Float.MAX_VALUE;
+        for (int a = 0; a < count; a++) {
+            for (int b = a + 1; b < count; b++) {
+                for (int c = b + 1; c < count; c++) {
+                    float score = triangleScore(cx, cy, size, a, b, c);
+                    if (score < bestScore) {
+                        bestScore = score;
+                        bestA = a;
+                        bestB = b;
+                        bestC = c;
+                    }
+                }
+            }
+        }
+        if (bestScore > 0.5f) {
+            return null;
+        }
+
+        // La esquina superior izquierda es la opuesta al lado más largo
+        float ab = distanceSquared(cx, cy, bestA, bestB);
+        float ac = distanceSquared(cx, cy, bestA, bestC);
+        float bc = distanceSquared(cx, cy, bestB, bestC);
+        int topLeft;
+        int first;
+        int second;
+        if (bc >= ab && bc >= ac) {
+            topLeft = bestA;
+            first = bestB;
+            second = bestC;
+        } else if (ac >= ab) {
+            topLeft = bestB;
+            first = bestA;
+            second = bestC;
+        } else {
+            topLeft = bestC;
+            first = bestA;
+            second = bestB;
+        }
+        // Con el eje y hacia abajo, la superior derecha queda en sentido horario desde la inferior izquierda
+        float cross = (cx[first] - cx[topLeft]) * (cy[second] - cy[topLeft])
+                - (cy[first] - cy[topLeft]) * (cx[second] - cx[topLeft]);
+        int topRight = cross >= 0 ? first : second;
+        int bottomLeft = cross >= 0 ? second : first;
+        float module = (size[topLeft] + size[topRight] + size[bottomLeft]) / 3f;
+        return new float[]{cx[topLeft], cy[topLeft], cx[topRight], cy[topRight], cx[bottomLeft], cy[bottomLeft], module};
+    }
+
+    private static float triangleScore(float[] cx, float[] cy, float[] size, int a, int b, int c) {
+        float ab = distanceSquared(cx, cy, a, b);
+        float ac = distanceSquared(cx, cy, a, c);
+        float bc = distanceSquared(cx, cy, b, c);
+        float longest = Math.max(ab, Math.max(ac, bc));
+        float shortest = Math.min(ab, Math.min(ac, bc));
+        float middle = ab + ac + bc - longest - shortest;
+        if (shortest == 0f) {
+            return Float.MAX_VALUE;
+        }
+        float minSize = Math.min(size[a], Math.min(size[b], size[c]));
+        float maxSize = Math.max(size[a], Math.max(size[b], size[c]));
+        return Math.abs(longest - 2f * middle) / longest + (middle - shortest) / middle + (maxSize - minSize) / maxSize;
+    }
+
+    private static float distanceSquared(float[] cx, float[] cy, int a, int b) {
+        float dx = cx[a] - cx[b];
+        float dy = cy[a] - cy[b];
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Estima el número de módulos por la distancia entre localizadores y toma el píxel del centro de cada
+     * módulo. Los centros de los localizadores están en los módulos 3,5 y dimensión - 3,5.
+     */
+    private static BitMatrix sampleGrid(Workspace workspace, float[] finders) throws CorruptedImgException {
+        float tlX = finders[0];
+        float tlY = finders[1];
+        float module = finders[6];
+        float top = (float) Math.hypot(finders[2] - tlX, finders[3] - tlY);
+        float left = (float) Math.hypot(finders[4] - tlX, finders[5] - tlY);
+        int dimension = Math.round((top + left) / (2f * module)) + 7;
+        switch (dimension & 3) {
+            case 0:
+                dimension++;
+                break;
+            case 2:
+                dimension--;
+                break;
+            case 3:
+                throw new CorruptedImgException("No se pudo determinar el tamaño del código QR.", false);
+            default:
+                break;
+        }
+        if (QRVersion.forSize(dimension) == null) {
+            throw new CorruptedImgException("El código QR no es de una versión soportada (1 a 4).", false);
+        }
+
+        float span = dimension - 7;
+        float stepXx = (finders[2] - tlX) / span;
+        float stepXy = (finders[3] - tlY) / span;
+        float stepYx = (finders[4] - tlX) / span;
+        float stepYy = (finders[5] - tlY) / span;
+        BitMatrix modules = workspace.modules;
+        modules.reset(dimension, dimension);
+        for (int my = 0; my < dimension; my++) {
+            for (int mx = 0; mx < dimension; mx++) {
+                float u = mx - 3f;
+                float v = my - 3f;
+                int px = (int) (tlX + u * stepXx + v * stepYx);
+                int py = (int) (tlY + u * stepXy + v * stepYy);
+                if (px < 0 || py < 0 || px >= workspace.width || py >= workspace.height) {
+                    throw new CorruptedImgException("El código QR se sale de la imagen.", false);
+                }
+                if (workspace.binary.get(px, py)) {
+                    modules.set(mx, my);
+                }
+            }
+        }
+        return modules;
+    }
+
+    /**
+     * Arrays de trabajo de una decodificación, que se reutilizan entre imágenes del mismo hilo y solo crecen
+     * cuando llega una imagen mayor. Puede llevar una señal de parada, que se consulta entre etapas para
+     * abandonar una imagen cuya decodificación ya no hace falta.
+     */
+    static final class Workspace {
+        private BooleanSupplier stopSignal;
+        private int width;
+        private int height;
+        private byte[] luminance = new byte[0];
+        private int[] rgb = new int[0];
+        private int[] averages = new int[0];
+        private final BitMatrix binary = new BitMatrix(0, 0);
+        private final BitMatrix modules = new BitMatrix(0, 0);
+        private final int[] counts = new int[5];
+        private final int[] crossCounts = new int[5];
+        private final float[] candidateX = new float[MAX_CANDIDATES];
+        private final float[] candidateY = new float[MAX_CANDIDATES];
+        private final float[] candidateSize = new float[MAX_CANDIDATES];
+        private final int[] candidateHits = new int[MAX_CANDIDATES];
+        private int candidateCount;
+
+        void reset(int width, int height) {
+            this.width = width;
+            this.height = height;
+            if (luminance.length < width * height) {
+                luminance = new byte[width * height];
+            }
+            binary.reset(width, height);
+            candidateCount = 0;
+        }
+
+        void setStopSignal(BooleanSupplier stopSignal) {
+            this.stopSignal = stopSignal;
+        }
+
+        void checkStop() throws CorruptedImgException {
+            BooleanSupplier signal = stopSignal;
+            if (signal != null && signal.getAsBoolean()) {
+                throw new CorruptedImgException("Decodificación cancelada.", false);
+            }
+        }
+
+        void clearCandidates() {
+            candidateCount = 0;
+        }
+
+        int[] rgb(int pixels) {
+            if (rgb.length < pixels) {
+                rgb = new int[pixels];
+            }
+            return rgb;
+        }
+
+        int[] averages(int blocks) {
+            if (averages.length < blocks) {
+                averages = new int[blocks];
+            }
+            return averages;
+        }
+
+        /**
+         * Añade un centro confirmado, o lo promedia con uno ya encontrado si está a menos de un módulo.
+         */
+        void addCandidate(float x, float y, float size) {
+            for (int i = 0; i < candidateCount; i++) {
+                if (Math.abs(candidateX[i] - x) <= size && Math.abs(candidateY[i] - y) <= size
+                        && Math.abs(candidateSize[i] - size) <= Math.max(1f, candidateSize[i])) {
+                    int hits = candidateHits[i];
+                    candidateX[i] = (candidateX[i] * hits + x) / (hits + 1);
+                    candidateY[i] = (candidateY[i] * hits + y) / (hits + 1);
+                    candidateSize[i] = (candidateSize[i] * hits + size) / (hits + 1);
+                    candidateHits[i] = hits + 1;
+                    return;
+                }
+            }
+            if (candidateCount < MAX_CANDIDATES) {
+                candidateX[candidateCount] = x;
+                candidateY[candidateCount] = y;
+                candidateSize[candidateCount] = size;
+                candidateHits[candidateCount++] = 1;
+            }
+        }
+    }
+}
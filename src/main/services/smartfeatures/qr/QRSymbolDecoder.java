@@ -0,0 +1,195 @@
+package services.smartfeatures.qr;
+
+import exceptions.CorruptedImgException;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decodifica la matriz de módulos de un símbolo ya muestreado: lee la información de formato, quita la
+ * máscara, reparte los codewords entre sus bloques, corrige errores con Reed-Solomon y extrae el contenido
+ * de los segmentos numéricos, alfanuméricos y de bytes.
+ */
+final class QRSymbolDecoder {
+
+    private static final String ALPHANUMERIC = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ $%*+-./:";
+
+    private QRSymbolDecoder() {
+    }
+
+    /**
+     * Decodifica el contenido de un símbolo.
+     *
+     * @param modules La matriz de módulos, de tantos módulos de lado como la versión.
+     * @return El texto codificado.
+     * @throws CorruptedImgException Si la versión no está soportada o el símbolo tiene más errores de los
+     *                               que se pueden corregir.
+     */
+    static String decode(BitMatrix modules) throws CorruptedImgException {
+        QRVersion version = QRVersion.forSize(modules.width());
+        if (version == null) {
+            throw new CorruptedImgException("El código QR no es de una versión soportada (1 a 4).", false);
+        }
+        int format = readFormat(modules, version);
+        QRErrorCorrection level = QRErrorCorrection.fromFormatBits(format >>> 3);
+        int mask = format & 7;
+
+        int[] codewords = readCodewords(modules, version, mask);
+        int blocks = version.blockCount(level);
+        int dataPerBlock = version.dataPerBlock(level);
+        int ecPerBlock = version.ecPerBlock(level);
+        byte[] data = new byte[blocks * dataPerBlock];
+        int[] block = new int[dataPerBlock + ecPerBlock];
+        for (int b = 0; b < blocks; b++) {
+            for (int i = 0; i < dataPerBlock; i++) {
+                block[i] = codewords[i * blocks + b];
+            }
+            for (int i = 0; i < ecPerBlock; i++) {
+                block[dataPerBlock + i] = codewords[blocks * dataPerBlock + i * blocks + b];
+            }
+            if (ReedSolomon.correct(block, ecPerBlock) < 0) {
+                throw new CorruptedImgException("El código QR tiene demasiados errores para corregirlos.", false);
+            }
+            for (int i = 0; i < dataPerBlock; i++) {
+                data[b * dataPerBlock + i] = (byte) block[i];
+            }
+        }
+        return parseSegments(data);
+    }
+
+    // Métodos internos
+
+    private static int readFormat(BitMatrix modules, QRVersion version) throws CorruptedImgException {
+        int first = 0;
+        int second = 0;
+        for (int i = 0; i < 15; i++) {
+            if (modules.get(QRVersion.formatX1(i), QRVersion.formatY1(i))) {
+                first |= 1 << i;
+            }
+            if (modules.get(version.formatX2(i), version.formatY2(i))) {
+                second |= 1 << i;
+            }
+        }
+        int a = QRVersion.decodeFormat(first);
+        int b = QRVersion.decodeFormat(second);
+        if (a < 0 && b < 0) {
+            throw new CorruptedImgException("No se pudo leer la información de formato del código QR.", false);
+        }
+        int best = a < 0 ? b : b < 0 ? a : (a >>> 8) <= (b >>> 8) ? a : b;
+        return best & 0x1F;
+    }
+
+    private static int[] readCodewords(BitMatrix modules, QRVersion version, int mask) {
+        int size = version.size();
+        int[] order = version.dataOrder();
+        int[] codewords = new int[version.totalCodewords()];
+        for (int bit = 0; bit < codewords.length * 8; bit++) {
+            int x = order[bit] % size;
+            int y = order[bit] / size;
+            if (modules.get(x, y) != QRVersion.masked(mask, x, y)) {
+                codewords[bit >>> 3] |= 1 << (7 - (bit & 7));
+            }
+        }
+        return codewords;
+    }
+
+    private static String parseSegments(byte[] data) throws CorruptedImgException {
+        BitReader reader = new BitReader(data);
+        StringBuilder text = new StringBuilder();
+        while (reader.available() >= 4) {
+            int mode = reader.read(4);
+            switch (mode) {
+                case 0b0000:
+                    return text.toString();
+                case 0b0001:
+                    readNumeric(reader, reader.read(10), text);
+                    break;
+                case 0b0010:
+                    readAlphanumeric(reader, reader.read(9), text);
+                    break;
+                case 0b0100:
+                    readBytes(reader, reader.read(8), text);
+                    break;
+                default:
+                    throw new CorruptedImgException("Modo de codificación de QR no soportado: " + mode + ".", false);
+            }
+        }
+        return text.toString();
+    }
+
+    private static void readNumeric(BitReader reader, int count, StringBuilder text) throws CorruptedImgException {
+        while (count >= 3) {
+            appendDigits(text, reader.read(10), 3);
+            count -= 3;
+        }
+        if (count == 2) {
+            appendDigits(text, reader.read(7), 2);
+        } else if (count == 1) {
+            appendDigits(text, reader.read(4), 1);
+        }
+    }
+
+    private static void appendDigits(StringBuilder text, int value, int digits) throws CorruptedImgException {
+        String number = Integer.toString(value);
+        if (number.length() > digits) {
+            throw new CorruptedImgException("Segmento numérico de QR inválido.", false);
+        }
+        for (int i = number.length(); i < digits; i++) {
+            text.append('0');
+        }
+        text.append(number);
+    }
+
+    private static void readAlphanumeric(BitReader reader, int count, StringBuilder text)
+            throws CorruptedImgException {
+        while (count >= 2) {
+            int value = reader.read(11);
+            if (value >= 45 * 45) {
+                throw new CorruptedImgException("Segmento alfanumérico de QR inválido.", false);
+            }
+            text.append(ALPHANUMERIC.charAt(value / 45)).append(ALPHANUMERIC.charAt(value % 45));
+            count -= 2;
+        }
+        if (count == 1) {
+            int value = reader.read(6);
+            if (value >= 45) {
+                throw new CorruptedImgException("Segmento alfanumérico de QR inválido.", false);
+            }
+            text.append(ALPHANUMERIC.charAt(value));
+        }
+    }
+
+    private static void readBytes(BitReader reader, int count, StringBuilder text) throws CorruptedImgException {
+        byte[] bytes = new byte[count];
+        for (int i = 0; i < count; i++) {
+            bytes[i] = (byte) reader.read(8);
+        }
+        text.append(new String(bytes, StandardCharsets.ISO_8859_1));
+    }
+
+    /**
+     * Lector de bits de mayor a menor peso sobre los codewords de datos ya corregidos.
+     */
+    private static final class BitReader {
+        private final byte[] data;
+        private int position;
+
+        BitReader(byte[] data) {
+            this.data = data;
+        }
+
+        int available() {
+            return data.length * 8 - position;
+        }
+
+        int read(int count) throws CorruptedImgException {
+            if (count > available()) {
+                throw new CorruptedImgException("El contenido del código QR está truncado.", false);
+            }
+            int value = 0;
+            for (int i = 0; i < count; i++, position++) {
+                value = value << 1 | ((data[position >>> 3] >>> (7 - (position & 7))) & 1);
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package services.smartfeatures.qr;
+
+import java.util.Arrays;
+
+/**
+ * Tablas de las versiones 1 a 4 de QR (21 a 33 módulos de lado), las que caben en una pegatina de vehículo
+ * con un VehicleID: tamaño, patrones de alineación, bloques de corrección por nivel y la máscara de los
+ * módulos de función, que no llevan datos. Incluye también la información de formato y las ocho máscaras
+ * de datos, comunes a todas las versiones.
+ */
+final class QRVersion {
+
+    static final int MIN_VERSION = 1;
+    static final int MAX_VERSION = 4;
+
+    // Por versión y nivel (en el orden L, M, Q, H): número de bloques y codewords de datos y de corrección por bloque
+    private static final int[][][] BLOCKS = {
+            {{1, 19, 7}, {1, 16, 10}, {1, 13, 13}, {1, 9, 17}},
+            {{1, 34, 10}, {1, 28, 16}, {1, 22, 22}, {1, 16, 28}},
+            {{1, 55, 15}, {1, 44, 26}, {2, 17, 18}, {2, 13, 22}},
+            {{1, 80, 20}, {2, 32, 18}, {2, 24, 26}, {4, 9, 16}},
+    };
+    private static final int[] ALIGNMENT = {0, 18, 22, 26};
+
+    private static final int FORMAT_GENERATOR = 0x537;
+    private static final int FORMAT_MASK = 0x5412;
+    private static final int[] FORMAT_CODES = new int[32];
+
+    private static final QRVersion[] VERSIONS = new QRVersion[MAX_VERSION];
+
+    static {
+        for (int data = 0; data < FORMAT_CODES.length; data++) {
+            int remainder = data;
+            for (int i = 0; i < 10; i++) {
+                remainder = (remainder << 1) ^ ((remainder >>> 9) * FORMAT_GENERATOR);
+            }
+            FORMAT_CODES[data] = (data << 10 | remainder) ^ FORMAT_MASK;
+        }
+        for (int v = MIN_VERSION; v <= MAX_VERSION; v++) {
+            VERSIONS[v - 1] = new QRVersion(v);
+        }
+    }
+
+    private final int number;
+    private final int size;
+    private final BitMatrix function;
+    private final int[] dataOrder;
+
+    private QRVersion(int number) {
+        this.number = number;
+        this.size = 17 + 4 * number;
+        this.function = new BitMatrix(size, size);
+        markFunctionModules();
+        this.dataOrder = zigzag();
+    }
+
+    /**
+     * Obtiene una versión por su número.
+     *
+     * @throws IllegalArgumentException Si la versión no está soportada.
+     */
+    static QRVersion forNumber(int number) {
+        if (number < MIN_VERSION || number > MAX_VERSION) {
+            throw new IllegalArgumentException("Solo se soportan las versiones de QR 1 a 4.");
+        }
+        return VERSIONS[number - 1];
+    }
+
+    /**
+     * Obtiene la versión de un símbolo por su número de módulos de lado, o null si no está soportada.
+     */
+    static QRVersion forSize(int size) {
+        int number = (size - 17) / 4;
+        if ((size - 17) % 4 != 0 || number < MIN_VERSION || number > MAX_VERSION) {
+            return null;
+        }
+        return VERSIONS[number - 1];
+    }
+
+    int number() {
+        return number;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int blockCount(QRErrorCorrection level) {
+        return BLOCKS[number - 1][level.ordinal()][0];
+    }
+
+    int dataPerBlock(QRErrorCorrection level) {
+        return BLOCKS[number - 1][level.ordinal()][1];
+    }
+
+    int ecPerBlock(QRErrorCorrection level) {
+        return BLOCKS[number - 1][level.ordinal()][2];
+    }
+
+    int dataCodewords(QRErrorCorrection level) {
+        return blockCount(level) * dataPerBlock(level);
+    }
+
+    int totalCodewords() {
+        int[] block = BLOCKS[number - 1][0];
+        return block[0] * (block[1] + block[2]);
+    }
+
+    int alignmentCenter() {
+        return ALIGNMENT[number - 1];
+    }
+
+    boolean isFunction(int x, int y) {
+        return function.get(x, y);
+    }
+
+    /**
+     * Posiciones (y * tamaño + x) de los módulos de datos en el orden en que se colocan los bits: columnas
+     * de dos módulos de derecha a izquierda, subiendo y bajando alternativamente y saltando la columna de
+     * sincronización. Incluye los bits de relleno del final.
+     */
+    int[] dataOrder() {
+        return dataOrder;
+    }
+
+    /**
+     * Indica si la máscara de datos invierte el módulo (x, y).
+     */
+    static boolean masked(int mask, int x, int y) {
+        switch (mask) {
+            case 0: return (x + y) % 2 == 0;
+            case 1: return y % 2 == 0;
+            case 2: return x % 3 == 0;
+            case 3: return (x + y) % 3 == 0;
+            case 4: return (x / 3 + y / 2) % 2 == 0;
+            case 5: return x * y % 2 + x * y % 3 == 0;
+            case 6: return (x * y % 2 + x * y % 3) % 2 == 0;
+            case 7: return ((x + y) % 2 + x * y % 3) % 2 == 0;
+            default: throw new IllegalArgumentException("Máscara de datos fuera de rango: " + mask);
+        }
+    }
+
+    /**
+     * Calcula los 15 bits de formato, con su código BCH y la máscara fija, para un nivel y una máscara.
+     */
+    static int formatBits(QRErrorCorrection level, int mask) {
+        return FORMAT_CODES[level.formatBits() << 3 | mask];
+    }
+
+    /**
+     * Decodifica los 5 bits de datos de una lectura de formato: el código válido más cercano, si está a tres
+     * bits o menos.
+     *
+     * @return Los 5 bits de nivel y máscara, con la distancia en los bits 8 en adelante, o -1 si no hay ninguno.
+     */
+    static int decodeFormat(int bits) {
+        int best = -1;
+        int bestDistance = 4;
+        for (int data = 0; data < FORMAT_CODES.length; data++) {
+            int distance = Integer.bitCount(FORMAT_CODES[data] ^ bits);
+            if (distance < bestDistance) {
+                best = data;
+                bestDistance = distance;
+            }
+        }
+        return best < 0 ? -1 : bestDistance << 8 | best;
+    }
+
+    /**
+     * Coordenada x del bit i (0 el menos significativo) de la primera copia del formato, junto al localizador
+     * superior izquierdo. La y se obtiene con {@link #formatY1(int)}.
+     */
+    static int formatX1(int i) {
+        return i <= 7 ? 8 : i == 8 ? 7 : 14 - i;
+    }
+
+    static int formatY1(int i) {
+        return i <= 5 ? i : i <= 7 ? i + 1 : 8;
+    }
+
+    /**
+     * Coordenada x del bit i de la segunda copia del formato, repartida entre los otros dos localizadores.
+     */
+    int formatX2(int i) {
+        return i < 8 ? size - 1 - i : 8;
+    }
+
+    int formatY2(int i) {
+        return i < 8 ? 8 : size - 15 + i;
+    }
+
+    // Métodos internos
+
+    private void markFunctionModules() {
+        for (int i = 0; i < size; i++) {
+            function.set(6, i);
+            function.set(i, 6);
+        }
+        // Localizadores con su separador y la información de formato de alrededor
+        markRect(0, 0, 9, 9);
+        markRect(size - 8, 0, 8, 9);
+        markRect(0, size - 8, 9, 8);
+        int center = alignmentCenter();
+        if (center != 0) {
+            markRect(center - 2, center - 2, 5, 5);
+        }
+    }
+
+    private int[] zigzag() {
+        int[] order = new int[size * size];
+        int count = 0;
+        for (int right = size - 1; right >= 1; right -= 2) {
+            if (right == 6) {
+                right = 5;
+            }
+            boolean upward = ((right + 1) & 2) == 0;
+            for (int vert = 0; vert < size; vert++) {
+                int y = upward ? size - 1 - vert : vert;
+                for (int j = 0; j < 2; j++) {
+                    int x = right - j;
+                    if (!function.get(x, y)) {
+                        order[count++] = y * size + x;
+                    }
+                }
+            }
+        }
+        return Arrays.copyOf(order, count);
+    }
+
+    private void markRect(int left, int top, int width, int height) {
+        for (int y = top; y < top + height; y++) {
+            for (int x = left; x < left + width; x++) {
+                function.set(x, y);
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package services.smartfeatures.qr;
+
+/**
+ * Códigos Reed-Solomon sobre GF(256) con el polinomio primitivo de QR (x^8 + x^4 + x^3 + x^2 + 1) y raíces
+ * consecutivas desde α^0. Los bloques se representan como en el símbolo: el primer codeword es el
+ * coeficiente de mayor grado.
+ */
+final class ReedSolomon {
+
+    private static final int PRIMITIVE = 0x11D;
+    private static final int[] EXP = new int[512];
+    private static final int[] LOG = new int[256];
+
+    static {
+        int value = 1;
+        for (int i = 0; i < 255; i++) {
+            EXP[i] = value;
+            LOG[value] = i;
+            value <<= 1;
+            if (value >= 256) {
+                value ^= PRIMITIVE;
+            }
+        }
+        for (int i = 255; i < EXP.length; i++) {
+            EXP[i] = EXP[i - 255];
+        }
+    }
+
+    private ReedSolomon() {
+    }
+
+    /**
+     * Calcula los codewords de corrección de un bloque de datos.
+     *
+     * @param data    Los codewords de datos.
+     * @param ecCount Número de codewords de corrección.
+     * @return Los codewords de corrección.
+     */
+    static int[] encode(int[] data, int ecCount) {
+        int[] generator = generator(ecCount);
+        int[] remainder = new int[ecCount];
+        for (int value : data) {
+            int factor = value ^ remainder[0];
+            System.arraycopy(remainder, 1, remainder, 0, ecCount - 1);
+            remainder[ecCount - 1] = 0;
+            if (factor != 0) {
+                for (int i = 0; i < ecCount; i++) {
+                    remainder[i] ^= multiply(generator[i + 1], factor);
+                }
+            }
+        }
+        return remainder;
+    }
+
+    /**
+     * Corrige en el sitio los errores de un bloque (datos seguidos de corrección).
+     *
+     * @param block   Los codewords del bloque.
+     * @param ecCount Número de codewords de corrección del bloque.
+     * @return El número de codewords corregidos, o -1 si hay más errores de los que se pueden corregir.
+     */
+    static int correct(int[] block, int ecCount) {
+        int n = block.length;
+        int[] syndromes = new int[ecCount];
+        boolean clean = true;
+        for (int i = 0; i < ecCount; i++) {
+            int sum = 0;
+            int root = EXP[i];
+            for (int value : block) {
+                sum = multiply(sum, root) ^ value;
+            }
+            syndromes[i] = sum;
+            clean &= sum == 0;
+        }
+        if (clean) {
+            return 0;
+        }
+
+        // Berlekamp-Massey: polinomio localizador de errores, de menor a mayor grado
+        int[] locator = new int[ecCount + 1];
+        int[] previous = new int[ecCount + 1];
+        locator[0] = 1;
+        previous[0] = 1;
+        int errors = 0;
+        int shift = 1;
+        int lastDiscrepancy = 1;
+        for (int step = 0; step < ecCount; step++) {
+            int discrepancy = syndromes[step];
+            for (int i = 1; i <= errors; i++) {
+                discrepancy ^= multiply(locator[i], syndromes[step - i]);
+            }
+            if (discrepancy == 0) {
+                shift++;
+                continue;
+            }
+            int scale = divide(discrepancy, lastDiscrepancy);
+            if (2 * errors <= step) {
+                int[] saved = locator.clone();
+                addScaled(locator, previous, scale, shift);
+                errors = step + 1 - errors;
+                previous = saved;
+                lastDiscrepancy = discrepancy;
+                shift = 1;
+            } else {
+                addScaled(locator, previous, scale, shift);
+                shift++;
+            }
+        }
+        if (2 * errors > ecCount) {
+            return -1;
+        }
+
+        // Evaluador de errores: S(x) * Λ(x) mod x^ecCount
+        int[] evaluator = new int[ecCount];
+        for (int i = 0; i < ecCount; i++) {
+            int sum = 0;
+            for (int j = 0; j <= Math.min(i, errors); j++) {
+                sum ^= multiply(syndromes[i - j], locator[j]);
+            }
+            evaluator[i] = sum;
+        }
+
+        // Chien y Forney: las raíces de Λ son los inversos de las posiciones de error
+        int found = 0;
+        for (int power = 0; power < n && found < errors; power++) {
+            int inverse = EXP[(255 - power) % 255];
+            if (evaluate(locator, errors, inverse) != 0) {
+                continue;
+            }
+            int derivative = 0;
+            for (int i = 1; i <= errors; i += 2) {
+                derivative ^= multiply(locator[i], power(inverse, i - 1));
+            }
+            if (derivative == 0) {
+                return -1;
+            }
+            int magnitude = multiply(EXP[power], divide(evaluate(evaluator, ecCount - 1, inverse), derivative));
+            block[n - 1 - power] ^= magnitude;
+            found++;
+        }
+        return found == errors ? errors : -1;
+    }
+
+    // Métodos internos
+
+    private static int[] generator(int degree) {
+        // Coeficientes de mayor a menor grado, empezando por el 1 del término principal
+        int[] generator = new int[degree + 1];
+        generator[0] = 1;
+        for (int i = 0; i < degree; i++) {
+            int root = EXP[i];
+            for (int j = i + 1; j >= 1; j--) {
+                generator[j] ^= multiply(generator[j - 1], root);
+            }
+        }
+        return generator;
+    }
+
+    private static void addScaled(int[] target, int[] source, int scale, int shift) {
+        for (int i = 0; i + shift < target.length; i++) {
+            if (source[i] != 0) {
+                target[i + shift] ^= multiply(source[i], scale);
+            }
+        }
+    }
+
+    private static int evaluate(int[] poly, int degree, int x) {
+        int result = 0;
+        for (int i = degree; i >= 0; i--) {
+            result = multiply(result, x) ^ poly[i];
+        }
+        return result;
+    }
+
+    private static int power(int x, int exponent) {
+        return exponent == 0 ? 1 : x == 0 ? 0 : EXP[(LOG[x] * exponent) % 255];
+    }
+
+    static int multiply(int a, int b) {
+        return a == 0 || b == 0 ? 0 : EXP[LOG[a] + LOG[b]];
+    }
+
+    private static int divide(int a, int b) {
+        return a == 0 ? 0 : EXP[LOG[a] + 255 - LOG[b]];
+    }
+}
@@ -0,0 +1,234 @@
+package services.stats;
+
+import data.Money;
+import data.StationID;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Estadísticas en vivo de los trayectos finalizados: número de trayectos, distancia, recaudación, duración y
+ * latencia de cierre, globales y por estación de llegada, en ventanas de un minuto.
+ *
+ * Se guardan las últimas {@link #getWindowMinutes()} ventanas en un anillo; cada ventana acumula con LongAdder
+ * y un LatencyHistogram, de modo que los registros concurrentes no compiten entre sí y no se bloquean. Al
+ * llegar el primer registro de un minuto nuevo, su ventana sustituye con un compareAndSet a la del mismo
+ * hueco del anillo. Leer un resumen recorre las ventanas pedidas y sus cubetas, sin tocar los trayectos.
+ * Es seguro para usarse desde varios hilos.
+ */
+public final class JourneyStats {
+
+    public static final int DEFAULT_WINDOW_MINUTES = 60;
+
+    private static final long MILLIS_PER_MINUTE = 60_000;
+
+    private final Clock clock;
+    private final int windowMinutes;
+    private final AtomicReferenceArray<Window> windows;
+
+    /**
+     * Constructor con el reloj UTC del sistema y una hora de ventanas.
+     */
+    public JourneyStats() {
+        this(Clock.systemUTC(), DEFAULT_WINDOW_MINUTES);
+    }
+
+    /**
+     * Constructor de JourneyStats.
+     *
+     * @param clock         Reloj con el que se asigna cada trayecto a su minuto.
+     * @param windowMinutes Número de minutos que se conservan.
+     * @throws IllegalArgumentException Si el reloj es nulo o el número de minutos no es positivo.
+     */
+    public JourneyStats(Clock clock, int windowMinutes) {
+        if (clock == null) {
+            throw new IllegalArgumentException("El reloj no puede ser nulo.");
+        }
+        if (windowMinutes <= 0) {
+            throw new IllegalArgumentException("El número de minutos debe ser positivo.");
+        }
+        this.clock = clock;
+        this.windowMinutes = windowMinutes;
+        this.windows = new AtomicReferenceArray<>(windowMinutes);
+    }
+
+    /**
+     * Obtiene el número de minutos que se conservan.
+     *
+     * @return El número de minutos.
+     */
+    public int getWindowMinutes() {
+        return windowMinutes;
+    }
+
+    /**
+     * Registra un trayecto finalizado en el minuto actual.
+     *
+     * @param station      Estación de llegada, o null si no la hay.
+     * @param distanceKm   Distancia recorrida en kilómetros.
+     * @param duration     Duración en minutos.
+     * @param amount       Importe del trayecto, o null si no lo hay.
+     * @param latencyNanos Latencia del cierre del trayecto en nanosegundos.
+     */
+    public void record(StationID station, float distanceKm, int duration, BigDecimal amount, long latencyNanos) {
+        record(station, distanceKm, duration, amount == null ? 0 : Money.toCents(amount), latencyNanos);
+    }
+
+    /**
+     * Registra un trayecto finalizado en el minuto actual, con el importe en céntimos.
+     *
+     * @param station      Estación de llegada, o null si no la hay.
+     * @param distanceKm   Distancia recorrida en kilómetros.
+     * @param duration     Duración en minutos.
+     * @param amountCents  Importe del trayecto en céntimos.
+     * @param latencyNanos Latencia del cierre del trayecto en nanosegundos.
+     */
+    public void record(StationID station, float distanceKm, int duration, long amountCents, long latencyNanos) {
+        long meters = Math.round(distanceKm * 1000.0);
+        Window window = windowFor(currentMinute());
+        window.totals.add(meters, duration, amountCents, latencyNanos);
+        if (station != null) {
+            Counters counters = window.stations.get(station);
+            if (counters == null) {
+                counters = window.stations.computeIfAbsent(station, s -> new Counters());
+            }
+            counters.add(meters, duration, amountCents, latencyNanos);
+        }
+    }
+
+    /**
+     * Resume los últimos minutos, incluido el actual.
+     *
+     * @param minutes Número de minutos a resumir, entre 1 y getWindowMinutes().
+     * @return El resumen.
+     * @throws IllegalArgumentException Si el número de minutos está fuera de rango.
+     */
+    public StatsSnapshot snapshot(int minutes) {
+        if (minutes < 1 || minutes > windowMinutes) {
+            throw new IllegalArgumentException("El número de minutos debe estar entre 1 y " + windowMinutes + ".");
+        }
+        long to = currentMinute();
+        return summarize(to - minutes + 1, to);
+    }
+
+    /**
+     * Resume un único minuto, para construir series por minuto.
+     *
+     * @param epochMinute El minuto, en minutos desde la época Unix.
+     * @return El resumen, vacío si el minuto ya no se conserva o aún no ha llegado.
+     */
+    public StatsSnapshot minute(long epochMinute) {
+        return summarize(epochMinute, epochMinute);
+    }
+
+    /**
+     * Obtiene el minuto actual según el reloj.
+     *
+     * @return El minuto, en minutos desde la época Unix.
+     */
+    public long currentMinute() {
+        return Math.floorDiv(clock.millis(), MILLIS_PER_MINUTE);
+    }
+
+    // Métodos internos
+
+    private Window windowFor(long minute) {
+        int slot = (int) Math.floorMod(minute, (long) windowMinutes);
+        while (true) {
+            Window window = windows.get(slot);
+            if (window != null && window.minute == minute) {
+                return window;
+            }
+            if (window != null && window.minute > minute) {
+                // Registro rezagado de un minuto que ya ha salido del anillo: se cuenta en la ventana vigente
+                return window;
+            }
+            Window fresh = new Window(minute);
+            if (windows.compareAndSet(slot, window, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    private StatsSnapshot summarize(long from, long to) {
+        Totals totals = new Totals();
+        Map<StationID, Totals> stationTotals = new HashMap<>();
+        for (long minute = Math.max(from, to - windowMinutes + 1); minute <= to; minute++) {
+            Window window = windows.get((int) Math.floorMod(minute, (long) windowMinutes));
+            if (window == null || window.minute != minute) {
+                continue;
+            }
+            window.totals.addTo(totals);
+            for (Map.Entry<StationID, Counters> entry : window.stations.entrySet()) {
+                entry.getValue().addTo(stationTotals.computeIfAbsent(entry.getKey(), s -> new Totals()));
+            }
+        }
+        Map<StationID, StatsSnapshot> stations = new HashMap<>();
+        for (Map.Entry<StationID, Totals> entry : stationTotals.entrySet()) {
+            stations.put(entry.getKey(), entry.getValue().toSnapshot(from, to, Collections.emptyMap()));
+        }
+        return totals.toSnapshot(from, to, Collections.unmodifiableMap(stations));
+    }
+
+    /**
+     * Contadores de trayectos, distancia en metros, importe en céntimos, duración en minutos y latencia de cierre.
+     */
+    private static final class Counters {
+        private final LongAdder journeys = new LongAdder();
+        private final LongAdder meters = new LongAdder();
+        private final LongAdder cents = new LongAdder();
+        private final LongAdder minutes = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        private void add(long distanceMeters, int duration, long amountCents, long latencyNanos) {
+            journeys.increment();
+            meters.add(distanceMeters);
+            cents.add(amountCents);
+            minutes.add(duration);
+            latency.record(latencyNanos);
+        }
+
+        private void addTo(Totals totals) {
+            totals.journeys += journeys.sum();
+            totals.meters += meters.sum();
+            totals.cents += cents.sum();
+            totals.minutes += minutes.sum();
+            totals.latencyNanos += latency.addTo(totals.latencyBuckets);
+        }
+    }
+
+    /**
+     * Sumas de los contadores de varios minutos, global o de una estación, mientras se construye un resumen.
+     */
+    private static final class Totals {
+        private long journeys;
+        private long meters;
+        private long cents;
+        private long minutes;
+        private long latencyNanos;
+        private final long[] latencyBuckets = new long[LatencyHistogram.BUCKETS];
+
+        private StatsSnapshot toSnapshot(long from, long to, Map<StationID, StatsSnapshot> stations) {
+            return new StatsSnapshot(from, to, journeys, meters, cents, minutes, latencyBuckets, latencyNanos, stations);
+        }
+    }
+
+    /**
+     * Acumulados de un minuto.
+     */
+    private static final class Window {
+        private final long minute;
+        private final Counters totals = new Counters();
+        private final Map<StationID, Counters> stations = new ConcurrentHashMap<>();
+
+        private Window(long minute) {
+            this.minute = minute;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package services.stats;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias con cubetas fijas de anchura exponencial: la cubeta 0 recoge las latencias de
+ * menos de 1 µs y la cubeta i (i &gt;= 1) las de [2^(i-1), 2^i) µs, hasta la última, que recoge todo lo que
+ * supera unos 18 minutos. Cada cubeta es un LongAdder, así que varios hilos pueden registrar a la vez sin
+ * competir por la misma línea de caché. Los percentiles se estiman con el límite superior de la cubeta.
+ */
+public final class LatencyHistogram {
+
+    public static final int BUCKETS = 32;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder totalNanos = new LongAdder();
+
+    /**
+     * Constructor de LatencyHistogram.
+     */
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Registra una latencia.
+     *
+     * @param nanos La latencia en nanosegundos. Los valores negativos cuentan como 0.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets[bucketOf(value)].increment();
+        totalNanos.add(value);
+    }
+
+    /**
+     * Suma los contadores de este histograma a un array de cubetas.
+     *
+     * @param counts Array de BUCKETS posiciones donde se acumulan los contadores.
+     * @return La suma de las latencias registradas en nanosegundos.
+     */
+    long addTo(long[] counts) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += buckets[i].sum();
+        }
+        return totalNanos.sum();
+    }
+
+    /**
+     * Obtiene la cubeta de una latencia.
+     *
+     * @param nanos La latencia en nanosegundos, no negativa.
+     * @return El índice de la cubeta.
+     */
+    static int bucketOf(long nanos) {
+        long micros = nanos / 1000;
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+    }
+
+    /**
+     * Obtiene el límite superior de una cubeta.
+     *
+     * @param bucket El índice de la cubeta.
+     * @return El límite en nanosegundos, o Long.MAX_VALUE para la última cubeta.
+     */
+    static long upperBoundNanos(int bucket) {
+        return bucket == BUCKETS - 1 ? Long.MAX_VALUE : (1L << bucket) * 1000;
+    }
+
+    /**
+     * Estima un percentil a partir de unos contadores por cubeta.
+     *
+     * @param counts     Los contadores por cubeta.
+     * @param percentile El percentil, entre 0 y 100.
+     * @return El límite superior en nanosegundos de la cubeta que contiene el percentil, o 0 si no hay datos.
+     */
+    static long percentileNanos(long[] counts, double percentile) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return upperBoundNanos(i);
+            }
+        }
+        return upperBoundNanos(counts.length - 1);
+    }
+}
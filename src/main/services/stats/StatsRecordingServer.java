@@ -0,0 +1,102 @@
+package services.stats;
+
+import data.*;
+import exceptions.*;
+import micromobility.JourneyService;
+import micromobility.PMVehicle;
+import services.Server;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Variante de Server que alimenta un JourneyStats con cada trayecto que el servidor subyacente cierra.
+ * Al usarla como servidor de JourneyRealizeHandler, cada unPairVehicle que llega a stopPairing queda
+ * registrado, con la latencia de la llamada al servidor como latencia de cierre. Los trayectos rechazados
+ * por el servidor no se cuentan. El resto de operaciones se delegan directamente en el servidor subyacente.
+ */
+public class StatsRecordingServer implements Server {
+
+    private final Server delegate;
+    private final JourneyStats stats;
+
+    /**
+     * Constructor de StatsRecordingServer.
+     *
+     * @param delegate El servidor subyacente.
+     * @param stats    Las estadísticas donde se registran los trayectos.
+     * @throws IllegalArgumentException Si algún parámetro es nulo.
+     */
+    public StatsRecordingServer(Server delegate, JourneyStats stats) {
+        if (delegate == null || stats == null) {
+            throw new IllegalArgumentException("El servidor y las estadísticas no pueden ser nulos.");
+        }
+        this.delegate = delegate;
+        this.stats = stats;
+    }
+
+    /**
+     * Obtiene las estadísticas que alimenta este servidor.
+     *
+     * @return Las estadísticas.
+     */
+    public JourneyStats getStats() {
+        return stats;
+    }
+
+    @Override
+    public void stopPairing(UserAccount user, VehicleID veh, StationID st, GeographicPoint loc, LocalDateTime date,
+                            float avSp, float dist, int dur, BigDecimal imp)
+            throws InvalidPairingArgsException, ConnectException {
+        long start = System.nanoTime();
+        delegate.stopPairing(user, veh, st, loc, date, avSp, dist, dur, imp);
+        stats.record(st, dist, dur, imp, System.nanoTime() - start);
+    }
+
+    @Override
+    public void registerPairing(UserAccount user, VehicleID veh, StationID st, GeographicPoint loc, LocalDateTime date)
+            throws InvalidPairingArgsException, ConnectException {
+        delegate.registerPairing(user, veh, st, loc, date);
+    }
+
+    @Override
+    public void checkPMVAvail(VehicleID vhID) throws PMVNotAvailException, ConnectException {
+        delegate.checkPMVAvail(vhID);
+    }
+
+    @Override
+    public void setPairing(UserAccount user, VehicleID veh, StationID st, GeographicPoint loc, LocalDateTime date) {
+        delegate.setPairing(user, veh, st, loc, date);
+    }
+
+    @Override
+    public void unPairRegisterService(JourneyService service) throws PairingNotFoundException {
+        delegate.unPairRegisterService(service);
+    }
+
+    @Override
+    public void registerLocation(VehicleID veh, StationID st) {
+        delegate.registerLocation(veh, st);
+    }
+
+    @Override
+    public void registerPayment(ServiceID servID, UserAccount user, BigDecimal imp, char payMeth) throws ConnectException {
+        delegate.registerPayment(servID, user, imp, payMeth);
+    }
+
+    @Override
+    public PMVehicle getVehicleByID(VehicleID vhID) throws PMVNotAvailException {
+        return delegate.getVehicleByID(vhID);
+    }
+
+    @Override
+    public List<PMVehicle> getNearestAvailableVehicles(GeographicPoint loc, int k) {
+        return delegate.getNearestAvailableVehicles(loc, k);
+    }
+
+    @Override
+    public List<PMVehicle> getAvailableVehiclesWithin(GeographicPoint loc, float radiusKm) {
+        return delegate.getAvailableVehiclesWithin(loc, radiusKm);
+    }
+}
@@ -0,0 +1,145 @@
+package services.stats;
+
+import data.Money;
+import data.StationID;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Resumen inmutable de las estadísticas de trayectos de un intervalo de minutos, global o de una estación.
+ */
+public final class StatsSnapshot {
+
+    private final long fromMinute;
+    private final long toMinute;
+    private final long journeys;
+    private final long distanceMeters;
+    private final long revenueCents;
+    private final long durationMinutes;
+    private final long[] latencyBuckets;
+    private final long latencyNanos;
+    private final Map<StationID, StatsSnapshot> stations;
+
+    StatsSnapshot(long fromMinute, long toMinute, long journeys, long distanceMeters, long revenueCents,
+                  long durationMinutes, long[] latencyBuckets, long latencyNanos, Map<StationID, StatsSnapshot> stations) {
+        this.fromMinute = fromMinute;
+        this.toMinute = toMinute;
+        this.journeys = journeys;
+        this.distanceMeters = distanceMeters;
+        this.revenueCents = revenueCents;
+        this.durationMinutes = durationMinutes;
+        this.latencyBuckets = latencyBuckets;
+        this.latencyNanos = latencyNanos;
+        this.stations = stations;
+    }
+
+    /**
+     * Obtiene el primer minuto del intervalo, en minutos desde la época Unix.
+     *
+     * @return El primer minuto, incluido.
+     */
+    public long getFromMinute() {
+        return fromMinute;
+    }
+
+    /**
+     * Obtiene el último minuto del intervalo, en minutos desde la época Unix.
+     *
+     * @return El último minuto, incluido.
+     */
+    public long getToMinute() {
+        return toMinute;
+    }
+
+    /**
+     * Obtiene el número de trayectos finalizados.
+     *
+     * @return El número de trayectos.
+     */
+    public long getJourneys() {
+        return journeys;
+    }
+
+    /**
+     * Obtiene la distancia total recorrida.
+     *
+     * @return La distancia en kilómetros, con precisión de metros.
+     */
+    public double getDistanceKm() {
+        return distanceMeters / 1000.0;
+    }
+
+    /**
+     * Obtiene la recaudación total.
+     *
+     * @return El importe total de los trayectos.
+     */
+    public Money getRevenue() {
+        return Money.ofCents(revenueCents);
+    }
+
+    /**
+     * Obtiene la duración media de los trayectos.
+     *
+     * @return La duración media en minutos, o 0 si no hay trayectos.
+     */
+    public double getAverageDurationMinutes() {
+        return journeys == 0 ? 0 : (double) durationMinutes / journeys;
+    }
+
+    /**
+     * Obtiene la latencia media de cierre de los trayectos.
+     *
+     * @return La latencia media en nanosegundos, o 0 si no hay trayectos.
+     */
+    public long getAverageLatencyNanos() {
+        return journeys == 0 ? 0 : latencyNanos / journeys;
+    }
+
+    /**
+     * Estima un percentil de la latencia de cierre de los trayectos.
+     *
+     * @param percentile El percentil, entre 0 y 100.
+     * @return El límite superior de la cubeta del percentil en nanosegundos, o 0 si no hay datos.
+     * @throws IllegalArgumentException Si el percentil está fuera de rango.
+     */
+    public long getLatencyPercentileNanos(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("El percentil debe estar entre 0 y 100.");
+        }
+        return latencyBuckets == null ? 0 : LatencyHistogram.percentileNanos(latencyBuckets, percentile);
+    }
+
+    /**
+     * Obtiene los resúmenes por estación de llegada. Los trayectos sin estación solo cuentan en el global.
+     *
+     * @return Los resúmenes por estación, vacío si este resumen ya es de una estación.
+     */
+    public Map<StationID, StatsSnapshot> getStations() {
+        return stations;
+    }
+
+    /**
+     * Obtiene el resumen de una estación.
+     *
+     * @param station La estación.
+     * @return El resumen de la estación, con todos los contadores a cero si no tuvo trayectos.
+     */
+    public StatsSnapshot getStation(StationID station) {
+        StatsSnapshot snapshot = stations.get(station);
+        return snapshot != null ? snapshot
+                : new StatsSnapshot(fromMinute, toMinute, 0, 0, 0, 0, null, 0, Collections.emptyMap());
+    }
+
+    @Override
+    public String toString() {
+        return "StatsSnapshot{" +
+                "minutes=" + fromMinute + "-" + toMinute +
+                ", journeys=" + journeys +
+                ", distanceKm=" + getDistanceKm() +
+                ", revenue=" + getRevenue() +
+                ", stations=" + stations.size() +
+                '}';
+    }
+}
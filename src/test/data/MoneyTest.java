@@ -0,0 +1,64 @@
+package data;
+
+import micromobility.payment.Wallet;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test para la clase Money.
+ * Verifica la conversión desde y hacia BigDecimal, la política de redondeo y la aritmética exacta.
+ */
+class MoneyTest {
+
+    /**
+     * Verifica que la conversión redondee al céntimo con las mitades al par.
+     */
+    @Test
+    void testRoundingPolicy() {
+        assertEquals(1234, Money.of(new BigDecimal("12.34")).getCents());
+        assertEquals(2, Money.of(new BigDecimal("0.025")).getCents(), "0,025 debería redondearse al par, 0,02.");
+        assertEquals(4, Money.of(new BigDecimal("0.035")).getCents(), "0,035 debería redondearse al par, 0,04.");
+        assertEquals(-150, Money.parse("-1.5").getCents());
+        assertEquals(new BigDecimal("50.00"), Money.parse("50").toBigDecimal(), "La conversión debería tener dos decimales.");
+        assertEquals("7.05", Money.ofCents(705).toString());
+        assertThrows(IllegalArgumentException.class, () -> Money.parse("1,50"));
+        assertThrows(IllegalArgumentException.class, () -> Money.of(null));
+    }
+
+    /**
+     * Verifica la aritmética, la comparación y la caché de importes pequeños.
+     */
+    @Test
+    void testArithmetic() {
+        Money a = Money.ofCents(1050);
+        Money b = Money.parse("2.25");
+        assertEquals(Money.ofCents(1275), a.plus(b));
+        assertEquals(Money.ofCents(825), a.minus(b));
+        assertEquals(Money.ofCents(-825), b.minus(a));
+        assertEquals(Money.ofCents(3150), a.times(3));
+        assertTrue(b.isLessThan(a));
+        assertTrue(a.compareTo(b) > 0);
+        assertTrue(b.minus(a).isNegative());
+        assertSame(Money.ofCents(99), Money.ofCents(99), "Los importes pequeños deberían compartirse.");
+        assertSame(Money.ZERO, a.minus(a));
+        assertEquals(Money.ofCents(1_000_000), Money.ofCents(1_000_000));
+        assertThrows(ArithmeticException.class, () -> Money.ofCents(Long.MAX_VALUE).plus(Money.ofCents(1)));
+    }
+
+    /**
+     * Verifica que el monedero opere en céntimos y conserve su API en BigDecimal.
+     */
+    @Test
+    void testWalletInCents() {
+        Wallet wallet = Wallet.of(Money.parse("10.00"));
+        wallet.deduct(Money.ofCents(333));
+        wallet.deduct(new BigDecimal("0.67"));
+        assertEquals(600, wallet.getBalanceCents());
+        assertEquals(new BigDecimal("6.00"), wallet.getBalance());
+        assertThrows(IllegalArgumentException.class, () -> wallet.deduct(new BigDecimal("0.004")),
+                "Un importe que se redondea a cero céntimos debería rechazarse.");
+    }
+}
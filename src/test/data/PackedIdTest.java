@@ -0,0 +1,83 @@
+package data;
+
+import exceptions.InvalidPairingArgsException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para PackedId y las claves de VehicleID, StationID y UserAccount.
+ * Verifica que la codificación sea reversible, que conserve el orden de los textos y que la validación
+ * sin expresiones regulares acepte lo mismo que el formato documentado de cada identificador.
+ */
+class PackedIdTest {
+
+    /**
+     * Verifica que empaquetar y desempaquetar devuelva el mismo identificador.
+     */
+    @Test
+    void testRoundTrip() {
+        for (String id : new String[]{"", "0", "ABC", "zzzzzzzzzz", "user_name_0123456789", "A1b2C3d4E5f"}) {
+            assertEquals(id, PackedId.unpack(PackedId.high(id), PackedId.low(id)), "Debería recuperarse " + id + ".");
+        }
+        assertEquals("ST001", PackedId.unpack(PackedId.high("ST001")));
+        assertEquals(0, PackedId.low("ABCDEFGHIJ"), "Diez caracteres deberían caber en la palabra alta.");
+        assertThrows(IllegalArgumentException.class, () -> PackedId.high("AB-C"));
+        assertThrows(IllegalArgumentException.class, () -> PackedId.unpack(-1L),
+                "Los bits altos de una palabra deberían estar a cero.");
+        assertThrows(IllegalArgumentException.class, () -> PackedId.unpack(PackedId.high("A") | 1),
+                "No debería haber caracteres después del relleno.");
+        assertThrows(IllegalArgumentException.class, () -> PackedId.unpack(PackedId.high("ABC"), PackedId.high("D")),
+                "La palabra baja solo puede usarse si la alta está llena.");
+    }
+
+    /**
+     * Verifica que comparar las palabras dé el mismo orden que comparar los textos.
+     */
+    @Test
+    void testOrderMatchesStrings() {
+        String[] ids = {"0", "09", "9", "A", "AB", "Z", "_", "a", "ab", "z", "zzzzzzzzzz"};
+        for (int i = 1; i < ids.length; i++) {
+            assertTrue(ids[i - 1].compareTo(ids[i]) < 0);
+            assertTrue(PackedId.high(ids[i - 1]) < PackedId.high(ids[i]),
+                    ids[i - 1] + " debería codificarse antes que " + ids[i] + ".");
+        }
+    }
+
+    /**
+     * Verifica que la validación coincida con las expresiones regulares de cada identificador.
+     */
+    @Test
+    void testValidationMatchesRegex() {
+        String[] candidates = {"", "ab", "abc", "ABC12", "abc_1", "ABCDEFGHIJKLMNO", "ABCDEFGHIJKLMNOP",
+                "ñandu", "abc 1", "abc-1", "a_b_c_d_e_f_g_h_i_j_", "a_b_c_d_e_f_g_h_i_j_k"};
+        for (String id : candidates) {
+            assertEquals(id.matches("[A-Za-z0-9]{5,15}"), PackedId.isValid(id, 5, 15, false), "VehicleID " + id);
+            assertEquals(id.matches("[A-Za-z0-9]{3,10}"), PackedId.isValid(id, 3, 10, false), "StationID " + id);
+            assertEquals(id.matches("[A-Za-z0-9_]{3,20}"), PackedId.isValid(id, 3, 20, true), "UserAccount " + id);
+        }
+        assertFalse(PackedId.isValid(null, 0, 20, true));
+    }
+
+    /**
+     * Verifica las claves de los identificadores y su reconstrucción.
+     */
+    @Test
+    void testIdentifierKeys() throws InvalidPairingArgsException {
+        VehicleID vehicle = new VehicleID("VEHICLE1234567");
+        assertEquals(vehicle, VehicleID.fromKey(vehicle.getKeyHigh(), vehicle.getKeyLow()));
+        assertEquals(vehicle.hashCode(), new VehicleID("VEHICLE1234567").hashCode());
+        assertNotEquals(vehicle, new VehicleID("VEHICLE1234568"));
+
+        StationID station = new StationID("ST001");
+        assertEquals("ST001", StationID.fromKey(station.getKey()).getId());
+
+        UserAccount user = new UserAccount("diego_martinez_2024");
+        assertEquals(user, UserAccount.fromKey(user.getKeyHigh(), user.getKeyLow()));
+
+        assertThrows(InvalidPairingArgsException.class, () -> StationID.fromKey(PackedId.high("AB")),
+                "Una clave de un identificador demasiado corto no debería aceptarse.");
+        assertThrows(InvalidPairingArgsException.class, () -> VehicleID.fromKey(-1L, 0),
+                "Una clave mal formada no debería aceptarse.");
+    }
+}
@@ -0,0 +1,96 @@
+package data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test de las clases PackedPoint y PackedPointArray.
+ * Verifica el empaquetado en microgrados, los límites de rango y la lista de puntos empaquetados.
+ */
+class PackedPointTest {
+
+    /**
+     * Verifica que empaquetar y desempaquetar conserve las coordenadas al microgrado, también con signo negativo.
+     */
+    @Test
+    void testPackRoundTrip() throws Exception {
+        float[][] cases = {{41.3851f, 2.1734f}, {-33.8688f, -151.2093f}, {-90f, 180f}, {90f, -180f}, {0f, 0f}};
+        for (float[] c : cases) {
+            long packed = PackedPoint.pack(c[0], c[1]);
+            assertEquals(c[0], PackedPoint.latitude(packed), 1e-6, "La latitud no coincide.");
+            assertEquals(c[1], PackedPoint.longitude(packed), 1e-6, "La longitud no coincide.");
+            assertTrue(PackedPoint.isValid(packed), "El punto empaquetado debería ser válido.");
+            assertEquals(new GeographicPoint(c[0], c[1]), PackedPoint.toPoint(packed),
+                    "El punto reconstruido debería ser igual al original.");
+        }
+        assertEquals(-33_868_800, PackedPoint.latitudeMicros(PackedPoint.pack(-33.8688, 2)));
+        assertEquals(-1, PackedPoint.longitudeMicros(PackedPoint.packMicros(5, -1)));
+        assertEquals(5, PackedPoint.latitudeMicros(PackedPoint.packMicros(5, -1)));
+    }
+
+    /**
+     * Verifica que se rechacen coordenadas fuera de rango o no numéricas.
+     */
+    @Test
+    void testPackRejectsInvalidCoordinates() {
+        assertThrows(IllegalArgumentException.class, () -> PackedPoint.pack(90.5, 0));
+        assertThrows(IllegalArgumentException.class, () -> PackedPoint.pack(0, -180.5));
+        assertThrows(IllegalArgumentException.class, () -> PackedPoint.pack(Double.NaN, 0));
+        assertThrows(IllegalArgumentException.class, () -> PackedPoint.pack(null));
+        assertFalse(PackedPoint.isValid(PackedPoint.packMicros(90_000_001, 0)));
+        assertThrows(IllegalArgumentException.class,
+                () -> new PackedPointArray().addPacked(PackedPoint.packMicros(0, 180_000_001)));
+    }
+
+    /**
+     * Verifica que el hash de GeographicPoint no haya cambiado al dejar de usar Objects.hash.
+     */
+    @Test
+    void testGeographicPointHashMatchesObjectsHash() throws Exception {
+        GeographicPoint point = new GeographicPoint(41.3851f, 2.1734f);
+        assertEquals(Objects.hash(point.getLatitude(), point.getLongitude()), point.hashCode());
+        assertEquals(PackedPoint.pack(41.3851f, 2.1734f), point.pack());
+    }
+
+    /**
+     * Verifica que la lista crezca, permita el acceso por índice y se recorra con el cursor.
+     */
+    @Test
+    void testPackedPointArray() throws Exception {
+        PackedPointArray points = new PackedPointArray(1);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, points.add(41.0 + i * 0.001, 2.0 - i * 0.001));
+        }
+        assertEquals(100, points.size());
+        assertEquals(41.05, points.getLatitude(50), 1e-9);
+        assertEquals(1.95, points.getLongitude(50), 1e-9);
+        assertEquals(50, points.indexOf(PackedPoint.pack(41.05, 1.95)));
+        assertEquals(-1, points.indexOf(PackedPoint.pack(0, 0)));
+
+        points.set(0, -10, -20);
+        assertEquals(new GeographicPoint(-10f, -20f), points.toPoint(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> points.getPacked(100));
+
+        float[] lats = new float[100];
+        float[] lons = new float[100];
+        points.copyCoordinates(lats, lons);
+        assertEquals(41.099f, lats[99], 1e-5);
+        assertThrows(IllegalArgumentException.class, () -> points.copyCoordinates(new float[10], lons));
+
+        PackedPointArray.Cursor cursor = points.cursor();
+        int visited = 0;
+        while (cursor.next()) {
+            assertEquals(points.getPacked(cursor.index()), cursor.packed());
+            visited++;
+        }
+        assertEquals(100, visited, "El cursor debería recorrer todos los puntos.");
+
+        points.clear();
+        assertEquals(0, points.size());
+        cursor.reset();
+        assertFalse(cursor.next(), "Tras vaciar la lista el cursor no debería tener puntos.");
+    }
+}
@@ -0,0 +1,127 @@
+package logging;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para Logger, LogManager y AsyncLogBuffer.
+ * Verifica el filtrado por nivel, la composición diferida de mensajes y que el registro nunca bloquee.
+ */
+class LoggerTest {
+
+    private final List<String> published = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        LogManager.setSink(new ConsoleLogSink());
+        LogManager.setLevel(Level.INFO);
+    }
+
+    /**
+     * Verifica que los mensajes por debajo del nivel se descarten sin componerse.
+     */
+    @Test
+    void testLevelFilteringIsLazy() {
+        LogManager.setSink((level, name, time, message) -> published.add(level + ":" + message));
+        Logger logger = LogManager.getLogger("pruebas.filtrado");
+        logger.setLevel(Level.INFO);
+        AtomicInteger evaluations = new AtomicInteger();
+
+        logger.debug(() -> "depuración " + evaluations.incrementAndGet());
+        logger.info(() -> "información " + evaluations.incrementAndGet());
+        LogManager.flush();
+
+        assertEquals(1, evaluations.get(), "El mensaje deshabilitado no debería componerse.");
+        assertEquals(List.of("INFO:información 1"), published);
+        assertFalse(logger.isDebugEnabled());
+        assertFalse(logger.isEnabled(Level.OFF), "OFF nunca debería registrarse.");
+    }
+
+    /**
+     * Verifica que las plantillas se completen con sus argumentos en orden.
+     */
+    @Test
+    void testTemplateFormatting() {
+        LogManager.setSink((level, name, time, message) -> published.add(name + " " + message));
+        Logger logger = LogManager.getLogger("pruebas.plantillas");
+        logger.setLevel(Level.DEBUG);
+
+        logger.debug("Vehículo {} en estado {}", "V12345", "Available");
+        logger.warn("Distancia = {} km, duración = {} min, importe = {} EUR.", 2.5f, 12, "1.70");
+        logger.error("Sin argumentos {}");
+        LogManager.flush();
+
+        assertEquals(List.of(
+                "pruebas.plantillas Vehículo V12345 en estado Available",
+                "pruebas.plantillas Distancia = 2.5 km, duración = 12 min, importe = 1.70 EUR.",
+                "pruebas.plantillas Sin argumentos {}"), published);
+    }
+
+    /**
+     * Verifica que con el búfer lleno los mensajes se descarten en lugar de bloquear al llamante.
+     */
+    @Test
+    void testFullBufferDropsInsteadOfBlocking() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch first = new CountDownLatch(1);
+        AsyncLogBuffer buffer = new AsyncLogBuffer((level, name, time, message) -> {
+            first.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            published.add(message);
+        }, 4);
+        try {
+            assertTrue(buffer.offer(Level.INFO, "pruebas", "m0"));
+            assertTrue(first.await(5, TimeUnit.SECONDS));
+            int accepted = 0;
+            for (int i = 1; i <= 10; i++) {
+                if (buffer.offer(Level.INFO, "pruebas", "m" + i)) {
+                    accepted++;
+                }
+            }
+            assertEquals(4, accepted, "Solo deberían caber tantos mensajes como ranuras.");
+            assertEquals(6, buffer.getDroppedCount());
+            release.countDown();
+            buffer.flush();
+            assertEquals(List.of("m0", "m1", "m2", "m3", "m4"), published);
+        } finally {
+            release.countDown();
+            buffer.close();
+        }
+    }
+
+    /**
+     * Verifica que varios hilos puedan registrar a la vez sin perder mensajes si hay capacidad.
+     */
+    @Test
+    void testConcurrentProducers() throws Exception {
+        AtomicInteger count = new AtomicInteger();
+        AsyncLogBuffer buffer = new AsyncLogBuffer((level, name, time, message) -> count.incrementAndGet(), 1 << 16);
+        Thread[] producers = new Thread[4];
+        for (int t = 0; t < producers.length; t++) {
+            producers[t] = new Thread(() -> {
+                for (int i = 0; i < 5000; i++) {
+                    buffer.offer(Level.INFO, "pruebas", "mensaje {}", 1, i, null, null);
+                }
+            });
+            producers[t].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        buffer.close();
+        assertEquals(20000, count.get(), "Deberían escribirse todos los mensajes.");
+        assertEquals(0, buffer.getDroppedCount());
+    }
+}
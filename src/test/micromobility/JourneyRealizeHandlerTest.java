@@ -2,14 +2,24 @@ package micromobility;
 
 import data.*;
 import exceptions.*;
+import micromobility.tariff.CompiledTariff;
+import micromobility.tariff.Rate;
+import micromobility.tariff.TariffTable;
+import micromobility.tariff.UserPlan;
 import mocks.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import services.smartfeatures.qr.QRBurstScanner;
+import services.smartfeatures.qr.QRImageDecoder;
+import services.smartfeatures.qr.QREncoder;
+
 import java.awt.image.BufferedImage;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -136,6 +146,195 @@ class JourneyRealizeHandlerTest {
         assertTrue(journeyService.getImportValue().compareTo(BigDecimal.ZERO) > 0);
     }
 
+    /**
+     * Verifica que las variantes sin excepciones devuelvan el motivo de cada rechazo habitual.
+     */
+    @Test
+    void testTryVariantsReportRejections() throws Exception {
+        BufferedImage mockImage = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+        VehicleID vehicleID = new VehicleID("V12345");
+        PMVehicle vehicle = createVehicle(vehicleID, PMVState.UnderWay);
+        mockQRDecoder.setSimulatedVehicleID(vehicleID);
+
+        assertEquals(JourneyResult.CORRUPTED_IMAGE, handler.tryScanQR(null));
+        assertEquals(JourneyResult.VEHICLE_NOT_AVAILABLE, handler.tryScanQR(mockImage));
+        mockQRDecoder.setSimulatedVehicleID(new VehicleID("V99999"));
+        assertEquals(JourneyResult.VEHICLE_NOT_FOUND, handler.tryScanQR(mockImage));
+        assertEquals(JourneyResult.NO_JOURNEY_IN_PROGRESS, handler.tryUnPairVehicle());
+
+        vehicle.setAvailb();
+        mockQRDecoder.setSimulatedVehicleID(vehicleID);
+        assertEquals(JourneyResult.OK, handler.tryScanQR(mockImage));
+        assertEquals(PMVState.NotAvailable, vehicle.getState());
+
+        // Sin moverse del origen la distancia es 0: el trayecto no se puede cerrar
+        JourneyService journey = createJourneyService(vehicle.getLocation());
+        journey.setInProgress(true);
+        handler.setCurrentJourney(journey);
+        assertEquals(JourneyResult.INVALID_DISTANCE, handler.tryUnPairVehicle());
+
+        vehicle.setLocation(new GeographicPoint(41.4020f, 2.1910f));
+        journey.setInProgress(true);
+        assertEquals(JourneyResult.OK, handler.tryUnPairVehicle());
+        assertEquals(PMVState.Available, vehicle.getState());
+        assertFalse(journey.isInProgress());
+    }
+
+    /**
+     * Verifica que un escaneo rechazado no vincule la sesión al vehículo que otro usuario ya ha reclamado.
+     */
+    @Test
+    void testRejectedScanDoesNotBindVehicle() throws Exception {
+        BufferedImage mockImage = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+        VehicleID vehicleID = new VehicleID("V12345");
+        PMVehicle claimed = createVehicle(vehicleID, PMVState.NotAvailable);
+        mockQRDecoder.setSimulatedVehicleID(vehicleID);
+        handler.setCurrentJourney(createJourneyService(claimed.getLocation()));
+
+        assertEquals(JourneyResult.VEHICLE_NOT_AVAILABLE, handler.tryScanQR(mockImage));
+        assertThrows(ProceduralException.class, handler::startDriving,
+                "Sin vehículo reclamado no debería poder iniciarse la marcha.");
+        assertEquals(PMVState.NotAvailable, claimed.getState(), "El vehículo ajeno no debería ponerse en marcha.");
+    }
+
+    /**
+     * Verifica que la API con excepciones lance los mismos tipos, sin traza en los rechazos habituales.
+     */
+    @Test
+    void testLegacyRejectionsAreStackless() throws Exception {
+        BufferedImage mockImage = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+        VehicleID vehicleID = new VehicleID("V12345");
+        createVehicle(vehicleID, PMVState.UnderWay);
+        mockQRDecoder.setSimulatedVehicleID(vehicleID);
+
+        PMVNotAvailException busy = assertThrows(PMVNotAvailException.class, () -> handler.scanQR(mockImage));
+        assertEquals(JourneyResult.VEHICLE_NOT_AVAILABLE.getMessage(), busy.getMessage());
+        assertEquals(0, busy.getStackTrace().length, "Un rechazo habitual no debería recorrer la pila.");
+        ProceduralException noJourney = assertThrows(ProceduralException.class, handler::unPairVehicle);
+        assertEquals(0, noJourney.getStackTrace().length, "Un rechazo habitual no debería recorrer la pila.");
+        assertNull(noJourney.getCause(), "Un rechazo habitual no debería envolver otra excepción.");
+    }
+
+    /**
+     * Verifica que la tarifa se elija con la zona de la estación de salida, no con la de llegada.
+     */
+    @Test
+    void testFareIsZonedByOriginStation() throws Exception {
+        StationID origin = new StationID("ST001");
+        StationID destination = new StationID("ST002");
+        CompiledTariff tariff = new TariffTable()
+                .addRule(TariffTable.ANY_ZONE, null, null, Rate.of("0", "0.50", "0.10", "0"))
+                .addRule(1, null, null, Rate.of("5.00", "0.50", "0.10", "0"))
+                .assignZone(origin, 1)
+                .compile();
+        handler.setTariff(tariff);
+        PMVehicle vehicle = createVehicle(new VehicleID("V12345"), PMVState.NotAvailable);
+        JourneyService journey = createJourneyService(vehicle.getLocation());
+        handler.setCurrentJourney(journey);
+        handler.setCurrentVehicle(vehicle);
+
+        handler.broadcastStationID(origin);
+        handler.startDriving();
+        vehicle.setLocation(new GeographicPoint(41.4020f, 2.1910f));
+        handler.broadcastStationID(destination);
+        handler.unPairVehicle();
+
+        Money expected = tariff.fare(1, journey.getStartTime().getHour(), vehicle.getType(), UserPlan.PAY_AS_YOU_GO,
+                journey.getDistance(), journey.getDuration());
+        assertEquals(expected, journey.getImportMoney(), "Debe aplicarse la tarifa de la zona de salida.");
+        assertEquals(destination, journey.getEndStation());
+    }
+
+    /**
+     * Verifica que un intento de finalizar rechazado no deja de registrar el recorrido: las posiciones
+     * posteriores cuentan en el reintento.
+     */
+    @Test
+    void testRejectedUnPairKeepsTracking() throws Exception {
+        VehicleID vehicleID = new VehicleID("V12345");
+        GeographicPoint origin = new GeographicPoint(41.3851f, 2.1734f);
+        PMVehicle vehicle = createVehicle(vehicleID, PMVState.NotAvailable);
+        JourneyService journey = createJourneyService(origin);
+        handler.setCurrentJourney(journey);
+        handler.setCurrentVehicle(vehicle);
+        handler.startDriving();
+
+        // Sin moverse la distancia es 0 y el trayecto sigue en curso
+        assertEquals(JourneyResult.INVALID_DISTANCE, handler.tryUnPairVehicle());
+        assertTrue(journey.isInProgress(), "Un rechazo no debe cerrar el trayecto.");
+        assertEquals(PMVState.UnderWay, vehicle.getState(), "Un rechazo no debe liberar el vehículo.");
+
+        vehicle.setLocation(new GeographicPoint(41.3951f, 2.1734f));
+        vehicle.setLocation(new GeographicPoint(41.3951f, 2.1834f));
+        assertNotNull(journey.getTrack(), "Las posiciones tras el rechazo deben registrarse.");
+        assertTrue(journey.getTrack().getFixCount() >= 2, "Deben registrarse las dos posiciones.");
+
+        assertEquals(JourneyResult.OK, handler.tryUnPairVehicle());
+        assertEquals((float) journey.getTrack().getDistanceKm(), journey.getDistance(), 1e-3f,
+                "La distancia del reintento debe ser la del recorrido registrado.");
+        long fixes = journey.getTrack().getFixCount();
+        vehicle.setLocation(origin);
+        assertEquals(fixes, journey.getTrack().getFixCount(), "Tras finalizar no deben registrarse más posiciones.");
+    }
+
+    /**
+     * Verifica que un fallo de conexión al cerrar el emparejamiento tampoco deja de registrar el recorrido.
+     */
+    @Test
+    void testFailedStopPairingKeepsTracking() throws Exception {
+        FlakyServer flaky = new FlakyServer();
+        handler = new JourneyRealizeHandler(flaky, mockQRDecoder, mockArduino, mockBTSignal);
+        VehicleID vehicleID = new VehicleID("V12345");
+        GeographicPoint origin = new GeographicPoint(41.3851f, 2.1734f);
+        PMVehicle vehicle = new PMVehicle(vehicleID, PMVState.NotAvailable, origin);
+        flaky.addVehicle(vehicleID, vehicle);
+        JourneyService journey = createJourneyService(origin);
+        handler.setCurrentJourney(journey);
+        handler.setCurrentVehicle(vehicle);
+        handler.startDriving();
+        vehicle.setLocation(new GeographicPoint(41.3951f, 2.1734f));
+
+        flaky.failNextStop = true;
+        assertEquals(JourneyResult.CONNECTION_ERROR, handler.tryUnPairVehicle());
+        assertTrue(journey.isInProgress(), "Un fallo de conexión no debe cerrar el trayecto.");
+        long fixes = journey.getTrack().getFixCount();
+        vehicle.setLocation(new GeographicPoint(41.3951f, 2.1834f));
+        assertEquals(fixes + 1, journey.getTrack().getFixCount(), "Las posiciones tras el fallo deben registrarse.");
+
+        assertEquals(JourneyResult.OK, handler.tryUnPairVehicle());
+        assertEquals((float) journey.getTrack().getDistanceKm(), journey.getDistance(), 1e-3f,
+                "La distancia del reintento debe incluir las posiciones tras el fallo.");
+    }
+
+    /**
+     * Verifica el escaneo de ráfagas con el escáner paralelo sobre imágenes de QR reales y, sin escáner,
+     * con el decodificador del controlador fotograma a fotograma.
+     */
+    @Test
+    void testScanQRBurst() throws Exception {
+        VehicleID vehicleID = new VehicleID("VH765432");
+        PMVehicle vehicle = createVehicle(vehicleID, PMVState.Available);
+        BufferedImage blank = new BufferedImage(160, 160, BufferedImage.TYPE_INT_RGB);
+        List<BufferedImage> frames = List.of(blank, blank, QREncoder.render(vehicleID), blank);
+
+        handler.setQrDecoder(new QRImageDecoder());
+        assertEquals(JourneyResult.CORRUPTED_IMAGE, handler.tryScanQRBurst(List.of(blank, blank)));
+        assertEquals(JourneyResult.CORRUPTED_IMAGE, handler.tryScanQRBurst(List.of()));
+        assertEquals(JourneyResult.OK, handler.tryScanQRBurst(frames), "Sin escáner se decodifica uno a uno.");
+        assertEquals(PMVState.NotAvailable, vehicle.getState());
+
+        vehicle.setAvailb();
+        try (QRBurstScanner scanner = new QRBurstScanner()) {
+            handler.setBurstScanner(scanner);
+            handler.scanQRBurst(frames);
+            assertEquals(PMVState.NotAvailable, vehicle.getState(), "El escáner de ráfagas debe reclamar el vehículo.");
+            assertThrows(PMVNotAvailException.class, () -> handler.scanQRBurst(frames),
+                    "Un vehículo ya reclamado no debe volver a reclamarse.");
+            assertThrows(CorruptedImgException.class, () -> handler.scanQRBurst(List.of(blank)),
+                    "Una ráfaga ilegible debe rechazarse.");
+        }
+    }
+
     // Métodos auxiliares
 
     private PMVehicle createVehicle(VehicleID vehicleID, PMVState state) throws InvalidPairingArgsException {
@@ -149,4 +348,22 @@ class JourneyRealizeHandlerTest {
         LocalTime initHour = LocalTime.now().minusHours(2);
         return new JourneyService(originPoint, initDate, initHour);
     }
+
+    /**
+     * Servidor simulado que falla por conexión en el siguiente cierre de emparejamiento.
+     */
+    private static class FlakyServer extends MockServer {
+        boolean failNextStop;
+
+        @Override
+        public void stopPairing(UserAccount user, VehicleID veh, StationID st, GeographicPoint loc, LocalDateTime date,
+                                float avSp, float dist, int dur, BigDecimal imp)
+                throws InvalidPairingArgsException, ConnectException {
+            if (failNextStop) {
+                failNextStop = false;
+                throw new ConnectException("Servidor no disponible.");
+            }
+            super.stopPairing(user, veh, st, loc, date, avSp, dist, dur, imp);
+        }
+    }
 }
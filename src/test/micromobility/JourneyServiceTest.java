@@ -1,6 +1,7 @@
 package micromobility;
 
 import data.GeographicPoint;
+import data.Money;
 import exceptions.InvalidPairingArgsException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -90,7 +91,8 @@ class JourneyServiceTest {
 
         journey.setImportValue(expectedImport);
 
-        assertEquals(expectedImport, journey.getImportValue(), "El importe calculado no coincide.");
+        // El importe se guarda en céntimos, redondeado con la política de Money
+        assertEquals(expectedImport.setScale(2, Money.ROUNDING), journey.getImportValue(), "El importe calculado no coincide.");
     }
 
     /**
@@ -0,0 +1,221 @@
+package micromobility;
+
+import data.*;
+import exceptions.*;
+import micromobility.payment.Wallet;
+import mocks.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para la clase JourneySessionEngine.
+ * Verifica el enrutado de eventos por usuario y el descarte de sesiones terminadas.
+ */
+class JourneySessionEngineTest {
+
+    private JourneySessionEngine engine;
+    private ManualClock clock;
+    private MockServer mockServer;
+    private MockQRDecoder mockQRDecoder;
+    private BufferedImage image;
+
+    @BeforeEach
+    void setUp() {
+        mockServer = new MockServer();
+        mockQRDecoder = new MockQRDecoder();
+        JourneyRealizeHandler handler = new JourneyRealizeHandler(mockServer, mockQRDecoder,
+                new MockArduinoMicroController(), new MockUnbondedBTSignal());
+        // El controlador fecha el final de los trayectos con el mismo reloj: se avanza antes de finalizarlos
+        clock = new ManualClock();
+        engine = new JourneySessionEngine(handler, clock, Duration.ofNanos(1));
+        image = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+    }
+
+    /**
+     * Verifica un trayecto completo: al pagarse, la sesión se descarta.
+     */
+    @Test
+    void testFullJourneyEvictsSession() throws Exception {
+        UserAccount user = new UserAccount("diego123");
+        PMVehicle vehicle = createVehicle("V12345");
+        engine.setWallet(user, new Wallet(new BigDecimal("100.00")));
+
+        mockQRDecoder.setSimulatedVehicleID(vehicle.getId());
+        engine.scanQR(user, image);
+        assertSame(engine.getSession(user), engine.getSessionByVehicle(vehicle.getId()));
+
+        engine.broadcastStationID(user, new StationID("ST123"));
+        engine.startDriving(user);
+        vehicle.setLocation(new GeographicPoint(41.4020f, 2.1910f));
+        clock.advanceMinutes(30);
+        engine.unPairVehicle(user);
+        assertEquals(PMVState.Available, vehicle.getState());
+        assertNull(engine.getSessionByVehicle(vehicle.getId()));
+
+        engine.selectPaymentMethod(user, 'W');
+        assertNull(engine.getSession(user), "La sesión pagada debería descartarse.");
+        assertEquals(0, engine.getActiveSessionCount());
+    }
+
+    /**
+     * Verifica que dos usuarios tengan sesiones independientes y no puedan reclamar el mismo vehículo.
+     */
+    @Test
+    void testSessionsAreIndependent() throws Exception {
+        UserAccount ana = new UserAccount("ana_01");
+        UserAccount luis = new UserAccount("luis_02");
+        PMVehicle first = createVehicle("V11111");
+        PMVehicle second = createVehicle("V22222");
+
+        mockQRDecoder.setSimulatedVehicleID(first.getId());
+        engine.scanQR(ana, image);
+        assertThrows(PMVNotAvailException.class, () -> engine.scanQR(luis, image));
+        assertNull(engine.getSession(luis), "Un escaneo fallido no debería dejar sesión.");
+
+        mockQRDecoder.setSimulatedVehicleID(second.getId());
+        engine.scanQR(luis, image);
+        engine.startDriving(luis);
+
+        assertEquals(PMVState.NotAvailable, first.getState());
+        assertEquals(PMVState.UnderWay, second.getState());
+        assertSame(first, engine.getSession(ana).getVehicle());
+        assertSame(second, engine.getSession(luis).getVehicle());
+    }
+
+    /**
+     * Verifica las variantes sin excepciones: un vehículo ya reclamado o un usuario sin sesión se informan
+     * como resultado y no dejan sesiones.
+     */
+    @Test
+    void testTryVariants() throws Exception {
+        UserAccount ana = new UserAccount("ana_01");
+        UserAccount luis = new UserAccount("luis_02");
+        PMVehicle vehicle = createVehicle("V11111");
+
+        mockQRDecoder.setSimulatedVehicleID(vehicle.getId());
+        assertEquals(JourneyResult.OK, engine.tryScanQR(ana, image));
+        assertEquals(JourneyResult.ALREADY_PAIRED, engine.tryScanQR(ana, image));
+        assertEquals(JourneyResult.VEHICLE_NOT_AVAILABLE, engine.tryScanQR(luis, image));
+        assertNull(engine.getSession(luis), "Un escaneo rechazado no debería dejar sesión.");
+        assertEquals(JourneyResult.NO_SESSION, engine.tryUnPairVehicle(luis));
+
+        engine.startDriving(ana);
+        vehicle.setLocation(new GeographicPoint(41.4020f, 2.1910f));
+        clock.advanceMinutes(30);
+        assertEquals(JourneyResult.OK, engine.tryUnPairVehicle(ana));
+        assertNull(engine.getSessionByVehicle(vehicle.getId()));
+        assertEquals(JourneyResult.NO_JOURNEY_IN_PROGRESS, engine.tryUnPairVehicle(ana));
+    }
+
+    /**
+     * Verifica que las sesiones abandonadas se descarten y liberen el vehículo reclamado.
+     */
+    @Test
+    void testEvictIdleReleasesClaimedVehicle() throws Exception {
+        UserAccount idle = new UserAccount("idle_user");
+        UserAccount driving = new UserAccount("driver");
+        PMVehicle claimed = createVehicle("V33333");
+        PMVehicle underWay = createVehicle("V44444");
+
+        mockQRDecoder.setSimulatedVehicleID(claimed.getId());
+        engine.scanQR(idle, image);
+        mockQRDecoder.setSimulatedVehicleID(underWay.getId());
+        engine.scanQR(driving, image);
+        engine.startDriving(driving);
+
+        assertEquals(1, engine.evictIdleSessions());
+        assertEquals(PMVState.Available, claimed.getState(), "El vehículo abandonado debería quedar disponible.");
+        assertNull(engine.getSession(idle));
+        assertNotNull(engine.getSession(driving), "Un trayecto en marcha no debería descartarse.");
+        assertThrows(ProceduralException.class, () -> engine.startDriving(idle));
+    }
+
+    /**
+     * Verifica que la inactividad se mida con el reloj del motor y no con el del sistema.
+     */
+    @Test
+    void testIdleTimeoutFollowsEngineClock() throws Exception {
+        ManualClock clock = new ManualClock();
+        JourneySessionEngine timed = new JourneySessionEngine(new JourneyRealizeHandler(mockServer, mockQRDecoder,
+                new MockArduinoMicroController(), new MockUnbondedBTSignal()), clock, Duration.ofMinutes(10));
+        UserAccount user = new UserAccount("idle_user");
+        PMVehicle vehicle = createVehicle("V55555");
+        mockQRDecoder.setSimulatedVehicleID(vehicle.getId());
+        timed.scanQR(user, image);
+
+        clock.advanceMinutes(9);
+        assertEquals(0, timed.evictIdleSessions(), "Antes del plazo la sesión debería conservarse.");
+        timed.broadcastStationID(user, new StationID("ST123"));
+        clock.advanceMinutes(9);
+        assertEquals(0, timed.evictIdleSessions(), "La actividad debería reiniciar el plazo.");
+        clock.advanceMinutes(2);
+        assertEquals(1, timed.evictIdleSessions());
+        assertEquals(PMVState.Available, vehicle.getState());
+    }
+
+    /**
+     * Verifica que el final del trayecto y las posiciones del recorrido se fechen con el reloj del motor.
+     */
+    @Test
+    void testJourneyEndFollowsEngineClock() throws Exception {
+        UserAccount user = new UserAccount("clock_user");
+        PMVehicle vehicle = createVehicle("V66666");
+        mockQRDecoder.setSimulatedVehicleID(vehicle.getId());
+        engine.scanQR(user, image);
+        engine.startDriving(user);
+        JourneyService journey = engine.getSession(user).getJourney();
+
+        clock.advanceMinutes(10);
+        vehicle.setLocation(new GeographicPoint(41.4020f, 2.1910f));
+        clock.advanceMinutes(20);
+        assertEquals(JourneyResult.OK, engine.tryUnPairVehicle(user));
+
+        assertEquals(30, journey.getDuration(), "La duración debería medirse con el reloj del motor.");
+        assertEquals(10 * 60_000L, journey.getTrack().getElapsedMillis(),
+                "Las posiciones deberían fecharse con el reloj del motor.");
+    }
+
+    // Métodos auxiliares
+
+    /**
+     * Reloj de prueba que solo avanza cuando se le indica.
+     */
+    private static final class ManualClock extends Clock {
+        private volatile long millis = System.currentTimeMillis();
+
+        void advanceMinutes(int minutes) {
+            millis += minutes * 60_000L;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.systemDefault();
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+    }
+
+    private PMVehicle createVehicle(String id) throws InvalidPairingArgsException {
+        VehicleID vehicleID = new VehicleID(id);
+        PMVehicle vehicle = new PMVehicle(vehicleID, PMVState.Available, new GeographicPoint(41.3851f, 2.1734f));
+        mockServer.addVehicle(vehicleID, vehicle);
+        return vehicle;
+    }
+}
@@ -5,6 +5,12 @@ import data.VehicleID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -99,4 +105,58 @@ class PMVehicleTest {
     void testInitializeWithNullLocation() {
         assertThrows(IllegalArgumentException.class, () -> new PMVehicle(new VehicleID("V12345"), PMVState.Available, null), "Una ubicación inicial nula debería lanzar una excepción.");
     }
+
+    /**
+     * Verifica que compareAndTransition solo cambie el estado si el estado actual es el esperado.
+     */
+    @Test
+    void testCompareAndTransition() {
+        assertTrue(vehicle.compareAndTransition(PMVState.Available, PMVState.NotAvailable));
+        assertEquals(PMVState.NotAvailable, vehicle.getState());
+
+        assertFalse(vehicle.compareAndTransition(PMVState.Available, PMVState.NotAvailable), "La transición no debería aplicarse desde un estado distinto.");
+        assertEquals(PMVState.NotAvailable, vehicle.getState());
+    }
+
+    /**
+     * Verifica que la versión avance con cada transición y que una versión obsoleta sea rechazada.
+     */
+    @Test
+    void testVersionedTransition() {
+        long version = vehicle.getStateVersion();
+        vehicle.setUnderWay();
+        assertEquals(version + 1, vehicle.getStateVersion(), "Cada transición debería incrementar la versión.");
+
+        assertFalse(vehicle.compareAndTransition(version, PMVState.Available), "Una versión obsoleta debería rechazarse.");
+        assertTrue(vehicle.compareAndTransition(version + 1, PMVState.Available));
+        assertEquals(PMVState.Available, vehicle.getState());
+    }
+
+    /**
+     * Verifica que, si varios hilos reclaman el mismo vehículo a la vez, solo uno lo consiga.
+     */
+    @Test
+    void testConcurrentClaimHasSingleWinner() throws Exception {
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger winners = new AtomicInteger();
+        for (int i = 0; i < threads; i++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (vehicle.compareAndTransition(PMVState.Available, PMVState.NotAvailable)) {
+                    winners.incrementAndGet();
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(1, winners.get(), "Solo un hilo debería reclamar el vehículo.");
+    }
 }
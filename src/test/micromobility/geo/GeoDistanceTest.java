@@ -0,0 +1,94 @@
+package micromobility.geo;
+
+import data.GeographicPoint;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para la clase GeoDistance.
+ * Verifica la fórmula haversine, que los lotes coincidan con el cálculo individual y los límites de error
+ * documentados de la aproximación equirectangular.
+ */
+class GeoDistanceTest {
+
+    /**
+     * Verifica distancias conocidas con la fórmula haversine.
+     */
+    @Test
+    void testHaversineKnownDistances() throws Exception {
+        // Plaza de Catalunya - Sagrada Família, unos 1,9 km
+        GeographicPoint start = new GeographicPoint(41.3870f, 2.1700f);
+        GeographicPoint end = new GeographicPoint(41.4036f, 2.1744f);
+        assertEquals(1.884, GeoDistance.haversineKm(start, end), 0.01);
+        // Un grado de meridiano
+        assertEquals(Math.PI * GeoDistance.EARTH_RADIUS_KM / 180, GeoDistance.haversineKm(10, 20, 11, 20), 1e-9);
+        // Puntos antipodales
+        assertEquals(Math.PI * GeoDistance.EARTH_RADIUS_KM, GeoDistance.haversineKm(0, 0, 0, 180), 1e-6);
+        assertEquals(0, GeoDistance.haversineKm(start, start), 0);
+    }
+
+    /**
+     * Verifica que los cálculos por lotes coincidan con el cálculo individual.
+     */
+    @Test
+    void testBatchesMatchScalar() {
+        int count = 1000;
+        float[] lat1 = new float[count];
+        float[] lon1 = new float[count];
+        float[] lat2 = new float[count];
+        float[] lon2 = new float[count];
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < count; i++) {
+            lat1[i] = (float) random.nextDouble(41.3, 41.5);
+            lon1[i] = (float) random.nextDouble(2.0, 2.3);
+            lat2[i] = (float) random.nextDouble(41.3, 41.5);
+            lon2[i] = (float) random.nextDouble(2.0, 2.3);
+        }
+        float[] haversine = new float[count];
+        float[] from = new float[count];
+        float[] equirectangular = new float[count];
+        float[] equirectangularFrom = new float[count];
+        GeoDistance.haversineKm(lat1, lon1, lat2, lon2, haversine, count);
+        GeoDistance.haversineFromKm(lat1[0], lon1[0], lat2, lon2, from, count);
+        GeoDistance.equirectangularKm(lat1, lon1, lat2, lon2, equirectangular, count);
+        GeoDistance.equirectangularFromKm(lat1[0], lon1[0], lat2, lon2, equirectangularFrom, count);
+
+        for (int i = 0; i < count; i++) {
+            assertEquals((float) GeoDistance.haversineKm(lat1[i], lon1[i], lat2[i], lon2[i]), haversine[i]);
+            assertEquals(GeoDistance.haversineKm(lat1[0], lon1[0], lat2[i], lon2[i]), from[i], 1e-5);
+            assertEquals(GeoDistance.equirectangularKm(lat1[i], lon1[i], lat2[i], lon2[i]), equirectangular[i], 1e-5);
+            assertEquals(GeoDistance.equirectangularKm(lat1[0], lon1[0], lat2[i], lon2[i]), equirectangularFrom[i], 1e-5);
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> GeoDistance.haversineKm(lat1, lon1, lat2, lon2, new float[10], count));
+        assertThrows(IllegalArgumentException.class,
+                () -> GeoDistance.equirectangularFromKm(0f, 0f, lat2, null, equirectangular, count));
+    }
+
+    /**
+     * Verifica el límite de error documentado de la aproximación equirectangular: menos de 1e-5 relativo
+     * en trayectos de hasta 25 km con latitudes de hasta 70 grados.
+     */
+    @Test
+    void testEquirectangularErrorBound() {
+        SplittableRandom random = new SplittableRandom(42);
+        double maxError = 0;
+        for (int i = 0; i < 200_000; i++) {
+            double lat = random.nextDouble(-69.5, 69.5);
+            double lon = random.nextDouble(-170, 170);
+            double bearing = random.nextDouble(2 * Math.PI);
+            double distance = random.nextDouble(0.1, 25);
+            double angle = Math.toDegrees(distance / GeoDistance.EARTH_RADIUS_KM);
+            double lat2 = lat + angle * Math.cos(bearing);
+            double lon2 = lon + angle * Math.sin(bearing) / Math.cos(Math.toRadians(lat));
+            double exact = GeoDistance.haversineKm(lat, lon, lat2, lon2);
+            double approx = GeoDistance.equirectangularKm(lat, lon, lat2, lon2);
+            maxError = Math.max(maxError, Math.abs(approx - exact) / exact);
+        }
+        assertTrue(maxError < 1e-5, "El error relativo máximo debería ser menor que 1e-5 y es " + maxError + ".");
+        assertEquals(Math.cos(1.5), GeoDistance.cos(1.5), 1e-8, "El coseno polinómico debería ser preciso en latitudes.");
+    }
+}
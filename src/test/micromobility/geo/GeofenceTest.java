@@ -0,0 +1,146 @@
+package micromobility.geo;
+
+import data.GeographicPoint;
+import data.VehicleID;
+import exceptions.ProceduralException;
+import micromobility.JourneyRealizeHandler;
+import micromobility.JourneyService;
+import micromobility.PMVState;
+import micromobility.PMVehicle;
+import mocks.MockArduinoMicroController;
+import mocks.MockQRDecoder;
+import mocks.MockServer;
+import mocks.MockUnbondedBTSignal;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias de las geovallas: polígonos, índice espacial, eventos de entrada y salida
+ * y su uso al finalizar un trayecto en JourneyRealizeHandler.
+ */
+class GeofenceTest {
+
+    // Zona en forma de L alrededor de (41.38, 2.17) y zona prohibida que se solapa con su esquina
+    private static final String ZONES =
+            "# zonas de prueba\n" +
+            "zone centro parking 41.380,2.170 41.390,2.170 41.390,2.175 41.385,2.175 41.385,2.180 41.380,2.180\n" +
+            "zone obras no_parking 41.381,2.171 41.383,2.171 41.383,2.173 41.381,2.173\n";
+
+    /**
+     * Verifica la regla par-impar en un polígono cóncavo.
+     */
+    @Test
+    void testConcavePolygon() throws Exception {
+        GeofenceZone zone = GeofenceIndex.parse(new StringReader(ZONES)).getZone(0);
+        assertTrue(zone.contains(41.382f, 2.172f), "El punto en el brazo vertical debería estar dentro.");
+        assertTrue(zone.contains(41.382f, 2.178f), "El punto en el brazo horizontal debería estar dentro.");
+        assertFalse(zone.contains(41.388f, 2.178f), "El hueco de la L debería quedar fuera.");
+        assertFalse(zone.contains(41.379f, 2.172f), "El punto al sur debería quedar fuera.");
+        assertEquals(6, zone.getVertexCount());
+    }
+
+    /**
+     * Verifica las consultas del índice y la regla de aparcamiento.
+     */
+    @Test
+    void testIndexQueries() throws Exception {
+        GeofenceIndex index = GeofenceIndex.parse(new StringReader(ZONES));
+        int[] out = new int[index.getMaxOverlap()];
+        assertEquals(2, index.zonesAt(41.382f, 2.172f, out));
+        assertArrayEquals(new int[]{0, 1}, java.util.Arrays.copyOf(out, 2));
+        assertEquals(0, index.zonesAt(40.0f, 2.0f, out));
+
+        assertTrue(index.isInside(41.382f, 2.172f, ZoneKind.NO_PARKING));
+        assertFalse(index.isInside(41.382f, 2.172f, ZoneKind.NO_RIDE));
+        assertFalse(index.isParkingAllowed(41.382f, 2.172f), "En las obras no se debería poder aparcar.");
+        assertTrue(index.isParkingAllowed(41.384f, 2.179f), "En la zona de aparcamiento se debería poder aparcar.");
+        assertFalse(index.isParkingAllowed(41.388f, 2.178f), "Fuera de toda zona de aparcamiento no se debería aparcar.");
+        assertTrue(GeofenceIndex.empty().isParkingAllowed(41.388f, 2.178f), "Sin zonas se debería poder aparcar en cualquier sitio.");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> GeofenceIndex.parse(new StringReader("zone a parking 41.38,2.17 41.39,2.17\n")));
+        assertThrows(IllegalArgumentException.class,
+                () -> GeofenceIndex.parse(new StringReader(ZONES + ZONES)), "Los identificadores repetidos deberían rechazarse.");
+    }
+
+    /**
+     * Verifica que el monitor notifique entradas y salidas al cambiar la ubicación del vehículo, también
+     * tras sustituir el índice.
+     */
+    @Test
+    void testMonitorEvents() throws Exception {
+        GeofenceMonitor monitor = new GeofenceMonitor(GeofenceIndex.parse(new StringReader(ZONES)));
+        List<String> events = new ArrayList<>();
+        monitor.addListener(new GeofenceListener() {
+            @Override
+            public void onZoneEntered(PMVehicle vehicle, GeofenceZone zone) {
+                events.add("+" + zone.getId());
+            }
+
+            @Override
+            public void onZoneExited(PMVehicle vehicle, GeofenceZone zone) {
+                events.add("-" + zone.getId());
+            }
+        });
+        PMVehicle vehicle = new PMVehicle(new VehicleID("V12345"), PMVState.UnderWay, new GeographicPoint(41.379f, 2.172f));
+        monitor.watch(vehicle);
+        assertTrue(monitor.getZones(vehicle).isEmpty());
+
+        vehicle.setLocation(new GeographicPoint(41.382f, 2.172f));
+        vehicle.setLocation(new GeographicPoint(41.3821f, 2.1721f));
+        vehicle.setLocation(new GeographicPoint(41.384f, 2.179f));
+        assertEquals(List.of("+centro", "+obras", "-obras"), events);
+        assertEquals("centro", monitor.getZones(vehicle).get(0).getId());
+
+        events.clear();
+        monitor.setIndex(GeofenceIndex.parse(new StringReader(
+                "zone centro parking 41.380,2.170 41.390,2.170 41.390,2.180 41.380,2.180\n" +
+                "zone nueva no_ride 41.383,2.178 41.386,2.178 41.386,2.181 41.383,2.181\n")));
+        vehicle.setLocation(new GeographicPoint(41.3841f, 2.1791f));
+        assertEquals(List.of("+nueva"), events, "Las zonas con el mismo identificador no deberían volver a notificarse.");
+
+        monitor.unwatch(vehicle);
+        vehicle.setLocation(new GeographicPoint(41.379f, 2.172f));
+        assertEquals(1, events.size(), "Tras dejar de seguirlo no deberían notificarse eventos.");
+    }
+
+    /**
+     * Verifica que el controlador no permita finalizar el trayecto fuera de una zona de aparcamiento.
+     */
+    @Test
+    void testHandlerRequiresParkingZone() throws Exception {
+        MockServer server = new MockServer();
+        MockQRDecoder decoder = new MockQRDecoder();
+        JourneyRealizeHandler handler = new JourneyRealizeHandler(server, decoder, new MockArduinoMicroController(),
+                new MockUnbondedBTSignal());
+        GeofenceMonitor monitor = new GeofenceMonitor(GeofenceIndex.parse(new StringReader(ZONES)));
+        handler.setGeofence(monitor);
+        GeographicPoint origin = new GeographicPoint(41.384f, 2.179f);
+        VehicleID id = new VehicleID("V12345");
+        PMVehicle vehicle = new PMVehicle(id, PMVState.Available, origin);
+        server.addVehicle(id, vehicle);
+        decoder.setSimulatedVehicleID(id);
+
+        handler.scanQR(new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB));
+        handler.setCurrentJourney(new JourneyService(origin, LocalDate.now().minusDays(1), LocalTime.now()));
+        handler.startDriving();
+        assertTrue(monitor.isWatching(vehicle), "El vehículo en marcha debería seguirse.");
+
+        vehicle.setLocation(new GeographicPoint(41.382f, 2.172f));
+        assertThrows(ProceduralException.class, handler::unPairVehicle, "En las obras no se debería poder finalizar.");
+        assertTrue(handler.getCurrentJourney().isInProgress());
+
+        vehicle.setLocation(new GeographicPoint(41.3815f, 2.1775f));
+        handler.unPairVehicle();
+        assertFalse(handler.getCurrentJourney().isInProgress());
+        assertFalse(monitor.isWatching(vehicle), "Tras finalizar no se debería seguir el vehículo.");
+    }
+}
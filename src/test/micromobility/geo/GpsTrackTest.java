@@ -0,0 +1,137 @@
+package micromobility.geo;
+
+import data.GeographicPoint;
+import data.VehicleID;
+import micromobility.JourneyRealizeHandler;
+import micromobility.JourneyService;
+import micromobility.PMVState;
+import micromobility.PMVehicle;
+import mocks.MockArduinoMicroController;
+import mocks.MockQRDecoder;
+import mocks.MockServer;
+import mocks.MockUnbondedBTSignal;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para la clase GpsTrack.
+ * Verifica la distancia acumulada, la simplificación del trazado con error acotado y su integración
+ * en el cálculo de valores de JourneyRealizeHandler.
+ */
+class GpsTrackTest {
+
+    /**
+     * Verifica que la distancia y la velocidad media se acumulen siguiendo la ruta y no en línea recta.
+     */
+    @Test
+    void testDistanceFollowsRoute() {
+        GpsTrack track = new GpsTrack();
+        track.add(41.3800f, 2.1700f, 0);
+        track.add(41.3900f, 2.1700f, 300_000);
+        track.add(41.3900f, 2.1850f, 600_000);
+
+        double north = GeoDistance.haversineKm(41.3800f, 2.1700f, 41.3900f, 2.1700f);
+        double east = GeoDistance.haversineKm(41.3900f, 2.1700f, 41.3900f, 2.1850f);
+        double straight = GeoDistance.haversineKm(41.3800f, 2.1700f, 41.3900f, 2.1850f);
+        assertEquals(north + east, track.getDistanceKm(), 1e-9);
+        assertTrue(track.getDistanceKm() > straight * 1.3, "La ruta en L debería ser más larga que la línea recta.");
+        assertEquals(600_000, track.getElapsedMillis());
+        assertEquals((north + east) * 6, track.getAverageSpeedKmh(), 1e-6);
+        assertEquals(3, track.getFixCount());
+        assertArrayEquals(new float[]{41.3800f, 41.3900f, 41.3900f}, track.getLatitudes(), "La esquina debería conservarse.");
+        assertThrows(IllegalStateException.class, () -> new GpsTrack().getLastLatitude());
+    }
+
+    /**
+     * Verifica que las posiciones alineadas dentro de la tolerancia se descarten.
+     */
+    @Test
+    void testCollinearFixesAreDecimated() {
+        GpsTrack track = new GpsTrack(5, 64);
+        for (int i = 0; i <= 20; i++) {
+            track.add(41.38f + i * 0.0005f, 2.17f, i * 10_000L);
+        }
+        assertEquals(2, track.getLatitudes().length, "Un tramo recto debería quedar en sus dos extremos.");
+        assertEquals(41.38f + 20 * 0.0005f, track.getLastLatitude());
+    }
+
+    /**
+     * Verifica que la memoria del trazado quede acotada y que todas las posiciones recibidas queden a menos
+     * del doble de la tolerancia vigente del trazado guardado.
+     */
+    @Test
+    void testMemoryAndErrorAreBounded() {
+        int maxPoints = 64;
+        GpsTrack track = new GpsTrack(3, maxPoints);
+        SplittableRandom random = new SplittableRandom(3);
+        int count = 20_000;
+        float[] lats = new float[count];
+        float[] lons = new float[count];
+        double lat = 41.38;
+        double lon = 2.17;
+        double heading = 0;
+        for (int i = 0; i < count; i++) {
+            heading += random.nextDouble(-0.3, 0.3);
+            lat += Math.cos(heading) * 0.00005;
+            lon += Math.sin(heading) * 0.00007;
+            lats[i] = (float) lat;
+            lons[i] = (float) lon;
+            track.add(lats[i], lons[i], i * 1000L);
+        }
+        float[] pathLats = track.getLatitudes();
+        float[] pathLons = track.getLongitudes();
+        assertTrue(pathLats.length <= maxPoints + 1, "El trazado no debería superar el máximo de puntos.");
+        assertTrue(track.getToleranceMeters() > 3, "El trazado debería haberse compactado.");
+
+        double bound = 2 * track.getToleranceMeters() + 0.01;
+        for (int i = 0; i < count; i++) {
+            double best = Double.MAX_VALUE;
+            for (int s = 0; s + 1 < pathLats.length; s++) {
+                double cos = Math.cos(Math.toRadians(pathLats[s]));
+                best = Math.min(best, GpsTrack.deviationMeters(pathLats[s], pathLons[s], cos,
+                        pathLats[s + 1], pathLons[s + 1], lats[i], lons[i]));
+            }
+            assertTrue(best <= bound, "La posición " + i + " se aparta " + best + " m del trazado.");
+        }
+    }
+
+    /**
+     * Verifica que el controlador registre las posiciones del vehículo en marcha y cobre la ruta recorrida.
+     */
+    @Test
+    void testHandlerChargesRecordedRoute() throws Exception {
+        MockServer server = new MockServer();
+        MockQRDecoder decoder = new MockQRDecoder();
+        JourneyRealizeHandler handler = new JourneyRealizeHandler(server, decoder, new MockArduinoMicroController(),
+                new MockUnbondedBTSignal());
+        GeographicPoint origin = new GeographicPoint(41.3800f, 2.1700f);
+        GeographicPoint corner = new GeographicPoint(41.3900f, 2.1700f);
+        GeographicPoint destination = new GeographicPoint(41.3900f, 2.1850f);
+        VehicleID id = new VehicleID("V12345");
+        PMVehicle vehicle = new PMVehicle(id, PMVState.Available, origin);
+        server.addVehicle(id, vehicle);
+        decoder.setSimulatedVehicleID(id);
+
+        handler.scanQR(new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB));
+        JourneyService journey = new JourneyService(origin, LocalDate.now().minusDays(1), LocalTime.now());
+        handler.setCurrentJourney(journey);
+        handler.startDriving();
+        vehicle.setLocation(corner);
+        vehicle.setLocation(destination);
+        handler.unPairVehicle();
+
+        double route = GeoDistance.haversineKm(origin, corner) + GeoDistance.haversineKm(corner, destination);
+        assertEquals(route, journey.getDistance(), 1e-4, "La distancia debería ser la de la ruta recorrida.");
+        assertEquals(3, journey.getTrack().getFixCount());
+
+        vehicle.setLocation(origin);
+        assertEquals(3, journey.getTrack().getFixCount(), "Tras cerrar el trayecto no deberían registrarse posiciones.");
+        assertThrows(IllegalStateException.class, () -> journey.recordLocation(origin, 0));
+    }
+}
@@ -0,0 +1,186 @@
+package micromobility.tariff;
+
+import data.GeographicPoint;
+import data.Money;
+import data.StationID;
+import data.VehicleID;
+import micromobility.JourneyRealizeHandler;
+import micromobility.JourneyService;
+import micromobility.PMVState;
+import micromobility.PMVehicle;
+import micromobility.VehicleType;
+import mocks.MockArduinoMicroController;
+import mocks.MockQRDecoder;
+import mocks.MockServer;
+import mocks.MockUnbondedBTSignal;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para el motor de tarifas.
+ * Verifica la precedencia de reglas, la lectura de tablas, el redondeo, la tarificación por lotes
+ * y el uso de la tarifa desde JourneyRealizeHandler.
+ */
+class TariffEngineTest {
+
+    /**
+     * Verifica que gane la regla más específica y, a igualdad, la última añadida.
+     */
+    @Test
+    void testMostSpecificRuleWins() {
+        Rate base = Rate.of("0", "0.50", "0.10", "0");
+        Rate peak = Rate.of("0", "0.60", "0.12", "0");
+        Rate ebikeStudent = Rate.of("0", "0.20", "0.05", "0");
+        Rate zoneOne = Rate.of("1.00", "0.50", "0.10", "0");
+        CompiledTariff tariff = new TariffTable()
+                .addRule(TariffTable.ANY_ZONE, null, null, base)
+                .addRule(TariffTable.ANY_ZONE, 7, 10, null, null, peak)
+                .addRule(TariffTable.ANY_ZONE, VehicleType.EBIKE, UserPlan.STUDENT, ebikeStudent)
+                .addRule(1, null, null, zoneOne)
+                .addRule(1, null, null, base)
+                .compile();
+
+        assertEquals(2, tariff.getZoneCount());
+        assertEquals(base, tariff.rateFor(0, 12, VehicleType.SCOOTER, UserPlan.PAY_AS_YOU_GO));
+        assertEquals(peak, tariff.rateFor(0, 8, VehicleType.SCOOTER, UserPlan.PAY_AS_YOU_GO));
+        assertEquals(ebikeStudent, tariff.rateFor(0, 8, VehicleType.EBIKE, UserPlan.STUDENT),
+                "Dos dimensiones fijadas deberían ganar a una.");
+        assertEquals(base, tariff.rateFor(1, 12, VehicleType.BICYCLE, UserPlan.CORPORATE),
+                "A igualdad de especificidad debería ganar la última regla.");
+        assertEquals(base, tariff.rateFor(7, 12, VehicleType.BICYCLE, UserPlan.CORPORATE),
+                "Una zona desconocida debería tratarse como la zona 0.");
+    }
+
+    /**
+     * Verifica que una tabla que no cubre todas las combinaciones no pueda compilarse.
+     */
+    @Test
+    void testUncoveredTableIsRejected() {
+        TariffTable table = new TariffTable().addRule(TariffTable.ANY_ZONE, 0, 12, null, null, Rate.of("0", "0.5", "0.1", "0"));
+        assertThrows(IllegalStateException.class, table::compile);
+        assertThrows(IllegalArgumentException.class, () -> table.addRule(0, 5, 25, null, null, Rate.of("0", "0", "0", "0")));
+        assertThrows(IllegalArgumentException.class, () -> Rate.of("0", "0.000001", "0", "0"),
+                "Un importe con más de cinco decimales debería rechazarse.");
+    }
+
+    /**
+     * Verifica la lectura de una tabla en formato de texto, incluida una franja que cruza la medianoche.
+     */
+    @Test
+    void testParse() throws Exception {
+        String text = "# Tarifas de prueba\n" +
+                "zone ST123 2\n" +
+                "rate * * * * 0 0.50 0.10 0\n" +
+                "rate 2 22-6 * * 0.30 0.50 0.10 1.00\n" +
+                "rate * * moped subscriber 0 0.40 0.08 0\n";
+        CompiledTariff tariff = TariffTable.parse(new StringReader(text)).compile();
+
+        assertEquals(2, tariff.zoneOf(new StationID("ST123")));
+        assertEquals(0, tariff.zoneOf(new StationID("ST999")));
+        assertEquals(0, tariff.zoneOf(null));
+        assertEquals(new BigDecimal("1.00"), tariff.rateFor(2, 23, VehicleType.SCOOTER, UserPlan.STUDENT).getMinimum().setScale(2));
+        assertEquals(new BigDecimal("0.3"), tariff.rateFor(2, 3, VehicleType.SCOOTER, UserPlan.STUDENT).getUnlock());
+        assertEquals(BigDecimal.ZERO, tariff.rateFor(2, 12, VehicleType.SCOOTER, UserPlan.STUDENT).getUnlock());
+        assertEquals(new BigDecimal("0.4"), tariff.rateFor(0, 12, VehicleType.MOPED, UserPlan.SUBSCRIBER).getPerKm());
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> TariffTable.parse(new StringReader("rate * * * *\n")));
+        assertTrue(e.getMessage().contains("Línea 1"), "El error debería indicar la línea.");
+        assertThrows(IllegalArgumentException.class, () -> TariffTable.parse(new StringReader("rate * * truck * 0 0 0 0\n")));
+    }
+
+    /**
+     * Verifica el cálculo exacto de importes y el redondeo al céntimo.
+     */
+    @Test
+    void testFareRounding() {
+        CompiledTariff standard = CompiledTariff.standard();
+        assertEquals(Money.ofCents(650), standard.fare(0, 12, VehicleType.SCOOTER, UserPlan.PAY_AS_YOU_GO, 5f, 40));
+        // 1,234 km a 0,50 EUR/km = 0,617 EUR, más 3 minutos a 0,10 EUR = 0,917 EUR, que se redondea a 0,92 EUR
+        assertEquals(92, standard.fareCents(0, 12, VehicleType.SCOOTER, UserPlan.PAY_AS_YOU_GO, 1.234f, 3));
+        // 0,01 km a 0,50 EUR/km = 0,005 EUR: la mitad se redondea al par, 0 céntimos
+        assertEquals(0, standard.fareCents(0, 12, VehicleType.SCOOTER, UserPlan.PAY_AS_YOU_GO, 0.01f, 0));
+
+        CompiledTariff minimum = new TariffTable()
+                .addRule(TariffTable.ANY_ZONE, null, null, Rate.of("0.25", "0.035", "0.10", "1.50"))
+                .compile();
+        assertEquals(150, minimum.fareCents(0, 0, VehicleType.BICYCLE, UserPlan.STUDENT, 1f, 1),
+                "Debería aplicarse el importe mínimo.");
+        assertThrows(IllegalArgumentException.class,
+                () -> minimum.fareCents(0, 24, VehicleType.BICYCLE, UserPlan.STUDENT, 1f, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> minimum.fareCents(0, 0, VehicleType.BICYCLE, UserPlan.STUDENT, -1f, 1));
+    }
+
+    /**
+     * Verifica que la tarificación por lotes coincida con la individual, también en lotes paralelos.
+     */
+    @Test
+    void testBatchMatchesSingleFare() {
+        CompiledTariff tariff = new TariffTable()
+                .addRule(TariffTable.ANY_ZONE, null, null, Rate.of("0.20", "0.45", "0.09", "0.50"))
+                .addRule(1, 18, 21, null, UserPlan.CORPORATE, Rate.of("0", "0.30", "0.06", "0"))
+                .compile();
+        VehicleType[] types = VehicleType.values();
+        UserPlan[] plans = UserPlan.values();
+        int size = 100_000;
+        TariffBatch batch = new TariffBatch(16);
+        long[] expected = new long[size];
+        long expectedTotal = 0;
+        for (int i = 0; i < size; i++) {
+            int zone = i % 3;
+            int hour = i % 24;
+            float distance = (i % 997) / 100f;
+            int duration = i % 61;
+            batch.add(zone, hour, types[i % types.length], plans[i % plans.length], distance, duration);
+            expected[i] = tariff.fareCents(zone, hour, types[i % types.length], plans[i % plans.length], distance, duration);
+            expectedTotal += expected[i];
+        }
+        long[] fares = new long[size];
+
+        assertEquals(expectedTotal, tariff.priceAll(batch, fares));
+        assertArrayEquals(expected, fares);
+        assertThrows(IllegalArgumentException.class, () -> tariff.priceAll(batch, new long[10]));
+
+        batch.clear();
+        assertEquals(0, batch.size());
+        assertEquals(0, tariff.priceAll(batch, fares));
+    }
+
+    /**
+     * Verifica que el controlador calcule el importe con la tarifa configurada, la zona de la estación,
+     * el tipo de vehículo y el plan del usuario.
+     */
+    @Test
+    void testHandlerUsesConfiguredTariff() throws Exception {
+        MockServer server = new MockServer();
+        JourneyRealizeHandler handler = new JourneyRealizeHandler(server, new MockQRDecoder(),
+                new MockArduinoMicroController(), new MockUnbondedBTSignal());
+        StationID station = new StationID("ST123");
+        handler.setTariff(new TariffTable()
+                .assignZone(station, 1)
+                .addRule(TariffTable.ANY_ZONE, null, null, Rate.of("0", "0.50", "0.10", "0"))
+                .addRule(1, VehicleType.EBIKE, UserPlan.SUBSCRIBER, Rate.of("1.00", "0", "0", "0"))
+                .compile());
+        handler.setUserPlan(UserPlan.SUBSCRIBER);
+
+        VehicleID id = new VehicleID("V12345");
+        PMVehicle vehicle = new PMVehicle(id, PMVState.NotAvailable, new GeographicPoint(41.4020f, 2.1910f), VehicleType.EBIKE);
+        server.addVehicle(id, vehicle);
+        JourneyService journey = new JourneyService(new GeographicPoint(41.3851f, 2.1734f),
+                LocalDate.now().minusDays(1), LocalTime.now());
+        handler.setCurrentJourney(journey);
+        handler.setCurrentVehicle(vehicle);
+        handler.broadcastStationID(station);
+
+        handler.unPairVehicle();
+
+        assertEquals(new BigDecimal("1.00"), journey.getImportValue());
+    }
+}
@@ -0,0 +1,136 @@
+package services;
+
+import data.*;
+import exceptions.PMVNotAvailException;
+import micromobility.JourneyRealizeHandler;
+import micromobility.JourneySessionEngine;
+import micromobility.PMVState;
+import micromobility.PMVehicle;
+import micromobility.payment.Wallet;
+import mocks.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para la clase AsyncServerAdapter.
+ * Verifica la propagación de resultados y excepciones y la composición de un desplazamiento completo.
+ */
+class AsyncServerAdapterTest {
+
+    private MockServer mockServer;
+    private AsyncServerAdapter async;
+    private PMVehicle vehicle;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mockServer = new MockServer();
+        VehicleID id = new VehicleID("V12345");
+        vehicle = new PMVehicle(id, PMVState.Available, new GeographicPoint(41.3851f, 2.1734f));
+        mockServer.addVehicle(id, vehicle);
+        async = new AsyncServerAdapter(mockServer);
+    }
+
+    @AfterEach
+    void tearDown() {
+        async.close();
+    }
+
+    /**
+     * Verifica que los resultados del servidor bloqueante lleguen a través del futuro.
+     */
+    @Test
+    void testResultsAreDelivered() throws Exception {
+        assertSame(vehicle, async.getVehicleByID(vehicle.getId()).get(5, TimeUnit.SECONDS));
+        assertEquals(1, async.getNearestAvailableVehicles(vehicle.getLocation(), 3).get(5, TimeUnit.SECONDS).size());
+        assertNull(async.checkPMVAvail(vehicle.getId()).get(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Verifica que las excepciones de dominio completen el futuro excepcionalmente con la misma excepción.
+     */
+    @Test
+    void testExceptionsArePropagated() throws Exception {
+        CompletableFuture<PMVehicle> missing = async.getVehicleByID(new VehicleID("V99999"));
+        ExecutionException e = assertThrows(ExecutionException.class, () -> missing.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(PMVNotAvailException.class, e.getCause(), "Debería propagarse la excepción original.");
+
+        CompletableFuture<Void> invalid = async.registerLocation(vehicle.getId(), null);
+        e = assertThrows(ExecutionException.class, () -> invalid.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalArgumentException.class, e.getCause());
+    }
+
+    /**
+     * Verifica que un desplazamiento pueda componerse encadenando futuros, sin bloquear al llamante.
+     */
+    @Test
+    void testComposedJourney() throws Exception {
+        MockQRDecoder decoder = new MockQRDecoder();
+        JourneyRealizeHandler handler = new JourneyRealizeHandler(mockServer, decoder,
+                new MockArduinoMicroController(), new MockUnbondedBTSignal());
+        ManualClock clock = new ManualClock();
+        JourneySessionEngine engine = new JourneySessionEngine(handler, clock, Duration.ofMinutes(15));
+        UserAccount user = new UserAccount("diego123");
+        BufferedImage image = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+        engine.setWallet(user, new Wallet(new BigDecimal("100.00")));
+
+        CompletableFuture<PMVState> journey = async.getNearestAvailableVehicles(vehicle.getLocation(), 1)
+                .thenCompose(nearest -> async.call(() -> {
+                    decoder.setSimulatedVehicleID(nearest.get(0).getId());
+                    engine.scanQR(user, image);
+                    engine.broadcastStationID(user, new StationID("ST123"));
+                    engine.startDriving(user);
+                    return null;
+                }))
+                .thenCompose(started -> async.call(() -> {
+                    clock.advanceMinutes(30);
+                    vehicle.setLocation(new GeographicPoint(41.4020f, 2.1910f));
+                    engine.unPairVehicle(user);
+                    engine.selectPaymentMethod(user, 'W');
+                    return vehicle.getState();
+                }));
+
+        assertEquals(PMVState.Available, journey.get(5, TimeUnit.SECONDS));
+        assertNull(engine.getSession(user), "La sesión pagada debería descartarse.");
+    }
+
+    // Métodos auxiliares
+
+    /**
+     * Reloj de prueba que solo avanza cuando se le indica.
+     */
+    private static final class ManualClock extends Clock {
+        private volatile long millis = System.currentTimeMillis();
+
+        void advanceMinutes(int minutes) {
+            millis += minutes * 60_000L;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.systemDefault();
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package services;
+
+import data.*;
+import exceptions.ConnectException;
+import exceptions.InvalidPairingArgsException;
+import mocks.MockServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para la clase BatchingServer.
+ * Verifica la agrupación de eventos por lotes y la notificación de su confirmación.
+ */
+class BatchingServerTest {
+
+    private final List<List<PairingEvent>> committed = new CopyOnWriteArrayList<>();
+    private volatile boolean failCommits;
+    private BatchingServer server;
+    private UserAccount user;
+    private VehicleID vehicle;
+    private StationID station;
+    private GeographicPoint location;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        PairingBatchSink sink = batch -> {
+            if (failCommits) {
+                throw new ConnectException("Servidor remoto no disponible.");
+            }
+            committed.add(new ArrayList<>(batch));
+        };
+        server = new BatchingServer(new MockServer(), sink, 16, Duration.ofMillis(20));
+        user = new UserAccount("diego123");
+        vehicle = new VehicleID("V12345");
+        station = new StationID("ST123");
+        location = new GeographicPoint(41.3851f, 2.1734f);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    /**
+     * Verifica que muchos eventos se confirmen en lotes que no superan el tamaño máximo.
+     */
+    @Test
+    void testEventsAreGroupCommitted() throws Exception {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            futures.add(server.submitPairing(user, vehicle, station, location, LocalDateTime.now()));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        assertEquals(100, server.getCommittedEvents());
+        assertTrue(server.getCommittedBatches() < 100, "Los eventos deberían agruparse en lotes.");
+        for (List<PairingEvent> batch : committed) {
+            assertTrue(batch.size() <= 16, "Ningún lote debería superar el tamaño máximo.");
+        }
+    }
+
+    /**
+     * Verifica que la API síncrona espere a su lote y propague los errores de conexión.
+     */
+    @Test
+    void testSynchronousApiWaitsForCommit() throws Exception {
+        server.stopPairing(user, vehicle, station, location, LocalDateTime.now(), 12.5f, 2.4f, 11, new BigDecimal("2.30"));
+        assertEquals(1, committed.size());
+        assertEquals(PairingEvent.Type.STOP, committed.get(0).get(0).getType());
+
+        failCommits = true;
+        assertThrows(ConnectException.class, () -> server.registerPairing(user, vehicle, station, location, LocalDateTime.now()));
+    }
+
+    /**
+     * Verifica que los argumentos inválidos se rechacen sin encolarse.
+     */
+    @Test
+    void testInvalidArgumentsAreRejected() {
+        assertThrows(InvalidPairingArgsException.class, () -> server.submitPairing(null, vehicle, station, location, LocalDateTime.now()));
+        assertThrows(InvalidPairingArgsException.class, () -> server.submitStopPairing(user, vehicle, station, location,
+                LocalDateTime.now(), 10f, 0f, 5, BigDecimal.ONE));
+        assertEquals(0, server.getCommittedEvents());
+    }
+
+    /**
+     * Verifica que, al reenviar los eventos al servidor uno a uno, el rechazo de un evento solo falle su futuro
+     * y no el de los eventos del mismo lote que sí se confirmaron.
+     */
+    @Test
+    void testForServerCompletesEachEventWithItsOwnOutcome() throws Exception {
+        VehicleID rejected = new VehicleID("V99999");
+        MockServer delegate = new MockServer() {
+            @Override
+            public void registerPairing(UserAccount user, VehicleID veh, StationID st, GeographicPoint loc,
+                                        LocalDateTime date) throws InvalidPairingArgsException, ConnectException {
+                if (veh.equals(rejected)) {
+                    throw new InvalidPairingArgsException("Vehículo rechazado.");
+                }
+                super.registerPairing(user, veh, st, loc, date);
+            }
+        };
+        try (BatchingServer perEvent = new BatchingServer(delegate, 16, Duration.ofMillis(50))) {
+            CompletableFuture<Void> first = perEvent.submitPairing(user, vehicle, station, location, LocalDateTime.now());
+            CompletableFuture<Void> bad = perEvent.submitPairing(user, rejected, station, location, LocalDateTime.now());
+            CompletableFuture<Void> last = perEvent.submitPairing(user, vehicle, station, location, LocalDateTime.now());
+
+            first.get(5, TimeUnit.SECONDS);
+            last.get(5, TimeUnit.SECONDS);
+            ExecutionException e = assertThrows(ExecutionException.class, () -> bad.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(InvalidPairingArgsException.class, e.getCause(), "Solo el evento rechazado debe fallar.");
+            assertEquals(2, perEvent.getCommittedEvents(), "Los eventos confirmados deben contarse.");
+        }
+    }
+
+    /**
+     * Verifica que close confirme los eventos pendientes y rechace los posteriores.
+     */
+    @Test
+    void testCloseFlushesPendingEvents() throws Exception {
+        CompletableFuture<Void> pending = server.submitPairing(user, vehicle, station, location, LocalDateTime.now());
+        server.close();
+
+        assertTrue(pending.isDone() && !pending.isCompletedExceptionally(), "El evento pendiente debería confirmarse al cerrar.");
+        CompletableFuture<Void> rejected = server.submitPairing(user, vehicle, station, location, LocalDateTime.now());
+        ExecutionException e = assertThrows(ExecutionException.class, rejected::get);
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+}
@@ -0,0 +1,138 @@
+package services;
+
+import data.GeographicPoint;
+import data.StationID;
+import data.VehicleID;
+import exceptions.ConnectException;
+import exceptions.PMVNotAvailException;
+import micromobility.PMVState;
+import micromobility.PMVehicle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para la clase ConcurrentFleetServer.
+ * Verifica el registro de vehículos, las consultas de disponibilidad y el acceso concurrente.
+ */
+class ConcurrentFleetServerTest {
+
+    private ConcurrentFleetServer server;
+
+    @BeforeEach
+    void setUp() {
+        server = new ConcurrentFleetServer(1024);
+    }
+
+    /**
+     * Verifica que un vehículo registrado se pueda recuperar por su ID.
+     */
+    @Test
+    void testAddAndGetVehicle() throws Exception {
+        VehicleID id = new VehicleID("V12345");
+        PMVehicle vehicle = new PMVehicle(id, PMVState.Available, new GeographicPoint(41.3851f, 2.1734f));
+        server.addVehicle(id, vehicle);
+
+        assertSame(vehicle, server.getVehicleByID(id), "Debería devolverse la misma instancia registrada.");
+        assertDoesNotThrow(() -> server.checkPMVAvail(id), "El vehículo debería estar disponible.");
+    }
+
+    /**
+     * Verifica los errores para vehículos no registrados o no disponibles.
+     */
+    @Test
+    void testUnknownAndUnavailableVehicles() throws Exception {
+        VehicleID unknown = new VehicleID("V99999");
+        assertThrows(PMVNotAvailException.class, () -> server.getVehicleByID(unknown));
+        assertThrows(ConnectException.class, () -> server.checkPMVAvail(unknown));
+
+        VehicleID busy = new VehicleID("V54321");
+        server.addVehicle(busy, new PMVehicle(busy, PMVState.UnderWay, new GeographicPoint(41.0f, 2.0f)));
+        assertThrows(PMVNotAvailException.class, () -> server.checkPMVAvail(busy));
+    }
+
+    /**
+     * Verifica que registerLocation guarde la última estación del vehículo.
+     */
+    @Test
+    void testRegisterLocation() throws Exception {
+        VehicleID id = new VehicleID("V12345");
+        StationID station = new StationID("ST001");
+        server.addVehicle(id, new PMVehicle(id, PMVState.Available, new GeographicPoint(41.3851f, 2.1734f)));
+        server.registerLocation(id, station);
+
+        assertEquals(station, server.getRegisteredStation(id));
+        assertEquals(1, server.getAvailableCount(station));
+        assertThrows(IllegalArgumentException.class, () -> server.registerLocation(id, null));
+        assertThrows(IllegalArgumentException.class, () -> server.registerLocation(new VehicleID("V99999"), station));
+    }
+
+    /**
+     * Verifica que las sustituciones simultáneas de un mismo vehículo dejen el registro y los índices
+     * siguiendo a la misma instancia.
+     */
+    @Test
+    void testConcurrentReplacementKeepsIndexesConsistent() throws Exception {
+        VehicleID id = new VehicleID("V12345");
+        StationID station = new StationID("ST001");
+        GeographicPoint location = new GeographicPoint(41.3851f, 2.1734f);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        for (int round = 0; round < 50; round++) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(pool.submit(() -> {
+                    server.addVehicle(id, new PMVehicle(id, PMVState.Available, location));
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            PMVehicle current = server.getVehicleByID(id);
+            server.registerLocation(id, station);
+            assertEquals(List.of(current), server.getNearestAvailableVehicles(location, 5),
+                    "El índice espacial debería seguir a la instancia registrada en la ronda " + round + ".");
+            assertEquals(List.of(current), server.getAvailableVehiclesAt(station),
+                    "El índice por estación debería seguir a la instancia registrada en la ronda " + round + ".");
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Verifica que altas y consultas simultáneas desde varios hilos no pierdan vehículos.
+     */
+    @Test
+    void testConcurrentRegistration() throws Exception {
+        int threads = 8;
+        int perThread = 500;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int base = t * perThread;
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    VehicleID id = new VehicleID("VH" + (10000 + base + i));
+                    server.addVehicle(id, new PMVehicle(id, PMVState.Available, new GeographicPoint(41.0f, 2.0f)));
+                    assertNotNull(server.getVehicleByID(id));
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(threads * perThread, server.getFleetSize(), "No debería perderse ningún vehículo.");
+    }
+}
@@ -0,0 +1,164 @@
+package services.archive;
+
+import data.GeographicPoint;
+import data.Money;
+import data.StationID;
+import data.UserAccount;
+import micromobility.JourneyService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para JourneyArchive y JourneyArchiveReader.
+ * Verifica el formato columnar, la codificación con diccionario, la lectura por columnas y la
+ * recuperación tras una escritura incompleta.
+ */
+class JourneyArchiveTest {
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Crea un trayecto finalizado de prueba.
+     */
+    static JourneyService journey(String user, String station, int startMinute, int duration, float distance,
+                                  String amount) throws Exception {
+        JourneyService journey = new JourneyService(new GeographicPoint(41.3851f, 2.1734f), LocalDate.of(2024, 5, 1),
+                LocalTime.of(8, 0).plusMinutes(startMinute));
+        journey.setDuration(duration);
+        journey.setDistance(distance);
+        journey.setAverageSpeed(distance / duration * 60);
+        journey.setImportValue(Money.parse(amount));
+        if (user != null) {
+            journey.setUser(new UserAccount(user));
+        }
+        if (station != null) {
+            journey.setEndStation(new StationID(station));
+        }
+        journey.setInProgress(false);
+        return journey;
+    }
+
+    /**
+     * Verifica que los trayectos se lean igual que se escribieron, con los identificadores en diccionario.
+     */
+    @Test
+    void testRoundTripAndDictionaries() throws Exception {
+        try (JourneyArchive archive = JourneyArchive.open(dir, 2)) {
+            assertEquals(0, archive.append(journey("diego123", "ST001", 0, 12, 2.5f, "3.40")));
+            assertEquals(1, archive.append(journey("laura456", "ST002", 30, 6, 1.0f, "1.10")));
+            assertEquals(2, archive.append(journey("diego123", null, 60, 20, 4.0f, "5.00")));
+            assertEquals(3, archive.size());
+            assertThrows(IllegalArgumentException.class, () -> archive.append(
+                    new JourneyService(new GeographicPoint(0, 0), LocalDate.now(), LocalTime.now())),
+                    "Un trayecto en curso no debería archivarse.");
+        }
+        assertEquals(3 * JourneyColumn.rowWidth(), directorySize(), "Cada trayecto debería ocupar rowWidth() bytes.");
+        assertTrue(JourneyColumn.rowWidth() <= 48, "Cada trayecto debería ocupar unas pocas decenas de bytes.");
+
+        JourneyArchiveReader reader = JourneyArchiveReader.open(dir);
+        assertEquals(3, reader.size());
+        assertEquals(LocalDateTime.of(2024, 5, 1, 8, 30), reader.getStart(1));
+        assertEquals(reader.getLong(JourneyColumn.START, 1) + 6 * 60, reader.getLong(JourneyColumn.END, 1));
+        assertEquals(12, reader.getInt(JourneyColumn.DURATION, 0));
+        assertEquals(2.5f, reader.getFloat(JourneyColumn.DISTANCE, 0));
+        assertEquals(Money.parse("5.00"), reader.getAmount(2));
+        assertEquals(reader.getInt(JourneyColumn.USER, 0), reader.getInt(JourneyColumn.USER, 2));
+        assertEquals("laura456", reader.userName(reader.getInt(JourneyColumn.USER, 1)));
+        assertEquals(1, reader.stationCode(new StationID("ST002")));
+        assertEquals(-1, reader.getInt(JourneyColumn.STATION, 2), "Un trayecto sin estación debería codificarse como -1.");
+        assertEquals(2, reader.stationCount());
+        assertThrows(IndexOutOfBoundsException.class, () -> reader.getInt(JourneyColumn.DURATION, 3));
+        assertThrows(IllegalArgumentException.class, () -> reader.getInt(JourneyColumn.DISTANCE, 0));
+    }
+
+    /**
+     * Verifica que al reabrir se descarten las filas incompletas y se siga anexando con los mismos códigos.
+     */
+    @Test
+    void testReopenTruncatesPartialRows() throws Exception {
+        try (JourneyArchive archive = JourneyArchive.open(dir)) {
+            archive.append(journey("diego123", "ST001", 0, 12, 2.5f, "3.40"));
+            archive.append(journey("laura456", "ST002", 30, 6, 1.0f, "1.10"));
+        }
+        // Simula una caída a mitad de un lote: solo una columna recibió la tercera fila
+        try (FileChannel channel = FileChannel.open(dir.resolve(JourneyColumn.DURATION.fileName()), StandardOpenOption.APPEND)) {
+            channel.write(java.nio.ByteBuffer.allocate(4));
+        }
+        assertEquals(2, JourneyArchiveReader.open(dir).size());
+
+        try (JourneyArchive archive = JourneyArchive.open(dir)) {
+            assertEquals(2, archive.size());
+            assertEquals(2, archive.append(journey("laura456", "ST003", 90, 9, 1.5f, "2.00")));
+        }
+        JourneyArchiveReader reader = JourneyArchiveReader.open(dir);
+        assertEquals(3, reader.size());
+        assertEquals(9, reader.getInt(JourneyColumn.DURATION, 2));
+        assertEquals(reader.userCode(new UserAccount("laura456")), reader.getInt(JourneyColumn.USER, 2));
+        assertEquals("ST003", reader.stationName(reader.getInt(JourneyColumn.STATION, 2)));
+    }
+
+    /**
+     * Verifica que una línea del diccionario a medio escribir se ignore al cargar y se sobrescriba después.
+     */
+    @Test
+    void testTornDictionaryLineIsDiscarded() throws Exception {
+        try (JourneyArchive archive = JourneyArchive.open(dir)) {
+            archive.append(journey("diego123", "ST001", 0, 12, 2.5f, "3.40"));
+        }
+        // Simula una caída a mitad de la escritura de un identificador nuevo
+        Files.writeString(dir.resolve(JourneyArchive.STATIONS_FILE), "ST0", StandardOpenOption.APPEND);
+        JourneyArchiveReader torn = JourneyArchiveReader.open(dir);
+        assertEquals(1, torn.stationCount(), "La línea incompleta no debería cargarse.");
+        assertEquals(-1, torn.stationCode(new StationID("ST0")));
+
+        try (JourneyArchive archive = JourneyArchive.open(dir)) {
+            archive.append(journey("diego123", "ST002", 30, 6, 1.0f, "1.10"));
+        }
+        assertEquals("ST001\nST002\n", Files.readString(dir.resolve(JourneyArchive.STATIONS_FILE)));
+        JourneyArchiveReader reader = JourneyArchiveReader.open(dir);
+        assertEquals("ST002", reader.stationName(reader.getInt(JourneyColumn.STATION, 1)));
+    }
+
+    /**
+     * Verifica que un lote que falla a mitad de escritura no deje columnas desalineadas: el archivo rechaza
+     * nuevas filas de forma controlada y al reabrirlo solo quedan las filas completas.
+     */
+    @Test
+    void testFailedFlushDoesNotMisalignColumns() throws Exception {
+        JourneyArchive archive = JourneyArchive.open(dir, 2);
+        archive.append(journey("diego123", "ST001", 0, 12, 2.5f, "3.40"));
+        archive.append(journey("laura456", "ST002", 30, 6, 1.0f, "1.10"));
+        archive.append(journey("diego123", "ST001", 60, 20, 4.0f, "5.00"));
+        archive.channelOf(JourneyColumn.DISTANCE).close();
+
+        assertThrows(IOException.class, () -> archive.append(journey("laura456", "ST002", 90, 9, 1.5f, "2.00")),
+                "El fallo de escritura debe propagarse.");
+        assertThrows(IllegalStateException.class, () -> archive.append(journey("diego123", "ST003", 120, 5, 1.0f, "1.00")),
+                "Tras un fallo sin recuperación el archivo debe rechazar filas sin desbordar sus búferes.");
+        archive.close();
+
+        JourneyArchiveReader reader = JourneyArchiveReader.open(dir);
+        assertEquals(2, reader.size(), "Solo deben quedar las filas del lote completo.");
+        assertEquals(6, reader.getInt(JourneyColumn.DURATION, 1));
+    }
+
+    private long directorySize() throws Exception {
+        long total = 0;
+        for (JourneyColumn column : JourneyColumn.values()) {
+            total += Files.size(dir.resolve(column.fileName()));
+        }
+        return total;
+    }
+}
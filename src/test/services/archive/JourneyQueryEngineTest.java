@@ -0,0 +1,122 @@
+package services.archive;
+
+import data.Money;
+import data.StationID;
+import data.UserAccount;
+import micromobility.JourneyService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para JourneyQueryEngine.
+ * Compara los resultados del recorrido en paralelo con el cálculo fila a fila sobre JourneyArchiveReader,
+ * con suficientes trayectos para que el recorrido se reparta entre varias tareas.
+ */
+class JourneyQueryEngineTest {
+
+    private static final int ROWS = 10 * JourneyQueryEngine.BLOCK_ROWS + 123;
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Verifica los agregados con filtros por intervalo, estación, usuario y distancia.
+     */
+    @Test
+    void testAggregatesMatchRowByRowScan() throws Exception {
+        JourneyService[] journeys = new JourneyService[6];
+        for (int i = 0; i < journeys.length; i++) {
+            journeys[i] = JourneyArchiveTest.journey("user" + i, "ST00" + (i % 3), i * 240, 10, 2.0f, "1.00");
+        }
+        try (JourneyArchive archive = JourneyArchive.open(dir)) {
+            for (int i = 0; i < ROWS; i++) {
+                JourneyService journey = journeys[i % journeys.length];
+                journey.setDistance(0.5f + (i % 17) * 0.25f);
+                journey.setAverageSpeed(5 + i % 13);
+                journey.setImportValue(Money.ofCents(50 + i % 400));
+                journey.setEndStation(new StationID("ST00" + (i % 7)));
+                archive.append(journey);
+            }
+        }
+        JourneyArchiveReader reader = JourneyArchiveReader.open(dir);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            JourneyQueryEngine engine = new JourneyQueryEngine(reader, pool);
+            LocalDateTime from = LocalDateTime.of(2024, 5, 1, 10, 0);
+            LocalDateTime to = LocalDateTime.of(2024, 5, 1, 20, 0);
+            JourneyFilter filter = JourneyFilter.all().startingBetween(from, to).distanceBetween(1.0f, 3.0f);
+
+            long count = 0;
+            long cents = 0;
+            Map<String, Long> byStation = new HashMap<>();
+            double[] speedSums = new double[24];
+            long[] speedCounts = new long[24];
+            long fromSeconds = reader.getLong(JourneyColumn.START, 0) + 2 * 3600;
+            long toSeconds = fromSeconds + 10 * 3600;
+            for (long row = 0; row < reader.size(); row++) {
+                long start = reader.getLong(JourneyColumn.START, row);
+                float distance = reader.getFloat(JourneyColumn.DISTANCE, row);
+                if (start < fromSeconds || start >= toSeconds || distance < 1.0f || distance > 3.0f) {
+                    continue;
+                }
+                count++;
+                cents += reader.getLong(JourneyColumn.AMOUNT, row);
+                byStation.merge(reader.stationName(reader.getInt(JourneyColumn.STATION, row)),
+                        reader.getLong(JourneyColumn.AMOUNT, row), Long::sum);
+                int hour = reader.getStart(row).getHour();
+                speedSums[hour] += reader.getFloat(JourneyColumn.AVG_SPEED, row);
+                speedCounts[hour]++;
+            }
+
+            assertTrue(count > 0 && count < ROWS, "El filtro debería seleccionar solo parte de los trayectos.");
+            assertEquals(count, engine.count(filter));
+            assertEquals(Money.ofCents(cents), engine.revenue(filter));
+            Map<String, Money> revenue = engine.revenueByStation(filter);
+            assertEquals(byStation.size(), revenue.size());
+            for (Map.Entry<String, Long> entry : byStation.entrySet()) {
+                assertEquals(Money.ofCents(entry.getValue()), revenue.get(entry.getKey()),
+                        "La recaudación de " + entry.getKey() + " no coincide.");
+            }
+            double[] speeds = engine.averageSpeedByHour(filter);
+            for (int hour = 0; hour < 24; hour++) {
+                if (speedCounts[hour] == 0) {
+                    assertTrue(Double.isNaN(speeds[hour]), "Una hora sin trayectos debería ser NaN.");
+                } else {
+                    assertEquals(speedSums[hour] / speedCounts[hour], speeds[hour], 1e-6);
+                }
+            }
+
+            assertEquals(ROWS, engine.count(JourneyFilter.all()));
+            long station3 = engine.count(JourneyFilter.all().endingAt(new StationID("ST003")));
+            assertEquals((ROWS - 3 + 6) / 7, station3, "Uno de cada siete trayectos termina en ST003.");
+            assertEquals(Money.ofCents(0), engine.revenue(JourneyFilter.all().endingAt(new StationID("ST999"))),
+                    "Una estación que no está en el archivo no debería sumar nada.");
+            assertEquals((ROWS + 5) / 6, engine.count(JourneyFilter.all().byUser(new UserAccount("user0"))));
+            assertThrows(IllegalArgumentException.class, () -> engine.count(null));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Verifica que un archivo vacío devuelva agregados vacíos.
+     */
+    @Test
+    void testEmptyArchive() throws Exception {
+        JourneyArchive.open(dir).close();
+        JourneyQueryEngine engine = new JourneyQueryEngine(JourneyArchiveReader.open(dir));
+        assertEquals(0, engine.count(JourneyFilter.all()));
+        assertTrue(engine.revenueByStation(JourneyFilter.all()).isEmpty());
+        assertTrue(Double.isNaN(engine.averageSpeedByHour(JourneyFilter.all())[8]));
+        assertThrows(IllegalArgumentException.class,
+                () -> JourneyFilter.all().distanceBetween(3.0f, 1.0f));
+    }
+}
@@ -0,0 +1,207 @@
+package services.eventlog;
+
+import data.*;
+import micromobility.PMVState;
+import micromobility.PMVehicle;
+import mocks.MockServer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import services.ConcurrentFleetServer;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para JourneyEventLog y EventLoggingServer.
+ * Verifica el anexado de eventos, la reproducción tras reabrir el diario y el descarte de registros dañados.
+ */
+class JourneyEventLogTest {
+
+    @TempDir
+    Path dir;
+
+    private UserAccount user;
+    private VehicleID vehicle;
+    private VehicleID other;
+    private StationID origin;
+    private StationID destination;
+    private GeographicPoint start;
+    private GeographicPoint end;
+    private LocalDateTime date;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        user = new UserAccount("diego123");
+        vehicle = new VehicleID("V12345");
+        other = new VehicleID("V54321");
+        origin = new StationID("ST001");
+        destination = new StationID("ST002");
+        start = new GeographicPoint(41.3851f, 2.1734f);
+        end = new GeographicPoint(41.4036f, 2.1744f);
+        date = LocalDateTime.of(2024, 5, 1, 10, 30);
+    }
+
+    /**
+     * Verifica que la reproducción reconstruya estados, estaciones, trayectos abiertos y pagos.
+     */
+    @Test
+    void testReplayRebuildsState() throws Exception {
+        try (JourneyEventLog log = JourneyEventLog.open(dir, 16, Duration.ZERO)) {
+            log.appendLocation(vehicle, origin, date);
+            log.appendPairingStart(user, vehicle, origin, start, date);
+            log.appendPairingStop(user, vehicle, destination, end, date.plusMinutes(12), 10.5f, 2.1f, 12, new BigDecimal("3.40"));
+            log.appendPayment(new ServiceID("SRV001", new BigDecimal("3.40")), user, new BigDecimal("3.40"), 'W', date);
+            log.appendPairingStart(user, other, origin, start, date.plusMinutes(20));
+
+            EventLogRecovery recovery = log.replay();
+            assertEquals(5, recovery.getEventCount(), "Deberían reproducirse todos los eventos.");
+            assertEquals(0, recovery.getTornRecords());
+            assertEquals(PMVState.Available, recovery.getVehicleStates().get(vehicle));
+            assertEquals(destination, recovery.getVehicleStations().get(vehicle));
+            assertEquals(PMVState.NotAvailable, recovery.getVehicleStates().get(other));
+            assertEquals(1, recovery.getPaymentCount());
+            assertEquals(340, recovery.getPaymentCents(), "El importe debería conservarse en céntimos.");
+
+            assertFalse(recovery.getOpenJourneys().containsKey(vehicle), "El trayecto cerrado no debería seguir abierto.");
+            EventLogRecovery.OpenJourney open = recovery.getOpenJourneys().get(other);
+            assertNotNull(open, "El trayecto sin cerrar debería recuperarse.");
+            assertEquals(user, open.getUser());
+            assertEquals(origin, open.getOriginStation());
+            assertEquals(date.plusMinutes(20), open.getStart());
+        }
+    }
+
+    /**
+     * Verifica que al reabrir el diario se continúe tras el último registro, también entre segmentos.
+     */
+    @Test
+    void testReopenContinuesAcrossSegments() throws Exception {
+        try (JourneyEventLog log = JourneyEventLog.open(dir, 4, Duration.ofMillis(10))) {
+            for (int i = 0; i < 6; i++) {
+                log.appendLocation(vehicle, origin, date);
+            }
+            assertEquals(6, log.size());
+        }
+        try (JourneyEventLog log = JourneyEventLog.open(dir, 4, Duration.ZERO)) {
+            assertEquals(6, log.size(), "El diario reabierto debería continuar tras el último registro.");
+            assertEquals(6, log.appendLocation(vehicle, destination, date));
+
+            EventLogRecovery recovery = log.replay();
+            assertEquals(7, recovery.getEventCount());
+            assertEquals(destination, recovery.getVehicleStations().get(vehicle));
+        }
+        assertTrue(Files.exists(dir.resolve("journey-events-000001.log")), "Debería haberse creado un segundo segmento.");
+    }
+
+    /**
+     * Verifica que un registro a medio escribir se descarte sin afectar a los demás.
+     */
+    @Test
+    void testTornRecordIsSkipped() throws Exception {
+        try (JourneyEventLog log = JourneyEventLog.open(dir, 16, Duration.ZERO)) {
+            log.appendPairingStart(user, vehicle, origin, start, date);
+            log.appendLocation(other, origin, date);
+            log.appendPairingStop(user, vehicle, destination, end, date, 10.0f, 1.0f, 5, new BigDecimal("1.00"));
+        }
+        try (FileChannel channel = FileChannel.open(dir.resolve("journey-events-000000.log"), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0x7F}), 2L * JourneyEventLog.RECORD_SIZE + 60);
+        }
+        try (JourneyEventLog log = JourneyEventLog.open(dir, 16, Duration.ZERO)) {
+            assertEquals(2, log.size(), "El registro dañado no debería contarse como escrito.");
+            EventLogRecovery recovery = log.replay();
+            assertEquals(2, recovery.getEventCount());
+            assertEquals(PMVState.NotAvailable, recovery.getVehicleStates().get(vehicle),
+                    "Sin el fin de emparejamiento, el vehículo debería seguir emparejado.");
+            assertTrue(recovery.getOpenJourneys().containsKey(vehicle));
+        }
+    }
+
+    /**
+     * Verifica que EventLoggingServer registre los eventos aceptados y que se puedan restaurar en otro servidor.
+     */
+    @Test
+    void testLoggingServerAndRestore() throws Exception {
+        ConcurrentFleetServer fleet = new ConcurrentFleetServer(16);
+        fleet.addVehicle(vehicle, new PMVehicle(vehicle, PMVState.Available, start));
+        try (JourneyEventLog log = JourneyEventLog.open(dir, 16, Duration.ZERO)) {
+            EventLoggingServer server = new EventLoggingServer(fleet, log);
+            server.registerPairing(user, vehicle, origin, start, date);
+            server.stopPairing(user, vehicle, destination, end, date.plusMinutes(5), 12.0f, 1.0f, 5, new BigDecimal("1.50"));
+            assertThrows(Exception.class, () -> server.registerPairing(user, other, origin, start, date),
+                    "Un emparejamiento rechazado por el servidor no debería registrarse.");
+            assertEquals(2, log.size());
+        }
+
+        ConcurrentFleetServer restarted = new ConcurrentFleetServer(16);
+        PMVehicle restored = new PMVehicle(vehicle, PMVState.NotAvailable, start);
+        restarted.addVehicle(vehicle, restored);
+        try (JourneyEventLog log = JourneyEventLog.open(dir, 16, Duration.ZERO)) {
+            assertEquals(1, log.replay().restoreInto(restarted));
+        }
+        assertEquals(PMVState.Available, restored.getState());
+        assertEquals(end, restored.getLocation());
+        assertEquals(destination, restarted.getRegisteredStation(vehicle));
+        assertEquals(1, restarted.getAvailableCount(destination));
+    }
+
+    /**
+     * Verifica que los emparejamientos, fechados por el llamante en hora local, y los registros de estación,
+     * fechados con el reloj del servidor, compartan la misma base de tiempo aunque el reloj esté en UTC.
+     */
+    @Test
+    void testRecordsShareOneTimeBase() throws Exception {
+        Instant instant = date.atZone(ZoneId.systemDefault()).toInstant();
+        ConcurrentFleetServer fleet = new ConcurrentFleetServer(16);
+        fleet.addVehicle(vehicle, new PMVehicle(vehicle, PMVState.Available, start));
+        try (JourneyEventLog log = JourneyEventLog.open(dir, 16, Duration.ZERO)) {
+            EventLoggingServer server = new EventLoggingServer(fleet, log, Clock.fixed(instant, ZoneOffset.UTC));
+            server.registerLocation(vehicle, origin);
+            server.registerPairing(user, vehicle, origin, start, date);
+            assertEquals(date, log.replay().getOpenJourneys().get(vehicle).getStart());
+        }
+        ByteBuffer records = ByteBuffer.wrap(Files.readAllBytes(dir.resolve("journey-events-000000.log")))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        long location = records.getLong(JourneyEventLog.OFF_TIMESTAMP);
+        long pairing = records.getLong(JourneyEventLog.RECORD_SIZE + JourneyEventLog.OFF_TIMESTAMP);
+        assertEquals(instant.toEpochMilli(), pairing, "El instante debería ser el de la fecha en la zona del sistema.");
+        assertEquals(pairing, location, "Ambos registros deberían fecharse con el mismo instante.");
+    }
+
+    /**
+     * Verifica que los eventos que acepta el servidor se registren aunque no lleven estación o su ServiceID no
+     * quepa en el registro, y que la reproducción conserve la última estación conocida.
+     */
+    @Test
+    void testAcceptedEventsAreAlwaysLogged() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        try (JourneyEventLog log = JourneyEventLog.open(dir, 16, Duration.ZERO)) {
+            EventLoggingServer server = new EventLoggingServer(new MockServer(), log);
+            server.registerLocation(vehicle, origin);
+            server.registerPairing(user, vehicle, origin, start, now.minusMinutes(5));
+            server.stopPairing(user, vehicle, null, end, now, 12.0f, 1.0f, 5, new BigDecimal("1.50"));
+            server.registerPayment(new ServiceID("SERVICIO-Ñ-" + "X".repeat(40), new BigDecimal("1.50")), user,
+                    new BigDecimal("1.50"), 'W');
+            assertEquals(4, log.size());
+
+            EventLogRecovery recovery = log.replay();
+            assertEquals(0, recovery.getTornRecords());
+            assertEquals(PMVState.Available, recovery.getVehicleStates().get(vehicle));
+            assertEquals(origin, recovery.getVehicleStations().get(vehicle), "Sin estación se conserva la anterior.");
+            assertEquals(150, recovery.getPaymentCents());
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package services.fleet;
+
+import data.GeographicPoint;
+import data.StationID;
+import data.VehicleID;
+import micromobility.PMVState;
+import micromobility.PMVehicle;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para la clase RebalancingPlanner.
+ * Verifica los desequilibrios calculados a partir del índice de disponibilidad y que las rutas respeten
+ * la capacidad de los camiones y el desequilibrio de cada estación.
+ */
+class RebalancingPlannerTest {
+
+    /**
+     * Verifica un plan pequeño construido a partir de StationAvailabilityIndex.
+     */
+    @Test
+    void testPlanFromAvailabilityIndex() throws Exception {
+        StationID full = new StationID("ST001");
+        StationID empty = new StationID("ST002");
+        StationID balanced = new StationID("ST003");
+        StationAvailabilityIndex index = new StationAvailabilityIndex();
+        for (int i = 0; i < 6; i++) {
+            PMVehicle vehicle = new PMVehicle(new VehicleID("V1000" + i), PMVState.Available, new GeographicPoint(41.38f, 2.17f));
+            index.track(vehicle);
+            index.moveToStation(vehicle, i < 5 ? full : balanced);
+        }
+        PMVehicle busy = new PMVehicle(new VehicleID("V20000"), PMVState.UnderWay, new GeographicPoint(41.39f, 2.18f));
+        index.track(busy);
+        index.moveToStation(busy, empty);
+
+        List<StationSite> sites = List.of(
+                new StationSite(full, new GeographicPoint(41.38f, 2.17f), 2),
+                new StationSite(empty, new GeographicPoint(41.39f, 2.18f), 2),
+                new StationSite(balanced, new GeographicPoint(41.40f, 2.19f), 1));
+        RebalancingPlan plan = new RebalancingPlanner(1, 10).plan(index, sites, new GeographicPoint(41.37f, 2.16f));
+
+        assertEquals(3, plan.getImbalance(full));
+        assertEquals(-2, plan.getImbalance(empty), "Los vehículos en marcha no deberían contar como disponibles.");
+        assertEquals(0, plan.getImbalance(balanced));
+        assertEquals(2, plan.getImbalances().size());
+        assertEquals(3, plan.getTotalSurplus());
+        assertEquals(2, plan.getTotalDeficit());
+
+        TruckRoute route = plan.getRoutes().get(0);
+        assertEquals(2, route.getStops().size());
+        assertEquals(full, route.getStops().get(0).getStation());
+        assertEquals(-2, route.getStops().get(0).getChange(), "Solo deberían recogerse los vehículos que faltan.");
+        assertEquals(2, route.getStops().get(1).getChange());
+        assertEquals(0, route.getFinalLoad());
+        assertEquals(2, plan.getMovedVehicles());
+        assertTrue(route.getDistanceKm() > 0);
+    }
+
+    /**
+     * Verifica las restricciones del plan sobre una ciudad de 5.000 estaciones y varios camiones.
+     */
+    @Test
+    void testLargeCityPlanRespectsConstraints() throws Exception {
+        SplittableRandom random = new SplittableRandom(18);
+        int n = 5_000;
+        StationSite[] sites = new StationSite[n];
+        int[] available = new int[n];
+        for (int i = 0; i < n; i++) {
+            GeographicPoint location = new GeographicPoint((float) random.nextDouble(41.33, 41.45),
+                    (float) random.nextDouble(2.08, 2.23));
+            sites[i] = new StationSite(new StationID("ST" + (10_000 + i)), location, random.nextInt(3, 9));
+            available[i] = random.nextInt(0, 13);
+        }
+        int trucks = 12;
+        int capacity = 20;
+        RebalancingPlan plan = new RebalancingPlanner(trucks, capacity).plan(sites, available, new GeographicPoint(41.39f, 2.16f));
+        assertEquals(trucks, plan.getRoutes().size());
+
+        Map<StationID, Integer> applied = new HashMap<>();
+        int moved = 0;
+        for (TruckRoute route : plan.getRoutes()) {
+            int load = 0;
+            for (TruckRoute.Stop stop : route.getStops()) {
+                load -= stop.getChange();
+                assertTrue(load >= 0 && load <= capacity, "La carga debería estar entre 0 y la capacidad.");
+                applied.merge(stop.getStation(), stop.getChange(), Integer::sum);
+                moved += Math.max(0, stop.getChange());
+            }
+            assertEquals(load, route.getFinalLoad());
+        }
+        for (Map.Entry<StationID, Integer> entry : applied.entrySet()) {
+            int imbalance = plan.getImbalance(entry.getKey());
+            int after = imbalance + entry.getValue();
+            assertTrue(imbalance > 0 ? after >= 0 && after <= imbalance : after <= 0 && after >= imbalance,
+                    "Una estación no debería pasar de sobrante a deficitaria ni al revés.");
+        }
+        assertEquals(moved, plan.getMovedVehicles());
+        assertTrue(moved > plan.getTotalDeficit() / 2, "Debería recolocarse buena parte del déficit.");
+    }
+}
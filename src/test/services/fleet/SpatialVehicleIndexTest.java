@@ -0,0 +1,117 @@
+package services.fleet;
+
+import data.GeographicPoint;
+import data.VehicleID;
+import micromobility.PMVState;
+import micromobility.PMVehicle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para la clase SpatialVehicleIndex.
+ * Verifica las consultas de proximidad y la sincronización con los cambios de los vehículos.
+ */
+class SpatialVehicleIndexTest {
+
+    private SpatialVehicleIndex index;
+    private GeographicPoint center;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        index = new SpatialVehicleIndex();
+        center = new GeographicPoint(41.3851f, 2.1734f);
+    }
+
+    /**
+     * Verifica que los k más cercanos coincidan con una búsqueda exhaustiva.
+     */
+    @Test
+    void testNearestMatchesBruteForce() throws Exception {
+        Random random = new Random(42);
+        List<PMVehicle> fleet = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            PMVehicle vehicle = vehicle(i, 41.30f + random.nextFloat() * 0.2f, 2.05f + random.nextFloat() * 0.25f,
+                    i % 3 == 0 ? PMVState.UnderWay : PMVState.Available);
+            fleet.add(vehicle);
+            index.track(vehicle);
+        }
+
+        List<PMVehicle> expected = new ArrayList<>();
+        for (PMVehicle vehicle : fleet) {
+            if (vehicle.getState() == PMVState.Available) {
+                expected.add(vehicle);
+            }
+        }
+        expected.sort(Comparator.comparingDouble(v -> squaredDistance(center, v.getLocation())));
+
+        assertEquals(expected.subList(0, 10), index.nearestAvailable(center, 10), "Los 10 más cercanos deberían coincidir.");
+    }
+
+    /**
+     * Verifica que la búsqueda por radio solo devuelva vehículos dentro del radio.
+     */
+    @Test
+    void testAvailableWithinRadius() throws Exception {
+        PMVehicle near = vehicle(1, 41.3855f, 2.1738f, PMVState.Available);   // ~50 m
+        PMVehicle far = vehicle(2, 41.4036f, 2.1744f, PMVState.Available);    // ~2 km
+        index.track(near);
+        index.track(far);
+
+        assertEquals(List.of(near), index.availableWithin(center, 0.5));
+        assertEquals(List.of(near, far), index.availableWithin(center, 3.0));
+    }
+
+    /**
+     * Verifica que los cambios de estado y ubicación se reflejen en el índice.
+     */
+    @Test
+    void testIndexFollowsVehicleChanges() throws Exception {
+        PMVehicle vehicle = vehicle(1, 41.3855f, 2.1738f, PMVState.Available);
+        index.track(vehicle);
+        assertEquals(1, index.size());
+
+        vehicle.compareAndTransition(PMVState.Available, PMVState.NotAvailable);
+        assertTrue(index.nearestAvailable(center, 5).isEmpty(), "Un vehículo reservado no debería aparecer.");
+
+        vehicle.setLocation(new GeographicPoint(41.5f, 2.3f));
+        vehicle.setAvailb();
+        assertTrue(index.availableWithin(center, 1.0).isEmpty(), "El vehículo debería haberse movido de celda.");
+        assertEquals(List.of(vehicle), index.nearestAvailable(center, 1));
+
+        index.untrack(vehicle);
+        assertEquals(0, index.size());
+    }
+
+    /**
+     * Verifica que una notificación que llega después de dejar de seguir el vehículo no lo vuelva a indexar.
+     */
+    @Test
+    void testLateNotificationAfterUntrackIsIgnored() throws Exception {
+        PMVehicle vehicle = vehicle(1, 41.3855f, 2.1738f, PMVState.Available);
+        index.track(vehicle);
+        index.untrack(vehicle);
+
+        index.onLocationChanged(vehicle, vehicle.getLocation(), new GeographicPoint(41.3856f, 2.1739f));
+        assertEquals(0, index.size(), "Un vehículo olvidado no debería volver al índice.");
+        assertTrue(index.nearestAvailable(center, 1).isEmpty());
+    }
+
+    // Métodos auxiliares
+
+    private PMVehicle vehicle(int n, float lat, float lon, PMVState state) throws Exception {
+        return new PMVehicle(new VehicleID("VH" + (10000 + n)), state, new GeographicPoint(lat, lon));
+    }
+
+    private double squaredDistance(GeographicPoint a, GeographicPoint b) {
+        double dLat = a.getLatitude() - b.getLatitude();
+        double dLon = (a.getLongitude() - b.getLongitude()) * Math.cos(Math.toRadians(a.getLatitude()));
+        return dLat * dLat + dLon * dLon;
+    }
+}
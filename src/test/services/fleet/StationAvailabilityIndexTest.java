@@ -0,0 +1,177 @@
+package services.fleet;
+
+import data.GeographicPoint;
+import data.StationID;
+import data.VehicleID;
+import micromobility.PMVState;
+import micromobility.PMVehicle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para la clase StationAvailabilityIndex.
+ * Verifica los recuentos por estación al mover vehículos y al cambiar su estado.
+ */
+class StationAvailabilityIndexTest {
+
+    private StationAvailabilityIndex index;
+    private StationID stationA;
+    private StationID stationB;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        index = new StationAvailabilityIndex();
+        stationA = new StationID("STA01");
+        stationB = new StationID("STB02");
+    }
+
+    /**
+     * Verifica que registrar la estación de vehículos disponibles actualice el recuento.
+     */
+    @Test
+    void testCountsFollowRegisterLocation() throws Exception {
+        PMVehicle v1 = track(1, PMVState.Available);
+        PMVehicle v2 = track(2, PMVState.Available);
+        assertEquals(0, index.availableCount(stationA), "Sin estación registrada no debería contar.");
+
+        index.moveToStation(v1, stationA);
+        index.moveToStation(v2, stationA);
+        assertEquals(2, index.availableCount(stationA));
+
+        index.moveToStation(v2, stationB);
+        assertEquals(1, index.availableCount(stationA));
+        assertEquals(1, index.availableCount(stationB));
+        assertEquals(List.of(v2), index.availableVehicles(stationB));
+        assertEquals(stationB, index.stationOf(v2.getId()));
+    }
+
+    /**
+     * Verifica que los cambios de estado saquen y devuelvan el vehículo del recuento.
+     */
+    @Test
+    void testCountsFollowStateChanges() throws Exception {
+        PMVehicle vehicle = track(1, PMVState.Available);
+        index.moveToStation(vehicle, stationA);
+
+        vehicle.compareAndTransition(PMVState.Available, PMVState.NotAvailable);
+        assertEquals(0, index.availableCount(stationA));
+
+        vehicle.setAvailb();
+        assertEquals(1, index.availableCount(stationA));
+
+        index.untrack(vehicle);
+        assertEquals(0, index.availableCount(stationA));
+    }
+
+    /**
+     * Verifica altas y bajas masivas en una misma estación.
+     */
+    @Test
+    void testManyVehiclesInOneStation() throws Exception {
+        Set<PMVehicle> expected = new HashSet<>();
+        for (int i = 0; i < 500; i++) {
+            PMVehicle vehicle = track(i, PMVState.Available);
+            index.moveToStation(vehicle, stationA);
+            if (i % 2 == 0) {
+                vehicle.setUnderWay();
+            } else {
+                expected.add(vehicle);
+            }
+        }
+        assertEquals(expected.size(), index.availableCount(stationA));
+        assertEquals(expected, new HashSet<>(index.availableVehicles(stationA)));
+    }
+
+    /**
+     * Verifica que las ranuras de los vehículos olvidados se reutilicen y no conserven el vehículo anterior.
+     */
+    @Test
+    void testUntrackedSlotsAreReused() throws Exception {
+        for (int round = 0; round < 5; round++) {
+            List<PMVehicle> batch = new ArrayList<>();
+            for (int i = 0; i < 300; i++) {
+                PMVehicle vehicle = track(round * 1000 + i, PMVState.Available);
+                index.moveToStation(vehicle, stationA);
+                batch.add(vehicle);
+            }
+            assertEquals(new HashSet<>(batch), new HashSet<>(index.availableVehicles(stationA)),
+                    "Solo deben verse los vehículos seguidos en la ronda " + round + ".");
+            for (PMVehicle vehicle : batch) {
+                index.untrack(vehicle);
+            }
+            assertEquals(0, index.availableCount(stationA));
+            assertNull(index.stationOf(batch.get(0).getId()), "Un vehículo olvidado no debe tener estación.");
+        }
+        assertTrue(index.slotCapacity() <= 1024, "Las bajas deben liberar sus ranuras para reutilizarlas.");
+    }
+
+    /**
+     * Verifica que un recorrido no devuelva el vehículo que reutiliza la ranura de otro dado de baja
+     * mientras se recorría la estación.
+     */
+    @Test
+    void testReusedSlotIsNotYieldedDuringTraversal() throws Exception {
+        PMVehicle v1 = track(1, PMVState.Available);
+        PMVehicle v2 = track(2, PMVState.Available);
+        index.moveToStation(v1, stationA);
+        index.moveToStation(v2, stationA);
+
+        List<PMVehicle> seen = new ArrayList<>();
+        List<PMVehicle> reused = new ArrayList<>();
+        index.forEachAvailable(stationA, vehicle -> {
+            if (seen.isEmpty()) {
+                // Se da de baja el otro vehículo y su ranura pasa a uno de la estación B
+                index.untrack(vehicle == v1 ? v2 : v1);
+                try {
+                    PMVehicle other = track(3, PMVState.Available);
+                    index.moveToStation(other, stationB);
+                    reused.add(other);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            seen.add(vehicle);
+        });
+
+        assertEquals(1, seen.size(), "El vehículo dado de baja no debe recorrerse.");
+        assertFalse(seen.contains(reused.get(0)), "No debe recorrerse un vehículo de otra estación.");
+    }
+
+    /**
+     * Verifica que los cambios de una instancia sustituida no alteren la ubicación de la que la sustituye.
+     */
+    @Test
+    void testReplacedInstanceIsIgnored() throws Exception {
+        PMVehicle old = track(1, PMVState.Available);
+        index.moveToStation(old, stationA);
+        index.untrack(old);
+        PMVehicle current = track(1, PMVState.Available);
+        index.moveToStation(current, stationB);
+
+        // Notificación de la instancia anterior que llega tarde
+        old.compareAndTransition(PMVState.Available, PMVState.NotAvailable);
+        index.onStateChanged(old, PMVState.Available, PMVState.NotAvailable);
+        assertEquals(List.of(current), index.availableVehicles(stationB), "La instancia actual debería seguir contando.");
+        assertThrows(IllegalArgumentException.class, () -> index.moveToStation(old, stationA));
+        assertThrows(IllegalArgumentException.class, () -> index.track(old),
+                "No debería seguirse otra instancia con el mismo identificador.");
+
+        index.untrack(old);
+        assertEquals(stationB, index.stationOf(current.getId()), "Olvidar la instancia anterior no afecta a la actual.");
+    }
+
+    // Métodos auxiliares
+
+    private PMVehicle track(int n, PMVState state) throws Exception {
+        PMVehicle vehicle = new PMVehicle(new VehicleID("VH" + (10000 + n)), state, new GeographicPoint(41.3851f, 2.1734f));
+        index.track(vehicle);
+        return vehicle;
+    }
+}
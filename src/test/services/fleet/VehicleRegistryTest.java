@@ -0,0 +1,196 @@
+package services.fleet;
+
+import data.GeographicPoint;
+import data.PackedPoint;
+import data.VehicleID;
+import micromobility.PMVState;
+import micromobility.PMVehicle;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para VehicleRegistry.
+ * Verifica las altas, bajas y búsquedas con crecimiento de la tabla, la sincronización del estado y la
+ * ubicación con los vehículos, y las lecturas concurrentes con escrituras en curso.
+ */
+class VehicleRegistryTest {
+
+    private static PMVehicle vehicle(int i) throws Exception {
+        return new PMVehicle(new VehicleID("VH" + (100000 + i)), PMVState.Available,
+                new GeographicPoint(41.38f + i * 0.0001f, 2.17f));
+    }
+
+    /**
+     * Verifica altas, sustituciones y bajas, incluidas las que desplazan entradas de un mismo tramo.
+     */
+    @Test
+    void testPutGetRemove() throws Exception {
+        VehicleRegistry registry = new VehicleRegistry(1);
+        List<PMVehicle> vehicles = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            PMVehicle vehicle = vehicle(i);
+            vehicles.add(vehicle);
+            assertNull(registry.put(vehicle));
+        }
+        assertEquals(5_000, registry.size());
+        for (PMVehicle vehicle : vehicles) {
+            assertSame(vehicle, registry.get(vehicle.getId()));
+            assertSame(vehicle, registry.get(vehicle.getId().getKeyHigh(), vehicle.getId().getKeyLow()));
+        }
+        assertNull(registry.get(new VehicleID("MISSING01")));
+
+        for (int i = 0; i < vehicles.size(); i += 2) {
+            assertSame(vehicles.get(i), registry.remove(vehicles.get(i).getId()));
+        }
+        assertNull(registry.remove(vehicles.get(0).getId()), "Un vehículo ya eliminado no debería encontrarse.");
+        assertEquals(2_500, registry.size());
+        for (int i = 0; i < vehicles.size(); i++) {
+            assertEquals(i % 2 == 0 ? null : vehicles.get(i), registry.get(vehicles.get(i).getId()),
+                    "Las bajas no deberían cortar los tramos de otras claves.");
+        }
+        assertEquals(2_500, registry.values().size());
+
+        PMVehicle replacement = new PMVehicle(vehicles.get(1).getId(), PMVState.NotAvailable,
+                new GeographicPoint(41.0f, 2.0f));
+        assertSame(vehicles.get(1), registry.put(replacement));
+        assertSame(replacement, registry.get(replacement.getId()));
+        assertEquals(2_500, registry.size());
+    }
+
+    /**
+     * Verifica que el estado y la ubicación guardados sigan los cambios de los vehículos registrados.
+     */
+    @Test
+    void testStateAndLocationFollowVehicle() throws Exception {
+        VehicleRegistry registry = new VehicleRegistry();
+        PMVehicle vehicle = vehicle(1);
+        PMVehicle other = vehicle(2);
+        registry.put(vehicle);
+        registry.put(other);
+        assertEquals(PMVState.Available, registry.getState(vehicle.getId()));
+        assertEquals(2, registry.count(PMVState.Available));
+
+        vehicle.setUnderWay();
+        GeographicPoint moved = new GeographicPoint(41.40f, 2.19f);
+        vehicle.setLocation(moved);
+        assertEquals(PMVState.UnderWay, registry.getState(vehicle.getId()));
+        assertEquals(PackedPoint.pack(moved), registry.getPackedLocation(vehicle.getId()));
+        assertEquals(1, registry.count(PMVState.Available));
+
+        registry.remove(vehicle.getId());
+        vehicle.setAvailb();
+        assertNull(registry.getState(vehicle.getId()));
+        assertEquals(VehicleRegistry.NO_LOCATION, registry.getPackedLocation(vehicle.getId()));
+        assertEquals(1, registry.count(PMVState.Available), "Un vehículo dado de baja no debería contarse.");
+    }
+
+    /**
+     * Verifica que el registro compacto guarde el estado y la ubicación sin los vehículos, con crecimiento y
+     * bajas, y que rechace las operaciones que devuelven un PMVehicle.
+     */
+    @Test
+    void testCompactRegistry() throws Exception {
+        VehicleRegistry registry = VehicleRegistry.compact(1);
+        for (int i = 0; i < 5_000; i++) {
+            PMVehicle vehicle = vehicle(i);
+            assertTrue(registry.update(vehicle.getId(), vehicle.getState(), vehicle.getLocation()));
+        }
+        assertEquals(5_000, registry.size());
+        VehicleID id = new VehicleID("VH" + 100042);
+        assertFalse(registry.update(id, PMVState.UnderWay, new GeographicPoint(41.5f, 2.3f)),
+                "Actualizar un vehículo registrado no debería darlo de alta otra vez.");
+        assertEquals(PMVState.UnderWay, registry.getState(id));
+        assertEquals(PackedPoint.pack(41.5f, 2.3f), registry.getPackedLocation(id));
+        assertEquals(4_999, registry.count(PMVState.Available));
+
+        for (int i = 0; i < 5_000; i += 2) {
+            assertNull(registry.remove(new VehicleID("VH" + (100000 + i))), "El registro compacto no guarda vehículos.");
+        }
+        assertEquals(2_500, registry.size());
+        for (int i = 0; i < 5_000; i++) {
+            assertEquals(i % 2 == 1, registry.contains(new VehicleID("VH" + (100000 + i))), "Vehículo " + i);
+        }
+
+        assertThrows(IllegalStateException.class, () -> registry.put(vehicle(1)));
+        assertThrows(IllegalStateException.class, () -> registry.get(id));
+        assertThrows(IllegalStateException.class, registry::values);
+        assertThrows(IllegalArgumentException.class, () -> registry.update(id, PMVState.Available, null));
+        assertThrows(IllegalStateException.class,
+                () -> new VehicleRegistry().update(id, PMVState.Available, new GeographicPoint(41.5f, 2.3f)),
+                "Un registro con vehículos sigue su estado con las notificaciones.");
+    }
+
+    /**
+     * Verifica que los lectores siempre encuentren los vehículos fijos mientras otros hilos dan de alta y de
+     * baja vehículos en los mismos segmentos.
+     */
+    @Test
+    void testConcurrentReadersAndWriters() throws Exception {
+        VehicleRegistry registry = new VehicleRegistry(64);
+        PMVehicle[] fixed = new PMVehicle[500];
+        for (int i = 0; i < fixed.length; i++) {
+            fixed[i] = vehicle(i);
+            registry.put(fixed[i]);
+        }
+        PMVehicle[][] churn = new PMVehicle[2][2_000];
+        for (int w = 0; w < churn.length; w++) {
+            for (int i = 0; i < churn[w].length; i++) {
+                churn[w][i] = vehicle(10_000 * (w + 1) + i);
+            }
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (PMVehicle[] batch : churn) {
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    for (int round = 0; round < 20; round++) {
+                        for (PMVehicle vehicle : batch) {
+                            registry.put(vehicle);
+                        }
+                        for (PMVehicle vehicle : batch) {
+                            registry.remove(vehicle.getId());
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }));
+        }
+        for (int r = 0; r < 2; r++) {
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    while (running.get()) {
+                        for (PMVehicle vehicle : fixed) {
+                            if (registry.get(vehicle.getId()) != vehicle) {
+                                throw new AssertionError("No se encontró " + vehicle.getId().getId());
+                            }
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        start.countDown();
+        threads.get(0).join();
+        threads.get(1).join();
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(failure.get(), () -> "Fallo concurrente: " + failure.get());
+        assertEquals(fixed.length, registry.size());
+    }
+}
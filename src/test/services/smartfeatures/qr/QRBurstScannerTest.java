@@ -0,0 +1,148 @@
+package services.smartfeatures.qr;
+
+import data.VehicleID;
+import exceptions.CorruptedImgException;
+import exceptions.InvalidPairingArgsException;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para QRBurstScanner.
+ * Verifica que se devuelve el primer fotograma legible, los fallos cuando ninguno lo es, que tras el acierto
+ * no se decodifican más fotogramas, la parada entre etapas y la reutilización de los espacios de trabajo.
+ */
+class QRBurstScannerTest {
+
+    private static BufferedImage blank() {
+        return new BufferedImage(160, 160, BufferedImage.TYPE_INT_RGB);
+    }
+
+    /**
+     * Decodificador que cuenta las imágenes que empieza a decodificar.
+     */
+    private static final class CountingDecoder extends QRImageDecoder {
+        private final AtomicInteger decoded = new AtomicInteger();
+
+        @Override
+        VehicleID getVehicleID(BufferedImage qrImg, Workspace workspace)
+                throws CorruptedImgException, InvalidPairingArgsException {
+            decoded.incrementAndGet();
+            return super.getVehicleID(qrImg, workspace);
+        }
+    }
+
+    /**
+     * Verifica que la ráfaga devuelve el VehicleID aunque los primeros fotogramas sean ilegibles.
+     */
+    @Test
+    void testReturnsFirstReadableFrame() throws Exception {
+        VehicleID id = new VehicleID("VH424242");
+        List<BufferedImage> frames = new ArrayList<>(List.of(blank(), blank(), blank(), QREncoder.render(id), blank()));
+        try (QRBurstScanner scanner = new QRBurstScanner()) {
+            assertEquals(id, scanner.scan(frames).get(), "Debe devolverse el VehicleID del fotograma legible.");
+        }
+    }
+
+    /**
+     * Verifica los fallos: ningún fotograma legible, un QR que no es un VehicleID y una ráfaga vacía o nula.
+     */
+    @Test
+    void testFailures() throws Exception {
+        try (QRBurstScanner scanner = new QRBurstScanner()) {
+            ExecutionException blank = assertThrows(ExecutionException.class,
+                    () -> scanner.scan(List.of(blank(), blank())).get(), "Sin fotogramas legibles debe fallar.");
+            assertInstanceOf(CorruptedImgException.class, blank.getCause(), "Debe fallar por imagen corrupta.");
+
+            List<BufferedImage> frames = List.of(blank(), QREncoder.render("no es un id", QRErrorCorrection.M, 4));
+            ExecutionException invalid = assertThrows(ExecutionException.class, () -> scanner.scan(frames).get(),
+                    "Un QR que no es un VehicleID debe fallar.");
+            assertInstanceOf(InvalidPairingArgsException.class, invalid.getCause(),
+                    "Debe informarse del QR inválido antes que de los ilegibles.");
+
+            ExecutionException empty = assertThrows(ExecutionException.class,
+                    () -> scanner.scan(Collections.emptyList()).get(), "Una ráfaga vacía debe fallar.");
+            assertInstanceOf(CorruptedImgException.class, empty.getCause(), "Debe fallar por imagen corrupta.");
+            assertThrows(IllegalArgumentException.class, () -> scanner.scan(null), "Una lista nula debe rechazarse.");
+        }
+    }
+
+    /**
+     * Verifica que, tras el primer acierto, no se empieza ningún otro fotograma.
+     */
+    @Test
+    void testStopsAfterFirstSuccess() throws Exception {
+        VehicleID id = new VehicleID("VH100200");
+        List<BufferedImage> frames = new ArrayList<>();
+        frames.add(QREncoder.render(id));
+        for (int i = 0; i < 50; i++) {
+            frames.add(QREncoder.render(id));
+        }
+        CountingDecoder decoder = new CountingDecoder();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try (QRBurstScanner scanner = new QRBurstScanner(decoder, executor, 2)) {
+            assertEquals(id, scanner.scan(frames).get(), "Debe devolverse el VehicleID.");
+            Thread.sleep(50);
+            assertTrue(decoder.decoded.get() <= 2, "Cada trabajador debe parar tras el primer acierto.");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Verifica que la señal de parada interrumpe una decodificación entre etapas y que cancelar la ráfaga
+     * antes de que empiece evita decodificar fotogramas.
+     */
+    @Test
+    void testCancellation() throws Exception {
+        QRImageDecoder.Workspace workspace = new QRImageDecoder.Workspace();
+        workspace.setStopSignal(() -> true);
+        BufferedImage image = QREncoder.render(new VehicleID("VH555555"));
+        assertThrows(CorruptedImgException.class, () -> new QRImageDecoder().decodeText(image, workspace),
+                "Con la señal de parada activa la decodificación debe abandonarse.");
+
+        CountingDecoder decoder = new CountingDecoder();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CompletableFuture<Void> gate = new CompletableFuture<>();
+        executor.execute(gate::join);  // Ocupa el único hilo hasta que se cancela la ráfaga
+        try (QRBurstScanner scanner = new QRBurstScanner(decoder, executor, 1)) {
+            CompletableFuture<VehicleID> result = scanner.scan(List.of(image, image, image));
+            result.cancel(true);
+            gate.complete(null);
+            executor.submit(() -> { }).get();
+            assertEquals(0, decoder.decoded.get(), "Una ráfaga cancelada no debe decodificar fotogramas.");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Verifica que los espacios de trabajo se devuelven y se reutilizan entre ráfagas.
+     */
+    @Test
+    void testWorkspacesAreReused() throws Exception {
+        VehicleID id = new VehicleID("VH909090");
+        List<BufferedImage> frames = List.of(blank(), QREncoder.render(id), blank(), blank());
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try (QRBurstScanner scanner = new QRBurstScanner(new QRImageDecoder(), executor, 3)) {
+            for (int burst = 0; burst < 20; burst++) {
+                assertEquals(id, scanner.scan(frames).get(), "Cada ráfaga debe devolver el VehicleID.");
+            }
+            executor.submit(() -> { }).get();
+            Thread.sleep(50);
+            assertTrue(scanner.idleWorkspaces() <= 3, "No debe haber más espacios de trabajo que trabajadores.");
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
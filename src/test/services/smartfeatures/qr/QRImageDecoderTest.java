@@ -0,0 +1,243 @@
+package services.smartfeatures.qr;
+
+import data.VehicleID;
+import exceptions.CorruptedImgException;
+import exceptions.InvalidPairingArgsException;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para QRImageDecoder, QREncoder y QRDecodingPool.
+ * Verifica la corrección Reed-Solomon, la ida y vuelta de códigos en todos los niveles, máscaras y tipos de
+ * imagen, la lectura de imágenes escaladas, giradas, con ruido o con módulos dañados, y los lotes en paralelo.
+ */
+class QRImageDecoderTest {
+
+    private final QRImageDecoder decoder = new QRImageDecoder();
+
+    private static BufferedImage redraw(BufferedImage source, int type, double scale, double degrees) {
+        int side = (int) Math.ceil(source.getWidth() * scale);
+        BufferedImage target = new BufferedImage(side, side, type);
+        Graphics2D graphics = target.createGraphics();
+        graphics.setColor(java.awt.Color.WHITE);
+        graphics.fillRect(0, 0, side, side);
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.rotate(Math.toRadians(degrees), side / 2.0, side / 2.0);
+        graphics.scale(scale, scale);
+        graphics.drawImage(source, 0, 0, null);
+        graphics.dispose();
+        return target;
+    }
+
+    /**
+     * Verifica los codewords de corrección y la información de formato con los valores de ejemplo de la norma
+     * (HELLO WORLD en versión 1-M).
+     */
+    @Test
+    void testMatchesStandardVectors() {
+        int[] data = {32, 91, 11, 120, 209, 114, 220, 77, 67, 64, 236, 17, 236, 17, 236, 17};
+        assertArrayEquals(new int[]{196, 35, 39, 119, 235, 215, 231, 226, 93, 23}, ReedSolomon.encode(data, 10),
+                "Los codewords de corrección deben coincidir con los de la norma.");
+        assertEquals(0b101010000010010, QRVersion.formatBits(QRErrorCorrection.M, 0),
+                "El formato de nivel M y máscara 0 debe coincidir con el de la norma.");
+        assertEquals(0b110011000101111, QRVersion.formatBits(QRErrorCorrection.L, 4),
+                "El formato de nivel L y máscara 4 debe coincidir con el de la norma.");
+    }
+
+    /**
+     * Verifica que Reed-Solomon corrige cualquier combinación de hasta la mitad de codewords de corrección.
+     */
+    @Test
+    void testReedSolomonCorrectsUpToHalfTheEcCodewords() {
+        Random random = new Random(7);
+        for (int trial = 0; trial < 500; trial++) {
+            int ecCount = 7 + random.nextInt(24);
+            int[] data = new int[1 + random.nextInt(60)];
+            for (int i = 0; i < data.length; i++) {
+                data[i] = random.nextInt(256);
+            }
+            int[] block = Arrays.copyOf(data, data.length + ecCount);
+            System.arraycopy(ReedSolomon.encode(data, ecCount), 0, block, data.length, ecCount);
+            int[] original = block.clone();
+            assertEquals(0, ReedSolomon.correct(block, ecCount), "Un bloque sin errores no debe cambiar.");
+
+            int errors = random.nextInt(ecCount / 2 + 1);
+            for (int e = 0; e < errors; e++) {
+                int position = random.nextInt(block.length);
+                block[position] ^= 1 + random.nextInt(255);
+                if (block[position] == original[position]) {
+                    block[position] ^= 1;
+                }
+            }
+            assertTrue(ReedSolomon.correct(block, ecCount) >= 0, "Los errores deben ser corregibles.");
+            assertArrayEquals(original, block, "El bloque corregido debe coincidir con el original.");
+        }
+    }
+
+    /**
+     * Verifica la ida y vuelta en todos los niveles de corrección y en las ocho máscaras de datos.
+     */
+    @Test
+    void testRoundTripAllLevelsAndMasks() throws Exception {
+        String[] texts = {"VH1", "VH123456", "SCOOTER-0042-BCN", "VH-" + "X".repeat(30)};
+        for (QRErrorCorrection level : QRErrorCorrection.values()) {
+            for (String text : texts) {
+                for (int mask = 0; mask < 8; mask++) {
+                    BufferedImage image = QREncoder.toImage(QREncoder.encode(text, level, mask), 3);
+                    assertEquals(text, decoder.decodeText(image, new QRImageDecoder.Workspace()),
+                            "Debe leerse el texto con nivel " + level + " y máscara " + mask + ".");
+                }
+            }
+        }
+    }
+
+    /**
+     * Verifica que el encoder elige la versión más pequeña y rechaza textos que no caben en la versión 4.
+     */
+    @Test
+    void testEncoderChoosesSmallestVersion() {
+        assertEquals(21, QREncoder.encode("VH123456", QRErrorCorrection.M, -1).width(),
+                "Un VehicleID corto cabe en la versión 1.");
+        assertEquals(33, QREncoder.encode("X".repeat(60), QRErrorCorrection.M, -1).width(),
+                "60 bytes con nivel M necesitan la versión 4.");
+        assertThrows(IllegalArgumentException.class, () -> QREncoder.render("X".repeat(100), QRErrorCorrection.M, 4),
+                "Un texto que no cabe en la versión 4 debe rechazarse.");
+    }
+
+    /**
+     * Verifica la lectura de los tipos de imagen con acceso directo al array y de una subimagen, que usa la
+     * conversión con getRGB.
+     */
+    @Test
+    void testImageTypes() throws Exception {
+        VehicleID id = new VehicleID("VH777001");
+        BufferedImage rgb = QREncoder.render(id);
+        assertEquals(id, decoder.getVehicleID(rgb), "TYPE_INT_RGB debe decodificarse.");
+        for (int type : new int[]{BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_3BYTE_BGR,
+                BufferedImage.TYPE_BYTE_GRAY, BufferedImage.TYPE_USHORT_GRAY}) {
+            assertEquals(id, decoder.getVehicleID(redraw(rgb, type, 1.0, 0)), "El tipo " + type + " debe decodificarse.");
+        }
+        BufferedImage framed = new BufferedImage(rgb.getWidth() + 40, rgb.getHeight() + 40, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = framed.createGraphics();
+        graphics.drawImage(rgb, 20, 20, null);
+        graphics.dispose();
+        assertEquals(id, decoder.getVehicleID(framed.getSubimage(20, 20, rgb.getWidth(), rgb.getHeight())),
+                "Una subimagen debe decodificarse.");
+    }
+
+    /**
+     * Verifica la lectura de imágenes escaladas a tamaños de módulo no enteros y ligeramente giradas.
+     */
+    @Test
+    void testScaledAndRotatedImages() throws Exception {
+        VehicleID id = new VehicleID("VH204060");
+        BufferedImage base = QREncoder.render(id.getId(), QRErrorCorrection.M, 4);
+        for (double scale : new double[]{0.75, 1.3, 1.7, 2.5}) {
+            assertEquals(id, decoder.getVehicleID(redraw(base, BufferedImage.TYPE_INT_RGB, scale, 0)),
+                    "Debe leerse con escala " + scale + ".");
+        }
+        for (double degrees : new double[]{-6, 4}) {
+            assertEquals(id, decoder.getVehicleID(redraw(base, BufferedImage.TYPE_INT_RGB, 2.0, degrees)),
+                    "Debe leerse con un giro de " + degrees + " grados.");
+        }
+    }
+
+    /**
+     * Verifica que el umbral adaptativo tolera ruido y un degradado de iluminación.
+     */
+    @Test
+    void testNoiseAndUnevenLighting() throws Exception {
+        VehicleID id = new VehicleID("VH998877");
+        BufferedImage image = QREncoder.render(id.getId(), QRErrorCorrection.Q, 6);
+        Random random = new Random(3);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                int base = (image.getRGB(x, y) & 0xFF) == 0 ? 40 : 230;
+                int shade = base - x * 60 / image.getWidth() + random.nextInt(31) - 15;
+                int value = Math.max(0, Math.min(255, shade));
+                image.setRGB(x, y, value << 16 | value << 8 | value);
+            }
+        }
+        assertEquals(id, decoder.getVehicleID(image), "Debe leerse con ruido y sombra.");
+    }
+
+    /**
+     * Verifica que los píxeles sueltos de colores al azar no impiden encontrar los localizadores.
+     */
+    @Test
+    void testImpulseNoise() throws Exception {
+        VehicleID id = new VehicleID("VH112233");
+        Random random = new Random(5);
+        for (int trial = 0; trial < 8; trial++) {
+            BufferedImage image = redraw(QREncoder.render(id), BufferedImage.TYPE_INT_RGB, 2.0, 0);
+            int side = image.getWidth();
+            for (int n = 0; n < side * side / 50; n++) {
+                image.setRGB(random.nextInt(side), random.nextInt(side), random.nextInt(0x1000000));
+            }
+            assertEquals(id, decoder.getVehicleID(image), "Debe leerse con un 2 % de píxeles de ruido.");
+        }
+    }
+
+    /**
+     * Verifica que Reed-Solomon recupera el contenido con módulos de datos dañados.
+     */
+    @Test
+    void testDamagedModulesAreCorrected() throws Exception {
+        BitMatrix modules = QREncoder.encode("VH135790", QRErrorCorrection.H, -1);
+        int[] order = QRVersion.forSize(modules.width()).dataOrder();
+        // Se dañan los bits de tres codewords completos
+        for (int bit = 0; bit < 24; bit++) {
+            modules.flip(order[bit] % modules.width(), order[bit] / modules.width());
+        }
+        assertEquals("VH135790", QRSymbolDecoder.decode(modules), "Los codewords dañados deben corregirse.");
+
+        for (int bit = 24; bit < 8 * 20; bit++) {
+            modules.flip(order[bit] % modules.width(), order[bit] / modules.width());
+        }
+        assertThrows(CorruptedImgException.class, () -> QRSymbolDecoder.decode(modules),
+                "Con demasiados codewords dañados debe fallar.");
+    }
+
+    /**
+     * Verifica los fallos: imagen nula, sin código QR y contenido que no es un VehicleID.
+     */
+    @Test
+    void testFailures() throws Exception {
+        assertThrows(CorruptedImgException.class, () -> decoder.getVehicleID(null), "Una imagen nula debe rechazarse.");
+        assertThrows(CorruptedImgException.class,
+                () -> decoder.getVehicleID(new BufferedImage(200, 200, BufferedImage.TYPE_INT_RGB)),
+                "Una imagen sin QR debe rechazarse.");
+        assertThrows(InvalidPairingArgsException.class,
+                () -> decoder.getVehicleID(QREncoder.render("no es un id", QRErrorCorrection.M, 4)),
+                "Un contenido que no es un VehicleID debe rechazarse.");
+    }
+
+    /**
+     * Verifica que el grupo decodifica un lote en orden y deja null en las imágenes ilegibles.
+     */
+    @Test
+    void testPoolDecodesBatchInOrder() throws Exception {
+        List<BufferedImage> images = new ArrayList<>();
+        List<VehicleID> expected = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            VehicleID id = new VehicleID("VH" + (500000 + i));
+            images.add(QREncoder.render(id));
+            expected.add(id);
+        }
+        images.add(new BufferedImage(120, 120, BufferedImage.TYPE_INT_RGB));
+        expected.add(null);
+        try (QRDecodingPool pool = new QRDecodingPool()) {
+            assertEquals(expected, pool.decodeAll(images), "El lote debe decodificarse en orden.");
+            assertEquals(expected.get(3), pool.submit(images.get(3)).get(), "submit debe completar el futuro.");
+        }
+    }
+}
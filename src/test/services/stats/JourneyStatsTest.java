@@ -0,0 +1,207 @@
+package services.stats;
+
+import data.GeographicPoint;
+import data.Money;
+import data.StationID;
+import data.VehicleID;
+import micromobility.JourneyRealizeHandler;
+import micromobility.JourneyService;
+import micromobility.PMVState;
+import micromobility.PMVehicle;
+import mocks.MockArduinoMicroController;
+import mocks.MockQRDecoder;
+import mocks.MockServer;
+import mocks.MockUnbondedBTSignal;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para JourneyStats, LatencyHistogram y StatsRecordingServer.
+ * Verifica los acumulados por minuto y por estación, la caducidad de las ventanas, los percentiles
+ * y el registro concurrente.
+ */
+class JourneyStatsTest {
+
+    /**
+     * Reloj de prueba que solo avanza cuando se le indica.
+     */
+    private static final class ManualClock extends Clock {
+        private volatile long millis = 1_700_000_000_000L;
+
+        void advanceMinutes(int minutes) {
+            millis += minutes * 60_000L;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+    }
+
+    /**
+     * Verifica los acumulados globales y por estación y la caducidad de los minutos fuera del anillo.
+     */
+    @Test
+    void testTotalsPerStationAndWindow() throws Exception {
+        ManualClock clock = new ManualClock();
+        JourneyStats stats = new JourneyStats(clock, 5);
+        StationID north = new StationID("ST001");
+        StationID south = new StationID("ST002");
+
+        stats.record(north, 2.5f, 10, new BigDecimal("3.40"), 1_000_000);
+        stats.record(south, 1.0f, 4, new BigDecimal("1.10"), 3_000_000);
+        clock.advanceMinutes(1);
+        stats.record(north, 0.5f, 6, 90L, 2_000_000);
+        stats.record(null, 1.0f, 2, 50L, 2_000_000);
+
+        StatsSnapshot last = stats.snapshot(2);
+        assertEquals(4, last.getJourneys());
+        assertEquals(5.0, last.getDistanceKm(), 1e-9);
+        assertEquals(Money.parse("5.90"), last.getRevenue());
+        assertEquals(5.5, last.getAverageDurationMinutes(), 1e-9);
+        assertEquals(2_000_000, last.getAverageLatencyNanos());
+        assertEquals(2, last.getStation(north).getJourneys());
+        assertEquals(Money.parse("4.30"), last.getStation(north).getRevenue());
+        assertEquals(0, last.getStation(new StationID("ST999")).getJourneys());
+        assertEquals(2, last.getStations().size(), "Los trayectos sin estación solo deberían contar en el global.");
+
+        assertEquals(2, stats.snapshot(1).getJourneys(), "El minuto actual solo debería tener dos trayectos.");
+        assertEquals(2, stats.minute(stats.currentMinute() - 1).getJourneys());
+
+        clock.advanceMinutes(4);
+        assertEquals(2, stats.snapshot(5).getJourneys(), "El primer minuto ya debería haber caducado.");
+        clock.advanceMinutes(1);
+        stats.record(north, 1.0f, 1, 10L, 0);
+        assertEquals(1, stats.snapshot(5).getJourneys());
+        assertThrows(IllegalArgumentException.class, () -> stats.snapshot(6));
+    }
+
+    /**
+     * Verifica las cubetas del histograma y la estimación de percentiles.
+     */
+    @Test
+    void testLatencyPercentiles() {
+        ManualClock clock = new ManualClock();
+        JourneyStats stats = new JourneyStats(clock, 5);
+        for (int i = 0; i < 99; i++) {
+            stats.record(null, 1f, 1, 1L, 1_500_000);     // 1,5 ms: cubeta [1024, 2048) µs
+        }
+        stats.record(null, 1f, 1, 1L, 700_000_000);        // 700 ms
+        StatsSnapshot snapshot = stats.snapshot(1);
+        assertEquals(2_048_000, snapshot.getLatencyPercentileNanos(50));
+        assertEquals(2_048_000, snapshot.getLatencyPercentileNanos(99));
+        assertEquals(1_048_576_000, snapshot.getLatencyPercentileNanos(100));
+
+        assertEquals(0, LatencyHistogram.bucketOf(999));
+        assertEquals(1, LatencyHistogram.bucketOf(1_000));
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> snapshot.getLatencyPercentileNanos(101));
+    }
+
+    /**
+     * Verifica que cada estación tenga su propia latencia media y sus propios percentiles.
+     */
+    @Test
+    void testLatencyPerStation() throws Exception {
+        ManualClock clock = new ManualClock();
+        JourneyStats stats = new JourneyStats(clock, 5);
+        StationID fast = new StationID("ST001");
+        StationID slow = new StationID("ST002");
+        stats.record(fast, 1f, 1, 1L, 1_000_000);
+        stats.record(fast, 1f, 1, 1L, 3_000_000);
+        stats.record(slow, 1f, 1, 1L, 500_000_000);
+        stats.record(null, 1f, 1, 1L, 8_000_000);
+
+        StatsSnapshot snapshot = stats.snapshot(1);
+        assertEquals(2_000_000, snapshot.getStation(fast).getAverageLatencyNanos());
+        assertEquals(500_000_000, snapshot.getStation(slow).getAverageLatencyNanos());
+        assertEquals(128_000_000, snapshot.getAverageLatencyNanos(), "El global incluye los trayectos sin estación.");
+        assertEquals(4_096_000, snapshot.getStation(fast).getLatencyPercentileNanos(100));
+        assertEquals(524_288_000, snapshot.getStation(slow).getLatencyPercentileNanos(50));
+        assertEquals(0, snapshot.getStation(new StationID("ST999")).getAverageLatencyNanos());
+    }
+
+    /**
+     * Verifica que los registros concurrentes no se pierdan.
+     */
+    @Test
+    void testConcurrentRecording() throws Exception {
+        JourneyStats stats = new JourneyStats(new ManualClock(), 5);
+        StationID station = new StationID("ST001");
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    stats.record(station, 1f, 2, 25L, 1_000);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        StatsSnapshot snapshot = stats.snapshot(1);
+        assertEquals(40_000, snapshot.getJourneys());
+        assertEquals(40_000.0, snapshot.getDistanceKm(), 1e-6);
+        assertEquals(Money.ofCents(1_000_000), snapshot.getRevenue());
+        assertEquals(40_000, snapshot.getStation(station).getJourneys());
+    }
+
+    /**
+     * Verifica que un trayecto cerrado con unPairVehicle quede registrado a través del servidor.
+     */
+    @Test
+    void testUnPairFeedsStats() throws Exception {
+        MockServer mockServer = new MockServer();
+        StatsRecordingServer server = new StatsRecordingServer(mockServer, new JourneyStats());
+        MockQRDecoder decoder = new MockQRDecoder();
+        JourneyRealizeHandler handler = new JourneyRealizeHandler(server, decoder, new MockArduinoMicroController(),
+                new MockUnbondedBTSignal());
+        GeographicPoint origin = new GeographicPoint(41.3851f, 2.1734f);
+        VehicleID id = new VehicleID("V12345");
+        PMVehicle vehicle = new PMVehicle(id, PMVState.Available, origin);
+        mockServer.addVehicle(id, vehicle);
+        decoder.setSimulatedVehicleID(id);
+
+        handler.scanQR(new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB));
+        JourneyService journey = new JourneyService(origin, LocalDate.now().minusDays(1), LocalTime.now());
+        handler.setCurrentJourney(journey);
+        handler.startDriving();
+        vehicle.setLocation(new GeographicPoint(41.4036f, 2.1744f));
+        handler.unPairVehicle();
+
+        StatsSnapshot snapshot = server.getStats().snapshot(2);
+        assertEquals(1, snapshot.getJourneys(), "El trayecto cerrado debería registrarse.");
+        assertEquals(journey.getImportMoney(), snapshot.getRevenue());
+        assertEquals(journey.getDistance(), snapshot.getDistanceKm(), 1e-3);
+    }
+}